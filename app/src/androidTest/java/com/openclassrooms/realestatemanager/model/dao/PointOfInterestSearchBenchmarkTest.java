@@ -0,0 +1,118 @@
+package com.openclassrooms.realestatemanager.model.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.openclassrooms.realestatemanager.model.converters.PointOfInterestConverter;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Benchmark comparing the point of interest type filter run in SQL against the previous approach
+ * of decoding every JSON POI column and filtering in Java, on 50,000 properties.
+ * Timings are written to logcat under the "PoiSearchBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PointOfInterestSearchBenchmarkTest {
+
+    private static final String TAG = "PoiSearchBenchmark";
+    private static final int PROPERTY_COUNT = 50000;
+    private static final String[] TYPES = {"School", "Park", "Hospital", "Supermarket", "Station", "Museum"};
+
+    private PropertyDatabase database;
+    private PropertyDao propertyDao;
+
+    // JSON columns as they were stored before the point_of_interest table
+    private final List<String> legacyJsonColumns = new ArrayList<>();
+
+    /**
+     * Fills an in-memory database with 50,000 properties, each near two or three POIs.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PropertyDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        propertyDao = database.propertyDao();
+
+        database.runInTransaction(() -> {
+            for (int i = 0; i < PROPERTY_COUNT; i++) {
+                List<PointOfInterest> pointsOfInterest = new ArrayList<>();
+                for (int j = 0; j < 2 + i % 2; j++) {
+                    String type = TYPES[(i + j * 3) % TYPES.length];
+                    pointsOfInterest.add(new PointOfInterest(type + " " + (i % 200), type));
+                }
+                legacyJsonColumns.add(PointOfInterestConverter.fromPoiList(pointsOfInterest));
+
+                Property property = new Property("House", 100000 + i, 100, 4, 1, 2, "Description",
+                        new Address("Street", "City", "ST", "00000", "USA"),
+                        new ArrayList<>(), pointsOfInterest, false, new Date(), null, "Agent");
+                propertyDao.insertWithDetails(property);
+            }
+        });
+    }
+
+    /**
+     * Closes the database after the benchmark.
+     */
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Runs both filters for properties near a school and a park and checks they agree.
+     */
+    @Test
+    public void pointOfInterestTypeFilter_sqlVersusJsonScan() {
+        List<String> requestedTypes = Arrays.asList("School", "Park");
+
+        // SQL filter through the type index and the junction table
+        SearchCriteria criteria = new SearchCriteria(0, 0, 0, 0, 0, 0, null);
+        criteria.pointOfInterestTypes = requestedTypes;
+        long sqlStart = SystemClock.elapsedRealtimeNanos();
+        int sqlCount;
+        try (Cursor cursor = database.query(new PropertySearchQueryBuilder(criteria).buildSummary())) {
+            sqlCount = cursor.getCount();
+        }
+        long sqlMillis = (SystemClock.elapsedRealtimeNanos() - sqlStart) / 1_000_000;
+
+        // Previous approach: decode every JSON column and filter in memory
+        long scanStart = SystemClock.elapsedRealtimeNanos();
+        int scanCount = 0;
+        for (String json : legacyJsonColumns) {
+            List<String> types = new ArrayList<>();
+            for (PointOfInterest pointOfInterest : PointOfInterestConverter.toPoiList(json)) {
+                types.add(pointOfInterest.type);
+            }
+            if (types.containsAll(requestedTypes)) scanCount++;
+        }
+        long scanMillis = (SystemClock.elapsedRealtimeNanos() - scanStart) / 1_000_000;
+
+        Log.i(TAG, "Properties: " + PROPERTY_COUNT + ", matches: " + sqlCount
+                + ", SQL filter: " + sqlMillis + " ms, JSON scan: " + scanMillis + " ms");
+        assertEquals(scanCount, sqlCount);
+    }
+}
@@ -0,0 +1,161 @@
+package com.openclassrooms.realestatemanager.model.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Benchmark of the bulk insert path against the previous one-row-per-transaction loop.
+ * Uses an on-disk database so each commit pays its real journal sync cost.
+ * Throughput (rows/s) for 1k, 10k and 100k properties is written to logcat under the "BulkInsertBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PropertyBulkInsertBenchmarkTest {
+
+    private static final String TAG = "BulkInsertBenchmark";
+    private static final String DATABASE_NAME = "bulk_insert_benchmark.db";
+    private static final int CHUNK_SIZE = 500;
+
+    private Context context;
+    private PropertyDatabase database;
+    private PropertyDao propertyDao;
+
+    /**
+     * Creates an empty on-disk database before each test.
+     */
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DATABASE_NAME);
+        database = Room.databaseBuilder(context, PropertyDatabase.class, DATABASE_NAME)
+                .allowMainThreadQueries()
+                .build();
+        propertyDao = database.propertyDao();
+    }
+
+    /**
+     * Closes and deletes the database after each test.
+     */
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    /**
+     * Measures the previous loop (one transaction per property) on 1k rows as the baseline.
+     */
+    @Test
+    public void rowByRowInsert_1k() {
+        List<Property> properties = createProperties(1000);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (Property property : properties) {
+            propertyDao.insertWithDetails(property);
+        }
+        report("row by row", properties.size(), start);
+    }
+
+    /**
+     * Measures bulk inserts of 1k rows.
+     */
+    @Test
+    public void bulkInsert_1k() {
+        bulkInsert(1000);
+    }
+
+    /**
+     * Measures bulk inserts of 10k rows.
+     */
+    @Test
+    public void bulkInsert_10k() {
+        bulkInsert(10000);
+    }
+
+    /**
+     * Measures bulk inserts of 100k rows.
+     */
+    @Test
+    public void bulkInsert_100k() {
+        bulkInsert(100000);
+    }
+
+    /**
+     * Inserts the given number of properties in chunks, as PropertyRepository.bulkInsert does,
+     * and checks every row and photo was written.
+     */
+    private void bulkInsert(int count) {
+        List<Property> properties = createProperties(count);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            propertyDao.insertAll(properties.subList(from, Math.min(from + CHUNK_SIZE, count)));
+        }
+        report("bulk", count, start);
+
+        assertEquals(count, countRows("property"));
+        assertEquals(count * 3L, countRows("photo"));
+    }
+
+    /**
+     * Logs the throughput of an insert run.
+     */
+    private void report(String mode, int count, long start) {
+        long elapsedMillis = Math.max(1, (SystemClock.elapsedRealtimeNanos() - start) / 1_000_000);
+        Log.i(TAG, mode + ": " + count + " rows in " + elapsedMillis + " ms ("
+                + (count * 1000L / elapsedMillis) + " rows/s)");
+    }
+
+    /**
+     * Counts the rows of a table.
+     */
+    private long countRows(String table) {
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery("SELECT COUNT(*) FROM " + table))) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    /**
+     * Creates properties shaped like an agency feed: three photos and two shared points of interest each.
+     */
+    private List<Property> createProperties(int count) {
+        List<Property> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Photo> photos = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                photos.add(new Photo("https://feed.example.com/listings/" + i + "/" + j + ".jpg", "Photo " + j));
+            }
+            List<PointOfInterest> pointsOfInterest = new ArrayList<>();
+            pointsOfInterest.add(new PointOfInterest("School " + (i % 100), "School"));
+            pointsOfInterest.add(new PointOfInterest("Park " + (i % 50), "Park"));
+            properties.add(new Property("House", 100000 + i, 80 + i % 200, 3 + i % 5, 1, 2,
+                    "Listing " + i, new Address(i + " Main Street", "City " + (i % 300), "ST", "00000", "USA"),
+                    photos, pointsOfInterest, false, new Date(), null, "Agency Feed"));
+        }
+        return properties;
+    }
+}
\ No newline at end of file
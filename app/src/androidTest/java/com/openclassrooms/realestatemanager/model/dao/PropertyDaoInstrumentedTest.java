@@ -0,0 +1,379 @@
+package com.openclassrooms.realestatemanager.model.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Build;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.openclassrooms.realestatemanager.LiveDataTestUtil;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
+import com.openclassrooms.realestatemanager.model.entity.PropertyWithDetails;
+import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Instrumented test for the PropertyDao search query.
+ * Verifies the results of the dynamic search and that SQLite answers it from the indexes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PropertyDaoInstrumentedTest {
+
+    private PropertyDatabase database;
+    private PropertyDao propertyDao;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    /**
+     * Creates an in-memory database with a few properties before each test.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PropertyDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        propertyDao = database.propertyDao();
+
+        propertyDao.insert(createProperty("Studio", 150000, 50, 2, "New York", "NY"));
+        propertyDao.insert(createProperty("House", 450000, 180, 5, "Los Angeles", "CA"));
+        propertyDao.insert(createProperty("Penthouse", 950000, 200, 6, "Manhattan", "NY"));
+    }
+
+    /**
+     * Closes the database after each test.
+     */
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Tests that the range filters only return matching properties.
+     */
+    @Test
+    public void searchProperties_filtersByPriceAndRooms() {
+        SearchCriteria criteria = new SearchCriteria(200000, 1000000, 0, 0, 6, 0, null);
+
+        List<PropertySummary> results = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(criteria).buildSummary());
+
+        assertNotNull(results);
+        assertEquals(1, results.size());
+        assertEquals("Penthouse", results.get(0).type);
+    }
+
+    /**
+     * Tests that the location filter is a case-insensitive prefix match on the city or the state.
+     */
+    @Test
+    public void searchProperties_filtersByLocationPrefix() {
+        SearchCriteria byCity = new SearchCriteria(0, 0, 0, 0, 0, 0, "manh");
+        SearchCriteria byState = new SearchCriteria(0, 0, 0, 0, 0, 0, "ny");
+
+        List<PropertySummary> cityResults = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(byCity).buildSummary());
+        List<PropertySummary> stateResults = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(byState).buildSummary());
+
+        assertEquals(1, cityResults.size());
+        assertEquals("Penthouse", cityResults.get(0).type);
+        assertEquals(2, stateResults.size());
+    }
+
+    /**
+     * Tests that LIKE wildcards typed in the location match themselves instead of any characters.
+     */
+    @Test
+    public void searchProperties_locationWildcardsMatchLiterally() {
+        propertyDao.insert(createProperty("Cabin", 200000, 60, 3, "Lake_Town", "MN"));
+        propertyDao.insert(createProperty("Chalet", 250000, 80, 4, "Lake Town", "MN"));
+        SearchCriteria byUnderscore = new SearchCriteria(0, 0, 0, 0, 0, 0, "lake_");
+        SearchCriteria byPercent = new SearchCriteria(0, 0, 0, 0, 0, 0, "%town");
+
+        List<PropertySummary> underscoreResults = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(byUnderscore).buildSummary());
+        List<PropertySummary> percentResults = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(byPercent).buildSummary());
+
+        assertEquals(1, underscoreResults.size());
+        assertEquals("Cabin", underscoreResults.get(0).type);
+        assertTrue(percentResults.isEmpty());
+    }
+
+    /**
+     * Tests that the minimum number of photos is evaluated against the photo table.
+     */
+    @Test
+    public void searchProperties_filtersByMinPhotos() {
+        Property withPhotos = createProperty("Loft", 300000, 90, 3, "Boston", "MA");
+        withPhotos.photos = new ArrayList<>(Arrays.asList(
+                new Photo("uri://1", "Living Room"),
+                new Photo("uri://2", "Kitchen")));
+        propertyDao.insertWithDetails(withPhotos);
+
+        SearchCriteria criteria = new SearchCriteria(0, 0, 0, 0, 0, 2, null);
+        List<PropertySummary> results = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(criteria).buildSummary());
+
+        assertEquals(1, results.size());
+        assertEquals("Loft", results.get(0).type);
+        assertEquals("uri://1", results.get(0).coverPhotoUri);
+    }
+
+    /**
+     * Tests that a property is read back with its photos in gallery order.
+     */
+    @Test
+    public void getPropertyById_returnsPhotosInOrder() throws InterruptedException {
+        Property property = createProperty("Loft", 300000, 90, 3, "Boston", "MA");
+        property.photos = new ArrayList<>(Arrays.asList(
+                new Photo("uri://1", "Living Room"),
+                new Photo("uri://2", "Kitchen"),
+                new Photo("uri://3", "Bedroom")));
+        int id = (int) propertyDao.insertWithDetails(property);
+
+        PropertyWithDetails result = LiveDataTestUtil.getValue(propertyDao.getPropertyById(id));
+        Property loaded = result.toProperty();
+
+        assertEquals(3, loaded.photos.size());
+        assertEquals("uri://1", loaded.photos.get(0).uri);
+        assertEquals("uri://3", loaded.photos.get(2).uri);
+    }
+
+    /**
+     * Tests that the POI filter only returns properties near every requested type, ignoring case.
+     */
+    @Test
+    public void searchProperties_filtersByPointOfInterestTypes() {
+        Property nearBoth = createProperty("Loft", 300000, 90, 3, "Boston", "MA");
+        nearBoth.pointsOfInterest = new ArrayList<>(Arrays.asList(
+                new PointOfInterest("Central School", "School"),
+                new PointOfInterest("City Park", "Park")));
+        propertyDao.insertWithDetails(nearBoth);
+        Property nearSchool = createProperty("Duplex", 350000, 110, 4, "Boston", "MA");
+        nearSchool.pointsOfInterest = new ArrayList<>(Arrays.asList(
+                new PointOfInterest("Central School", "School")));
+        propertyDao.insertWithDetails(nearSchool);
+
+        SearchCriteria criteria = new SearchCriteria(0, 0, 0, 0, 0, 0, null);
+        criteria.pointOfInterestTypes = Arrays.asList("school", "PARK");
+        List<PropertySummary> results = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(criteria).buildSummary());
+
+        assertEquals(1, results.size());
+        assertEquals("Loft", results.get(0).type);
+    }
+
+    /**
+     * Tests that a point of interest shared by several properties is stored only once.
+     */
+    @Test
+    public void insertWithDetails_reusesExistingPointsOfInterest() throws InterruptedException {
+        Property first = createProperty("Loft", 300000, 90, 3, "Boston", "MA");
+        first.pointsOfInterest = new ArrayList<>(Arrays.asList(new PointOfInterest("City Park", "Park")));
+        Property second = createProperty("Duplex", 350000, 110, 4, "Boston", "MA");
+        second.pointsOfInterest = new ArrayList<>(Arrays.asList(new PointOfInterest("City Park", "Park")));
+        propertyDao.insertWithDetails(first);
+        int secondId = (int) propertyDao.insertWithDetails(second);
+
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery("SELECT COUNT(*) FROM point_of_interest"))) {
+            cursor.moveToFirst();
+            assertEquals(1, cursor.getInt(0));
+        }
+        Property loaded = LiveDataTestUtil.getValue(propertyDao.getPropertyById(secondId)).toProperty();
+        assertEquals(1, loaded.pointsOfInterest.size());
+        assertEquals("City Park", loaded.pointsOfInterest.get(0).name);
+    }
+
+    /**
+     * Tests that the full-text search matches word prefixes and phrases and ranks the best match first.
+     */
+    @Test
+    public void searchByText_matchesPrefixesAndPhrasesByRelevance() throws InterruptedException {
+        Property pool = createProperty("Villa", 800000, 250, 8, "Miami", "FL");
+        pool.description = "Bright villa with a pool and a pool house, sea view";
+        propertyDao.insert(pool);
+        Property view = createProperty("Condo", 400000, 80, 3, "Miami", "FL");
+        view.description = "Condo with a view of the sea and a shared pool";
+        propertyDao.insert(view);
+
+        List<Property> byPrefix = LiveDataTestUtil.getValue(
+                propertyDao.searchByText(PropertySearchQueryBuilder.toMatchExpression("POO")));
+        List<Property> byPhrase = LiveDataTestUtil.getValue(
+                propertyDao.searchByText(PropertySearchQueryBuilder.toMatchExpression("\"sea view\"")));
+
+        assertEquals(2, byPrefix.size());
+        assertEquals("Villa", byPrefix.get(0).type);
+        assertEquals(1, byPhrase.size());
+        assertEquals("Villa", byPhrase.get(0).type);
+    }
+
+    /**
+     * Tests that the full-text index follows updates made to the property table.
+     */
+    @Test
+    public void searchByText_staysInSyncWithUpdates() throws InterruptedException {
+        Property property = createProperty("Loft", 300000, 90, 3, "Boston", "MA");
+        property.description = "Industrial loft";
+        property.id = (int) propertyDao.insert(property);
+
+        property.description = "Renovated brick loft";
+        propertyDao.update(property);
+
+        assertTrue(LiveDataTestUtil.getValue(propertyDao.searchByText("industrial*")).isEmpty());
+        assertEquals(1, LiveDataTestUtil.getValue(propertyDao.searchByText("brick*")).size());
+    }
+
+    /**
+     * Tests that the free text of the criteria is combined with the other filters.
+     */
+    @Test
+    public void searchProperties_combinesKeywordsWithFilters() {
+        SearchCriteria criteria = new SearchCriteria(0, 500000, 0, 0, 0, 0, null);
+        criteria.keywords = "new";
+
+        List<PropertySummary> results = propertyDao.searchPropertySummaries(
+                new PropertySearchQueryBuilder(criteria).buildSummary());
+
+        assertEquals(1, results.size());
+        assertEquals("Studio", results.get(0).type);
+    }
+
+    /**
+     * Tests that the list query only reads the columns of a PropertySummary, even with free text.
+     */
+    @Test
+    public void summarySearch_readsOnlyListColumns() {
+        SearchCriteria criteria = new SearchCriteria(0, 0, 0, 0, 0, 0, null);
+        criteria.keywords = "york";
+
+        try (Cursor cursor = database.query(new PropertySearchQueryBuilder(criteria).buildSummary())) {
+            assertEquals(1, cursor.getCount());
+            assertEquals(Arrays.asList("id", "type", "price", "city", "country", "coverPhotoUri", "coverThumbnailUri",
+                    "coverBlurHash", "latitude", "longitude"),
+                    Arrays.asList(cursor.getColumnNames()));
+        }
+    }
+
+    /**
+     * Tests that upsertAll updates existing properties, replacing their photos, and inserts new ones.
+     */
+    @Test
+    public void upsertAll_updatesExistingAndInsertsNew() throws InterruptedException {
+        Property existing = createProperty("Loft", 300000, 90, 3, "Boston", "MA");
+        existing.photos = new ArrayList<>(Arrays.asList(new Photo("uri://old", "Old")));
+        int existingId = (int) propertyDao.insertWithDetails(existing);
+
+        existing.price = 320000;
+        existing.photos = new ArrayList<>(Arrays.asList(new Photo("uri://new", "New")));
+        Property created = createProperty("Duplex", 350000, 110, 4, "Boston", "MA");
+        List<Long> ids = propertyDao.upsertAll(Arrays.asList(existing, created));
+
+        assertEquals(existingId, (long) ids.get(0));
+        Property updated = LiveDataTestUtil.getValue(propertyDao.getPropertyById(existingId)).toProperty();
+        assertEquals(320000, updated.price, 0.01);
+        assertEquals(1, updated.photos.size());
+        assertEquals("uri://new", updated.coverPhotoUri);
+        assertNotNull(LiveDataTestUtil.getValue(propertyDao.getPropertyById(ids.get(1).intValue())));
+    }
+
+    /**
+     * Tests that geocoded coordinates are stored only while the property keeps the geocoded address.
+     */
+    @Test
+    public void updateCoordinates_ignoresStaleAddress() {
+        Property property = createProperty("House", 450000, 150, 5, "Boston", "MA");
+        int id = (int) propertyDao.insertWithDetails(property);
+        assertNull(propertyDao.findPropertyById(id).latitude);
+
+        // A lookup for an address the property no longer has is ignored
+        assertEquals(0, propertyDao.updateCoordinates(id, "Street", "Chicago", "IL", 41.88, -87.63));
+        assertNull(propertyDao.findPropertyById(id).latitude);
+
+        // A lookup for the current address is stored
+        assertEquals(1, propertyDao.updateCoordinates(id, "Street", "Boston", "MA", 42.36, -71.06));
+        Property stored = propertyDao.findPropertyById(id);
+        assertEquals(42.36, stored.latitude, 0.0001);
+        assertEquals(-71.06, stored.longitude, 0.0001);
+    }
+
+    /**
+     * Tests that a price range search is answered from the price index.
+     */
+    @Test
+    public void searchProperties_priceRangeUsesIndex() {
+        String plan = explainQueryPlan(new SearchCriteria(200000, 1000000, 0, 0, 0, 0, null));
+
+        assertTrue(plan, plan.contains("index_property_price"));
+    }
+
+    /**
+     * Tests that a location search does not fall back to a full table scan.
+     */
+    @Test
+    public void searchProperties_locationUsesIndex() {
+        // The location is matched with LIKE ... ESCAPE, which older SQLite versions can't serve from an index
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.P);
+
+        String plan = explainQueryPlan(new SearchCriteria(0, 0, 0, 0, 0, 0, "Manhattan"));
+
+        assertTrue(plan, plan.contains("USING INDEX"));
+        assertFalse(plan, plan.contains("SCAN property") || plan.contains("SCAN TABLE property"));
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN on the search query built for the given criteria.
+     *
+     * @param criteria The search criteria.
+     * @return The plan details, one step per line.
+     */
+    private String explainQueryPlan(SearchCriteria criteria) {
+        PropertySearchQueryBuilder builder = new PropertySearchQueryBuilder(criteria);
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(
+                "EXPLAIN QUERY PLAN " + builder.getSummarySql(), builder.getArgs()))) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detailIndex)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Creates a property with the fields used by the search.
+     */
+    private Property createProperty(String type, double price, double surface, int rooms, String city, String state) {
+        return new Property(type, price, surface, rooms, 1, 1, "Description",
+                new Address("Street", city, state, "00000", "USA"),
+                new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Agent");
+    }
+}
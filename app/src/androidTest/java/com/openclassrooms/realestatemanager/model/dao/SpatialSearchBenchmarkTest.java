@@ -0,0 +1,160 @@
+package com.openclassrooms.realestatemanager.model.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
+import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the distance and viewport searches on 100,000 geocoded properties spread over
+ * the New York area. Results are checked against a scan of every property, and timings are
+ * written to logcat under the "SpatialSearchBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SpatialSearchBenchmarkTest {
+
+    private static final String TAG = "SpatialSearchBenchmark";
+    private static final int PROPERTY_COUNT = 100000;
+    private static final int BATCH_SIZE = 1000;
+
+    // Center of the searches: Times Square
+    private static final double CENTER_LAT = 40.758;
+    private static final double CENTER_LON = -73.9855;
+
+    private PropertyDatabase database;
+    private PropertyDao propertyDao;
+    private final List<Property> properties = new ArrayList<>();
+
+    /**
+     * Fills an in-memory database with 100,000 properties in a 1 x 1 degree square around the center.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PropertyDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        propertyDao = database.propertyDao();
+
+        Random random = new Random(7);
+        for (int i = 0; i < PROPERTY_COUNT; i++) {
+            Property property = new Property("House", 100000 + i, 100, 4, 1, 2, "Description",
+                    new Address("Street", "City", "NY", "00000", "USA"),
+                    new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Agent");
+            property.latitude = CENTER_LAT - 0.5 + random.nextDouble();
+            property.longitude = CENTER_LON - 0.5 + random.nextDouble();
+            properties.add(property);
+        }
+        for (int start = 0; start < PROPERTY_COUNT; start += BATCH_SIZE) {
+            propertyDao.insertAll(properties.subList(start, start + BATCH_SIZE));
+        }
+    }
+
+    /**
+     * Closes the database after the benchmark.
+     */
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Runs a 2 km radius search, checks it against a full scan and that it is ordered by distance.
+     */
+    @Test
+    public void radiusSearch_matchesFullScan_andIsOrderedByDistance() {
+        double radiusKm = 2;
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        List<PropertySummary> results = propertyDao.findPropertiesWithinRadius(CENTER_LAT, CENTER_LON, radiusKm, 0);
+        long indexedMicros = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+
+        // Full scan with the same equirectangular distance
+        start = SystemClock.elapsedRealtimeNanos();
+        int expected = 0;
+        for (Property property : properties) {
+            if (distanceKm(property.latitude, property.longitude) <= radiusKm) expected++;
+        }
+        long scanMicros = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+
+        Log.i(TAG, "Radius " + radiusKm + " km: " + results.size() + " of " + PROPERTY_COUNT
+                + " properties, geohash index: " + indexedMicros + " us, full scan in memory: " + scanMicros + " us");
+        assertEquals(expected, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(distanceKm(results.get(i - 1).latitude, results.get(i - 1).longitude)
+                    <= distanceKm(results.get(i).latitude, results.get(i).longitude) + 1e-9);
+        }
+    }
+
+    /**
+     * Runs a viewport search, checks it against a full scan and that it reads the geohash index.
+     */
+    @Test
+    public void viewportSearch_matchesFullScan_andUsesGeohashIndex() {
+        double minLat = 40.74, maxLat = 40.78, minLon = -74.01, maxLon = -73.95;
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        List<PropertySummary> results = propertyDao.findPropertiesInBounds(minLat, minLon, maxLat, maxLon, 0);
+        long indexedMicros = (SystemClock.elapsedRealtimeNanos() - start) / 1000;
+
+        int expected = 0;
+        for (Property property : properties) {
+            if (property.latitude >= minLat && property.latitude <= maxLat
+                    && property.longitude >= minLon && property.longitude <= maxLon) expected++;
+        }
+        Log.i(TAG, "Viewport: " + results.size() + " properties in " + indexedMicros + " us");
+        assertEquals(expected, results.size());
+
+        // The query plan must search the geohash index instead of scanning the table
+        SearchCriteria criteria = new SearchCriteria(0, 0, 0, 0, 0, 0, null);
+        criteria.minLatitude = minLat;
+        criteria.minLongitude = minLon;
+        criteria.maxLatitude = maxLat;
+        criteria.maxLongitude = maxLon;
+        PropertySearchQueryBuilder builder = new PropertySearchQueryBuilder(criteria);
+        SupportSQLiteQuery plan = new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + builder.getSummarySql(), builder.getArgs());
+        StringBuilder details = new StringBuilder();
+        try (Cursor cursor = database.query(plan)) {
+            while (cursor.moveToNext()) {
+                details.append(cursor.getString(cursor.getColumnIndexOrThrow("detail"))).append('\n');
+            }
+        }
+        Log.i(TAG, "Viewport query plan:\n" + details);
+        assertTrue(details.toString(), details.toString().contains("index_property_geohash"));
+    }
+
+    /**
+     * Equirectangular distance from the search center, as computed by the query.
+     */
+    private double distanceKm(double latitude, double longitude) {
+        double scale = Math.cos(Math.toRadians(CENTER_LAT));
+        double deltaLat = latitude - CENTER_LAT;
+        double deltaLon = (longitude - CENTER_LON) * scale;
+        return Math.sqrt(deltaLat * deltaLat + deltaLon * deltaLon) * PropertySearchQueryBuilder.KM_PER_DEGREE;
+    }
+}
\ No newline at end of file
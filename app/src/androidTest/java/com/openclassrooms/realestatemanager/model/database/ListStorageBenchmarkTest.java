@@ -0,0 +1,317 @@
+package com.openclassrooms.realestatemanager.model.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.openclassrooms.realestatemanager.model.converters.PhotoConverter;
+import com.openclassrooms.realestatemanager.model.converters.PointOfInterestConverter;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares three ways of storing the photo and point of interest lists of 20,000 listings:
+ * the legacy JSON columns, a versioned length-prefixed binary BLOB with a dictionary of URI prefixes,
+ * and the photo / point_of_interest tables the app uses since database version 4.
+ * For each layout the test writes the fixture to its own database file, then reports the file size
+ * and the time to read every list back. Results are written to logcat under the "ListStorageBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ListStorageBenchmarkTest {
+
+    private static final String TAG = "ListStorageBenchmark";
+    private static final int LISTING_COUNT = 20000;
+    private static final int PHOTOS_PER_LISTING = 5;
+    private static final String[] POI_TYPES = {"School", "Park", "Hospital", "Supermarket", "Station"};
+
+    // Binary format version, written first so a later format can still read older blobs
+    private static final int BINARY_VERSION = 1;
+
+    // URI prefixes replaced by a one-byte index in the binary format (index 0 means "no prefix")
+    private static final String[] URI_PREFIXES = {
+            "",
+            "android.resource://com.openclassrooms.realestatemanager/drawable/",
+            "content://com.android.providers.media.documents/document/image%3A",
+            "file:///data/user/0/com.openclassrooms.realestatemanager/files/photos/"
+    };
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final List<File> files = new ArrayList<>();
+
+    /**
+     * Deletes the fixture databases.
+     */
+    @After
+    public void tearDown() {
+        for (File file : files) {
+            SQLiteDatabase.deleteDatabase(file);
+        }
+    }
+
+    /**
+     * Writes the fixture in the three layouts and reports the size and full read time of each.
+     */
+    @Test
+    public void listStorage_jsonVersusBinaryVersusTables() throws IOException {
+        Report json = measureJson();
+        Report binary = measureBinary();
+        Report tables = measureTables();
+
+        Log.i(TAG, LISTING_COUNT + " listings: JSON " + json + " | binary " + binary + " | tables " + tables);
+        assertEquals(json.photoCount, binary.photoCount);
+        assertEquals(json.photoCount, tables.photoCount);
+    }
+
+    /**
+     * Legacy layout: one JSON column per list.
+     */
+    private Report measureJson() {
+        SQLiteDatabase db = openFixture("list_storage_json.db");
+        db.execSQL("CREATE TABLE property (id INTEGER PRIMARY KEY, photos TEXT, pointsOfInterest TEXT)");
+        db.beginTransaction();
+        for (int id = 1; id <= LISTING_COUNT; id++) {
+            ContentValues values = new ContentValues();
+            values.put("id", id);
+            values.put("photos", PhotoConverter.fromPhotoList(createPhotos(id)));
+            values.put("pointsOfInterest", PointOfInterestConverter.fromPoiList(createPointsOfInterest(id)));
+            db.insert("property", null, values);
+        }
+        db.setTransactionSuccessful();
+        db.endTransaction();
+
+        Report report = new Report();
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (Cursor cursor = db.rawQuery("SELECT photos, pointsOfInterest FROM property", null)) {
+            while (cursor.moveToNext()) {
+                report.photoCount += PhotoConverter.toPhotoList(cursor.getString(0)).size();
+                PointOfInterestConverter.toPoiList(cursor.getString(1));
+            }
+        }
+        return close(db, report, start);
+    }
+
+    /**
+     * Candidate layout: one binary BLOB column per list.
+     */
+    private Report measureBinary() throws IOException {
+        SQLiteDatabase db = openFixture("list_storage_binary.db");
+        db.execSQL("CREATE TABLE property (id INTEGER PRIMARY KEY, photos BLOB, pointsOfInterest BLOB)");
+        db.beginTransaction();
+        for (int id = 1; id <= LISTING_COUNT; id++) {
+            ContentValues values = new ContentValues();
+            values.put("id", id);
+            values.put("photos", encodePhotos(createPhotos(id)));
+            values.put("pointsOfInterest", encodePointsOfInterest(createPointsOfInterest(id)));
+            db.insert("property", null, values);
+        }
+        db.setTransactionSuccessful();
+        db.endTransaction();
+
+        Report report = new Report();
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (Cursor cursor = db.rawQuery("SELECT photos, pointsOfInterest FROM property", null)) {
+            while (cursor.moveToNext()) {
+                report.photoCount += decodePhotos(cursor.getBlob(0)).size();
+                decodePointsOfInterest(cursor.getBlob(1));
+            }
+        }
+        return close(db, report, start);
+    }
+
+    /**
+     * Current layout: photo rows, shared point of interest rows and a junction table, with the app's indexes.
+     */
+    private Report measureTables() {
+        SQLiteDatabase db = openFixture("list_storage_tables.db");
+        db.execSQL("CREATE TABLE property (id INTEGER PRIMARY KEY)");
+        db.execSQL("CREATE TABLE photo (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, propertyId INTEGER NOT NULL, "
+                + "position INTEGER NOT NULL, uri TEXT, description TEXT)");
+        db.execSQL("CREATE INDEX index_photo_propertyId_position ON photo (propertyId, position)");
+        db.execSQL("CREATE TABLE point_of_interest (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, name TEXT, "
+                + "type TEXT COLLATE NOCASE)");
+        db.execSQL("CREATE INDEX index_point_of_interest_type ON point_of_interest (type)");
+        db.execSQL("CREATE UNIQUE INDEX index_point_of_interest_name_type ON point_of_interest (name, type)");
+        db.execSQL("CREATE TABLE property_point_of_interest (propertyId INTEGER NOT NULL, poiId INTEGER NOT NULL, "
+                + "PRIMARY KEY(propertyId, poiId))");
+        db.execSQL("CREATE INDEX index_property_point_of_interest_poiId ON property_point_of_interest (poiId)");
+        db.beginTransaction();
+        for (int id = 1; id <= LISTING_COUNT; id++) {
+            db.execSQL("INSERT INTO property (id) VALUES (?)", new Object[]{id});
+            List<Photo> photos = createPhotos(id);
+            for (int position = 0; position < photos.size(); position++) {
+                db.execSQL("INSERT INTO photo (propertyId, position, uri, description) VALUES (?, ?, ?, ?)",
+                        new Object[]{id, position, photos.get(position).uri, photos.get(position).description});
+            }
+            for (PointOfInterest pointOfInterest : createPointsOfInterest(id)) {
+                db.execSQL("INSERT OR IGNORE INTO point_of_interest (name, type) VALUES (?, ?)",
+                        new Object[]{pointOfInterest.name, pointOfInterest.type});
+                db.execSQL("INSERT OR IGNORE INTO property_point_of_interest (propertyId, poiId) "
+                                + "SELECT ?, id FROM point_of_interest WHERE name = ? AND type = ?",
+                        new Object[]{id, pointOfInterest.name, pointOfInterest.type});
+            }
+        }
+        db.setTransactionSuccessful();
+        db.endTransaction();
+
+        Report report = new Report();
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (Cursor cursor = db.rawQuery("SELECT propertyId, uri, description FROM photo ORDER BY propertyId, position", null)) {
+            while (cursor.moveToNext()) {
+                new Photo(cursor.getString(1), cursor.getString(2));
+                report.photoCount++;
+            }
+        }
+        try (Cursor cursor = db.rawQuery("SELECT link.propertyId, poi.name, poi.type FROM property_point_of_interest link "
+                + "INNER JOIN point_of_interest poi ON poi.id = link.poiId", null)) {
+            while (cursor.moveToNext()) {
+                new PointOfInterest(cursor.getString(1), cursor.getString(2));
+            }
+        }
+        return close(db, report, start);
+    }
+
+    /**
+     * Encodes photos as: version, count, then for each photo a URI prefix index, the URI suffix and the description.
+     */
+    private static byte[] encodePhotos(List<Photo> photos) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(BINARY_VERSION);
+        out.writeShort(photos.size());
+        for (Photo photo : photos) {
+            int prefix = 0;
+            for (int i = 1; i < URI_PREFIXES.length; i++) {
+                if (photo.uri.startsWith(URI_PREFIXES[i])) prefix = i;
+            }
+            out.writeByte(prefix);
+            out.writeUTF(photo.uri.substring(URI_PREFIXES[prefix].length()));
+            out.writeUTF(photo.description != null ? photo.description : "");
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes photos written by {@link #encodePhotos(List)}.
+     */
+    private static List<Photo> decodePhotos(byte[] blob) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(blob));
+        if (in.readByte() != BINARY_VERSION) throw new IOException("Unknown photo list version");
+        int count = in.readShort();
+        List<Photo> photos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String uri = URI_PREFIXES[in.readByte()] + in.readUTF();
+            photos.add(new Photo(uri, in.readUTF()));
+        }
+        return photos;
+    }
+
+    /**
+     * Encodes points of interest as: version, count, then the name and the type of each.
+     */
+    private static byte[] encodePointsOfInterest(List<PointOfInterest> pointsOfInterest) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(BINARY_VERSION);
+        out.writeShort(pointsOfInterest.size());
+        for (PointOfInterest pointOfInterest : pointsOfInterest) {
+            out.writeUTF(pointOfInterest.name);
+            out.writeUTF(pointOfInterest.type);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes points of interest written by {@link #encodePointsOfInterest(List)}.
+     */
+    private static List<PointOfInterest> decodePointsOfInterest(byte[] blob) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(blob));
+        if (in.readByte() != BINARY_VERSION) throw new IOException("Unknown point of interest list version");
+        int count = in.readShort();
+        List<PointOfInterest> pointsOfInterest = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pointsOfInterest.add(new PointOfInterest(in.readUTF(), in.readUTF()));
+        }
+        return pointsOfInterest;
+    }
+
+    /**
+     * Creates an empty database file for one layout.
+     */
+    private SQLiteDatabase openFixture(String name) {
+        File file = context.getDatabasePath(name);
+        SQLiteDatabase.deleteDatabase(file);
+        file.getParentFile().mkdirs();
+        files.add(file);
+        return SQLiteDatabase.openOrCreateDatabase(file, null);
+    }
+
+    /**
+     * Stops the read timer, closes the database and records its file size.
+     */
+    private static Report close(SQLiteDatabase db, Report report, long start) {
+        report.readMillis = (SystemClock.elapsedRealtimeNanos() - start) / 1_000_000;
+        File file = new File(db.getPath());
+        db.close();
+        report.sizeKb = file.length() / 1024;
+        return report;
+    }
+
+    /**
+     * Creates the photos of a listing, mixing bundled, picked and copied images.
+     */
+    private static List<Photo> createPhotos(int listingId) {
+        List<Photo> photos = new ArrayList<>();
+        for (int i = 0; i < PHOTOS_PER_LISTING; i++) {
+            String prefix = URI_PREFIXES[1 + (listingId + i) % (URI_PREFIXES.length - 1)];
+            photos.add(new Photo(prefix + "photo_" + listingId + "_" + i + ".jpg", "Room " + (i + 1)));
+        }
+        return photos;
+    }
+
+    /**
+     * Creates three points of interest for a listing, taken from a pool shared by nearby listings.
+     */
+    private static List<PointOfInterest> createPointsOfInterest(int listingId) {
+        List<PointOfInterest> pointsOfInterest = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String type = POI_TYPES[(listingId + i) % POI_TYPES.length];
+            pointsOfInterest.add(new PointOfInterest(type + " " + (listingId % 500), type));
+        }
+        return pointsOfInterest;
+    }
+
+    /**
+     * Measurements of one storage layout.
+     */
+    private static class Report {
+        long sizeKb;
+        long readMillis;
+        int photoCount;
+
+        @Override
+        public String toString() {
+            return sizeKb + " KB, read in " + readMillis + " ms";
+        }
+    }
+}
\ No newline at end of file
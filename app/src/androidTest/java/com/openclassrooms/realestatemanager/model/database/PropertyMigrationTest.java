@@ -0,0 +1,153 @@
+package com.openclassrooms.realestatemanager.model.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.openclassrooms.realestatemanager.model.converters.PhotoConverter;
+import com.openclassrooms.realestatemanager.model.converters.PointOfInterestConverter;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Instrumented test of PropertyMigrations: a database created with the version 1 schema and filled
+ * with properties holding JSON photo and point of interest lists is migrated to the latest version,
+ * whose schema Room validates against the exported app/schemas files.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PropertyMigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+    private static final int LATEST_VERSION = 10;
+    private static final long MARKET_DATE = 1700000000000L;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(InstrumentationRegistry.getInstrumentation(),
+            PropertyDatabase.class);
+
+    /**
+     * Tests that properties, photos, points of interest and the full-text index survive every migration.
+     */
+    @Test
+    public void migrateAll_keepsPropertiesPhotosPointsOfInterestAndFullText() throws IOException {
+        // GIVEN - A version 1 database with two properties sharing a point of interest, one without lists,
+        // and one whose lists hold null elements, as older versions of the app could write
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1)) {
+            insertVersion1Property(db, 1, "Sunny loft with a terrace", "12 Main Street", "Manhattan",
+                    PhotoConverter.fromPhotoList(Arrays.asList(
+                            new Photo("content://photos/front.jpg", "Front"),
+                            new Photo("content://photos/kitchen.jpg", "Kitchen"))),
+                    PointOfInterestConverter.fromPoiList(Arrays.asList(
+                            new PointOfInterest("Lincoln High", "School"),
+                            new PointOfInterest("Central Park", "Park"))));
+            insertVersion1Property(db, 2, "Quiet house", "5 Oak Avenue", "Brooklyn", null,
+                    PointOfInterestConverter.fromPoiList(Arrays.asList(new PointOfInterest("Central Park", "Park"))));
+            insertVersion1Property(db, 3, "Studio", "8 Elm Road", "Queens", "[]", "[]");
+            insertVersion1Property(db, 4, "Cottage", "3 Pine Lane", "Bronx",
+                    "[null,{\"uri\":\"content://photos/garden.jpg\",\"description\":\"Garden\"}]", "[null]");
+        }
+
+        // WHEN - Running every migration up to the latest version
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, PropertyMigrations.ALL);
+
+        // THEN - The property rows are unchanged, with the first photo as cover and no coordinates yet
+        assertEquals(4, queryLong(db, "SELECT COUNT(*) FROM property"));
+        try (Cursor cursor = db.query("SELECT price, city, marketDate, coverPhotoUri, coverThumbnailUri, "
+                + "coverBlurHash, latitude FROM property WHERE id = 1")) {
+            cursor.moveToFirst();
+            assertEquals(250000, cursor.getDouble(0), 0.001);
+            assertEquals("Manhattan", cursor.getString(1));
+            assertEquals(MARKET_DATE, cursor.getLong(2));
+            assertEquals("content://photos/front.jpg", cursor.getString(3));
+            assertNull(cursor.getString(4));
+            assertNull(cursor.getString(5));
+            assertNull(cursor.getString(6));
+        }
+
+        // THEN - The photos are rows in gallery order, still waiting for their thumbnails
+        try (Cursor cursor = db.query("SELECT uri, description, listThumbnailUri, blurHash FROM photo "
+                + "WHERE propertyId = 1 ORDER BY position")) {
+            assertEquals(2, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals("content://photos/front.jpg", cursor.getString(0));
+            assertEquals("Front", cursor.getString(1));
+            assertNull(cursor.getString(2));
+            assertNull(cursor.getString(3));
+            cursor.moveToNext();
+            assertEquals("Kitchen", cursor.getString(1));
+        }
+        assertEquals(0, queryLong(db, "SELECT COUNT(*) FROM photo WHERE propertyId IN (2, 3)"));
+
+        // THEN - Null elements of the JSON lists were dropped, and the next photo became the cover
+        assertEquals(1, queryLong(db, "SELECT COUNT(*) FROM photo WHERE propertyId = 4 AND position = 0"));
+        assertEquals(1, queryLong(db, "SELECT COUNT(*) FROM photo WHERE propertyId = 4"));
+        assertEquals(1, queryLong(db, "SELECT COUNT(*) FROM property WHERE id = 4 "
+                + "AND coverPhotoUri = 'content://photos/garden.jpg'"));
+        assertEquals(0, queryLong(db, "SELECT COUNT(*) FROM property_point_of_interest WHERE propertyId = 4"));
+
+        // THEN - The shared point of interest is stored once and linked to both properties
+        assertEquals(2, queryLong(db, "SELECT COUNT(*) FROM point_of_interest"));
+        assertEquals(2, queryLong(db, "SELECT COUNT(*) FROM property_point_of_interest WHERE propertyId = 1"));
+        assertEquals(2, queryLong(db, "SELECT COUNT(*) FROM property_point_of_interest ppoi "
+                + "JOIN point_of_interest poi ON poi.id = ppoi.poiId WHERE poi.name = 'Central Park'"));
+
+        // THEN - The existing text is indexed, and the sync triggers index later edits
+        assertEquals(1, queryLong(db, "SELECT docid FROM property_fts WHERE property_fts MATCH 'terrace'"));
+        assertEquals(2, queryLong(db, "SELECT docid FROM property_fts WHERE property_fts MATCH 'oak'"));
+        db.execSQL("UPDATE property SET description = 'House with a garden' WHERE id = 3");
+        assertEquals(3, queryLong(db, "SELECT docid FROM property_fts WHERE property_fts MATCH 'garden'"));
+        assertEquals(0, queryLong(db, "SELECT COUNT(*) FROM property_fts WHERE property_fts MATCH 'studio'"));
+        db.close();
+    }
+
+    /**
+     * Inserts a property row of the version 1 schema, with its JSON lists.
+     */
+    private static void insertVersion1Property(SupportSQLiteDatabase db, int id, String description, String street,
+                                               String city, String photosJson, String pointsOfInterestJson) {
+        ContentValues values = new ContentValues();
+        values.put("id", id);
+        values.put("type", "House");
+        values.put("price", 250000.0);
+        values.put("surface", 120.0);
+        values.put("numberOfRooms", 5);
+        values.put("numberOfBathrooms", 2);
+        values.put("numberOfBedrooms", 3);
+        values.put("description", description);
+        values.put("photos", photosJson);
+        values.put("pointsOfInterest", pointsOfInterestJson);
+        values.put("isSold", 0);
+        values.put("marketDate", MARKET_DATE);
+        values.put("agentName", "Agent");
+        values.put("street", street);
+        values.put("city", city);
+        values.put("state", "NY");
+        values.put("zipCode", "10001");
+        values.put("country", "USA");
+        db.insert("property", SQLiteDatabase.CONFLICT_NONE, values);
+    }
+
+    /**
+     * Returns the first column of the first row of a query: a count, or a single ID.
+     */
+    private static long queryLong(SupportSQLiteDatabase db, String query) {
+        try (Cursor cursor = db.query(query)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+}
\ No newline at end of file
@@ -15,9 +15,11 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.openclassrooms.realestatemanager.LiveDataTestUtil;
 import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.dao.PropertySearchQueryBuilder;
 import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
 import com.openclassrooms.realestatemanager.model.entity.Address;
 import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
 import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
 
 import org.junit.Before;
@@ -37,6 +39,9 @@ import java.util.concurrent.TimeUnit;
 @RunWith(AndroidJUnit4.class)
 public class PropertyRepositoryInstrumentedTest {
 
+    // Criteria without any filter, matching every property
+    private static final SearchCriteria ALL_PROPERTIES = new SearchCriteria(0, 0, 0, 0, 0, 0, null);
+
     private PropertyRepository propertyRepository;
     private PropertyDao propertyDao;
     private PropertyDatabase database;
@@ -79,7 +84,7 @@ public class PropertyRepositoryInstrumentedTest {
         TimeUnit.MILLISECONDS.sleep(500);
 
         // THEN - Verify that the property is correctly inserted and retrieved
-        List<Property> properties = LiveDataTestUtil.getValue(propertyRepository.getAllProperties());
+        List<PropertySummary> properties = querySummaries(ALL_PROPERTIES);
         assertNotNull(properties);
         assertEquals(1, properties.size());
         assertEquals("Apartment", properties.get(0).type);
@@ -107,12 +112,12 @@ public class PropertyRepositoryInstrumentedTest {
         assertTrue(LiveDataTestUtil.getValue(insertResult));
 
         // Retrieve inserted property
-        List<Property> properties = LiveDataTestUtil.getValue(propertyRepository.getAllProperties());
+        List<PropertySummary> properties = querySummaries(ALL_PROPERTIES);
         assertNotNull(properties);
         assertFalse(properties.isEmpty()); // Ensure the list is not empty
 
         // Update the property details
-        Property updatedProperty = properties.get(0);
+        Property updatedProperty = LiveDataTestUtil.getValue(propertyRepository.getPropertyById(properties.get(0).id));
         updatedProperty.price = 400000;
         updatedProperty.isSold = true;
 
@@ -130,6 +135,38 @@ public class PropertyRepositoryInstrumentedTest {
         propertyRepository.deleteAllProperties();
     }
 
+    /**
+     * Tests inserting several properties at once and getting back their generated IDs.
+     */
+    @Test
+    public void bulkInsertReturnsGeneratedIds() throws InterruptedException {
+
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        // GIVEN - Three properties to import
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            properties.add(new Property("House", 300000 + i, 120, 4, 1, 2,
+                    "Imported listing " + i,
+                    new Address("Elm Street", "Boston", "MA", "02101", "USA"),
+                    new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Agency Feed"));
+        }
+
+        // WHEN - Insert them in bulk
+        BulkInsertProgress progress = LiveDataTestUtil.getValue(propertyRepository.bulkInsert(properties));
+
+        // THEN - Verify that every property is inserted and its ID returned
+        assertNotNull(progress);
+        assertTrue(progress.isComplete());
+        assertEquals(3, progress.ids.size());
+        List<PropertySummary> stored = querySummaries(ALL_PROPERTIES);
+        assertEquals(3, stored.size());
+        assertEquals((long) progress.ids.get(0), stored.get(0).id);
+
+        // Cleanup after test
+        propertyRepository.deleteAllProperties();
+    }
+
     /**
      * Tests searching for properties using specific criteria.
      */
@@ -158,7 +195,7 @@ public class PropertyRepositoryInstrumentedTest {
         SearchCriteria criteria = new SearchCriteria(200000, 1000000, 100, 300, 3, 0, null);
 
         // WHEN - Search for properties
-        List<Property> searchResults = LiveDataTestUtil.getValue(propertyRepository.searchProperties(criteria));
+        List<PropertySummary> searchResults = querySummaries(criteria);
 
         // THEN - Verify that only matching properties are returned
         assertNotNull(searchResults);
@@ -168,4 +205,13 @@ public class PropertyRepositoryInstrumentedTest {
         // Cleanup after test
         propertyRepository.deleteAllProperties();
     }
+
+    /**
+     * Reads the list rows matching the criteria with the query that
+     * {@link PropertyRepository#searchPropertiesPaged(SearchCriteria)} pages over.
+     */
+    private List<PropertySummary> querySummaries(SearchCriteria criteria) {
+        PropertyDao dao = PropertyDatabase.getInstance(ApplicationProvider.getApplicationContext()).propertyDao();
+        return dao.searchPropertySummaries(new PropertySearchQueryBuilder(criteria).buildSummary());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Benchmark of the list cell decodes while scrolling 500 rows, from the full-resolution camera photo
+ * (subsampled to the cell, as an image loader does) versus from its list thumbnail.
+ * The decoded bitmaps of the visible rows are kept alive like the ones of a RecyclerView, and the peak
+ * of the Java and native heaps is sampled after each decode.
+ * Timings are written to logcat under the "ThumbnailBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ThumbnailDecodeBenchmarkTest {
+
+    private static final String TAG = "ThumbnailBenchmark";
+    private static final int ROW_COUNT = 500;
+    private static final int VISIBLE_ROWS = 8;
+    private static final int PHOTO_WIDTH = 4032; // 12 MP, like a phone camera
+    private static final int PHOTO_HEIGHT = 3024;
+
+    private PropertyDatabase database;
+    private ThumbnailPipeline pipeline;
+    private File directory;
+    private String photoUri;
+    private int listSizePx;
+
+    /**
+     * Writes a 12 MP camera-like photo and generates its thumbnails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PropertyDatabase.class).build();
+        directory = new File(context.getCacheDir(), "thumbnail_benchmark");
+        directory.mkdirs();
+        float density = context.getResources().getDisplayMetrics().density;
+        listSizePx = Math.round(ThumbnailPipeline.LIST_SIZE_DP * density);
+        pipeline = new ThumbnailPipeline(database.propertyDao(), context.getContentResolver(), directory,
+                listSizePx, Math.round(ThumbnailPipeline.DETAIL_SIZE_DP * density), Runnable::run);
+
+        // A gradient with fine detail, so the JPEG is as costly to decode as a real photo
+        Bitmap photo = Bitmap.createBitmap(PHOTO_WIDTH, PHOTO_HEIGHT, Bitmap.Config.ARGB_8888);
+        int[] row = new int[PHOTO_WIDTH];
+        for (int y = 0; y < PHOTO_HEIGHT; y++) {
+            for (int x = 0; x < PHOTO_WIDTH; x++) {
+                row[x] = 0xFF000000 | ((x * 255 / PHOTO_WIDTH) << 16) | ((y * 255 / PHOTO_HEIGHT) << 8) | ((x ^ y) & 0xFF);
+            }
+            photo.setPixels(row, 0, PHOTO_WIDTH, 0, y, PHOTO_WIDTH, 1);
+        }
+        File file = new File(directory, "photo.jpg");
+        try (OutputStream output = new FileOutputStream(file)) {
+            photo.compress(Bitmap.CompressFormat.JPEG, 90, output);
+        }
+        photo.recycle();
+        photoUri = Uri.fromFile(file).toString();
+        pipeline.generate(photoUri);
+    }
+
+    /**
+     * Deletes the images and closes the database.
+     */
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        directory.delete();
+        database.close();
+    }
+
+    /**
+     * Scrolls 500 rows decoding the original, then the list thumbnail, and checks the thumbnail is faster.
+     */
+    @Test
+    public void listScroll_originalVersusThumbnail() throws IOException {
+        String thumbnailUri = Uri.fromFile(pipeline.getListThumbnail(photoUri)).toString();
+
+        long[] original = scroll(photoUri);
+        long[] thumbnail = scroll(thumbnailUri);
+
+        Log.i(TAG, "Rows: " + ROW_COUNT + ", cell: " + listSizePx + " px"
+                + ", original: " + original[0] + " ms (" + original[0] * 1000 / ROW_COUNT + " us/row), peak heap +"
+                + original[1] / 1024 + " KB"
+                + ", thumbnail: " + thumbnail[0] + " ms (" + thumbnail[0] * 1000 / ROW_COUNT + " us/row), peak heap +"
+                + thumbnail[1] / 1024 + " KB");
+        assertTrue(thumbnail[0] < original[0]);
+    }
+
+    /**
+     * Decodes an image once per row, keeping the bitmaps of the visible rows alive.
+     *
+     * @param uri The image bound to every row.
+     * @return The total decode time in milliseconds, and the peak heap growth in bytes.
+     */
+    private long[] scroll(String uri) throws IOException {
+        Runtime.getRuntime().gc();
+        long baseline = usedHeap();
+        long peak = 0;
+        long decodeNanos = 0;
+        Deque<Bitmap> visible = new ArrayDeque<>();
+        for (int row = 0; row < ROW_COUNT; row++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            visible.addLast(pipeline.decodeSampled(uri, listSizePx));
+            decodeNanos += SystemClock.elapsedRealtimeNanos() - start;
+            peak = Math.max(peak, usedHeap() - baseline);
+            if (visible.size() > VISIBLE_ROWS) {
+                visible.removeFirst().recycle(); // The row scrolled out of the screen
+            }
+        }
+        for (Bitmap bitmap : visible) bitmap.recycle();
+        return new long[]{decodeNanos / 1_000_000, peak};
+    }
+
+    /**
+     * Returns the memory in use on the Java heap and the native heap, where bitmaps live since Android 8.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+    }
+}
\ No newline at end of file
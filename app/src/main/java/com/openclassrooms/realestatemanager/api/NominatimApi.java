@@ -1,5 +1,6 @@
 package com.openclassrooms.realestatemanager.api;
 
+import com.openclassrooms.realestatemanager.model.converters.GsonProvider;
 import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
 
 import retrofit2.Call;
@@ -25,9 +26,18 @@ public class NominatimApi {
      * Constructor that initializes a Retrofit instance and creates the service interface.
      */
     public NominatimApi() {
+        this(BASE_URL);
+    }
+
+    /**
+     * Constructor pointing the service at another server, such as a local stand-in in tests.
+     *
+     * @param baseUrl The base URL of the Nominatim-compatible server.
+     */
+    public NominatimApi(String baseUrl) {
         Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(BASE_URL) // Set the base URL for API requests
-                .addConverterFactory(GsonConverterFactory.create()) // Use Gson for JSON conversion
+                .baseUrl(baseUrl) // Set the base URL for API requests
+                .addConverterFactory(GsonConverterFactory.create(GsonProvider.get())) // Use the shared Gson for JSON conversion
                 .build();
 
         // Create an instance of the API service
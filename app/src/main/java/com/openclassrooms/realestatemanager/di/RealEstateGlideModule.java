@@ -0,0 +1,52 @@
+package com.openclassrooms.realestatemanager.di;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.openclassrooms.realestatemanager.R;
+
+/**
+ * Glide configuration of the application, picked up by the Glide annotation processor.
+ * Sets the memory and disk cache budgets from res/values/integers.xml, so they can be tuned
+ * per device configuration like any other resource.
+ */
+@GlideModule
+public final class RealEstateGlideModule extends AppGlideModule {
+
+    private static final long BYTES_PER_MB = 1024L * 1024;
+
+    /**
+     * Applies the cache budgets.
+     *
+     * @param context The application context.
+     * @param builder The builder of the Glide singleton.
+     */
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        Resources resources = context.getResources();
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(resources.getInteger(R.integer.glide_memory_cache_screens))
+                .setBitmapPoolScreens(resources.getInteger(R.integer.glide_bitmap_pool_screens))
+                .build();
+        builder.setMemorySizeCalculator(calculator);
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context,
+                resources.getInteger(R.integer.glide_disk_cache_mb) * BYTES_PER_MB));
+    }
+
+    /**
+     * Disables the lookup of legacy modules declared in the manifest, which the app doesn't use.
+     *
+     * @return False.
+     */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
\ No newline at end of file
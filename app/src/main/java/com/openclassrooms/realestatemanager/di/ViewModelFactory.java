@@ -14,6 +14,7 @@ import com.openclassrooms.realestatemanager.viewmodel.EditPropertyViewModel;
 import com.openclassrooms.realestatemanager.viewmodel.MapViewModel;
 import com.openclassrooms.realestatemanager.viewmodel.PropertyDetailViewModel;
 import com.openclassrooms.realestatemanager.viewmodel.PropertyListViewModel;
+import com.openclassrooms.realestatemanager.viewmodel.PropertyMapViewModel;
 
 /**
  * ViewModelFactory is a singleton factory that provides ViewModel instances.
@@ -34,7 +35,7 @@ public class ViewModelFactory extends ViewModelProvider.NewInstanceFactory {
     private ViewModelFactory(Application application) {
         PropertyDatabase database = PropertyDatabase.getInstance(application);
         this.propertyRepository = new PropertyRepository(application);
-        this.mapRepository = new MapRepository();
+        this.mapRepository = MapRepository.getInstance(application);
     }
 
     /**
@@ -76,6 +77,8 @@ public class ViewModelFactory extends ViewModelProvider.NewInstanceFactory {
             return (T) new EditPropertyViewModel(propertyRepository);
         } else if (modelClass.isAssignableFrom(MapViewModel.class)) {
             return (T) new MapViewModel(mapRepository);
+        } else if (modelClass.isAssignableFrom(PropertyMapViewModel.class)) {
+            return (T) new PropertyMapViewModel(propertyRepository);
         }
         throw new IllegalArgumentException("Unknown ViewModel class: " + modelClass.getName());
     }
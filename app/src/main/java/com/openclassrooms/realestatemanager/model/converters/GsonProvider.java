@@ -0,0 +1,61 @@
+package com.openclassrooms.realestatemanager.model.converters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Holds the single Gson instance shared by the converters, with the reflection-free
+ * TypeAdapters of Photo and PointOfInterest registered once.
+ * Gson and its TypeAdapters are immutable and thread-safe, so they can be used from any
+ * Room or migration thread without synchronization.
+ */
+public final class GsonProvider {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Photo.class, new PhotoTypeAdapter())
+            .registerTypeAdapter(PointOfInterest.class, new PointOfInterestTypeAdapter())
+            .create();
+
+    // List adapters resolved once instead of looking up a new TypeToken on every conversion
+    static final TypeAdapter<List<Photo>> PHOTO_LIST_ADAPTER =
+            GSON.getAdapter(new TypeToken<List<Photo>>() {});
+    static final TypeAdapter<List<PointOfInterest>> POI_LIST_ADAPTER =
+            GSON.getAdapter(new TypeToken<List<PointOfInterest>>() {});
+
+    private GsonProvider() {
+    }
+
+    /**
+     * Returns the shared Gson instance.
+     *
+     * @return The Gson instance configured with the application TypeAdapters.
+     */
+    public static Gson get() {
+        return GSON;
+    }
+
+    /**
+     * Reads a value from JSON with a prebuilt adapter.
+     *
+     * @param adapter The adapter of the value type.
+     * @param json    The JSON to read (may be null).
+     * @return The value read, or null if the JSON is null.
+     * @throws JsonParseException If the JSON is malformed.
+     */
+    static <T> T fromJson(TypeAdapter<T> adapter, String json) {
+        if (json == null) return null;
+        try {
+            return adapter.fromJson(json);
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+}
\ No newline at end of file
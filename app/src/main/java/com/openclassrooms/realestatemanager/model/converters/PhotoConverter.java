@@ -2,17 +2,15 @@ package com.openclassrooms.realestatemanager.model.converters;
 
 import androidx.room.TypeConverter;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.openclassrooms.realestatemanager.model.entity.Photo;
 
-import java.lang.reflect.Type;
 import java.util.List;
 
 /**
- * PhotoConverter is a Room TypeConverter that allows the database to store
- * a List of Photo objects as a single JSON string and retrieve it back as a List.
- * This helps Room handle complex data types like lists.
+ * PhotoConverter converts a List of Photo objects to and from a single JSON string.
+ * Photos are now stored in their own table; this converter is kept to read the legacy
+ * JSON column when migrating databases created before the photo table existed.
+ * Conversions go through the shared Gson adapters of {@link GsonProvider}.
  */
 public class PhotoConverter {
 
@@ -25,7 +23,7 @@ public class PhotoConverter {
      */
     @TypeConverter
     public static String fromPhotoList(List<Photo> photos) {
-        return new Gson().toJson(photos);
+        return GsonProvider.PHOTO_LIST_ADAPTER.toJson(photos);
     }
 
     /**
@@ -37,7 +35,6 @@ public class PhotoConverter {
      */
     @TypeConverter
     public static List<Photo> toPhotoList(String data) {
-        Type listType = new TypeToken<List<Photo>>() {}.getType();
-        return new Gson().fromJson(data, listType);
+        return GsonProvider.fromJson(GsonProvider.PHOTO_LIST_ADAPTER, data);
     }
 }
\ No newline at end of file
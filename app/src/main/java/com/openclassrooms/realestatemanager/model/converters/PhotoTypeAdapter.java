@@ -0,0 +1,67 @@
+package com.openclassrooms.realestatemanager.model.converters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+
+import java.io.IOException;
+
+/**
+ * Gson TypeAdapter reading and writing a Photo field by field, without reflection.
+ * Only the URI and the description are part of the JSON format; the table columns
+ * (ID, property ID and position) are not.
+ */
+public class PhotoTypeAdapter extends TypeAdapter<Photo> {
+
+    /**
+     * Writes a photo as {"uri": ..., "description": ...}.
+     *
+     * @param out   The JSON writer.
+     * @param photo The photo to write (may be null).
+     * @throws IOException If the writer fails.
+     */
+    @Override
+    public void write(JsonWriter out, Photo photo) throws IOException {
+        if (photo == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("uri").value(photo.uri);
+        out.name("description").value(photo.description);
+        out.endObject();
+    }
+
+    /**
+     * Reads a photo, ignoring any property other than the URI and the description.
+     *
+     * @param in The JSON reader.
+     * @return The photo read, or null for a JSON null.
+     * @throws IOException If the JSON is malformed.
+     */
+    @Override
+    public Photo read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Photo photo = new Photo();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (name.equals("uri")) {
+                photo.uri = in.nextString();
+            } else if (name.equals("description")) {
+                photo.description = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return photo;
+    }
+}
\ No newline at end of file
@@ -2,17 +2,15 @@ package com.openclassrooms.realestatemanager.model.converters;
 
 import androidx.room.TypeConverter;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
 
-import java.lang.reflect.Type;
 import java.util.List;
 
 /**
- * PointOfInterestConverter is a Room TypeConverter that enables Room Database
- * to store a List of PointOfInterest objects as a single JSON string and retrieve
- * it back as a List. This allows handling complex data types in Room.
+ * PointOfInterestConverter converts a List of PointOfInterest objects to and from a single JSON string.
+ * Points of interest are now stored in their own table; this converter is kept to read the legacy
+ * JSON column when migrating databases created before the point_of_interest table existed.
+ * Conversions go through the shared Gson adapters of {@link GsonProvider}.
  */
 public class PointOfInterestConverter {
 
@@ -25,7 +23,7 @@ public class PointOfInterestConverter {
      */
     @TypeConverter
     public static String fromPoiList(List<PointOfInterest> points) {
-        return new Gson().toJson(points);
+        return GsonProvider.POI_LIST_ADAPTER.toJson(points);
     }
 
     /**
@@ -37,7 +35,6 @@ public class PointOfInterestConverter {
      */
     @TypeConverter
     public static List<PointOfInterest> toPoiList(String data) {
-        Type listType = new TypeToken<List<PointOfInterest>>() {}.getType();
-        return new Gson().fromJson(data, listType);
+        return GsonProvider.fromJson(GsonProvider.POI_LIST_ADAPTER, data);
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.openclassrooms.realestatemanager.model.converters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+
+import java.io.IOException;
+
+/**
+ * Gson TypeAdapter reading and writing a PointOfInterest field by field, without reflection.
+ * Only the name and the type are part of the JSON format; the row ID is not.
+ */
+public class PointOfInterestTypeAdapter extends TypeAdapter<PointOfInterest> {
+
+    /**
+     * Writes a point of interest as {"name": ..., "type": ...}.
+     *
+     * @param out             The JSON writer.
+     * @param pointOfInterest The point of interest to write (may be null).
+     * @throws IOException If the writer fails.
+     */
+    @Override
+    public void write(JsonWriter out, PointOfInterest pointOfInterest) throws IOException {
+        if (pointOfInterest == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("name").value(pointOfInterest.name);
+        out.name("type").value(pointOfInterest.type);
+        out.endObject();
+    }
+
+    /**
+     * Reads a point of interest, ignoring any property other than the name and the type.
+     *
+     * @param in The JSON reader.
+     * @return The point of interest read, or null for a JSON null.
+     * @throws IOException If the JSON is malformed.
+     */
+    @Override
+    public PointOfInterest read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        PointOfInterest pointOfInterest = new PointOfInterest();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (name.equals("name")) {
+                pointOfInterest.name = in.nextString();
+            } else if (name.equals("type")) {
+                pointOfInterest.type = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return pointOfInterest;
+    }
+}
\ No newline at end of file
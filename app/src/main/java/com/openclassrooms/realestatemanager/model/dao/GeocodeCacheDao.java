@@ -0,0 +1,42 @@
+package com.openclassrooms.realestatemanager.model.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.openclassrooms.realestatemanager.model.entity.GeocodeCacheEntry;
+
+/**
+ * Data Access Object (DAO) for the geocoding cache.
+ * The queries are synchronous; MapRepository runs them on a background executor.
+ */
+@Dao
+public interface GeocodeCacheDao {
+
+    /**
+     * Retrieves the cached coordinates of an address.
+     *
+     * @param address The normalized address.
+     * @return The cached entry, or null if the address was never geocoded.
+     */
+    @Query("SELECT * FROM geocode_cache WHERE address = :address")
+    GeocodeCacheEntry get(String address);
+
+    /**
+     * Stores the coordinates of an address, replacing any previous entry.
+     *
+     * @param entry The entry to store.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(GeocodeCacheEntry entry);
+
+    /**
+     * Deletes the entries that are past their time to live.
+     *
+     * @param now The current time, in milliseconds since the epoch.
+     * @return The number of entries deleted.
+     */
+    @Query("DELETE FROM geocode_cache WHERE timestamp + ttl < :now")
+    int deleteExpired(long now);
+}
\ No newline at end of file
@@ -3,14 +3,31 @@ package com.openclassrooms.realestatemanager.model.dao;
 import android.database.Cursor;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
 import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertyLocation;
+import com.openclassrooms.realestatemanager.model.entity.PropertyPointOfInterestCrossRef;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
+import com.openclassrooms.realestatemanager.model.entity.PropertyWithDetails;
+import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
+import com.openclassrooms.realestatemanager.model.geo.GeoHash;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Data Access Object (DAO) for managing database operations on the Property entity.
@@ -29,6 +46,24 @@ public interface PropertyDao {
     @Insert
     long insert(Property property);
 
+    /**
+     * Inserts several properties with a single prepared statement.
+     *
+     * @param properties The properties to insert.
+     * @return The row IDs of the inserted properties, in the same order.
+     */
+    @Insert
+    List<Long> insertProperties(List<Property> properties);
+
+    /**
+     * Inserts new properties and updates the ones whose ID already exists.
+     *
+     * @param properties The properties to insert or update.
+     * @return For each property, its new row ID, or -1 if an existing row was updated.
+     */
+    @Upsert
+    List<Long> upsertProperties(List<Property> properties);
+
     /**
      * Updates an existing property in the database.
      *
@@ -39,43 +74,466 @@ public interface PropertyDao {
     int update(Property property);
 
     /**
-     * Retrieves a property by its ID as a LiveData object.
-     * LiveData ensures automatic updates when the data changes in the database.
+     * Inserts photo rows into the photo table.
+     *
+     * @param photos The photos to insert, already linked to their property.
+     */
+    @Insert
+    void insertPhotos(List<Photo> photos);
+
+    /**
+     * Updates existing photo rows, such as an edited description or a new gallery position.
+     *
+     * @param photos The photos to update, already linked to their property.
+     */
+    @Update
+    void updatePhotos(List<Photo> photos);
+
+    /**
+     * Retrieves the IDs of the photos of a property.
+     *
+     * @param propertyId The ID of the property.
+     * @return The IDs of its photo rows.
+     */
+    @Query("SELECT id FROM photo WHERE propertyId = :propertyId")
+    List<Long> getPhotoIdsForProperty(int propertyId);
+
+    /**
+     * Deletes the photos of a property except the given ones.
+     *
+     * @param propertyId The ID of the property.
+     * @param keptIds    The IDs of the photos to keep (may be empty).
+     */
+    @Query("DELETE FROM photo WHERE propertyId = :propertyId AND id NOT IN (:keptIds)")
+    void deletePhotosForPropertyExcept(int propertyId, List<Long> keptIds);
+
+    /**
+     * Retrieves the next photos whose thumbnails or BlurHash have not been generated yet, by ascending ID.
+     * Must be called from a background thread.
+     *
+     * @param afterId The ID after which to start (0 for the first batch).
+     * @param limit   The maximum number of photos to return.
+     * @return The photos without thumbnails or BlurHash.
+     */
+    @Query("SELECT * FROM photo WHERE id > :afterId AND (listThumbnailUri IS NULL OR blurHash IS NULL) "
+            + "ORDER BY id LIMIT :limit")
+    List<Photo> getPhotosWithoutThumbnails(long afterId, int limit);
+
+    /**
+     * Retrieves every image and thumbnail URI still referenced by a photo row, for the photo file cleanup.
+     * Must be called from a background thread.
+     *
+     * @return The referenced URIs (may include null).
+     */
+    @Query("SELECT uri FROM photo UNION SELECT listThumbnailUri FROM photo UNION SELECT detailThumbnailUri FROM photo")
+    List<String> getReferencedPhotoUris();
+
+    /**
+     * Stores the thumbnails and BlurHash of a source image on every photo showing it, and on the properties
+     * using it as cover photo, in a single transaction.
+     * Matching by source URI also reaches the rows re-inserted by an edit while the thumbnails were generated.
+     *
+     * @param uri                The URI of the source image.
+     * @param listThumbnailUri   The URI of the list thumbnail.
+     * @param detailThumbnailUri The URI of the detail thumbnail.
+     * @param blurHash           The BlurHash of the image.
+     */
+    @Transaction
+    default void saveThumbnails(String uri, String listThumbnailUri, String detailThumbnailUri, String blurHash) {
+        updatePhotoThumbnails(uri, listThumbnailUri, detailThumbnailUri, blurHash);
+        updateCoverThumbnails(uri, listThumbnailUri, blurHash);
+    }
+
+    /**
+     * Stores the thumbnails and BlurHash of a source image on the photos showing it.
+     *
+     * @param uri                The URI of the source image.
+     * @param listThumbnailUri   The URI of the list thumbnail.
+     * @param detailThumbnailUri The URI of the detail thumbnail.
+     * @param blurHash           The BlurHash of the image.
+     */
+    @Query("UPDATE photo SET listThumbnailUri = :listThumbnailUri, detailThumbnailUri = :detailThumbnailUri, "
+            + "blurHash = :blurHash WHERE uri = :uri")
+    void updatePhotoThumbnails(String uri, String listThumbnailUri, String detailThumbnailUri, String blurHash);
+
+    /**
+     * Stores the list thumbnail and BlurHash of a source image on the properties using it as cover photo.
+     *
+     * @param uri              The URI of the source image.
+     * @param listThumbnailUri The URI of the list thumbnail.
+     * @param blurHash         The BlurHash of the image.
+     */
+    @Query("UPDATE property SET coverThumbnailUri = :listThumbnailUri, coverBlurHash = :blurHash "
+            + "WHERE coverPhotoUri = :uri")
+    void updateCoverThumbnails(String uri, String listThumbnailUri, String blurHash);
+
+    /**
+     * Inserts a point of interest, ignoring it if the same name and type already exist.
+     *
+     * @param pointOfInterest The point of interest to insert.
+     * @return The row ID of the new point of interest, or -1 if it already existed.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertPointOfInterest(PointOfInterest pointOfInterest);
+
+    /**
+     * Finds the ID of an existing point of interest.
+     *
+     * @param name The name of the point of interest.
+     * @param type The type of the point of interest.
+     * @return The ID of the matching point of interest.
+     */
+    @Query("SELECT id FROM point_of_interest WHERE name = :name AND type = :type")
+    long findPointOfInterestId(String name, String type);
+
+    /**
+     * Links points of interest to a property.
+     *
+     * @param crossRefs The property / point of interest pairs to insert.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertPropertyPointsOfInterest(List<PropertyPointOfInterestCrossRef> crossRefs);
+
+    /**
+     * Removes all the point of interest links of a property.
+     *
+     * @param propertyId The ID of the property.
+     */
+    @Query("DELETE FROM property_point_of_interest WHERE propertyId = :propertyId")
+    void deletePointsOfInterestForProperty(int propertyId);
+
+    /**
+     * Deletes the points of interest that are no longer linked to any property.
+     */
+    @Query("DELETE FROM point_of_interest WHERE id NOT IN (SELECT poiId FROM property_point_of_interest)")
+    void deleteOrphanPointsOfInterest();
+
+    /**
+     * Inserts a property with its photos and points of interest in a single transaction.
+     * The cover photo URI is copied onto the property row so list screens never read the photo table,
+     * and the geohash is derived from the coordinates so the spatial index stays in sync.
+     *
+     * @param property The property to insert, with its photo and point of interest lists.
+     * @return The row ID of the newly inserted property.
+     */
+    @Transaction
+    default long insertWithDetails(Property property) {
+        property.coverPhotoUri = getCoverPhotoUri(property.photos);
+        property.coverThumbnailUri = getCoverThumbnailUri(property.photos);
+        property.coverBlurHash = getCoverBlurHash(property.photos);
+        property.geohash = GeoHash.encode(property.latitude, property.longitude);
+        long id = insert(property);
+        savePhotos((int) id, property.photos);
+        savePointsOfInterest((int) id, property.pointsOfInterest);
+        return id;
+    }
+
+    /**
+     * Updates a property and replaces its photos and points of interest in a single transaction.
+     * Photos already stored keep their row ID, so the screens showing them only rebind what changed.
+     *
+     * @param property The property with updated values and its full photo and point of interest lists.
+     * @return The number of property rows affected by the update.
+     */
+    @Transaction
+    default int updateWithDetails(Property property) {
+        property.coverPhotoUri = getCoverPhotoUri(property.photos);
+        property.coverThumbnailUri = getCoverThumbnailUri(property.photos);
+        property.coverBlurHash = getCoverBlurHash(property.photos);
+        property.geohash = GeoHash.encode(property.latitude, property.longitude);
+        int count = update(property);
+        replacePhotos(property.id, property.photos);
+        deletePointsOfInterestForProperty(property.id);
+        savePointsOfInterest(property.id, property.pointsOfInterest);
+        deleteOrphanPointsOfInterest();
+        return count;
+    }
+
+    /**
+     * Inserts a batch of properties with their photos and points of interest in a single transaction.
+     * All the property rows are written with one statement and all the photos with another, so a
+     * batch costs one commit instead of one per row. Callers split large imports into chunks.
+     *
+     * @param properties The properties to insert, with their photo and point of interest lists.
+     * @return The row IDs of the inserted properties, in the same order.
+     */
+    @Transaction
+    default List<Long> insertAll(List<Property> properties) {
+        for (Property property : properties) {
+            property.coverPhotoUri = getCoverPhotoUri(property.photos);
+            property.coverThumbnailUri = getCoverThumbnailUri(property.photos);
+            property.coverBlurHash = getCoverBlurHash(property.photos);
+            property.geohash = GeoHash.encode(property.latitude, property.longitude);
+        }
+        List<Long> ids = insertProperties(properties);
+
+        List<Photo> photos = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            property.id = ids.get(i).intValue();
+            collectPhotos(property.id, property.photos, photos);
+            savePointsOfInterest(property.id, property.pointsOfInterest);
+        }
+        if (!photos.isEmpty()) {
+            insertPhotos(photos);
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts or updates a batch of properties in a single transaction, replacing the photos and
+     * points of interest of the properties that already existed.
+     *
+     * @param properties The properties to insert or update, with their full photo and point of interest lists.
+     * @return The IDs of the properties, in the same order (existing IDs for updated rows).
+     */
+    @Transaction
+    default List<Long> upsertAll(List<Property> properties) {
+        for (Property property : properties) {
+            property.coverPhotoUri = getCoverPhotoUri(property.photos);
+            property.coverThumbnailUri = getCoverThumbnailUri(property.photos);
+            property.coverBlurHash = getCoverBlurHash(property.photos);
+            property.geohash = GeoHash.encode(property.latitude, property.longitude);
+        }
+        List<Long> rowIds = upsertProperties(properties);
+
+        List<Long> ids = new ArrayList<>(properties.size());
+        List<Photo> photos = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            if (rowIds.get(i) == -1) {
+                // Existing row: sync its photos in place and drop its previous links before writing the new ones
+                replacePhotos(property.id, property.photos);
+                deletePointsOfInterestForProperty(property.id);
+            } else {
+                property.id = rowIds.get(i).intValue();
+                collectPhotos(property.id, property.photos, photos);
+            }
+            ids.add((long) property.id);
+            savePointsOfInterest(property.id, property.pointsOfInterest);
+        }
+        if (!photos.isEmpty()) {
+            insertPhotos(photos);
+        }
+        deleteOrphanPointsOfInterest();
+        return ids;
+    }
+
+    /**
+     * Links the photos of a property to it, numbers them in gallery order and adds them to a batch.
+     *
+     * @param propertyId The ID of the owning property.
+     * @param photos     The photos of the property (may be null).
+     * @param batch      The list collecting the photos to insert.
+     */
+    default void collectPhotos(int propertyId, List<Photo> photos, List<Photo> batch) {
+        if (photos == null) return;
+        for (int position = 0; position < photos.size(); position++) {
+            Photo photo = photos.get(position);
+            photo.id = 0; // Let SQLite generate a new ID
+            photo.propertyId = propertyId;
+            photo.position = position;
+            batch.add(photo);
+        }
+    }
+
+    /**
+     * Replaces the photos of an existing property with the given list, in gallery order.
+     * Photos that are already rows of the property are updated under their ID, new ones are inserted,
+     * and the rows missing from the list are deleted.
+     *
+     * @param propertyId The ID of the property.
+     * @param photos     The full photo list of the property (may be null).
+     */
+    default void replacePhotos(int propertyId, List<Photo> photos) {
+        Set<Long> storedIds = new HashSet<>(getPhotoIdsForProperty(propertyId));
+        List<Long> keptIds = new ArrayList<>();
+        List<Photo> updated = new ArrayList<>();
+        List<Photo> inserted = new ArrayList<>();
+        if (photos != null) {
+            for (int position = 0; position < photos.size(); position++) {
+                Photo photo = photos.get(position);
+                photo.propertyId = propertyId;
+                photo.position = position;
+                if (storedIds.remove(photo.id)) { // Also skips a second copy of the same row
+                    keptIds.add(photo.id);
+                    updated.add(photo);
+                } else {
+                    photo.id = 0; // Let SQLite generate a new ID
+                    inserted.add(photo);
+                }
+            }
+        }
+        deletePhotosForPropertyExcept(propertyId, keptIds);
+        if (!updated.isEmpty()) {
+            updatePhotos(updated);
+        }
+        if (!inserted.isEmpty()) {
+            insertPhotos(inserted);
+        }
+    }
+
+    /**
+     * Links the photos to their property, numbers them in gallery order and inserts them.
+     *
+     * @param propertyId The ID of the owning property.
+     * @param photos     The photos to insert (may be null).
+     */
+    default void savePhotos(int propertyId, List<Photo> photos) {
+        List<Photo> batch = new ArrayList<>();
+        collectPhotos(propertyId, photos, batch);
+        if (!batch.isEmpty()) {
+            insertPhotos(batch);
+        }
+    }
+
+    /**
+     * Stores the points of interest (reusing existing rows) and links them to their property.
+     *
+     * @param propertyId       The ID of the property.
+     * @param pointsOfInterest The points of interest near the property (may be null).
+     */
+    default void savePointsOfInterest(int propertyId, List<PointOfInterest> pointsOfInterest) {
+        if (pointsOfInterest == null || pointsOfInterest.isEmpty()) return;
+        List<PropertyPointOfInterestCrossRef> crossRefs = new ArrayList<>();
+        for (PointOfInterest pointOfInterest : pointsOfInterest) {
+            pointOfInterest.id = 0; // Let SQLite generate a new ID or reuse the existing row
+            long poiId = insertPointOfInterest(pointOfInterest);
+            if (poiId == -1) {
+                poiId = findPointOfInterestId(pointOfInterest.name, pointOfInterest.type);
+            }
+            pointOfInterest.id = poiId;
+            crossRefs.add(new PropertyPointOfInterestCrossRef(propertyId, poiId));
+        }
+        insertPropertyPointsOfInterest(crossRefs);
+    }
+
+    /**
+     * Returns the URI of the cover photo (the first of the list).
+     *
+     * @param photos The photos of a property (may be null).
+     * @return The URI of the first photo, or null if there is none.
+     */
+    static String getCoverPhotoUri(List<Photo> photos) {
+        return photos != null && !photos.isEmpty() ? photos.get(0).uri : null;
+    }
+
+    /**
+     * Returns the list thumbnail URI of the cover photo (the first of the list).
+     *
+     * @param photos The photos of a property (may be null).
+     * @return The list thumbnail URI of the first photo, or null if there is none or it isn't generated yet.
+     */
+    static String getCoverThumbnailUri(List<Photo> photos) {
+        return photos != null && !photos.isEmpty() ? photos.get(0).listThumbnailUri : null;
+    }
+
+    /**
+     * Returns the BlurHash of the cover photo (the first of the list).
+     *
+     * @param photos The photos of a property (may be null).
+     * @return The BlurHash of the first photo, or null if there is none or it isn't computed yet.
+     */
+    static String getCoverBlurHash(List<Photo> photos) {
+        return photos != null && !photos.isEmpty() ? photos.get(0).blurHash : null;
+    }
+
+    /**
+     * Retrieves a property with its photos and points of interest by its ID as a LiveData object.
+     * LiveData ensures automatic updates when the property or its related rows change in the database.
      *
      * @param propertyId The unique ID of the property to retrieve.
-     * @return A LiveData object containing the requested property.
+     * @return A LiveData object containing the requested property with its details.
+     */
+    @Transaction
+    @Query("SELECT * FROM property WHERE id = :propertyId")
+    LiveData<PropertyWithDetails> getPropertyById(int propertyId);
+
+    /**
+     * Retrieves a property row synchronously, without its photos and points of interest.
+     * Must be called from a background thread.
+     *
+     * @param propertyId The ID of the property.
+     * @return The property, or null if it doesn't exist.
      */
     @Query("SELECT * FROM property WHERE id = :propertyId")
-    LiveData<Property> getPropertyById(int propertyId);
+    Property findPropertyById(int propertyId);
+
+    /**
+     * Stores the geocoded coordinates of a property.
+     * The update only applies if the property still has the address that was geocoded,
+     * so a lookup finishing after the address was edited cannot store stale coordinates.
+     *
+     * @param propertyId The ID of the property.
+     * @param street     The street that was geocoded.
+     * @param city       The city that was geocoded.
+     * @param state      The state that was geocoded.
+     * @param latitude   The latitude of the address.
+     * @param longitude  The longitude of the address.
+     * @return The number of rows updated (0 if the address changed in the meantime).
+     */
+    default int updateCoordinates(int propertyId, String street, String city, String state, double latitude, double longitude) {
+        return updateCoordinatesAndGeohash(propertyId, street, city, state, latitude, longitude,
+                GeoHash.encode(latitude, longitude, GeoHash.STORED_PRECISION));
+    }
+
+    /**
+     * Stores the geocoded coordinates of a property with their geohash, if its address is unchanged.
+     *
+     * @param propertyId The ID of the property.
+     * @param street     The street that was geocoded.
+     * @param city       The city that was geocoded.
+     * @param state      The state that was geocoded.
+     * @param latitude   The latitude of the address.
+     * @param longitude  The longitude of the address.
+     * @param geohash    The geohash of the coordinates.
+     * @return The number of rows updated (0 if the address changed in the meantime).
+     */
+    @Query("UPDATE property SET latitude = :latitude, longitude = :longitude, geohash = :geohash "
+            + "WHERE id = :propertyId AND street = :street AND city = :city AND state = :state")
+    int updateCoordinatesAndGeohash(int propertyId, String street, String city, String state,
+                                    double latitude, double longitude, String geohash);
+
+    /**
+     * Retrieves the next properties that have not been geocoded yet, by ascending ID.
+     * Used by the coordinate backfill, which walks the table from its last checkpoint.
+     *
+     * @param afterId The ID after which to start (0 to start from the beginning).
+     * @param limit   The maximum number of properties to return.
+     * @return The properties without coordinates, photos and points of interest not loaded.
+     */
+    @Query("SELECT * FROM property WHERE latitude IS NULL AND id > :afterId ORDER BY id LIMIT :limit")
+    List<Property> getPropertiesWithoutCoordinates(int afterId, int limit);
 
     /**
-     * Retrieves all properties from the database as a LiveData object.
-     * LiveData ensures that any UI component observing this data gets updates
-     * whenever there are changes in the database.
+     * Retrieves the location of every geocoded property, for the map.
+     * LiveData emits again whenever the property table changes.
      *
-     * @return A LiveData object containing a list of all properties.
+     * @return A LiveData list of the IDs and coordinates of the geocoded properties.
      */
-    @Query("SELECT * FROM property")
-    LiveData<List<Property>> getAllProperties();
+    @Query("SELECT id, latitude, longitude FROM property WHERE latitude IS NOT NULL AND longitude IS NOT NULL")
+    LiveData<List<PropertyLocation>> getPropertyLocations();
 
     /**
-     * Retrieves all properties as a Cursor object.
-     * This is typically used for content providers or exporting data.
+     * Retrieves the list rows of all properties page by page, so the list never holds the whole table in memory.
+     * Only the columns displayed by the list are read; rows are ordered by ID to keep page boundaries
+     * stable while the table changes.
      *
-     * @return A Cursor object containing all properties.
+     * @return A PagingSource loading the property summaries, invalidated whenever the table changes.
      */
-    @Query("SELECT * FROM property")
-    Cursor getPropertiesCursor();
+    @Query("SELECT " + PropertySearchQueryBuilder.SUMMARY_COLUMNS + " FROM property ORDER BY id")
+    PagingSource<Integer, PropertySummary> getPropertySummariesPaged();
 
     /**
-     * Retrieves a property by its ID as a Cursor object.
-     * This is typically used for content providers or exporting data.
+     * Runs a query on the property table and returns the raw Cursor.
+     * This is used by the content provider, which builds the query from the caller's projection,
+     * selection, sort order and limit with {@code SupportSQLiteQueryBuilder}.
      *
-     * @param id The unique ID of the property to retrieve.
-     * @return A Cursor object containing the requested property.
+     * @param query The query built by the content provider.
+     * @return A Cursor object containing the requested columns and rows.
      */
-    @Query("SELECT * FROM property WHERE id = :id")
-    Cursor getPropertyByIdCursor(long id);
+    @RawQuery
+    Cursor queryCursor(SupportSQLiteQuery query);
 
     /**
      * Deletes a property from the database by its ID.
@@ -94,25 +552,74 @@ public interface PropertyDao {
     void deleteAllProperties();
 
     /**
-     * Searches properties based on multiple filtering criteria.
-     * If a criterion is set to 0 or NULL, it will not be considered in the filtering process.
-     *
-     * @param minPrice   The minimum price filter.
-     * @param maxPrice   The maximum price filter.
-     * @param minSurface The minimum surface area filter.
-     * @param maxSurface The maximum surface area filter.
-     * @param minRooms   The minimum number of rooms filter.
-     * @param location   The location filter (searches by city or state).
-     * @return A LiveData list of properties that match the criteria.
-     */
-    @Query("SELECT * FROM property WHERE " +
-            "(:minPrice = 0 OR price >= :minPrice) AND " +
-            "(:maxPrice = 0 OR price <= :maxPrice) AND " +
-            "(:minSurface = 0 OR surface >= :minSurface) AND " +
-            "(:maxSurface = 0 OR surface <= :maxSurface) AND " +
-            "(:minRooms = 0 OR numberOfRooms >= :minRooms) AND " +
-            "(:location IS NULL OR city LIKE '%' || :location || '%' OR state LIKE '%' || :location || '%')")
-    LiveData<List<Property>> searchProperties(
-            double minPrice, double maxPrice, double minSurface, double maxSurface,
-            int minRooms, String location);
-}
\ No newline at end of file
+     * Searches the description, street and city of the properties with the full-text index.
+     * The best matches (most matched term occurrences) come first.
+     *
+     * @param matchExpression An FTS4 MATCH expression, built with
+     *                        {@link PropertySearchQueryBuilder#toMatchExpression(String)}.
+     * @return A LiveData list of matching properties, ordered by relevance.
+     */
+    @Query("SELECT property.* FROM property INNER JOIN property_fts ON property_fts.docid = property.id "
+            + "WHERE property_fts MATCH :matchExpression ORDER BY " + PropertySearchQueryBuilder.FTS_RELEVANCE + " DESC")
+    LiveData<List<Property>> searchByText(String matchExpression);
+
+    /**
+     * Searches the list rows of the properties page by page using a query built from the user's search criteria.
+     * Room wraps the query with LIMIT / OFFSET, so only the visible pages are read.
+     *
+     * @param query The summary search query built with {@link PropertySearchQueryBuilder#buildSummary()}.
+     * @return A PagingSource loading the matching property summaries.
+     */
+    @RawQuery(observedEntities = {Property.class, Photo.class, PropertyPointOfInterestCrossRef.class, PointOfInterest.class})
+    PagingSource<Integer, PropertySummary> searchPropertySummariesPaged(SupportSQLiteQuery query);
+
+    /**
+     * Searches the list rows of the properties in one go, for callers that need the whole result
+     * (e.g. spatial lookups). Must be called from a background thread.
+     *
+     * @param query The summary search query built with {@link PropertySearchQueryBuilder#buildSummary()}.
+     * @return The matching property summaries.
+     */
+    @RawQuery
+    List<PropertySummary> searchPropertySummaries(SupportSQLiteQuery query);
+
+    /**
+     * Retrieves the geocoded properties within a distance of a point, nearest first.
+     * The geohash index narrows the search down to a few cells before distances are computed.
+     * Must be called from a background thread.
+     *
+     * @param latitude  The latitude of the point.
+     * @param longitude The longitude of the point.
+     * @param radiusKm  The search radius, in kilometers.
+     * @param limit     The maximum number of properties to return, 0 for no limit.
+     * @return The property summaries, ordered by distance.
+     */
+    default List<PropertySummary> findPropertiesWithinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        SearchCriteria criteria = new SearchCriteria(0, 0, 0, 0, 0, 0, null);
+        criteria.centerLatitude = latitude;
+        criteria.centerLongitude = longitude;
+        criteria.radiusKm = radiusKm;
+        return searchPropertySummaries(new PropertySearchQueryBuilder(criteria).setLimit(limit).buildSummary());
+    }
+
+    /**
+     * Retrieves the geocoded properties inside a map viewport, nearest to its center first.
+     * Must be called from a background thread.
+     *
+     * @param minLatitude  The southern edge of the viewport.
+     * @param minLongitude The western edge of the viewport.
+     * @param maxLatitude  The northern edge of the viewport.
+     * @param maxLongitude The eastern edge of the viewport.
+     * @param limit        The maximum number of properties to return, 0 for no limit.
+     * @return The property summaries, ordered by distance to the center of the viewport.
+     */
+    default List<PropertySummary> findPropertiesInBounds(double minLatitude, double minLongitude,
+                                                         double maxLatitude, double maxLongitude, int limit) {
+        SearchCriteria criteria = new SearchCriteria(0, 0, 0, 0, 0, 0, null);
+        criteria.minLatitude = minLatitude;
+        criteria.minLongitude = minLongitude;
+        criteria.maxLatitude = maxLatitude;
+        criteria.maxLongitude = maxLongitude;
+        return searchPropertySummaries(new PropertySearchQueryBuilder(criteria).setLimit(limit).buildSummary());
+    }
+}
@@ -0,0 +1,371 @@
+package com.openclassrooms.realestatemanager.model.dao;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
+import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
+import com.openclassrooms.realestatemanager.model.geo.GeoHash;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds the SQL used by {@link PropertyDao#searchPropertySummariesPaged(SupportSQLiteQuery)} from a SearchCriteria.
+ * Only the filters that are actually set are added to the WHERE clause, and each of them is written
+ * as a plain range or prefix predicate so SQLite can answer it from the property indexes
+ * instead of scanning the whole table. Free text is matched through the property_fts full-text index.
+ * Distance and viewport searches are narrowed down through the geohash index, then ordered by distance.
+ */
+public class PropertySearchQueryBuilder {
+
+    /**
+     * Relevance of a full-text match: the number of matched term occurrences in the row.
+     * offsets() returns four space-separated integers per occurrence, so counting its spaces
+     * ranks rows the same way without decoding the string. Only valid in a property_fts MATCH query.
+     */
+    public static final String FTS_RELEVANCE = "(length(offsets(property_fts)) - length(replace(offsets(property_fts), ' ', '')))";
+
+    /**
+     * Columns of a {@link PropertySummary}, qualified so they stay unambiguous when property_fts is joined.
+     */
+    public static final String SUMMARY_COLUMNS = "property.id, property.type, property.price, property.city, "
+            + "property.country, property.coverPhotoUri, property.coverThumbnailUri, property.coverBlurHash, "
+            + "property.latitude, property.longitude";
+
+    // Kilometers per degree of latitude (and of longitude at the equator)
+    static final double KM_PER_DEGREE = 111.32;
+
+    // Maximum number of geohash cells covering a search area; each one is a range scan of the index
+    private static final int MAX_GEOHASH_CELLS = 9;
+
+    // Lower bound of cos(latitude), so a radius near the poles doesn't span infinite longitudes
+    private static final double MIN_LONGITUDE_SCALE = 0.01;
+
+    private final StringBuilder whereClause = new StringBuilder();
+    private final List<Object> args = new ArrayList<>();
+    private final List<Object> orderArgs = new ArrayList<>();
+    private final boolean fullText;
+    private String distanceExpression; // Squared distance to the search center, null when there is none
+    private int limit; // Maximum number of rows, 0 for no limit
+
+    /**
+     * Creates a builder for the given search criteria.
+     *
+     * @param criteria The search criteria entered by the user.
+     */
+    public PropertySearchQueryBuilder(SearchCriteria criteria) {
+        String matchExpression = toMatchExpression(criteria.keywords);
+        fullText = !matchExpression.isEmpty();
+        if (fullText) {
+            // Answered by the full-text index, joined on docid = property.id
+            addCondition("property_fts MATCH ?", matchExpression);
+        }
+
+        if (criteria.minPrice > 0) addCondition("price >= ?", criteria.minPrice);
+        if (criteria.maxPrice > 0) addCondition("price <= ?", criteria.maxPrice);
+        if (criteria.minSurface > 0) addCondition("surface >= ?", criteria.minSurface);
+        if (criteria.maxSurface > 0) addCondition("surface <= ?", criteria.maxSurface);
+        if (criteria.minRooms > 0) addCondition("numberOfRooms >= ?", criteria.minRooms);
+        if (criteria.minPhotos > 0) {
+            // Counted from the (propertyId, position) index of the photo table
+            addCondition("(SELECT COUNT(*) FROM photo WHERE photo.propertyId = property.id) >= ?", criteria.minPhotos);
+        }
+
+        String location = escapeLikePrefix(criteria.location);
+        if (!location.isEmpty()) {
+            // Prefix match on NOCASE columns, which SQLite 3.21+ (Android 9+) serves from the city and state
+            // indexes even with an ESCAPE clause
+            addCondition("(property.city LIKE ? ESCAPE '\\' OR property.state LIKE ? ESCAPE '\\')",
+                    location + "%", location + "%");
+        }
+
+        List<String> poiTypes = distinctTypes(criteria.pointOfInterestTypes);
+        if (!poiTypes.isEmpty()) {
+            // Properties linked to at least one POI of every requested type, found through the type index
+            StringBuilder condition = new StringBuilder("property.id IN (SELECT link.propertyId FROM property_point_of_interest link "
+                    + "INNER JOIN point_of_interest poi ON poi.id = link.poiId WHERE poi.type IN (");
+            for (int i = 0; i < poiTypes.size(); i++) {
+                condition.append(i == 0 ? "?" : ", ?");
+            }
+            condition.append(") GROUP BY link.propertyId HAVING COUNT(DISTINCT poi.type) = ?)");
+
+            List<Object> values = new ArrayList<>(poiTypes);
+            values.add(poiTypes.size());
+            addCondition(condition.toString(), values.toArray());
+        }
+
+        addSpatialConditions(criteria);
+    }
+
+    /**
+     * Limits the number of rows returned. Not used for paged queries, which Room limits itself.
+     *
+     * @param limit The maximum number of rows, 0 for no limit.
+     * @return This builder.
+     */
+    public PropertySearchQueryBuilder setLimit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Returns the SELECT statement for the criteria reading only the columns of a {@link PropertySummary}.
+     * When free text is set, the full-text index is joined and the results are ordered by relevance.
+     * When a center or a viewport is set, the results are ordered by distance first.
+     *
+     * @return The SQL query with '?' placeholders for each argument.
+     */
+    public String getSummarySql() {
+        return getSql(SUMMARY_COLUMNS);
+    }
+
+    /**
+     * Builds the SELECT statement with the given result columns.
+     *
+     * @param columns The comma-separated result columns.
+     * @return The SQL query with '?' placeholders for each argument.
+     */
+    private String getSql(String columns) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM property");
+        if (fullText) {
+            sql.append(" INNER JOIN property_fts ON property_fts.docid = property.id");
+        }
+        sql.append(getWhereClause());
+
+        if (distanceExpression != null) {
+            // Properties not geocoded yet come last
+            sql.append(" ORDER BY property.latitude IS NULL, ").append(distanceExpression);
+            if (fullText) sql.append(", ").append(FTS_RELEVANCE).append(" DESC");
+        } else if (fullText) {
+            sql.append(" ORDER BY ").append(FTS_RELEVANCE).append(" DESC");
+        }
+        if (limit > 0) {
+            sql.append(" LIMIT ").append(limit);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Returns the WHERE clause (including the leading keyword), or an empty string when no filter is set.
+     *
+     * @return The WHERE clause of the query.
+     */
+    public String getWhereClause() {
+        return whereClause.length() == 0 ? "" : " WHERE " + whereClause;
+    }
+
+    /**
+     * Returns the values bound to the '?' placeholders, in order.
+     *
+     * @return The query arguments.
+     */
+    public Object[] getArgs() {
+        List<Object> all = new ArrayList<>(args);
+        all.addAll(orderArgs); // The ORDER BY placeholders follow the WHERE ones
+        return all.toArray();
+    }
+
+    /**
+     * Builds the query returning {@link PropertySummary} rows, used by the paged property list.
+     *
+     * @return A SupportSQLiteQuery ready to be executed by a @RawQuery DAO method.
+     */
+    public SupportSQLiteQuery buildSummary() {
+        return new SimpleSQLiteQuery(getSummarySql(), getArgs());
+    }
+
+    /**
+     * Appends a condition to the WHERE clause with its arguments.
+     *
+     * @param condition The SQL condition with '?' placeholders.
+     * @param values    The values bound to the placeholders.
+     */
+    private void addCondition(String condition, Object... values) {
+        if (whereClause.length() > 0) {
+            whereClause.append(" AND ");
+        }
+        whereClause.append(condition);
+        for (Object value : values) {
+            args.add(value);
+        }
+    }
+
+    /**
+     * Adds the viewport and radius filters, and the ordering by distance.
+     * Distances are equirectangular (longitudes scaled by the cosine of the latitude of the center),
+     * which is accurate to well under 1% over the few kilometers of a property search.
+     *
+     * @param criteria The search criteria entered by the user.
+     */
+    private void addSpatialConditions(SearchCriteria criteria) {
+        boolean hasCenter = criteria.centerLatitude != null && criteria.centerLongitude != null;
+        boolean hasBounds = criteria.minLatitude != null && criteria.minLongitude != null
+                && criteria.maxLatitude != null && criteria.maxLongitude != null;
+        if (!hasCenter && !hasBounds) return;
+
+        if (hasBounds) {
+            addBoundingBox(criteria.minLatitude, criteria.minLongitude, criteria.maxLatitude, criteria.maxLongitude);
+        }
+
+        // Without a center, the results are ordered by distance to the center of the viewport
+        double centerLatitude = hasCenter ? criteria.centerLatitude : (criteria.minLatitude + criteria.maxLatitude) / 2;
+        double centerLongitude = hasCenter ? criteria.centerLongitude : (criteria.minLongitude + criteria.maxLongitude) / 2;
+        double longitudeScale = Math.max(MIN_LONGITUDE_SCALE, Math.cos(Math.toRadians(centerLatitude)));
+
+        distanceExpression = "((property.latitude - ?) * (property.latitude - ?)"
+                + " + (property.longitude - ?) * (property.longitude - ?) * ?)";
+        Object[] distanceArgs = {centerLatitude, centerLatitude, centerLongitude, centerLongitude,
+                longitudeScale * longitudeScale};
+
+        if (hasCenter && criteria.radiusKm > 0) {
+            double latitudeDelta = criteria.radiusKm / KM_PER_DEGREE;
+            double longitudeDelta = latitudeDelta / longitudeScale;
+            addBoundingBox(centerLatitude - latitudeDelta, centerLongitude - longitudeDelta,
+                    centerLatitude + latitudeDelta, centerLongitude + longitudeDelta);
+
+            // The box keeps its corners; the distance check turns it into a circle
+            Object[] values = new Object[distanceArgs.length + 1];
+            System.arraycopy(distanceArgs, 0, values, 0, distanceArgs.length);
+            values[distanceArgs.length] = latitudeDelta * latitudeDelta;
+            addCondition(distanceExpression + " <= ?", values);
+        }
+
+        for (Object value : distanceArgs) {
+            orderArgs.add(value);
+        }
+    }
+
+    /**
+     * Restricts the results to a bounding box. The geohash cells covering the box are matched first,
+     * each as a range of the geohash index, then the exact box is checked on the coordinates.
+     *
+     * @param minLatitude  The southern edge of the box.
+     * @param minLongitude The western edge of the box.
+     * @param maxLatitude  The northern edge of the box.
+     * @param maxLongitude The eastern edge of the box.
+     */
+    private void addBoundingBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        minLatitude = Math.max(-90, minLatitude);
+        maxLatitude = Math.min(90, maxLatitude);
+        minLongitude = Math.max(-180, minLongitude);
+        maxLongitude = Math.min(180, maxLongitude);
+
+        List<String> prefixes = GeoHash.coveringPrefixes(minLatitude, minLongitude, maxLatitude, maxLongitude, MAX_GEOHASH_CELLS);
+        if (!prefixes.isEmpty()) {
+            StringBuilder condition = new StringBuilder("(");
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < prefixes.size(); i++) {
+                condition.append(i == 0 ? "" : " OR ").append("(property.geohash >= ? AND property.geohash < ?)");
+                values.add(prefixes.get(i));
+                values.add(prefixes.get(i) + "~"); // '~' sorts after every geohash character
+            }
+            addCondition(condition.append(')').toString(), values.toArray());
+        }
+        addCondition("property.latitude BETWEEN ? AND ?", minLatitude, maxLatitude);
+        addCondition("property.longitude BETWEEN ? AND ?", minLongitude, maxLongitude);
+    }
+
+    /**
+     * Converts the free text typed by the user into an FTS4 MATCH expression.
+     * Text between double quotes becomes a phrase, every other word becomes a prefix term,
+     * and all of them must match. Punctuation is dropped and words are lower-cased,
+     * so user input can never be read as an FTS operator (OR, NOT, NEAR...).
+     *
+     * @param text The raw free text (may be null).
+     * @return The MATCH expression, or an empty string when there is nothing to search.
+     */
+    public static String toMatchExpression(String text) {
+        if (text == null) return "";
+        StringBuilder expression = new StringBuilder();
+        String[] segments = text.split("\"", -1);
+        for (int i = 0; i < segments.length; i++) {
+            String[] words = normalizeWords(segments[i]);
+            if (words.length == 0) continue;
+            if (i % 2 == 1) {
+                // Odd segments were between quotes
+                StringBuilder phrase = new StringBuilder("\"");
+                for (int j = 0; j < words.length; j++) {
+                    phrase.append(j == 0 ? "" : " ").append(words[j]);
+                }
+                appendTerm(expression, phrase.append('"').toString());
+            } else {
+                for (String word : words) {
+                    appendTerm(expression, word + "*");
+                }
+            }
+        }
+        return expression.toString();
+    }
+
+    /**
+     * Appends a term to a MATCH expression, separated by a space (implicit AND).
+     */
+    private static void appendTerm(StringBuilder expression, String term) {
+        if (expression.length() > 0) {
+            expression.append(' ');
+        }
+        expression.append(term);
+    }
+
+    /**
+     * Lower-cases a piece of text and splits it into words made of letters and digits only.
+     *
+     * @param text The text to split.
+     * @return The words, possibly none.
+     */
+    private static String[] normalizeWords(String text) {
+        StringBuilder cleaned = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            cleaned.append(Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : ' ');
+        }
+        String trimmed = cleaned.toString().trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    /**
+     * Trims the requested POI types and removes blanks and case-insensitive duplicates,
+     * so the HAVING clause compares against the number of distinct types.
+     *
+     * @param types The raw POI types (may be null).
+     * @return The distinct, non-empty types.
+     */
+    private static List<String> distinctTypes(List<String> types) {
+        List<String> result = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        if (types == null) return result;
+        for (String type : types) {
+            String trimmed = type != null ? type.trim() : "";
+            if (!trimmed.isEmpty() && seen.add(trimmed.toLowerCase(Locale.ROOT))) {
+                result.add(trimmed);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Trims the location and escapes the LIKE wildcards typed by the user with '\', so '%' and '_'
+     * match themselves: a city or state is searched by the exact prefix entered, and a leading wildcard
+     * can't prevent SQLite from using the index.
+     *
+     * @param location The raw location filter.
+     * @return The escaped prefix, to use with ESCAPE '\', or an empty string when no location is set.
+     */
+    private static String escapeLikePrefix(String location) {
+        if (location == null) return "";
+        String prefix = location.trim();
+        StringBuilder escaped = new StringBuilder(prefix.length());
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -8,21 +8,32 @@ import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
 
 import com.openclassrooms.realestatemanager.model.converters.DateConverter;
-import com.openclassrooms.realestatemanager.model.converters.PhotoConverter;
-import com.openclassrooms.realestatemanager.model.converters.PointOfInterestConverter;
+import com.openclassrooms.realestatemanager.model.dao.GeocodeCacheDao;
 import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.entity.GeocodeCacheEntry;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
 import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertyFts;
+import com.openclassrooms.realestatemanager.model.entity.PropertyPointOfInterestCrossRef;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
  * Singleton Room Database class for managing property-related data.
- * This database includes Property entities and utilizes TypeConverters
- * for storing complex data types (photos, points of interest, and dates).
+ * This database includes properties with their photos, points of interest and full-text index,
+ * the geocoding cache, and utilizes TypeConverters for storing complex data types (dates).
  */
-@Database(entities = {Property.class}, version = 1) // Define the database schema
-@TypeConverters({PhotoConverter.class, PointOfInterestConverter.class, DateConverter.class}) // Convert complex data types
+@Database(entities = {
+        Property.class,
+        Photo.class,
+        PointOfInterest.class,
+        PropertyPointOfInterestCrossRef.class,
+        PropertyFts.class,
+        GeocodeCacheEntry.class
+}, version = 10) // Define the database schema
+@TypeConverters({DateConverter.class}) // Convert complex data types
 public abstract class PropertyDatabase extends RoomDatabase {
 
     // Singleton instance of the database to prevent multiple instances
@@ -38,6 +49,13 @@ public abstract class PropertyDatabase extends RoomDatabase {
      */
     public abstract PropertyDao propertyDao();
 
+    /**
+     * Provides access to the DAO of the geocoding cache.
+     *
+     * @return The GeocodeCacheDao implementation.
+     */
+    public abstract GeocodeCacheDao geocodeCacheDao();
+
     /**
      * Returns the singleton instance of the database.
      * Ensures thread safety with double-checked locking.
@@ -53,7 +71,8 @@ public abstract class PropertyDatabase extends RoomDatabase {
                             context.getApplicationContext(), // Use application context to avoid memory leaks
                             PropertyDatabase.class, // Database class reference
                             "property_database" // Database name
-                    ).build();
+                    ).addMigrations(PropertyMigrations.ALL) // Upgrade existing installs without losing data
+                    .build();
                 }
             }
         }
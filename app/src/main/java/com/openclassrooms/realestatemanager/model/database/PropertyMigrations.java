@@ -0,0 +1,294 @@
+package com.openclassrooms.realestatemanager.model.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.openclassrooms.realestatemanager.model.converters.PhotoConverter;
+import com.openclassrooms.realestatemanager.model.converters.PointOfInterestConverter;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+import com.openclassrooms.realestatemanager.model.geo.GeoHash;
+
+import java.util.List;
+
+/**
+ * Room migrations for PropertyDatabase.
+ * Each migration upgrades the schema by one version while keeping the existing data.
+ */
+public class PropertyMigrations {
+
+    /**
+     * Version 1 to 2: adds the indexes used by the advanced search.
+     * SQLite cannot change the collation of an existing column, so the property table is rebuilt
+     * with case-insensitive city and state columns before the indexes are created.
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `property_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`type` TEXT, `price` REAL NOT NULL, `surface` REAL NOT NULL, `numberOfRooms` INTEGER NOT NULL, "
+                    + "`numberOfBathrooms` INTEGER NOT NULL, `numberOfBedrooms` INTEGER NOT NULL, `description` TEXT, "
+                    + "`photos` TEXT, `pointsOfInterest` TEXT, `isSold` INTEGER NOT NULL, `marketDate` INTEGER, "
+                    + "`soldDate` INTEGER, `agentName` TEXT, `street` TEXT, `city` TEXT COLLATE NOCASE, "
+                    + "`state` TEXT COLLATE NOCASE, `zipCode` TEXT, `country` TEXT)");
+            database.execSQL("INSERT INTO `property_new` SELECT `id`, `type`, `price`, `surface`, `numberOfRooms`, "
+                    + "`numberOfBathrooms`, `numberOfBedrooms`, `description`, `photos`, `pointsOfInterest`, `isSold`, "
+                    + "`marketDate`, `soldDate`, `agentName`, `street`, `city`, `state`, `zipCode`, `country` FROM `property`");
+            database.execSQL("DROP TABLE `property`");
+            database.execSQL("ALTER TABLE `property_new` RENAME TO `property`");
+            createPropertyIndexes(database);
+        }
+    };
+
+    /**
+     * Version 2 to 3: moves photos from the JSON column of the property table into their own photo table.
+     * The cover photo URI is kept on the property row, and the table is rebuilt without the JSON column.
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `photo` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`propertyId` INTEGER NOT NULL, `position` INTEGER NOT NULL, `uri` TEXT, `description` TEXT, "
+                    + "FOREIGN KEY(`propertyId`) REFERENCES `property`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_photo_propertyId_position` ON `photo` (`propertyId`, `position`)");
+
+            // Copy each JSON photo list into photo rows; null elements ("[null]" in the JSON) are dropped
+            try (Cursor cursor = database.query("SELECT `id`, `photos` FROM `property`")) {
+                while (cursor.moveToNext()) {
+                    List<Photo> photos = PhotoConverter.toPhotoList(cursor.getString(1));
+                    if (photos == null) continue;
+                    int position = 0;
+                    for (Photo photo : photos) {
+                        if (photo == null) continue;
+                        ContentValues values = new ContentValues();
+                        values.put("propertyId", cursor.getInt(0));
+                        values.put("position", position++);
+                        values.put("uri", photo.uri);
+                        values.put("description", photo.description);
+                        database.insert("photo", SQLiteDatabase.CONFLICT_NONE, values);
+                    }
+                }
+            }
+
+            database.execSQL("CREATE TABLE IF NOT EXISTS `property_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`type` TEXT, `price` REAL NOT NULL, `surface` REAL NOT NULL, `numberOfRooms` INTEGER NOT NULL, "
+                    + "`numberOfBathrooms` INTEGER NOT NULL, `numberOfBedrooms` INTEGER NOT NULL, `description` TEXT, "
+                    + "`coverPhotoUri` TEXT, `pointsOfInterest` TEXT, `isSold` INTEGER NOT NULL, `marketDate` INTEGER, "
+                    + "`soldDate` INTEGER, `agentName` TEXT, `street` TEXT, `city` TEXT COLLATE NOCASE, "
+                    + "`state` TEXT COLLATE NOCASE, `zipCode` TEXT, `country` TEXT)");
+            database.execSQL("INSERT INTO `property_new` SELECT `id`, `type`, `price`, `surface`, `numberOfRooms`, "
+                    + "`numberOfBathrooms`, `numberOfBedrooms`, `description`, "
+                    + "(SELECT `uri` FROM `photo` WHERE `photo`.`propertyId` = `property`.`id` ORDER BY `position` LIMIT 1), "
+                    + "`pointsOfInterest`, `isSold`, `marketDate`, `soldDate`, `agentName`, "
+                    + "`street`, `city`, `state`, `zipCode`, `country` FROM `property`");
+            database.execSQL("DROP TABLE `property`");
+            database.execSQL("ALTER TABLE `property_new` RENAME TO `property`");
+            createPropertyIndexes(database);
+        }
+    };
+
+    /**
+     * Version 3 to 4: moves points of interest from the JSON column of the property table into the
+     * point_of_interest table and its property_point_of_interest junction, then rebuilds property
+     * without the JSON column.
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `point_of_interest` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`name` TEXT, `type` TEXT COLLATE NOCASE)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_point_of_interest_type` ON `point_of_interest` (`type`)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_point_of_interest_name_type` ON `point_of_interest` (`name`, `type`)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `property_point_of_interest` (`propertyId` INTEGER NOT NULL, "
+                    + "`poiId` INTEGER NOT NULL, PRIMARY KEY(`propertyId`, `poiId`), "
+                    + "FOREIGN KEY(`propertyId`) REFERENCES `property`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`poiId`) REFERENCES `point_of_interest`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_property_point_of_interest_poiId` ON `property_point_of_interest` (`poiId`)");
+
+            // Copy each JSON POI list into shared POI rows linked to their property, dropping null elements
+            try (Cursor cursor = database.query("SELECT `id`, `pointsOfInterest` FROM `property`")) {
+                while (cursor.moveToNext()) {
+                    List<PointOfInterest> pointsOfInterest = PointOfInterestConverter.toPoiList(cursor.getString(1));
+                    if (pointsOfInterest == null) continue;
+                    for (PointOfInterest pointOfInterest : pointsOfInterest) {
+                        if (pointOfInterest == null) continue;
+                        long poiId = findOrInsertPointOfInterest(database, pointOfInterest);
+                        ContentValues link = new ContentValues();
+                        link.put("propertyId", cursor.getInt(0));
+                        link.put("poiId", poiId);
+                        database.insert("property_point_of_interest", SQLiteDatabase.CONFLICT_IGNORE, link);
+                    }
+                }
+            }
+
+            database.execSQL("CREATE TABLE IF NOT EXISTS `property_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`type` TEXT, `price` REAL NOT NULL, `surface` REAL NOT NULL, `numberOfRooms` INTEGER NOT NULL, "
+                    + "`numberOfBathrooms` INTEGER NOT NULL, `numberOfBedrooms` INTEGER NOT NULL, `description` TEXT, "
+                    + "`coverPhotoUri` TEXT, `isSold` INTEGER NOT NULL, `marketDate` INTEGER, `soldDate` INTEGER, "
+                    + "`agentName` TEXT, `street` TEXT, `city` TEXT COLLATE NOCASE, `state` TEXT COLLATE NOCASE, "
+                    + "`zipCode` TEXT, `country` TEXT)");
+            database.execSQL("INSERT INTO `property_new` SELECT `id`, `type`, `price`, `surface`, `numberOfRooms`, "
+                    + "`numberOfBathrooms`, `numberOfBedrooms`, `description`, `coverPhotoUri`, `isSold`, `marketDate`, "
+                    + "`soldDate`, `agentName`, `street`, `city`, `state`, `zipCode`, `country` FROM `property`");
+            database.execSQL("DROP TABLE `property`");
+            database.execSQL("ALTER TABLE `property_new` RENAME TO `property`");
+            createPropertyIndexes(database);
+        }
+    };
+
+    /**
+     * Version 4 to 5: creates the property_fts full-text index over the description, street and city
+     * of each property, the triggers that keep it in sync with the property table, and fills it
+     * from the existing rows.
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `property_fts` USING FTS4("
+                    + "`description` TEXT, `street` TEXT, `city` TEXT, content=`property`)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_property_fts_BEFORE_UPDATE "
+                    + "BEFORE UPDATE ON `property` BEGIN DELETE FROM `property_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_property_fts_BEFORE_DELETE "
+                    + "BEFORE DELETE ON `property` BEGIN DELETE FROM `property_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_property_fts_AFTER_UPDATE "
+                    + "AFTER UPDATE ON `property` BEGIN INSERT INTO `property_fts`(`docid`, `description`, `street`, `city`) "
+                    + "VALUES (NEW.`rowid`, NEW.`description`, NEW.`street`, NEW.`city`); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_property_fts_AFTER_INSERT "
+                    + "AFTER INSERT ON `property` BEGIN INSERT INTO `property_fts`(`docid`, `description`, `street`, `city`) "
+                    + "VALUES (NEW.`rowid`, NEW.`description`, NEW.`street`, NEW.`city`); END");
+
+            // Index the properties that already exist
+            database.execSQL("INSERT INTO `property_fts`(`property_fts`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * Version 5 to 6: creates the geocode_cache table holding the coordinates already returned
+     * by Nominatim, keyed by normalized address.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `geocode_cache` (`address` TEXT NOT NULL, "
+                    + "`lat` REAL NOT NULL, `lon` REAL NOT NULL, `timestamp` INTEGER NOT NULL, "
+                    + "`ttl` INTEGER NOT NULL, PRIMARY KEY(`address`))");
+        }
+    };
+
+    /**
+     * Version 6 to 7: adds the latitude and longitude columns of the property table.
+     * Existing rows stay null until their address is geocoded.
+     * The columns are added in place, so the full-text sync triggers are kept.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `property` ADD COLUMN `latitude` REAL");
+            database.execSQL("ALTER TABLE `property` ADD COLUMN `longitude` REAL");
+        }
+    };
+
+    /**
+     * Version 7 to 8: adds the geohash column of the property table and its index, the spatial index
+     * of the distance and viewport searches, and computes it for the properties already geocoded.
+     * The column is added in place, so the full-text sync triggers are kept.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `property` ADD COLUMN `geohash` TEXT");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_property_geohash` ON `property` (`geohash`)");
+
+            try (Cursor cursor = database.query("SELECT `id`, `latitude`, `longitude` FROM `property` "
+                    + "WHERE `latitude` IS NOT NULL AND `longitude` IS NOT NULL")) {
+                while (cursor.moveToNext()) {
+                    ContentValues values = new ContentValues();
+                    values.put("geohash", GeoHash.encode(cursor.getDouble(1), cursor.getDouble(2), GeoHash.STORED_PRECISION));
+                    database.update("property", SQLiteDatabase.CONFLICT_NONE, values, "`id` = ?",
+                            new Object[]{cursor.getInt(0)});
+                }
+            }
+        }
+    };
+
+    /**
+     * Version 8 to 9: adds the thumbnail columns of the photo table and the cover thumbnail of the property table.
+     * They stay null until the thumbnail pipeline generates the thumbnails of the existing photos.
+     * The columns are added in place, so the full-text sync triggers are kept.
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `photo` ADD COLUMN `listThumbnailUri` TEXT");
+            database.execSQL("ALTER TABLE `photo` ADD COLUMN `detailThumbnailUri` TEXT");
+            database.execSQL("ALTER TABLE `property` ADD COLUMN `coverThumbnailUri` TEXT");
+        }
+    };
+
+    /**
+     * Version 9 to 10: adds the BlurHash placeholder of the photos and of the cover photo of the properties.
+     * They stay null until the thumbnail pipeline computes them for the existing photos.
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `photo` ADD COLUMN `blurHash` TEXT");
+            database.execSQL("ALTER TABLE `property` ADD COLUMN `coverBlurHash` TEXT");
+        }
+    };
+
+    /**
+     * All migrations, in order, to register on the database builder.
+     */
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+
+    /**
+     * Returns the ID of the point of interest with the same name and type, inserting it if needed.
+     *
+     * @param database        The database being migrated.
+     * @param pointOfInterest The point of interest read from the legacy JSON column.
+     * @return The ID of the point of interest row.
+     */
+    private static long findOrInsertPointOfInterest(SupportSQLiteDatabase database, PointOfInterest pointOfInterest) {
+        ContentValues values = new ContentValues();
+        values.put("name", pointOfInterest.name);
+        values.put("type", pointOfInterest.type);
+        long id = database.insert("point_of_interest", SQLiteDatabase.CONFLICT_IGNORE, values);
+        if (id != -1) return id;
+
+        try (Cursor cursor = database.query("SELECT `id` FROM `point_of_interest` WHERE `name` = ? AND `type` = ?",
+                new Object[]{pointOfInterest.name, pointOfInterest.type})) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : -1;
+        }
+    }
+
+    /**
+     * Creates the search indexes of the property table.
+     * Must be called again each time the table is rebuilt, since dropping a table drops its indexes.
+     * From version 5 on, a rebuild also drops the property_fts sync triggers, which must then be recreated.
+     *
+     * @param database The database being migrated.
+     */
+    private static void createPropertyIndexes(SupportSQLiteDatabase database) {
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_property_price` ON `property` (`price`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_property_surface` ON `property` (`surface`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_property_numberOfRooms` ON `property` (`numberOfRooms`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_property_city` ON `property` (`city`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_property_state` ON `property` (`state`)");
+    }
+}
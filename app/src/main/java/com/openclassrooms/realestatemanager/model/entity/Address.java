@@ -3,6 +3,9 @@ package com.openclassrooms.realestatemanager.model.entity;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+
 /**
  * Represents an address with street, city, state, zip code, and country information.
  * Implements Parcelable to allow passing Address objects between components.
@@ -11,8 +14,13 @@ public class Address implements Parcelable {
 
     // Address fields
     public String street;
+
+    // City and state use a case-insensitive collation so prefix LIKE searches can use their indexes
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
     public String city;
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
     public String state;
+
     public String zipCode;
     public String country;
 
@@ -39,6 +47,17 @@ public class Address implements Parcelable {
         this.country = country;
     }
 
+    /**
+     * Builds the query sent to the geocoding service for this address.
+     *
+     * @return The street, city and state separated by commas, or null if one of them is missing.
+     */
+    @Nullable
+    public String toGeocodingQuery() {
+        if (street == null || city == null || state == null) return null;
+        return street + ", " + city + ", " + state;
+    }
+
     /**
      * Constructor to recreate an Address object from a Parcel.
      *
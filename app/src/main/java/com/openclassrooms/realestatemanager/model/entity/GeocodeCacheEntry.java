@@ -0,0 +1,76 @@
+package com.openclassrooms.realestatemanager.model.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Model class representing a geocoding result cached on the device.
+ * Entries are keyed by the normalized address, so the same address is only sent to Nominatim
+ * once per time to live.
+ */
+@Entity(tableName = "geocode_cache")
+public class GeocodeCacheEntry {
+
+    /** Normalized address used as the lookup key. */
+    @PrimaryKey
+    @NonNull
+    public String address = "";
+
+    /** Latitude returned by the geocoding service. */
+    public double lat;
+
+    /** Longitude returned by the geocoding service. */
+    public double lon;
+
+    /** Time the coordinates were fetched, in milliseconds since the epoch. */
+    public long timestamp;
+
+    /** Time to live of the entry, in milliseconds. */
+    public long ttl;
+
+    /**
+     * Default constructor required by Room.
+     */
+    public GeocodeCacheEntry() {
+    }
+
+    /**
+     * Constructor initializing all fields.
+     *
+     * @param address   The normalized address.
+     * @param lat       The latitude of the address.
+     * @param lon       The longitude of the address.
+     * @param timestamp The time the coordinates were fetched.
+     * @param ttl       The time to live of the entry.
+     */
+    public GeocodeCacheEntry(@NonNull String address, double lat, double lon, long timestamp, long ttl) {
+        this.address = address;
+        this.lat = lat;
+        this.lon = lon;
+        this.timestamp = timestamp;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Checks whether the entry is past its time to live.
+     *
+     * @param now The current time, in milliseconds since the epoch.
+     * @return True if the coordinates should be fetched again.
+     */
+    public boolean isExpired(long now) {
+        return now - timestamp > ttl;
+    }
+
+    /**
+     * Converts the entry to the response type used by the map screens.
+     *
+     * @return A NominatimResponse holding the cached coordinates.
+     */
+    public NominatimResponse toResponse() {
+        NominatimResponse response = new NominatimResponse();
+        response.lat = lat;
+        response.lon = lon;
+        return response;
+    }
+}
\ No newline at end of file
@@ -3,18 +3,50 @@ package com.openclassrooms.realestatemanager.model.entity;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
 /**
  * Model class representing a photo associated with a property.
+ * Stored in its own table, linked to its property by a foreign key.
  * Implements Parcelable to allow passing photo objects between components.
  */
+@Entity(tableName = "photo",
+        foreignKeys = @ForeignKey(
+                entity = Property.class,
+                parentColumns = "id",
+                childColumns = "propertyId",
+                onDelete = ForeignKey.CASCADE), // Photos are removed with their property
+        indices = @Index({"propertyId", "position"}))
 public class Photo implements Parcelable {
 
+    /** Unique identifier of the photo row. */
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    /** ID of the property this photo belongs to. */
+    public int propertyId;
+
+    /** Position of the photo in the property gallery (0 is the cover photo). */
+    public int position;
+
     /** URI of the photo (file path or online link). */
     public String uri;
 
     /** Description or caption for the photo. */
     public String description;
 
+    /** URI of the downsampled copy shown in list rows, or null until it is generated. */
+    public String listThumbnailUri;
+
+    /** URI of the downsampled copy shown in the detail carousel, or null until it is generated. */
+    public String detailThumbnailUri;
+
+    /** BlurHash of the photo, decoded into a placeholder while the image loads; null until it is computed. */
+    public String blurHash;
+
     /**
      * Default constructor required by Room.
      * Used for database operations.
@@ -39,8 +71,14 @@ public class Photo implements Parcelable {
      * @param in Parcel containing serialized Photo data.
      */
     protected Photo(Parcel in) {
+        id = in.readLong();
+        propertyId = in.readInt();
+        position = in.readInt();
         uri = in.readString();
         description = in.readString();
+        listThumbnailUri = in.readString();
+        detailThumbnailUri = in.readString();
+        blurHash = in.readString();
     }
 
     /**
@@ -78,7 +116,13 @@ public class Photo implements Parcelable {
      */
     @Override
     public void writeToParcel(Parcel dest, int flags) {
+        dest.writeLong(id);
+        dest.writeInt(propertyId);
+        dest.writeInt(position);
         dest.writeString(uri);
         dest.writeString(description);
+        dest.writeString(listThumbnailUri);
+        dest.writeString(detailThumbnailUri);
+        dest.writeString(blurHash);
     }
 }
\ No newline at end of file
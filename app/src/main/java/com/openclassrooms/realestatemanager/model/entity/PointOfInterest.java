@@ -3,16 +3,32 @@ package com.openclassrooms.realestatemanager.model.entity;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
 /**
  * Model class representing a Point of Interest (POI) related to a property.
+ * Stored once in its own table and linked to properties through PropertyPointOfInterestCrossRef.
  * Implements Parcelable to allow passing POI objects between components.
  */
+@Entity(tableName = "point_of_interest",
+        indices = {
+                @Index("type"), // Used by the "near a school and a park" search
+                @Index(value = {"name", "type"}, unique = true) // A POI is shared by all nearby properties
+        })
 public class PointOfInterest implements Parcelable {
 
+    /** Unique identifier of the point of interest. */
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
     /** Name of the point of interest. */
     public String name;
 
     /** Type or category of the point of interest (e.g., school, park, store). */
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
     public String type;
 
     /**
@@ -6,11 +6,11 @@ import android.os.Parcelable;
 
 import androidx.room.Embedded;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
-import androidx.room.TypeConverters;
 
-import com.openclassrooms.realestatemanager.model.converters.PhotoConverter;
-import com.openclassrooms.realestatemanager.model.converters.PointOfInterestConverter;
+import com.openclassrooms.realestatemanager.model.geo.GeoHash;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -21,7 +21,15 @@ import java.util.List;
  * Implements Parcelable to allow passing property objects between components.
  * This class is used as a Room entity to store property data in the database.
  */
-@Entity(tableName = "property")
+@Entity(tableName = "property",
+        indices = {
+                @Index("price"),
+                @Index("surface"),
+                @Index("numberOfRooms"),
+                @Index("city"),
+                @Index("state"),
+                @Index("geohash")
+        }) // Indexes backing the columns filtered by the advanced search
 public class Property implements Parcelable {
 
     @PrimaryKey(autoGenerate = true)
@@ -38,17 +46,25 @@ public class Property implements Parcelable {
     @Embedded
     public Address address; // Address object storing location details
 
-    @TypeConverters(PhotoConverter.class)
-    public List<Photo> photos; // List of property photos
+    @Ignore
+    public List<Photo> photos; // List of property photos, stored in the photo table
 
-    @TypeConverters(PointOfInterestConverter.class)
-    public List<PointOfInterest> pointsOfInterest; // List of nearby points of interest
+    public String coverPhotoUri; // URI of the first photo, kept on the row so lists don't load the photo table
+    public String coverThumbnailUri; // URI of the list thumbnail of the first photo, null until it is generated
+    public String coverBlurHash; // BlurHash of the first photo, null until it is computed
+
+    @Ignore
+    public List<PointOfInterest> pointsOfInterest; // List of nearby points of interest, stored in the point_of_interest table
 
     public boolean isSold; // Flag indicating if the property has been sold
     public Date marketDate; // Date when the property was listed on the market
     public Date soldDate; // Date when the property was sold (if applicable)
     public String agentName; // Name of the real estate agent responsible for the property
 
+    public Double latitude; // Geocoded latitude of the address, null until the address has been geocoded
+    public Double longitude; // Geocoded longitude of the address, null until the address has been geocoded
+    public String geohash; // Geohash of the coordinates, the spatial index; derived from them by PropertyDao on every write
+
     /**
      * Default constructor required by Room.
      */
@@ -141,6 +157,11 @@ public class Property implements Parcelable {
         marketDate = new Date(in.readLong());
         soldDate = new Date(in.readLong());
         agentName = in.readString();
+        coverPhotoUri = in.readString();
+        coverThumbnailUri = in.readString();
+        coverBlurHash = in.readString();
+        latitude = (Double) in.readValue(Double.class.getClassLoader());
+        longitude = (Double) in.readValue(Double.class.getClassLoader());
     }
 
     /**
@@ -193,6 +214,11 @@ public class Property implements Parcelable {
         dest.writeLong(marketDate != null ? marketDate.getTime() : -1);
         dest.writeLong(soldDate != null ? soldDate.getTime() : -1);
         dest.writeString(agentName);
+        dest.writeString(coverPhotoUri);
+        dest.writeString(coverThumbnailUri);
+        dest.writeString(coverBlurHash);
+        dest.writeValue(latitude);
+        dest.writeValue(longitude);
     }
 
     /**
@@ -203,19 +229,31 @@ public class Property implements Parcelable {
      */
     public static Property fromContentValues(ContentValues values) {
         Property property = new Property();
-        if (values.containsKey("id")) property.id = values.getAsInteger("id");
-        if (values.containsKey("type")) property.type = values.getAsString("type");
-        if (values.containsKey("price")) property.price = values.getAsDouble("price");
-        if (values.containsKey("surface")) property.surface = values.getAsDouble("surface");
-        if (values.containsKey("numberOfRooms")) property.numberOfRooms = values.getAsInteger("numberOfRooms");
-        if (values.containsKey("numberOfBathrooms")) property.numberOfBathrooms = values.getAsInteger("numberOfBathrooms");
-        if (values.containsKey("numberOfBedrooms")) property.numberOfBedrooms = values.getAsInteger("numberOfBedrooms");
-        if (values.containsKey("description")) property.description = values.getAsString("description");
-        if (values.containsKey("isSold")) property.isSold = values.getAsBoolean("isSold");
-        if (values.containsKey("marketDate")) property.marketDate = new Date(values.getAsLong("marketDate"));
-        if (values.containsKey("soldDate")) property.soldDate = new Date(values.getAsLong("soldDate"));
-        if (values.containsKey("agentName")) property.agentName = values.getAsString("agentName");
-
+        property.applyContentValues(values);
         return property;
     }
+
+    /**
+     * Overwrites the fields present in ContentValues, leaving the others as they are.
+     * The geohash is derived again from the resulting coordinates.
+     *
+     * @param values The ContentValues containing the property data to change.
+     */
+    public void applyContentValues(ContentValues values) {
+        if (values.containsKey("id")) id = values.getAsInteger("id");
+        if (values.containsKey("type")) type = values.getAsString("type");
+        if (values.containsKey("price")) price = values.getAsDouble("price");
+        if (values.containsKey("surface")) surface = values.getAsDouble("surface");
+        if (values.containsKey("numberOfRooms")) numberOfRooms = values.getAsInteger("numberOfRooms");
+        if (values.containsKey("numberOfBathrooms")) numberOfBathrooms = values.getAsInteger("numberOfBathrooms");
+        if (values.containsKey("numberOfBedrooms")) numberOfBedrooms = values.getAsInteger("numberOfBedrooms");
+        if (values.containsKey("description")) description = values.getAsString("description");
+        if (values.containsKey("isSold")) isSold = values.getAsBoolean("isSold");
+        if (values.containsKey("marketDate")) marketDate = new Date(values.getAsLong("marketDate"));
+        if (values.containsKey("soldDate")) soldDate = new Date(values.getAsLong("soldDate"));
+        if (values.containsKey("agentName")) agentName = values.getAsString("agentName");
+        if (values.containsKey("latitude")) latitude = values.getAsDouble("latitude");
+        if (values.containsKey("longitude")) longitude = values.getAsDouble("longitude");
+        geohash = GeoHash.encode(latitude, longitude);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.openclassrooms.realestatemanager.model.entity;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over the searchable text of a property (description, street and city).
+ * The index is external-content: the text stays in the property table and Room keeps the index
+ * in sync through triggers on that table, so each docid is the ID of a property.
+ */
+@Fts4(contentEntity = Property.class)
+@Entity(tableName = "property_fts")
+public class PropertyFts {
+
+    public String description; // Property description
+    public String street; // Street name and number
+    public String city; // City name
+}
\ No newline at end of file
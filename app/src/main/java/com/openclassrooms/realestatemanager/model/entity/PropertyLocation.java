@@ -0,0 +1,31 @@
+package com.openclassrooms.realestatemanager.model.entity;
+
+/**
+ * Lightweight projection of a geocoded property holding only what the map clusters need.
+ * Room fills it from three columns, so the map never reads the other fields of the table.
+ */
+public class PropertyLocation {
+
+    public int id; // Unique identifier of the property
+    public double latitude; // Geocoded latitude of the property
+    public double longitude; // Geocoded longitude of the property
+
+    /**
+     * Default constructor required by Room.
+     */
+    public PropertyLocation() {
+    }
+
+    /**
+     * Constructor initializing all fields.
+     *
+     * @param id        The ID of the property.
+     * @param latitude  The latitude of the property.
+     * @param longitude The longitude of the property.
+     */
+    public PropertyLocation(int id, double latitude, double longitude) {
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.openclassrooms.realestatemanager.model.entity;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Junction entity linking a property to the points of interest located near it.
+ * Keyed by property first, so all the POIs of a property are read from the primary key.
+ */
+@Entity(tableName = "property_point_of_interest",
+        primaryKeys = {"propertyId", "poiId"},
+        foreignKeys = {
+                @ForeignKey(entity = Property.class, parentColumns = "id", childColumns = "propertyId",
+                        onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = PointOfInterest.class, parentColumns = "id", childColumns = "poiId",
+                        onDelete = ForeignKey.CASCADE)
+        },
+        indices = @Index("poiId"))
+public class PropertyPointOfInterestCrossRef {
+
+    public int propertyId; // ID of the property
+    public long poiId; // ID of the nearby point of interest
+
+    /**
+     * Default constructor required by Room.
+     */
+    public PropertyPointOfInterestCrossRef() {
+    }
+
+    /**
+     * Constructor initializing both sides of the link.
+     *
+     * @param propertyId The ID of the property.
+     * @param poiId      The ID of the point of interest.
+     */
+    public PropertyPointOfInterestCrossRef(int propertyId, long poiId) {
+        this.propertyId = propertyId;
+        this.poiId = poiId;
+    }
+}
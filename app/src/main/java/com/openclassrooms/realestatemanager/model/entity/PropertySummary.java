@@ -0,0 +1,73 @@
+package com.openclassrooms.realestatemanager.model.entity;
+
+import java.util.Objects;
+
+/**
+ * Lightweight projection of a property holding only what a row of the property list displays.
+ * Room fills it from a handful of columns, so the list never reads descriptions, dates,
+ * photos or points of interest. The full Property is loaded when the detail screen opens.
+ */
+public class PropertySummary {
+
+    public int id; // Unique identifier of the property
+    public String type; // Property type (e.g., house, apartment)
+    public double price; // Property price
+    public String city; // City of the property address
+    public String country; // Country of the property address
+    public String coverPhotoUri; // URI of the first photo, or null if the property has none
+    public String coverThumbnailUri; // URI of the list thumbnail of the cover photo, null until it is generated
+    public String coverBlurHash; // BlurHash placeholder of the cover photo, null until it is computed
+    public Double latitude; // Geocoded latitude, used to prefetch the map snapshot; null until geocoded
+    public Double longitude; // Geocoded longitude, null until geocoded
+
+    /**
+     * Default constructor required by Room.
+     */
+    public PropertySummary() {
+    }
+
+    /**
+     * Constructor initializing all fields.
+     *
+     * @param id            The ID of the property.
+     * @param type          The property type.
+     * @param price         The property price.
+     * @param city          The city of the property.
+     * @param country       The country of the property.
+     * @param coverPhotoUri The URI of the cover photo (may be null).
+     */
+    public PropertySummary(int id, String type, double price, String city, String country, String coverPhotoUri) {
+        this.id = id;
+        this.type = type;
+        this.price = price;
+        this.city = city;
+        this.country = country;
+        this.coverPhotoUri = coverPhotoUri;
+    }
+
+    /**
+     * Two summaries are equal when every displayed field is equal,
+     * which lets the list adapter skip rebinding unchanged rows.
+     * The coordinates are not displayed, so they are left out.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PropertySummary that = (PropertySummary) o;
+        return id == that.id
+                && Double.compare(that.price, price) == 0
+                && Objects.equals(type, that.type)
+                && Objects.equals(city, that.city)
+                && Objects.equals(country, that.country)
+                && Objects.equals(coverPhotoUri, that.coverPhotoUri)
+                && Objects.equals(coverThumbnailUri, that.coverThumbnailUri)
+                && Objects.equals(coverBlurHash, that.coverBlurHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type, price, city, country, coverPhotoUri, coverThumbnailUri, coverBlurHash);
+    }
+
+}
\ No newline at end of file
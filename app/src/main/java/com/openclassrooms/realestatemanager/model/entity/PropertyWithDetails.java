@@ -0,0 +1,40 @@
+package com.openclassrooms.realestatemanager.model.entity;
+
+import androidx.room.Embedded;
+import androidx.room.Junction;
+import androidx.room.Relation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read model combining a property with its photos and nearby points of interest.
+ * Used by the screens that need the whole property (details and edition).
+ */
+public class PropertyWithDetails {
+
+    @Embedded
+    public Property property; // The property row
+
+    @Relation(parentColumn = "id", entityColumn = "propertyId")
+    public List<Photo> photos; // Photos linked to the property
+
+    @Relation(parentColumn = "id", entityColumn = "id",
+            associateBy = @Junction(value = PropertyPointOfInterestCrossRef.class,
+                    parentColumn = "propertyId", entityColumn = "poiId"))
+    public List<PointOfInterest> pointsOfInterest; // Points of interest near the property
+
+    /**
+     * Returns the property with its photos (sorted by gallery position) and points of interest attached.
+     *
+     * @return The property with its lists filled.
+     */
+    public Property toProperty() {
+        List<Photo> sortedPhotos = photos != null ? new ArrayList<>(photos) : new ArrayList<>();
+        Collections.sort(sortedPhotos, (first, second) -> Integer.compare(first.position, second.position));
+        property.photos = sortedPhotos;
+        property.pointsOfInterest = pointsOfInterest != null ? new ArrayList<>(pointsOfInterest) : new ArrayList<>();
+        return property;
+    }
+}
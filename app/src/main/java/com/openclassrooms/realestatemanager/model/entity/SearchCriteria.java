@@ -1,9 +1,13 @@
 package com.openclassrooms.realestatemanager.model.entity;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Model class representing search criteria for filtering property listings.
  * This class holds the constraints used for querying properties based on
- * price, surface area, number of rooms, photos, and location.
+ * price, surface area, number of rooms, photos, location, nearby points of interest, free text,
+ * distance from a point and map viewport.
  */
 public class SearchCriteria {
 
@@ -14,6 +18,15 @@ public class SearchCriteria {
     public int minRooms; // Minimum number of rooms filter
     public int minPhotos; // Minimum number of photos required for the property
     public String location; // Location filter (city or state)
+    public List<String> pointOfInterestTypes = new ArrayList<>(); // Types of POI that must all be near the property
+    public String keywords; // Free text matched against the description, street and city
+    public Double centerLatitude; // Center of a distance search, null when not searching around a point
+    public Double centerLongitude; // Center of a distance search, null when not searching around a point
+    public double radiusKm; // Maximum distance from the center in kilometers, 0 to only order by distance
+    public Double minLatitude; // Southern edge of the map viewport, null when not searching a viewport
+    public Double minLongitude; // Western edge of the map viewport
+    public Double maxLatitude; // Northern edge of the map viewport
+    public Double maxLongitude; // Eastern edge of the map viewport
 
     /**
      * Constructor for defining search criteria with various property constraints.
@@ -0,0 +1,40 @@
+package com.openclassrooms.realestatemanager.model.geo;
+
+/**
+ * Group of properties drawn as a single marker on the map at a given zoom level.
+ * A cluster of one property keeps its ID, so tapping it can open the property.
+ */
+public final class Cluster {
+
+    // Property ID of clusters holding more than one property
+    public static final int NO_PROPERTY = -1;
+
+    public final double latitude; // Latitude of the centroid of the properties
+    public final double longitude; // Longitude of the centroid of the properties
+    public final int count; // Number of properties in the cluster
+    public final int propertyId; // ID of the single property, or NO_PROPERTY
+
+    /**
+     * Constructor initializing all fields.
+     *
+     * @param latitude   The latitude of the centroid.
+     * @param longitude  The longitude of the centroid.
+     * @param count      The number of properties.
+     * @param propertyId The ID of the single property, or NO_PROPERTY.
+     */
+    public Cluster(double latitude, double longitude, int count, int propertyId) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.propertyId = propertyId;
+    }
+
+    /**
+     * Returns whether the cluster holds a single property.
+     *
+     * @return True if the cluster is a single property.
+     */
+    public boolean isSingle() {
+        return count == 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,288 @@
+package com.openclassrooms.realestatemanager.model.geo;
+
+import com.openclassrooms.realestatemanager.model.entity.PropertyLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grid clustering of property locations for the map, one grid per zoom level.
+ * Points are projected once in Web Mercator; the cells are squares of a fixed number of screen pixels,
+ * a power of two, so each cell of a zoom level is made of 2 x 2 cells of the next level, like a quadtree.
+ * <p>
+ * {@link #index} sorts the points by the Z-order (Morton) code of their cell at the deepest level.
+ * In that order the points of any cell, at any zoom level, are contiguous, so a cluster is just a run
+ * of sorted points: each level only stores where its runs start, and centroids come from prefix sums.
+ * Building every level is then a linear scan, and a viewport change only filters the runs of one level.
+ * <p>
+ * Not thread-safe: index and query it from a single background thread.
+ */
+public class ClusterEngine {
+
+    public static final int MIN_ZOOM = 0;
+    public static final int MAX_ZOOM = 20;
+
+    // Side of a grid cell, in screen pixels, at the default density
+    public static final int DEFAULT_CELL_PIXELS = 64;
+
+    private static final int TILE_PIXELS = 256; // Size of the world at zoom 0
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+    private static final int RADIX_BITS = 11; // Bits sorted per pass of the radix sort
+    private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+
+    private final int cellShift; // log2 of the number of cells per tile side
+
+    private int size; // Number of points indexed
+    private long[] codes = new long[0]; // Morton codes of the deepest cells, sorted
+    private int[] sortedIds = new int[0]; // Property IDs, in the order of the codes
+    private double[] prefixX = new double[1]; // prefixX[i] is the sum of the Mercator X of the first i points
+    private double[] prefixY = new double[1];
+    private final int[][] clusterStarts = new int[MAX_ZOOM + 1][]; // Index of the first point of each cluster, per level
+
+    /**
+     * Creates an engine with cells of {@link #DEFAULT_CELL_PIXELS}.
+     */
+    public ClusterEngine() {
+        this(DEFAULT_CELL_PIXELS);
+    }
+
+    /**
+     * Creates an engine with cells of the given size.
+     *
+     * @param cellPixels The side of a cell in screen pixels: a power of two between 1 and 256.
+     * @throws IllegalArgumentException If the size is not a power of two in that range.
+     */
+    public ClusterEngine(int cellPixels) {
+        if (cellPixels < 1 || cellPixels > TILE_PIXELS || Integer.bitCount(cellPixels) != 1) {
+            throw new IllegalArgumentException("Cell size must be a power of two up to " + TILE_PIXELS + ": " + cellPixels);
+        }
+        cellShift = Integer.numberOfTrailingZeros(TILE_PIXELS / cellPixels);
+    }
+
+    /**
+     * Clusters the given property locations at every zoom level, replacing the previous ones.
+     *
+     * @param locations The geocoded properties.
+     */
+    public void index(List<PropertyLocation> locations) {
+        int count = locations.size();
+        int[] ids = new int[count];
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            PropertyLocation location = locations.get(i);
+            ids[i] = location.id;
+            latitudes[i] = location.latitude;
+            longitudes[i] = location.longitude;
+        }
+        index(ids, latitudes, longitudes);
+    }
+
+    /**
+     * Clusters points at every zoom level, replacing the previous ones.
+     *
+     * @param ids        The property IDs.
+     * @param latitudes  The latitudes, in the same order.
+     * @param longitudes The longitudes, in the same order.
+     */
+    public void index(int[] ids, double[] latitudes, double[] longitudes) {
+        int count = ids.length;
+        int cellsPerSide = cellsPerSide(MAX_ZOOM);
+        double[] x = new double[count];
+        double[] y = new double[count];
+        long[] keys = new long[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = mercatorX(longitudes[i]);
+            y[i] = mercatorY(latitudes[i]);
+            int cellX = Math.min(cellsPerSide - 1, (int) (x[i] * cellsPerSide));
+            int cellY = Math.min(cellsPerSide - 1, (int) (y[i] * cellsPerSide));
+            keys[i] = spread(cellX) | (spread(cellY) << 1);
+            order[i] = i;
+        }
+        radixSort(keys, order, 2 * (MAX_ZOOM + cellShift));
+
+        size = count;
+        codes = keys;
+        sortedIds = new int[count];
+        prefixX = new double[count + 1];
+        prefixY = new double[count + 1];
+        for (int i = 0; i < count; i++) {
+            int point = order[i];
+            sortedIds[i] = ids[point];
+            prefixX[i + 1] = prefixX[i] + x[point];
+            prefixY[i + 1] = prefixY[i] + y[point];
+        }
+
+        // A cluster starts wherever the cell changes; the starts of a level are a subset of the level below
+        int[] starts = new int[count];
+        int clusterCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || codes[i] != codes[i - 1]) starts[clusterCount++] = i;
+        }
+        clusterStarts[MAX_ZOOM] = Arrays.copyOf(starts, clusterCount);
+        for (int zoom = MAX_ZOOM - 1; zoom >= MIN_ZOOM; zoom--) {
+            int[] finer = clusterStarts[zoom + 1];
+            int shift = 2 * (MAX_ZOOM - zoom);
+            clusterCount = 0;
+            for (int start : finer) {
+                if (start == 0 || (codes[start] >>> shift) != (codes[start - 1] >>> shift)) {
+                    starts[clusterCount++] = start;
+                }
+            }
+            clusterStarts[zoom] = Arrays.copyOf(starts, clusterCount);
+        }
+    }
+
+    /**
+     * Returns the clusters visible in a viewport at a zoom level, plus one cell around it
+     * so markers don't pop in at the edges while panning.
+     *
+     * @param south The southern edge of the viewport.
+     * @param west  The western edge of the viewport.
+     * @param north The northern edge of the viewport.
+     * @param east  The eastern edge of the viewport (smaller than west across the antimeridian).
+     * @param zoom  The zoom level of the map; fractional levels use the grid of the level below.
+     * @return The clusters, or an empty list if nothing was indexed.
+     */
+    public List<Cluster> getClusters(double south, double west, double north, double east, double zoom) {
+        List<Cluster> clusters = new ArrayList<>();
+        int level = (int) Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, Math.floor(zoom)));
+        int[] starts = clusterStarts[level];
+        if (starts == null) return clusters;
+
+        int cellsPerSide = cellsPerSide(level);
+        int minX = (int) (mercatorX(west) * cellsPerSide) - 1;
+        int maxX = (int) (mercatorX(east) * cellsPerSide) + 1;
+        int minY = (int) (mercatorY(north) * cellsPerSide) - 1; // Y grows southward
+        int maxY = (int) (mercatorY(south) * cellsPerSide) + 1;
+        boolean wraps = west > east;
+        int shift = 2 * (MAX_ZOOM - level);
+
+        for (int i = 0; i < starts.length; i++) {
+            int start = starts[i];
+            long cell = codes[start] >>> shift;
+            int x = compact(cell);
+            int y = compact(cell >>> 1);
+            boolean inX = wraps ? (x >= minX || x <= maxX) : (x >= minX && x <= maxX);
+            if (inX && y >= minY && y <= maxY) {
+                int end = i + 1 < starts.length ? starts[i + 1] : size;
+                int count = end - start;
+                double centroidX = (prefixX[end] - prefixX[start]) / count;
+                double centroidY = (prefixY[end] - prefixY[start]) / count;
+                clusters.add(new Cluster(latitude(centroidY), longitude(centroidX),
+                        count, count == 1 ? sortedIds[start] : Cluster.NO_PROPERTY));
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Returns the number of grid cells along one side of the world at a zoom level.
+     */
+    private int cellsPerSide(int zoom) {
+        return 1 << (zoom + cellShift);
+    }
+
+    /**
+     * Sorts Morton codes in place with a least-significant-digit radix sort, carrying their point indexes.
+     * Linear in the number of points, unlike a comparison sort.
+     *
+     * @param keys   The codes to sort.
+     * @param values The point index of each code, reordered with them.
+     * @param bits   The number of significant bits of the codes.
+     */
+    private static void radixSort(long[] keys, int[] values, int bits) {
+        int count = keys.length;
+        long[] sourceKeys = keys;
+        int[] sourceValues = values;
+        long[] targetKeys = new long[count];
+        int[] targetValues = new int[count];
+        int[] offsets = new int[1 << RADIX_BITS];
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(offsets, 0);
+            for (int i = 0; i < count; i++) {
+                offsets[(int) (sourceKeys[i] >>> shift) & RADIX_MASK]++;
+            }
+            for (int digit = 0, total = 0; digit < offsets.length; digit++) {
+                int digitCount = offsets[digit];
+                offsets[digit] = total;
+                total += digitCount;
+            }
+            for (int i = 0; i < count; i++) {
+                int target = offsets[(int) (sourceKeys[i] >>> shift) & RADIX_MASK]++;
+                targetKeys[target] = sourceKeys[i];
+                targetValues[target] = sourceValues[i];
+            }
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+            int[] swapValues = sourceValues;
+            sourceValues = targetValues;
+            targetValues = swapValues;
+        }
+        if (sourceKeys != keys) { // Odd number of passes: the result is in the buffers
+            System.arraycopy(sourceKeys, 0, keys, 0, count);
+            System.arraycopy(sourceValues, 0, values, 0, count);
+        }
+    }
+
+    /**
+     * Spreads the bits of a cell coordinate to the even bits of a long, to interleave it into a Morton code.
+     */
+    private static long spread(int value) {
+        long bits = value & 0xFFFFFFFFL;
+        bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+        bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+        bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | (bits << 2)) & 0x3333333333333333L;
+        bits = (bits | (bits << 1)) & 0x5555555555555555L;
+        return bits;
+    }
+
+    /**
+     * Gathers the even bits of a Morton code back into a cell coordinate; the inverse of {@link #spread}.
+     */
+    private static int compact(long code) {
+        long bits = code & 0x5555555555555555L;
+        bits = (bits | (bits >>> 1)) & 0x3333333333333333L;
+        bits = (bits | (bits >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | (bits >>> 4)) & 0x00FF00FF00FF00FFL;
+        bits = (bits | (bits >>> 8)) & 0x0000FFFF0000FFFFL;
+        bits = (bits | (bits >>> 16)) & 0x00000000FFFFFFFFL;
+        return (int) bits;
+    }
+
+    /**
+     * Projects a longitude to the Web Mercator X coordinate, from 0 (west) to 1 (east).
+     */
+    static double mercatorX(double longitude) {
+        double x = (longitude + 180) / 360;
+        return Math.max(0, Math.min(1, x));
+    }
+
+    /**
+     * Projects a latitude to the Web Mercator Y coordinate, from 0 (north) to 1 (south).
+     */
+    static double mercatorY(double latitude) {
+        double clamped = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(clamped));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return Math.max(0, Math.min(1, y));
+    }
+
+    /**
+     * Converts a Web Mercator X coordinate back to a longitude.
+     */
+    private static double longitude(double x) {
+        return x * 360 - 180;
+    }
+
+    /**
+     * Converts a Web Mercator Y coordinate back to a latitude.
+     */
+    private static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.openclassrooms.realestatemanager.model.geo;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import androidx.annotation.Nullable;
+
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Offline gazetteer mapping zip codes and city/state pairs to the coordinates of their centroid.
+ * The bundled file (built by tools/gazetteer/build_gazetteer.py) is memory-mapped: opening it only
+ * reads the 12-byte header, and each lookup is a binary search over fixed-size records sorted by key,
+ * touching a few pages of the file.
+ * <p>
+ * Layout (big-endian): magic "GZT1", record count, key length; then for each record the key
+ * (ASCII, zero-padded), the latitude and the longitude as floats.
+ */
+public class Gazetteer {
+
+    // Name of the bundled file, stored uncompressed in the APK so it can be mapped
+    public static final String ASSET_NAME = "gazetteer.bin";
+
+    private static final int MAGIC = 0x475A5431; // "GZT1"
+    private static final int HEADER_SIZE = 12;
+
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int keyLength;
+    private final int recordSize;
+
+    /**
+     * Maps the gazetteer bundled in the application assets.
+     *
+     * @param context The context used to open the assets.
+     * @return The mapped gazetteer.
+     * @throws IOException If the asset is missing, compressed or invalid.
+     */
+    public static Gazetteer open(Context context) throws IOException {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(ASSET_NAME);
+             FileInputStream input = descriptor.createInputStream()) {
+            // The mapping stays valid after the channel is closed
+            return new Gazetteer(input.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength()));
+        }
+    }
+
+    /**
+     * Maps a gazetteer file, e.g. one built for tests.
+     *
+     * @param file The gazetteer file.
+     * @return The mapped gazetteer.
+     * @throws IOException If the file cannot be read or is invalid.
+     */
+    public static Gazetteer open(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            return new Gazetteer(input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length()));
+        }
+    }
+
+    /**
+     * Constructor reading and checking the header of a mapped gazetteer.
+     *
+     * @param buffer The content of the gazetteer file.
+     * @throws IOException If the header is invalid or doesn't match the size of the file.
+     */
+    Gazetteer(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a gazetteer file");
+        }
+        this.buffer = buffer;
+        this.recordCount = buffer.getInt(4);
+        this.keyLength = buffer.getInt(8);
+        this.recordSize = keyLength + 8;
+        if (HEADER_SIZE + (long) recordCount * recordSize != buffer.capacity()) {
+            throw new IOException("Truncated gazetteer file");
+        }
+    }
+
+    /**
+     * Finds the approximate coordinates of an address, by zip code first, then by city and state.
+     *
+     * @param address The address to locate.
+     * @return The centroid of its zip code or city, or null if neither is in the gazetteer.
+     */
+    @Nullable
+    public NominatimResponse lookup(@Nullable Address address) {
+        if (address == null) return null;
+        NominatimResponse result = null;
+        String zipCode = address.zipCode != null ? address.zipCode.trim() : "";
+        if (zipCode.length() >= 5) {
+            result = find(zipCode.substring(0, 5)); // ZIP+4 codes share the centroid of their zip code
+        }
+        if (result == null && address.city != null && address.state != null) {
+            result = find(address.city + "|" + address.state);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the coordinates of a key with a binary search over the records.
+     *
+     * @param key A zip code or a "city|state" key, normalized before the search.
+     * @return The coordinates, or null if the key is not in the gazetteer.
+     */
+    @Nullable
+    public NominatimResponse find(String key) {
+        byte[] target = normalize(key).getBytes(StandardCharsets.US_ASCII);
+        if (target.length == 0 || target.length > keyLength) return null;
+
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = HEADER_SIZE + middle * recordSize;
+            int comparison = compareKey(offset, target);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                NominatimResponse response = new NominatimResponse();
+                response.lat = buffer.getFloat(offset + keyLength);
+                response.lon = buffer.getFloat(offset + keyLength + 4);
+                return response;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of entries in the gazetteer.
+     *
+     * @return The record count.
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Compares the zero-padded key of a record with a target key, byte by byte (unsigned).
+     * Uses absolute reads only, so lookups can run concurrently on the shared buffer.
+     *
+     * @param offset The offset of the record.
+     * @param target The key searched.
+     * @return A negative number, zero or a positive number if the record key is smaller, equal or greater.
+     */
+    private int compareKey(int offset, byte[] target) {
+        for (int i = 0; i < keyLength; i++) {
+            int recordByte = buffer.get(offset + i) & 0xFF;
+            int targetByte = i < target.length ? target[i] & 0xFF : 0;
+            if (recordByte != targetByte) return recordByte - targetByte;
+            if (recordByte == 0) return 0; // Both keys ended
+        }
+        return 0;
+    }
+
+    /**
+     * Normalizes a key like the build script: lowercase letters and digits, single spaces, and '|'
+     * between the city and the state.
+     *
+     * @param key The raw key.
+     * @return The normalized key.
+     */
+    static String normalize(String key) {
+        String[] parts = key.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9| ]", " ").split("\\|", -1);
+        StringBuilder normalized = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) normalized.append('|');
+            normalized.append(parts[i].replaceAll("\\s+", " ").trim());
+        }
+        return normalized.toString();
+    }
+}
\ No newline at end of file
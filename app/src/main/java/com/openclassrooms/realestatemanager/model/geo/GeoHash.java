@@ -0,0 +1,149 @@
+package com.openclassrooms.realestatemanager.model.geo;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geohash encoding of coordinates, used as the spatial index of the property table.
+ * A geohash names a cell of a grid; each extra character divides the cell into 32, and every point
+ * of a cell has a geohash starting with the name of the cell. A bounding box is therefore covered by
+ * a few prefixes, each of which is a contiguous range of the geohash index.
+ */
+public final class GeoHash {
+
+    // Precision of the geohashes stored on properties: cells of about 5 m x 5 m
+    public static final int STORED_PRECISION = 9;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoHash() {
+    }
+
+    /**
+     * Encodes coordinates at the precision stored on properties.
+     *
+     * @param latitude  The latitude, or null.
+     * @param longitude The longitude, or null.
+     * @return The geohash, or null if a coordinate is missing.
+     */
+    @Nullable
+    public static String encode(@Nullable Double latitude, @Nullable Double longitude) {
+        if (latitude == null || longitude == null) return null;
+        return encode(latitude, longitude, STORED_PRECISION);
+    }
+
+    /**
+     * Encodes coordinates into a geohash, interleaving longitude and latitude bits (longitude first).
+     *
+     * @param latitude  The latitude, between -90 and 90.
+     * @param longitude The longitude, between -180 and 180.
+     * @param precision The number of characters of the geohash.
+     * @return The geohash.
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true; // Even bits encode the longitude
+        int bit = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double middle = (minLon + maxLon) / 2;
+                if (longitude >= middle) {
+                    value = (value << 1) | 1;
+                    minLon = middle;
+                } else {
+                    value <<= 1;
+                    maxLon = middle;
+                }
+            } else {
+                double middle = (minLat + maxLat) / 2;
+                if (latitude >= middle) {
+                    value = (value << 1) | 1;
+                    minLat = middle;
+                } else {
+                    value <<= 1;
+                    maxLat = middle;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash.append(BASE32[value]);
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Returns the geohash prefixes of the cells covering a bounding box, at the finest precision
+     * for which at most maxCells cells are needed. Every point of the box has a geohash starting
+     * with one of the prefixes; points outside may match too, so the box must still be checked.
+     *
+     * @param minLatitude  The southern edge of the box.
+     * @param minLongitude The western edge of the box.
+     * @param maxLatitude  The northern edge of the box.
+     * @param maxLongitude The eastern edge of the box (not across the antimeridian).
+     * @param maxCells     The maximum number of prefixes to return.
+     * @return The covering prefixes, or an empty list if the box is too large to be narrowed down.
+     */
+    public static List<String> coveringPrefixes(double minLatitude, double minLongitude,
+                                                double maxLatitude, double maxLongitude, int maxCells) {
+        List<String> prefixes = new ArrayList<>();
+        int precision = 0;
+        for (int candidate = 1; candidate <= STORED_PRECISION; candidate++) {
+            long columns = cellIndex(maxLongitude, -180, 360, lonBits(candidate))
+                    - cellIndex(minLongitude, -180, 360, lonBits(candidate)) + 1;
+            long rows = cellIndex(maxLatitude, -90, 180, latBits(candidate))
+                    - cellIndex(minLatitude, -90, 180, latBits(candidate)) + 1;
+            if (columns * rows > maxCells) break;
+            precision = candidate;
+        }
+        if (precision == 0) return prefixes;
+
+        double cellWidth = 360.0 / (1L << lonBits(precision));
+        double cellHeight = 180.0 / (1L << latBits(precision));
+        long lastColumn = cellIndex(maxLongitude, -180, 360, lonBits(precision));
+        long lastRow = cellIndex(maxLatitude, -90, 180, latBits(precision));
+        for (long column = cellIndex(minLongitude, -180, 360, lonBits(precision)); column <= lastColumn; column++) {
+            for (long row = cellIndex(minLatitude, -90, 180, latBits(precision)); row <= lastRow; row++) {
+                // The center of the cell encodes to the name of the cell
+                prefixes.add(encode(-90 + (row + 0.5) * cellHeight, -180 + (column + 0.5) * cellWidth, precision));
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Returns the index of the grid cell holding a coordinate along one axis.
+     *
+     * @param value  The coordinate.
+     * @param origin The start of the axis (-90 or -180).
+     * @param extent The length of the axis (180 or 360).
+     * @param bits   The number of bits of the axis at the precision considered.
+     * @return The cell index, clamped to the grid.
+     */
+    private static long cellIndex(double value, double origin, double extent, int bits) {
+        long cellCount = 1L << bits;
+        long index = (long) Math.floor((value - origin) / (extent / cellCount));
+        return Math.max(0, Math.min(cellCount - 1, index));
+    }
+
+    /**
+     * Number of longitude bits in a geohash of the given precision (it gets the odd bit).
+     */
+    private static int lonBits(int precision) {
+        return (5 * precision + 1) / 2;
+    }
+
+    /**
+     * Number of latitude bits in a geohash of the given precision.
+     */
+    private static int latBits(int precision) {
+        return 5 * precision / 2;
+    }
+}
\ No newline at end of file
@@ -1,22 +1,36 @@
 package com.openclassrooms.realestatemanager.model.provider;
 
+import android.app.Application;
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteQueryBuilder;
 
 import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
 import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.repository.PhotoStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * ContentProvider for accessing the Property database via a content URI.
- * This allows external applications to query, insert, update, and delete property records.
+ * This allows external applications to query, insert, update, and delete property records,
+ * one at a time or in transactional batches.
  */
 public class PropertyContentProvider extends ContentProvider {
 
@@ -29,6 +43,21 @@ public class PropertyContentProvider extends ContentProvider {
     // Base content URI for accessing properties
     public static final Uri URI_PROPERTY = Uri.parse("content://" + AUTHORITY + "/" + TABLE_NAME);
 
+    // Query parameter limiting the number of rows returned by query()
+    public static final String QUERY_PARAMETER_LIMIT = "limit";
+
+    // Columns that callers can select and sort on
+    public static final String[] COLUMNS = {
+            "id", "type", "price", "surface", "numberOfRooms", "numberOfBathrooms", "numberOfBedrooms",
+            "description", "coverPhotoUri", "isSold", "marketDate", "soldDate", "agentName",
+            "street", "city", "state", "zipCode", "country", "latitude", "longitude"
+    };
+    private static final Set<String> COLUMN_SET = new HashSet<>(Arrays.asList(COLUMNS));
+
+    // Keywords allowed in a selection besides the column names: comparisons and boolean logic only
+    private static final Set<String> SELECTION_KEYWORDS = new HashSet<>(Arrays.asList(
+            "AND", "OR", "NOT", "IS", "NULL", "IN", "LIKE", "GLOB", "BETWEEN", "ESCAPE"));
+
     // Constants for URI matching
     private static final int CODE_PROPERTY_DIR = 1;  // URI for the entire table (all properties)
     private static final int CODE_PROPERTY_ITEM = 2; // URI for a specific property (by ID)
@@ -44,48 +73,135 @@ public class PropertyContentProvider extends ContentProvider {
         uriMatcher.addURI(AUTHORITY, TABLE_NAME + "/#", CODE_PROPERTY_ITEM);
     }
 
+    // Set while a batch runs on the current thread, so its rows don't each send a change notification
+    private final ThreadLocal<Boolean> batchInProgress = new ThreadLocal<>();
+
     @Override
     public boolean onCreate() {
         return true; // No special initialization needed for Room
     }
 
+    /**
+     * Inserts several properties in a single transaction.
+     * Observers receive one change notification for the whole batch instead of one per row.
+     *
+     * @param uri    The URI where the properties should be inserted.
+     * @param values The property data to insert, one ContentValues per property.
+     * @return The number of properties inserted.
+     */
+    @Override
+    public int bulkInsert(@NonNull Uri uri, @NonNull ContentValues[] values) {
+        Context context = getContext();
+        if (uriMatcher.match(uri) != CODE_PROPERTY_DIR || context == null) {
+            throw new IllegalArgumentException("Failed to insert rows into " + uri);
+        }
+
+        List<Property> properties = new ArrayList<>(values.length);
+        for (ContentValues value : values) {
+            properties.add(Property.fromContentValues(value));
+        }
+
+        PropertyDatabase database = PropertyDatabase.getInstance(context);
+        List<Long> ids = database.runInTransaction(() -> database.propertyDao().insertProperties(properties));
+
+        int count = 0;
+        for (long id : ids) {
+            if (id != -1) count++;
+        }
+        if (count > 0) {
+            notifyChange(uri);
+        }
+        return count;
+    }
+
+    /**
+     * Applies a batch of insert, update and delete operations in a single transaction.
+     * If any operation fails, none of them is applied. Observers receive one change notification
+     * once the batch is committed.
+     *
+     * @param operations The operations to apply, in order.
+     * @return One result per operation (the inserted URI or the number of affected rows).
+     * @throws OperationApplicationException If an operation fails its expected count check.
+     */
+    @NonNull
+    @Override
+    public ContentProviderResult[] applyBatch(@NonNull ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        Context context = getContext();
+        if (context == null) {
+            throw new IllegalStateException("Provider is not attached to a context");
+        }
+
+        ContentProviderResult[] results;
+        batchInProgress.set(true);
+        try {
+            results = PropertyDatabase.getInstance(context).runInTransaction(() -> super.applyBatch(operations));
+        } finally {
+            batchInProgress.remove();
+        }
+
+        if (operations.size() > 0) {
+            notifyChange(URI_PROPERTY);
+        }
+        return results;
+    }
+
     /**
      * Queries the database for properties based on the provided URI.
+     * Only the requested columns and rows are read: the projection, selection and sort order are checked
+     * against {@link #COLUMNS}, the selection is bound with its arguments, and the optional
+     * {@link #QUERY_PARAMETER_LIMIT} query parameter caps the number of rows.
      *
-     * @param uri           The URI to query.
-     * @param projection    The columns to return.
-     * @param selection     The selection criteria.
+     * @param uri           The URI to query (optionally with a {@code limit} query parameter).
+     * @param projection    The columns to return, or null for all of them.
+     * @param selection     The selection criteria, with {@code ?} placeholders; only columns, literals,
+     *                      comparisons and boolean operators are accepted (no functions nor subqueries).
      * @param selectionArgs The selection arguments.
-     * @param sortOrder     The sort order for the results.
+     * @param sortOrder     The sort order for the results (e.g. {@code "price DESC, id"}).
      * @return A Cursor object containing the query results.
      */
     @Nullable
     @Override
     public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
                         @Nullable String[] selectionArgs, @Nullable String sortOrder) {
-        Cursor cursor;
+        Context context = getContext();
+        if (context == null) {
+            throw new IllegalStateException("Provider is not attached to a context");
+        }
+
+        SupportSQLiteQueryBuilder builder = SupportSQLiteQueryBuilder.builder(TABLE_NAME)
+                .columns(checkProjection(projection));
+        selection = checkSelection(selection);
         switch (uriMatcher.match(uri)) {
             case CODE_PROPERTY_DIR:
-                // Retrieve all properties from the database
-                cursor = PropertyDatabase.getInstance(getContext())
-                        .propertyDao()
-                        .getPropertiesCursor();
+                // Retrieve the matching properties
+                if (selection != null && !selection.isEmpty()) {
+                    builder.selection("(" + selection + ")", selectionArgs);
+                }
                 break;
 
             case CODE_PROPERTY_ITEM:
-                // Retrieve a single property by its ID
-                long id = ContentUris.parseId(uri);
-                cursor = PropertyDatabase.getInstance(getContext())
-                        .propertyDao()
-                        .getPropertyByIdCursor(id);
+                // Retrieve a single property by its ID, still restricted by the selection if any
+                builder.selection(appendIdSelection(selection), appendIdArgument(selectionArgs, ContentUris.parseId(uri)));
                 break;
 
             default:
                 throw new IllegalArgumentException("Unknown URI: " + uri);
         }
+        if (sortOrder != null && !sortOrder.isEmpty()) {
+            builder.orderBy(checkSortOrder(sortOrder));
+        }
+        String limit = uri.getQueryParameter(QUERY_PARAMETER_LIMIT);
+        if (limit != null) {
+            builder.limit(checkLimit(limit));
+        }
+
+        Cursor cursor = PropertyDatabase.getInstance(context)
+                .propertyDao()
+                .queryCursor(builder.create());
 
         // Notify listeners when data changes
-        cursor.setNotificationUri(getContext().getContentResolver(), uri);
+        cursor.setNotificationUri(context.getContentResolver(), uri);
         return cursor;
     }
 
@@ -110,7 +226,7 @@ public class PropertyContentProvider extends ContentProvider {
                 if (id != -1) {
                     Uri insertedUri = ContentUris.withAppendedId(uri, id);
                     // Notify observers that the database has been updated
-                    context.getContentResolver().notifyChange(insertedUri, null);
+                    notifyChange(insertedUri);
                     return insertedUri;
                 }
             }
@@ -135,8 +251,12 @@ public class PropertyContentProvider extends ContentProvider {
                 int count = PropertyDatabase.getInstance(context)
                         .propertyDao()
                         .deleteById(id);
+                if (count > 0) {
+                    // The photo rows went with the property: delete their files
+                    PhotoStorage.getInstance((Application) context.getApplicationContext()).collectGarbage();
+                }
                 // Notify observers that the database has been updated
-                context.getContentResolver().notifyChange(uri, null);
+                notifyChange(uri);
                 return count;
             }
         }
@@ -145,9 +265,11 @@ public class PropertyContentProvider extends ContentProvider {
 
     /**
      * Updates an existing property in the database.
+     * Only the columns present in the values change: the stored row is read and the values applied
+     * on top of it, so the address and the cover photo columns derived from the photo table are kept.
      *
      * @param uri           The URI identifying the property to update.
-     * @param values        The new values to update the property with.
+     * @param values        The new values of the columns to change.
      * @param selection     Unused (since update is based on ID).
      * @param selectionArgs Unused (since update is based on ID).
      * @return The number of rows affected.
@@ -158,20 +280,180 @@ public class PropertyContentProvider extends ContentProvider {
         if (uriMatcher.match(uri) == CODE_PROPERTY_ITEM) {
             Context context = getContext();
             if (context != null) {
-                long id = ContentUris.parseId(uri);
-                Property property = Property.fromContentValues(values);
-                property.id = (int) id; // Ensure the ID is set correctly
-                int count = PropertyDatabase.getInstance(context)
-                        .propertyDao()
-                        .update(property);
+                int id = (int) ContentUris.parseId(uri);
+                PropertyDatabase database = PropertyDatabase.getInstance(context);
+                int count = database.runInTransaction(() -> {
+                    Property property = database.propertyDao().findPropertyById(id);
+                    if (property == null) return 0;
+                    if (values != null) property.applyContentValues(values);
+                    property.id = id; // Ensure the ID is set correctly
+                    return database.propertyDao().update(property);
+                });
                 // Notify observers that the database has been updated
-                context.getContentResolver().notifyChange(uri, null);
+                notifyChange(uri);
                 return count;
             }
         }
         throw new IllegalArgumentException("Failed to update row at " + uri);
     }
 
+    /**
+     * Checks that every requested column exists in the property table.
+     *
+     * @param projection The columns requested by the caller, or null for all of them.
+     * @return The columns to select, or null to select all of them.
+     * @throws IllegalArgumentException If a column is not part of {@link #COLUMNS}.
+     */
+    @Nullable
+    private static String[] checkProjection(@Nullable String[] projection) {
+        if (projection == null || projection.length == 0) return null;
+        for (String column : projection) {
+            if (!COLUMN_SET.contains(column)) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Checks that a selection is a plain condition on property columns, the way {@link #checkSortOrder}
+     * checks sort orders: every word must be one of {@link #COLUMNS} or {@link #SELECTION_KEYWORDS},
+     * and besides them only {@code ?} placeholders, numbers, string literals, comparison and arithmetic
+     * operators and balanced parentheses are accepted. This rules out functions, subqueries, comments
+     * and statement separators, and keeps the selection inside the parentheses it is wrapped in.
+     *
+     * @param selection The selection requested by the caller, or null.
+     * @return The selection, unchanged.
+     * @throws IllegalArgumentException If the selection contains anything else.
+     */
+    @Nullable
+    private static String checkSelection(@Nullable String selection) {
+        if (selection == null) return null;
+        int length = selection.length();
+        int depth = 0;
+        int i = 0;
+        while (i < length) {
+            char c = selection.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(selection.charAt(i)) || selection.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = selection.substring(start, i);
+                if (!COLUMN_SET.contains(word) && !SELECTION_KEYWORDS.contains(word.toUpperCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("Invalid selection: " + selection);
+                }
+            } else if (Character.isDigit(c) || c == '.') {
+                while (i < length && (Character.isLetterOrDigit(selection.charAt(i)) || selection.charAt(i) == '.')) {
+                    i++;
+                }
+            } else if (c == '\'') {
+                // String literal, where a quote is escaped by doubling it
+                i++;
+                while (true) {
+                    int end = selection.indexOf('\'', i);
+                    if (end < 0) throw new IllegalArgumentException("Invalid selection: " + selection);
+                    i = end + 1;
+                    if (i >= length || selection.charAt(i) != '\'') break;
+                    i++;
+                }
+            } else if (c == '(' || c == ')') {
+                depth += c == '(' ? 1 : -1;
+                if (depth < 0) throw new IllegalArgumentException("Invalid selection: " + selection);
+                i++;
+            } else if ("?=<>!+-*/%,".indexOf(c) >= 0) {
+                if (selection.startsWith("--", i) || selection.startsWith("/*", i)) {
+                    throw new IllegalArgumentException("Invalid selection: " + selection);
+                }
+                i++;
+            } else {
+                throw new IllegalArgumentException("Invalid selection: " + selection);
+            }
+        }
+        if (depth != 0) throw new IllegalArgumentException("Invalid selection: " + selection);
+        return selection;
+    }
+
+    /**
+     * Checks that a sort order only refers to property columns, each optionally followed by ASC or DESC.
+     *
+     * @param sortOrder The sort order requested by the caller.
+     * @return The normalized sort order.
+     * @throws IllegalArgumentException If a term is not a known column with an optional direction.
+     */
+    private static String checkSortOrder(String sortOrder) {
+        StringBuilder orderBy = new StringBuilder();
+        for (String term : sortOrder.split(",")) {
+            String[] parts = term.trim().split("\\s+");
+            boolean validDirection = parts.length == 1
+                    || (parts.length == 2 && (parts[1].equalsIgnoreCase("ASC") || parts[1].equalsIgnoreCase("DESC")));
+            if (!COLUMN_SET.contains(parts[0]) || !validDirection) {
+                throw new IllegalArgumentException("Invalid sort order: " + sortOrder);
+            }
+            if (orderBy.length() > 0) orderBy.append(", ");
+            orderBy.append(parts[0]);
+            if (parts.length == 2) orderBy.append(' ').append(parts[1].toUpperCase(Locale.ROOT));
+        }
+        return orderBy.toString();
+    }
+
+    /**
+     * Checks that the limit query parameter is a positive number.
+     *
+     * @param limit The value of the limit query parameter.
+     * @return The limit to apply.
+     * @throws IllegalArgumentException If the value is not a positive integer.
+     */
+    private static String checkLimit(String limit) {
+        try {
+            if (Integer.parseInt(limit) > 0) return limit;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid limit: " + limit);
+    }
+
+    /**
+     * Restricts a selection to a single property ID.
+     *
+     * @param selection The selection requested by the caller, or null.
+     * @return The selection with an {@code id = ?} condition added.
+     */
+    private static String appendIdSelection(@Nullable String selection) {
+        if (selection == null || selection.isEmpty()) return "id = ?";
+        return "id = ? AND (" + selection + ")";
+    }
+
+    /**
+     * Prepends a property ID to the selection arguments, matching {@link #appendIdSelection(String)}.
+     *
+     * @param selectionArgs The selection arguments of the caller, or null.
+     * @param id            The ID of the property.
+     * @return The arguments with the ID first.
+     */
+    private static Object[] appendIdArgument(@Nullable String[] selectionArgs, long id) {
+        int count = selectionArgs == null ? 0 : selectionArgs.length;
+        Object[] args = new Object[count + 1];
+        args[0] = id;
+        if (count > 0) System.arraycopy(selectionArgs, 0, args, 1, count);
+        return args;
+    }
+
+    /**
+     * Notifies observers that properties changed, unless a batch is in progress on this thread
+     * (the batch then sends a single notification when it completes).
+     *
+     * @param uri The URI of the changed data.
+     */
+    private void notifyChange(Uri uri) {
+        Context context = getContext();
+        if (context != null && !Boolean.TRUE.equals(batchInProgress.get())) {
+            context.getContentResolver().notifyChange(uri, null);
+        }
+    }
+
     /**
      * Returns the MIME type of data provided by this ContentProvider.
      *
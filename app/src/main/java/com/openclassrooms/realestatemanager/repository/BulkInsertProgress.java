@@ -0,0 +1,38 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Progress of a bulk insert started with {@link PropertyRepository#bulkInsert(List)}.
+ * A new instance is emitted after each committed chunk; only the last one, which is complete,
+ * holds the IDs of the inserted properties.
+ */
+public class BulkInsertProgress {
+
+    public final int inserted; // Number of properties committed so far
+    public final int total; // Number of properties to insert
+    public final List<Long> ids; // Generated IDs in input order, empty until the insert is complete
+
+    /**
+     * Constructor initializing all fields.
+     *
+     * @param inserted The number of properties committed so far.
+     * @param total    The number of properties to insert.
+     * @param ids      The generated IDs, or an empty list while the insert is in progress.
+     */
+    public BulkInsertProgress(int inserted, int total, List<Long> ids) {
+        this.inserted = inserted;
+        this.total = total;
+        this.ids = Collections.unmodifiableList(ids);
+    }
+
+    /**
+     * Returns whether every property has been inserted.
+     *
+     * @return True once the last chunk is committed.
+     */
+    public boolean isComplete() {
+        return inserted == total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,276 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Background job geocoding the properties that have no coordinates yet, e.g. after an import.
+ * Properties are walked by ascending ID in batches of {@value #BATCH_SIZE}. Each batch is geocoded
+ * through the rate-limited {@link MapRepository}, its coordinates are written in one transaction,
+ * and the ID of its last property is saved as a checkpoint, so a job interrupted by a process kill
+ * resumes after the last written batch instead of starting over.
+ * A batch whose lookups have not all answered within {@link #DEFAULT_BATCH_TIMEOUT_MILLIS} is written
+ * with the coordinates found so far; the missing ones are retried by the next pass.
+ */
+public class CoordinateBackfill {
+
+    private static final String TAG = "CoordinateBackfill";
+
+    // Number of properties geocoded and written per transaction
+    static final int BATCH_SIZE = 20;
+
+    // Shared preference holding the ID of the last property of the last written batch
+    static final String KEY_CHECKPOINT = "coordinate_backfill_last_id";
+
+    // Delay after which a batch is written even if some lookups never answered;
+    // at one request per second with retries, a full batch normally takes well under a minute
+    static final long DEFAULT_BATCH_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static volatile CoordinateBackfill INSTANCE;
+
+    private final PropertyDatabase database;
+    private final PropertyDao propertyDao;
+    private final MapRepository mapRepository;
+    private final SharedPreferences preferences;
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+    private final long batchTimeoutMillis;
+
+    // Set while a pass is running, so that concurrent starts don't walk the table twice
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Set by every start, cleared when a batch is read: a start the running pass may have missed
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    /**
+     * Returns the singleton instance of the job.
+     * Uses double-checked locking to ensure thread safety.
+     *
+     * @param application The application context used to open the database and the preferences.
+     * @return The singleton instance of CoordinateBackfill.
+     */
+    public static CoordinateBackfill getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (CoordinateBackfill.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new CoordinateBackfill(PropertyDatabase.getInstance(application),
+                            MapRepository.getInstance(application),
+                            application.getSharedPreferences("app_prefs", Context.MODE_PRIVATE),
+                            PropertyDatabase.databaseWriteExecutor,
+                            Executors.newSingleThreadScheduledExecutor(),
+                            DEFAULT_BATCH_TIMEOUT_MILLIS);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Constructor with explicit dependencies.
+     *
+     * @param database      The database holding the properties.
+     * @param mapRepository The repository geocoding the addresses.
+     * @param preferences   The preferences storing the checkpoint.
+     * @param executor           The executor running the database work of the job.
+     * @param timer              The scheduler of the batch timeouts.
+     * @param batchTimeoutMillis The delay after which a batch is written without its missing lookups.
+     */
+    @VisibleForTesting
+    CoordinateBackfill(PropertyDatabase database, MapRepository mapRepository, SharedPreferences preferences,
+                       Executor executor, ScheduledExecutorService timer, long batchTimeoutMillis) {
+        this.database = database;
+        this.propertyDao = database.propertyDao();
+        this.mapRepository = mapRepository;
+        this.preferences = preferences;
+        this.executor = executor;
+        this.timer = timer;
+        this.batchTimeoutMillis = batchTimeoutMillis;
+    }
+
+    /**
+     * Starts a pass over the properties without coordinates, resuming from the last checkpoint.
+     * If a pass is already running, it reaches the newly inserted properties too, since each batch
+     * is read after the previous one is written; in case it had already read its last batch,
+     * another pass runs when it ends.
+     */
+    public void start() {
+        pending.set(true);
+        launchIfIdle();
+    }
+
+    /**
+     * Runs a pass on the executor, unless one is running.
+     */
+    private void launchIfIdle() {
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::processNextBatch);
+        }
+    }
+
+    /**
+     * Returns whether a pass is running.
+     *
+     * @return True until the last batch is written.
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Reads the next batch after the checkpoint and geocodes its properties.
+     * The batch is written once every lookup has answered or its timeout expired;
+     * the pass ends when no property is left.
+     */
+    private void processNextBatch() {
+        List<Property> properties;
+        try {
+            pending.set(false); // This read covers every start so far
+            int lastId = preferences.getInt(KEY_CHECKPOINT, 0);
+            properties = propertyDao.getPropertiesWithoutCoordinates(lastId, BATCH_SIZE);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Could not read the properties to geocode", e);
+            endPass();
+            return;
+        }
+        if (properties.isEmpty()) {
+            // Pass complete: the next pass starts over to retry the addresses that failed this time
+            preferences.edit().remove(KEY_CHECKPOINT).apply();
+            Log.i(TAG, "Coordinate backfill complete");
+            endPass();
+            return;
+        }
+
+        Batch batch = new Batch(properties);
+        batch.timeout = timer.schedule(() -> finishBatch(batch, true), batchTimeoutMillis, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < properties.size(); i++) {
+            int index = i;
+            Address address = properties.get(i).address;
+            String query = address != null ? address.toGeocodingQuery() : null;
+            if (query == null) {
+                onLookupDone(batch); // Incomplete address, nothing to geocode
+                continue;
+            }
+
+            try {
+                mapRepository.fetchCoordinatesForAddress(query, new MapRepository.GeocodeCallback() {
+                    @Override
+                    public void onResult(NominatimResponse response) {
+                        batch.results.set(index, response);
+                        onLookupDone(batch);
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        Log.w(TAG, "Could not geocode property " + properties.get(index).id, error);
+                        onLookupDone(batch);
+                    }
+                });
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not geocode property " + properties.get(index).id, e);
+                onLookupDone(batch);
+            }
+        }
+    }
+
+    /**
+     * Counts an answered lookup and, once the whole batch has answered, finishes it.
+     */
+    private void onLookupDone(Batch batch) {
+        if (batch.remaining.decrementAndGet() == 0) {
+            finishBatch(batch, false);
+        }
+    }
+
+    /**
+     * Schedules the write of a batch, once: either when its last lookup answers or when its timeout expires.
+     * Lookups answering after the timeout still fill the geocoding cache, which the next pass reads first.
+     *
+     * @param batch    The batch to write.
+     * @param timedOut True if called by the timeout.
+     */
+    private void finishBatch(Batch batch, boolean timedOut) {
+        if (!batch.finished.compareAndSet(false, true)) return;
+        if (timedOut) {
+            Log.w(TAG, batch.remaining.get() + " lookups did not answer in time, writing the batch without them");
+        } else {
+            batch.timeout.cancel(false);
+        }
+        executor.execute(() -> writeBatch(batch));
+    }
+
+    /**
+     * Writes the coordinates of a batch in one transaction, saves the checkpoint and moves on to the next batch.
+     *
+     * @param batch The batch, with the coordinates found for each property (null when not found or failed).
+     */
+    private void writeBatch(Batch batch) {
+        List<Property> properties = batch.properties;
+        try {
+            database.runInTransaction(() -> {
+                for (int i = 0; i < properties.size(); i++) {
+                    Property property = properties.get(i);
+                    NominatimResponse result = batch.results.get(i);
+                    if (result != null) {
+                        propertyDao.updateCoordinates(property.id, property.address.street, property.address.city,
+                                property.address.state, result.lat, result.lon);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Could not write the coordinates of a batch", e);
+            endPass();
+            return;
+        }
+
+        // Saved synchronously: after a kill the job must not redo a batch it has written
+        preferences.edit().putInt(KEY_CHECKPOINT, properties.get(properties.size() - 1).id).commit();
+        processNextBatch();
+    }
+
+    /**
+     * Marks the pass as over, then runs another one if a start arrived after its last read.
+     */
+    private void endPass() {
+        running.set(false);
+        if (pending.get()) {
+            launchIfIdle();
+        }
+    }
+
+    /**
+     * A batch being geocoded: its properties, the coordinates found so far and its completion state.
+     */
+    private static class Batch {
+        final List<Property> properties;
+        final AtomicReferenceArray<NominatimResponse> results;
+        final AtomicInteger remaining;
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        volatile ScheduledFuture<?> timeout;
+
+        Batch(List<Property> properties) {
+            this.properties = properties;
+            this.results = new AtomicReferenceArray<>(properties.size());
+            this.remaining = new AtomicInteger(properties.size());
+        }
+    }
+}
\ No newline at end of file
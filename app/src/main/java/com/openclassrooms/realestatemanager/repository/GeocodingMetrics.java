@@ -0,0 +1,42 @@
+package com.openclassrooms.realestatemanager.repository;
+
+/**
+ * Snapshot of the activity of the {@link GeocodingScheduler}.
+ * Latencies are measured from the first request for an address to the delivery of its result,
+ * so they include the time spent waiting for the rate limit and the retries.
+ */
+public class GeocodingMetrics {
+
+    public final int queueDepth; // Distinct addresses waiting for or being sent to the server
+    public final long requests; // HTTP requests sent, retries included
+    public final long deduplicated; // Lookups merged into a lookup already in flight
+    public final long retries; // Requests sent again after a throttling or server error
+    public final long failures; // Lookups that failed after all their retries
+    public final long completed; // Lookups that delivered a result or a failure
+    public final long averageLatencyMillis; // Average latency of the completed lookups
+    public final long maxLatencyMillis; // Highest latency of the completed lookups
+
+    /**
+     * Constructor initializing all fields.
+     *
+     * @param queueDepth           The number of distinct addresses in the queue.
+     * @param requests             The number of HTTP requests sent.
+     * @param deduplicated         The number of merged lookups.
+     * @param retries              The number of retried requests.
+     * @param failures             The number of failed lookups.
+     * @param completed            The number of completed lookups.
+     * @param averageLatencyMillis The average latency, in milliseconds.
+     * @param maxLatencyMillis     The highest latency, in milliseconds.
+     */
+    public GeocodingMetrics(int queueDepth, long requests, long deduplicated, long retries, long failures,
+                            long completed, long averageLatencyMillis, long maxLatencyMillis) {
+        this.queueDepth = queueDepth;
+        this.requests = requests;
+        this.deduplicated = deduplicated;
+        this.retries = retries;
+        this.failures = failures;
+        this.completed = completed;
+        this.averageLatencyMillis = averageLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+}
\ No newline at end of file
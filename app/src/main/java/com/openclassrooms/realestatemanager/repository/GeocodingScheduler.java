@@ -0,0 +1,316 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.openclassrooms.realestatemanager.api.NominatimApi;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Response;
+
+/**
+ * Schedules the requests sent to the Nominatim API on behalf of {@link MapRepository}.
+ * Lookups of an address already in flight are merged into a single request, requests are spaced
+ * by a token bucket so the server never sees more than the configured rate, and throttled (429)
+ * or failed (5xx, network) requests are retried with exponential backoff. A request waiting for its retry
+ * doesn't hold the worker: it is sent back to the worker's queue once its delay expires.
+ */
+public class GeocodingScheduler {
+
+    private static final String TAG = "GeocodingScheduler";
+
+    // Nominatim's usage policy allows at most one request per second
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 1.0;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 1000;
+
+    // HTTP status returned by Nominatim when we send too many requests
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final NominatimApi api;
+    private final Executor worker;
+    private final ScheduledExecutorService retryTimer;
+    private final TokenBucket tokenBucket;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+
+    // Lookups in flight, by normalized address; guarded by itself
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+
+    // Counters reported by getMetrics(); guarded by inFlight
+    private int queueDepth; // Lookups waiting for the server; those notifying their listeners are still in the map
+    private long requests;
+    private long deduplicated;
+    private long retries;
+    private long failures;
+    private long completed;
+    private long totalLatencyMillis;
+    private long maxLatencyMillis;
+
+    /**
+     * Listener receiving the result of a scheduled lookup, on the worker thread.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the server answered.
+         *
+         * @param response The best match, or null if the address was not found.
+         */
+        void onResult(@Nullable NominatimResponse response);
+
+        /**
+         * Called when the lookup failed after all its retries.
+         *
+         * @param error The cause of the last failure.
+         */
+        void onError(Throwable error);
+    }
+
+    /**
+     * Constructor initializing the scheduler.
+     *
+     * @param api                  The geocoding service.
+     * @param worker               The executor sending the requests; a single thread keeps them in order.
+     * @param retryTimer           The scheduler handing the retries back to the worker once their backoff expired.
+     * @param requestsPerSecond    The maximum rate of requests sent to the server.
+     * @param maxRetries           How many times a throttled or failed request is sent again.
+     * @param initialBackoffMillis The delay before the first retry, doubled on each following retry.
+     */
+    public GeocodingScheduler(NominatimApi api, Executor worker, ScheduledExecutorService retryTimer,
+                              double requestsPerSecond, int maxRetries, long initialBackoffMillis) {
+        this.api = api;
+        this.worker = worker;
+        this.retryTimer = retryTimer;
+        this.tokenBucket = new TokenBucket(requestsPerSecond);
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * Schedules the lookup of an address.
+     * If the same address is already in flight, the listener is attached to that lookup instead
+     * of sending another request.
+     *
+     * @param key      The normalized address identifying duplicate lookups.
+     * @param address  The address sent to the server.
+     * @param listener The listener receiving the result.
+     */
+    public void submit(String key, String address, Listener listener) {
+        synchronized (inFlight) {
+            InFlight lookup = inFlight.get(key);
+            if (lookup != null) {
+                lookup.listeners.add(listener);
+                deduplicated++;
+                return;
+            }
+            lookup = new InFlight();
+            lookup.listeners.add(listener);
+            inFlight.put(key, lookup);
+            queueDepth++;
+        }
+        worker.execute(() -> send(key, address, 0, initialBackoffMillis));
+    }
+
+    /**
+     * Returns a snapshot of the queue depth, request counters and latencies.
+     *
+     * @return The current metrics.
+     */
+    public GeocodingMetrics getMetrics() {
+        synchronized (inFlight) {
+            return new GeocodingMetrics(queueDepth, requests, deduplicated, retries, failures, completed,
+                    completed > 0 ? totalLatencyMillis / completed : 0, maxLatencyMillis);
+        }
+    }
+
+    /**
+     * Sends one attempt of the request for an address. On success or a final failure, notifies every
+     * listener attached to it; on a throttled or failed attempt with retries left, schedules the next one.
+     * Runs on the worker.
+     *
+     * @param key           The normalized address.
+     * @param address       The address sent to the server.
+     * @param attempt       The number of attempts already sent.
+     * @param backoffMillis The delay before the next retry if this attempt fails.
+     */
+    private void send(String key, String address, int attempt, long backoffMillis) {
+        sleep(tokenBucket.reserve());
+        synchronized (inFlight) {
+            requests++;
+            if (attempt > 0) retries++;
+        }
+
+        Throwable error;
+        long retryAfterMillis = -1;
+        try {
+            Response<NominatimResponse[]> response = api.getCoordinatesForAddress(address).execute();
+            if (response.isSuccessful()) {
+                NominatimResponse[] body = response.body();
+                complete(key, body != null && body.length > 0 ? body[0] : null, null);
+                return;
+            }
+            error = new IOException("HTTP " + response.code());
+            if (response.code() != HTTP_TOO_MANY_REQUESTS && response.code() < 500) {
+                complete(key, null, error); // The request itself is wrong, sending it again won't help
+                return;
+            }
+            retryAfterMillis = parseRetryAfter(response.headers().get("Retry-After"));
+        } catch (IOException | RuntimeException e) {
+            error = e;
+        }
+
+        if (attempt >= maxRetries) {
+            complete(key, null, error);
+            return;
+        }
+        // The worker serves the other addresses in the meantime
+        retryTimer.schedule(() -> worker.execute(() -> send(key, address, attempt + 1, backoffMillis * 2)),
+                Math.max(backoffMillis, retryAfterMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the metrics of a lookup, notifies its listeners, then removes it from the in-flight map.
+     * The lookup stays in flight while its listeners run, so that a lookup of the same address submitted
+     * before they wrote the result to the cache joins this one instead of sending another request.
+     * A listener that throws is logged and doesn't keep the others, or the lookup, waiting.
+     *
+     * @param key    The normalized address.
+     * @param result The result, if the server answered.
+     * @param error  The last error, if the lookup failed.
+     */
+    private void complete(String key, @Nullable NominatimResponse result, @Nullable Throwable error) {
+        InFlight lookup;
+        synchronized (inFlight) {
+            lookup = inFlight.get(key);
+            queueDepth--;
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lookup.submittedAt);
+            completed++;
+            totalLatencyMillis += latencyMillis;
+            maxLatencyMillis = Math.max(maxLatencyMillis, latencyMillis);
+            if (error != null) failures++;
+        }
+
+        try {
+            while (true) {
+                List<Listener> listeners;
+                synchronized (inFlight) {
+                    if (lookup.listeners.isEmpty()) {
+                        // Listeners attached after this point start a new lookup
+                        inFlight.remove(key);
+                        return;
+                    }
+                    listeners = new ArrayList<>(lookup.listeners);
+                    lookup.listeners.clear();
+                }
+                for (Listener listener : listeners) {
+                    notify(listener, result, error);
+                }
+            }
+        } finally {
+            synchronized (inFlight) {
+                if (inFlight.get(key) == lookup) {
+                    inFlight.remove(key); // Never leave a finished lookup for later submissions to join
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the outcome of a lookup to one of its listeners, logging what the listener throws.
+     *
+     * @param listener The listener.
+     * @param result   The result, if the server answered.
+     * @param error    The last error, if the lookup failed.
+     */
+    private static void notify(Listener listener, @Nullable NominatimResponse result, @Nullable Throwable error) {
+        try {
+            if (error != null) {
+                listener.onError(error);
+            } else {
+                listener.onResult(result);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "A geocoding listener failed", e);
+        }
+    }
+
+    /**
+     * Parses a Retry-After header given in seconds.
+     *
+     * @param value The header value, may be null.
+     * @return The delay in milliseconds, or -1 if the header is missing or not a number of seconds.
+     */
+    private static long parseRetryAfter(@Nullable String value) {
+        if (value == null) return -1;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return -1; // HTTP dates are not worth parsing here; the backoff applies
+        }
+    }
+
+    /**
+     * Sleeps for the given duration, restoring the interrupt flag if interrupted.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    private static void sleep(long nanos) {
+        if (nanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A lookup in flight and the listeners waiting for it.
+     */
+    private static class InFlight {
+        final List<Listener> listeners = new ArrayList<>();
+        final long submittedAt = System.nanoTime();
+    }
+
+    /**
+     * Token bucket holding at most one token, refilled at the configured rate.
+     * A caller that finds the bucket empty reserves the next token and waits until it is due,
+     * so requests are evenly spaced and never exceed the rate.
+     */
+    static class TokenBucket {
+        private final long nanosPerToken;
+        private long nextFreeAt; // Time at which the next token is available
+
+        /**
+         * Constructor initializing an empty bucket.
+         *
+         * @param tokensPerSecond The refill rate.
+         */
+        TokenBucket(double tokensPerSecond) {
+            this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+            this.nextFreeAt = System.nanoTime();
+        }
+
+        /**
+         * Takes a token, reserving the next one if the bucket is empty.
+         *
+         * @return How long the caller must wait before using the token, in nanoseconds.
+         */
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeAt);
+            nextFreeAt = start + nanosPerToken;
+            return start - now;
+        }
+    }
+}
\ No newline at end of file
@@ -1,36 +1,312 @@
 package com.openclassrooms.realestatemanager.repository;
 
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
 import com.openclassrooms.realestatemanager.api.NominatimApi;
+import com.openclassrooms.realestatemanager.model.dao.GeocodeCacheDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.GeocodeCacheEntry;
 import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+import com.openclassrooms.realestatemanager.model.geo.Gazetteer;
 
-import retrofit2.Call;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Repository class for handling geocoding operations using the Nominatim API.
  * This repository is responsible for fetching latitude and longitude coordinates
- * for a given address.
+ * for a given address. Results are cached in memory and in the geocode_cache table,
+ * so an address is only sent to Nominatim once per {@link #CACHE_TTL_MILLIS}. The requests that
+ * do reach Nominatim go through a {@link GeocodingScheduler}, which merges duplicates and
+ * enforces the rate limit. Lookups by {@link Address} also get an approximate answer from the bundled
+ * offline {@link Gazetteer}, which is used when the network is unavailable.
  */
 public class MapRepository {
 
-    // Instance of the Nominatim API service
-    private final NominatimApi api;
+    // How long geocoded coordinates are reused before being fetched again
+    static final long CACHE_TTL_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    // Number of addresses kept in memory in front of the geocode_cache table
+    static final int MEMORY_CACHE_SIZE = 100;
+
+    // Singleton instance, shared so that every caller goes through the same caches
+    private static volatile MapRepository INSTANCE;
+
+    // Scheduler sending the lookups to the Nominatim API within its rate limit
+    private final GeocodingScheduler scheduler;
+
+    // DAO of the persistent geocoding cache
+    private final GeocodeCacheDao cacheDao;
+
+    // Executor running the cache queries off the main thread
+    private final Executor executor;
+
+    // Offline centroids of zip codes and cities, null if the bundled file could not be mapped
+    @Nullable
+    private final Gazetteer gazetteer;
+
+    // In-memory LRU cache of the most recently used addresses
+    private final Map<String, GeocodeCacheEntry> memoryCache =
+            new LinkedHashMap<String, GeocodeCacheEntry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, GeocodeCacheEntry> eldest) {
+                    return size() > MEMORY_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Callback receiving the result of a geocoding lookup.
+     * It may be called on a background thread.
+     */
+    public interface GeocodeCallback {
+
+        /**
+         * Called when the lookup completed.
+         *
+         * @param response The coordinates of the address, or null if the address was not found.
+         */
+        void onResult(@Nullable NominatimResponse response);
+
+        /**
+         * Called with the centroid of the zip code or city of the address, before the precise result.
+         * Only lookups made with an {@link Address} receive it, and only when no precise coordinates are cached.
+         *
+         * @param response The approximate coordinates of the address.
+         */
+        default void onApproximateResult(NominatimResponse response) {
+        }
+
+        /**
+         * Called when the coordinates could not be fetched and nothing was cached.
+         *
+         * @param error The cause of the failure.
+         */
+        void onError(Throwable error);
+    }
+
+    /**
+     * Returns the singleton instance of the repository.
+     * Uses double-checked locking to ensure thread safety.
+     *
+     * @param application The application context used to open the database.
+     * @return The singleton instance of MapRepository.
+     */
+    public static MapRepository getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (MapRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MapRepository(application);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Constructor that initializes the Nominatim API instance and the geocoding cache.
+     *
+     * @param application The application context used to open the database.
+     */
+    private MapRepository(Application application) {
+        this(new GeocodingScheduler(new NominatimApi(), Executors.newSingleThreadExecutor(),
+                        Executors.newSingleThreadScheduledExecutor(),
+                        GeocodingScheduler.DEFAULT_REQUESTS_PER_SECOND,
+                        GeocodingScheduler.DEFAULT_MAX_RETRIES,
+                        GeocodingScheduler.DEFAULT_INITIAL_BACKOFF_MILLIS),
+                PropertyDatabase.getInstance(application).geocodeCacheDao(),
+                PropertyDatabase.databaseWriteExecutor,
+                openGazetteer(application));
+    }
+
+    /**
+     * Constructor with explicit dependencies, used by tests.
+     *
+     * @param scheduler The scheduler sending the requests to the geocoding service.
+     * @param cacheDao  The DAO of the persistent cache.
+     * @param executor  The executor running the cache queries.
+     */
+    @VisibleForTesting
+    MapRepository(GeocodingScheduler scheduler, GeocodeCacheDao cacheDao, Executor executor) {
+        this(scheduler, cacheDao, executor, null);
+    }
+
+    /**
+     * Constructor with explicit dependencies, including the offline gazetteer.
+     *
+     * @param scheduler The scheduler sending the requests to the geocoding service.
+     * @param cacheDao  The DAO of the persistent cache.
+     * @param executor  The executor running the cache queries.
+     * @param gazetteer The offline gazetteer, or null to geocode online only.
+     */
+    @VisibleForTesting
+    MapRepository(GeocodingScheduler scheduler, GeocodeCacheDao cacheDao, Executor executor, @Nullable Gazetteer gazetteer) {
+        this.scheduler = scheduler;
+        this.cacheDao = cacheDao;
+        this.executor = executor;
+        this.gazetteer = gazetteer;
+    }
 
     /**
-     * Constructor that initializes the Nominatim API instance.
-     * This API is used to perform geocoding requests.
+     * Maps the bundled gazetteer. Only its header is read, so this is cheap enough for startup.
+     *
+     * @param application The application whose assets hold the gazetteer.
+     * @return The gazetteer, or null if it could not be mapped.
      */
-    public MapRepository() {
-        api = new NominatimApi();
+    @Nullable
+    private static Gazetteer openGazetteer(Application application) {
+        try {
+            return Gazetteer.open(application);
+        } catch (IOException e) {
+            Log.w("MapRepository", "Offline gazetteer unavailable", e);
+            return null;
+        }
     }
 
     /**
      * Fetches geographical coordinates (latitude and longitude) for a given address.
-     * This method sends a request to the Nominatim API and retrieves an array of possible results.
+     * The in-memory cache is checked first, then the geocode_cache table, and only then
+     * the Nominatim API through the scheduler. If the network call fails, expired coordinates are still returned.
+     *
+     * @param address  The address to be geocoded.
+     * @param callback The callback receiving the coordinates.
+     */
+    public void fetchCoordinatesForAddress(String address, GeocodeCallback callback) {
+        fetchCoordinates(address, null, callback);
+    }
+
+    /**
+     * Fetches geographical coordinates for the address of a property, with an offline fallback.
+     * When no precise coordinates are cached, the centroid of the zip code or city found in the
+     * gazetteer is delivered at once through {@link GeocodeCallback#onApproximateResult}, and becomes
+     * the result if Nominatim cannot be reached or doesn't know the address.
+     *
+     * @param address  The address to be geocoded.
+     * @param callback The callback receiving the coordinates.
+     */
+    public void fetchCoordinatesForAddress(Address address, GeocodeCallback callback) {
+        NominatimResponse approximate = gazetteer != null ? gazetteer.lookup(address) : null;
+        String query = address.toGeocodingQuery();
+        if (query == null) {
+            callback.onResult(approximate); // Not enough to ask Nominatim
+            return;
+        }
+        fetchCoordinates(query, approximate, callback);
+    }
+
+    /**
+     * Looks an address up in the caches, then through the scheduler.
+     *
+     * @param address     The address to be geocoded.
+     * @param approximate The approximate coordinates to fall back to, or null.
+     * @param callback    The callback receiving the coordinates.
+     */
+    private void fetchCoordinates(String address, @Nullable NominatimResponse approximate, GeocodeCallback callback) {
+        String key = normalizeAddress(address);
+        long now = System.currentTimeMillis();
+
+        // Served from memory without leaving the calling thread
+        GeocodeCacheEntry cached = getFromMemory(key);
+        if (cached != null && !cached.isExpired(now)) {
+            callback.onResult(cached.toResponse());
+            return;
+        }
+
+        // A fast first answer while the precise coordinates are looked up
+        if (approximate != null) {
+            callback.onApproximateResult(approximate);
+        }
+
+        executor.execute(() -> {
+            GeocodeCacheEntry stored = cacheDao.get(key);
+            if (stored != null && !stored.isExpired(now)) {
+                putInMemory(stored);
+                callback.onResult(stored.toResponse());
+                return;
+            }
+
+            scheduler.submit(key, address, new GeocodingScheduler.Listener() {
+                @Override
+                public void onResult(NominatimResponse response) {
+                    if (response == null) {
+                        callback.onResult(approximate);
+                        return;
+                    }
+                    GeocodeCacheEntry entry = new GeocodeCacheEntry(key, response.lat, response.lon,
+                            System.currentTimeMillis(), CACHE_TTL_MILLIS);
+                    cacheDao.insert(entry);
+                    putInMemory(entry);
+                    callback.onResult(response);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    if (stored != null) {
+                        // Old coordinates are better than none: an address rarely moves
+                        callback.onResult(stored.toResponse());
+                    } else if (approximate != null) {
+                        // Offline: the centroid of the zip code or city still places the property
+                        callback.onResult(approximate);
+                    } else {
+                        callback.onError(error);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the metrics of the requests sent to the geocoding service.
+     *
+     * @return The queue depth, request counters and latencies of the scheduler.
+     */
+    public GeocodingMetrics getGeocodingMetrics() {
+        return scheduler.getMetrics();
+    }
+
+    /**
+     * Normalizes an address so that differences in case and spacing map to the same cache entry.
+     *
+     * @param address The address as entered.
+     * @return The lowercase address with single spaces and no space before commas.
+     */
+    static String normalizeAddress(String address) {
+        return address.trim()
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replace(" ,", ",");
+    }
+
+    /**
+     * Returns the entry of an address from the in-memory cache.
+     *
+     * @param key The normalized address.
+     * @return The cached entry, or null if it is not in memory.
+     */
+    @Nullable
+    private GeocodeCacheEntry getFromMemory(String key) {
+        synchronized (memoryCache) {
+            return memoryCache.get(key);
+        }
+    }
+
+    /**
+     * Adds an entry to the in-memory cache, evicting the least recently used address if it is full.
      *
-     * @param address The address to be geocoded.
-     * @return A Retrofit Call object containing an array of NominatimResponse objects.
+     * @param entry The entry to cache.
      */
-    public Call<NominatimResponse[]> fetchCoordinatesForAddress(String address) {
-        return api.getCoordinatesForAddress(address);
+    private void putInMemory(GeocodeCacheEntry entry) {
+        synchronized (memoryCache) {
+            memoryCache.put(entry.address, entry);
+        }
     }
 }
\ No newline at end of file
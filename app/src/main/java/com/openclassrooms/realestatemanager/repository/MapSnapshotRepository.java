@@ -0,0 +1,300 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.bumptech.glide.disklrucache.DiskLruCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Repository of the static map images (snapshots) shown on the property detail screen.
+ * Snapshots are keyed by coordinates rounded to 4 decimals (about 11 m) and the zoom level, not by URL,
+ * so the same place always hits the same entry. The PNGs are stored in a size-bounded LRU disk cache,
+ * which keeps them available offline, and a snapshot is downloaded only once even when it is
+ * requested again while in flight (e.g. prefetched by the list, then opened in the detail).
+ */
+public class MapSnapshotRepository {
+
+    // Zoom level of the snapshots shown on the detail screen
+    public static final int DEFAULT_ZOOM = 17;
+
+    // Disk budget of the snapshots; the least recently used are evicted beyond it
+    static final long MAX_DISK_CACHE_BYTES = 20L * 1024 * 1024;
+
+    private static final String BASE_URL = "https://static-maps.yandex.ru/1.x/";
+    private static final String DIRECTORY_NAME = "map_snapshots";
+    private static final int COORDINATE_SCALE = 10_000; // 4 decimals
+    private static final int CACHE_VERSION = 1; // Bump to drop the stored snapshots
+    private static final int DOWNLOAD_THREADS = 2;
+
+    private static volatile MapSnapshotRepository INSTANCE;
+
+    private final File directory;
+    private final long maxSize;
+    private final OkHttpClient client;
+    private final String baseUrl;
+    private final Executor executor;
+
+    // Callbacks waiting for each snapshot being fetched, by cache key
+    private final Map<String, List<SnapshotCallback>> inFlight = new HashMap<>();
+
+    // Opened on first use, off the main thread
+    private DiskLruCache diskCache;
+
+    /**
+     * Callback receiving a snapshot, on a background thread.
+     */
+    public interface SnapshotCallback {
+        /**
+         * Called with the cached PNG file of the snapshot.
+         *
+         * @param file The snapshot file.
+         */
+        void onSnapshot(File file);
+
+        /**
+         * Called when the snapshot is not cached and could not be downloaded.
+         *
+         * @param error The cause of the failure.
+         */
+        void onError(Throwable error);
+    }
+
+    /**
+     * Returns the singleton instance of MapSnapshotRepository.
+     *
+     * @param context The context whose cache directory stores the snapshots.
+     * @return The singleton instance.
+     */
+    public static MapSnapshotRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (MapSnapshotRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MapSnapshotRepository(
+                            new File(context.getApplicationContext().getCacheDir(), DIRECTORY_NAME),
+                            MAX_DISK_CACHE_BYTES,
+                            new OkHttpClient(),
+                            BASE_URL,
+                            Executors.newFixedThreadPool(DOWNLOAD_THREADS));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Constructor with explicit dependencies.
+     *
+     * @param directory The directory of the disk cache.
+     * @param maxSize   The maximum size of the disk cache, in bytes.
+     * @param client    The HTTP client downloading the snapshots.
+     * @param baseUrl   The base URL of the static map service.
+     * @param executor  The executor running the cache reads and the downloads.
+     */
+    @VisibleForTesting
+    MapSnapshotRepository(File directory, long maxSize, OkHttpClient client, String baseUrl, Executor executor) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.executor = executor;
+    }
+
+    /**
+     * Loads the snapshot centered on the given coordinates, from the disk cache or the map service.
+     *
+     * @param lat      The latitude of the center.
+     * @param lon      The longitude of the center.
+     * @param zoom     The zoom level.
+     * @param callback The callback receiving the snapshot file.
+     */
+    public void load(double lat, double lon, int zoom, SnapshotCallback callback) {
+        submit(lat, lon, zoom, callback);
+    }
+
+    /**
+     * Downloads the snapshot centered on the given coordinates into the disk cache if it isn't there yet,
+     * so that it shows up at once when the detail screen opens. Failures are only logged.
+     *
+     * @param lat  The latitude of the center.
+     * @param lon  The longitude of the center.
+     * @param zoom The zoom level.
+     */
+    public void prefetch(double lat, double lon, int zoom) {
+        submit(lat, lon, zoom, null);
+    }
+
+    /**
+     * Queues the fetch of a snapshot, or joins the fetch already queued for the same key.
+     *
+     * @param lat      The latitude of the center.
+     * @param lon      The longitude of the center.
+     * @param zoom     The zoom level.
+     * @param callback The callback receiving the snapshot, or null for a prefetch.
+     */
+    private void submit(double lat, double lon, int zoom, @Nullable SnapshotCallback callback) {
+        String key = cacheKey(lat, lon, zoom);
+        synchronized (inFlight) {
+            List<SnapshotCallback> waiting = inFlight.get(key);
+            if (waiting != null) {
+                if (callback != null) waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>();
+            if (callback != null) waiting.add(callback);
+            inFlight.put(key, waiting);
+        }
+
+        executor.execute(() -> {
+            File file = null;
+            Exception error = null;
+            try {
+                file = fetchSnapshot(key, lat, lon, zoom);
+            } catch (IOException | RuntimeException e) {
+                error = e; // A runtime failure of OkHttp or of the cache must still release the key
+            }
+
+            List<SnapshotCallback> waiting;
+            synchronized (inFlight) {
+                waiting = inFlight.remove(key);
+            }
+            if (error != null && waiting.isEmpty()) {
+                Log.w("MapSnapshotRepository", "Snapshot prefetch failed for " + key, error);
+            }
+            for (SnapshotCallback waitingCallback : waiting) {
+                if (error != null) {
+                    waitingCallback.onError(error);
+                } else {
+                    waitingCallback.onSnapshot(file);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the cached snapshot file, downloading it first if needed.
+     * Only one fetch per key runs at a time, so the cache entry is never edited concurrently.
+     *
+     * @param key  The cache key of the snapshot.
+     * @param lat  The latitude of the center.
+     * @param lon  The longitude of the center.
+     * @param zoom The zoom level.
+     * @return The snapshot file.
+     * @throws IOException If the snapshot is not cached and could not be downloaded.
+     */
+    private File fetchSnapshot(String key, double lat, double lon, int zoom) throws IOException {
+        DiskLruCache cache = getDiskCache();
+        DiskLruCache.Value cached = cache.get(key);
+        if (cached != null) {
+            return cached.getFile(0);
+        }
+
+        Request request = new Request.Builder().url(snapshotUrl(baseUrl, lat, lon, zoom)).build();
+        try (Response response = client.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("Static map request failed with HTTP " + response.code());
+            }
+            MediaType contentType = body.contentType();
+            if (contentType != null && !"image".equals(contentType.type())) {
+                throw new IOException("Static map service returned " + contentType); // Never cache an error page
+            }
+
+            DiskLruCache.Editor editor = cache.edit(key);
+            if (editor == null) {
+                throw new IOException("Snapshot " + key + " is already being written");
+            }
+            try {
+                try (InputStream input = body.byteStream();
+                     OutputStream output = new FileOutputStream(editor.getFile(0))) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = input.read(buffer)) != -1) {
+                        output.write(buffer, 0, read);
+                    }
+                }
+                editor.commit(); // Evicts the least recently used snapshots beyond the budget
+            } finally {
+                editor.abortUnlessCommitted();
+            }
+        }
+
+        DiskLruCache.Value stored = cache.get(key);
+        if (stored == null) {
+            throw new IOException("Snapshot " + key + " was evicted right after being written");
+        }
+        return stored.getFile(0);
+    }
+
+    /**
+     * Opens the disk cache on first use.
+     *
+     * @return The disk cache.
+     * @throws IOException If the cache directory cannot be opened.
+     */
+    private synchronized DiskLruCache getDiskCache() throws IOException {
+        if (diskCache == null || diskCache.isClosed()) {
+            diskCache = DiskLruCache.open(directory, CACHE_VERSION, 1, maxSize);
+        }
+        return diskCache;
+    }
+
+    /**
+     * Builds the cache key of a snapshot from its rounded coordinates and zoom level,
+     * e.g. "z17_407651_-739858". Coordinates closer than the rounding share a key.
+     *
+     * @param lat  The latitude of the center.
+     * @param lon  The longitude of the center.
+     * @param zoom The zoom level.
+     * @return The cache key, made of characters accepted by the disk cache.
+     */
+    public static String cacheKey(double lat, double lon, int zoom) {
+        return "z" + zoom + "_" + Math.round(lat * COORDINATE_SCALE) + "_" + Math.round(lon * COORDINATE_SCALE);
+    }
+
+    /**
+     * Builds the URL of a snapshot with a red marker at its center.
+     * The rounded coordinates are used, so every key maps to exactly one image.
+     *
+     * @param baseUrl The base URL of the static map service.
+     * @param lat     The latitude of the center.
+     * @param lon     The longitude of the center.
+     * @param zoom    The zoom level.
+     * @return The URL of the snapshot.
+     */
+    static String snapshotUrl(String baseUrl, double lat, double lon, int zoom) {
+        String center = formatCoordinate(lon) + "," + formatCoordinate(lat);
+        return baseUrl + "?lang=en_US&ll=" + center + "&z=" + zoom + "&l=map&pt=" + center + ",pm2rdm";
+    }
+
+    /**
+     * Formats a coordinate rounded to the precision of the cache keys.
+     *
+     * @param coordinate The coordinate in degrees.
+     * @return The rounded coordinate, with a dot as decimal separator.
+     */
+    private static String formatCoordinate(double coordinate) {
+        return String.format(Locale.ROOT, "%.4f", Math.round(coordinate * COORDINATE_SCALE) / (double) COORDINATE_SCALE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import android.app.Application;
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.util.Log;
+import android.webkit.MimeTypeMap;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.utils.ContentHash;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * App-private storage of the property photos picked from the gallery.
+ * A picked content URI only grants temporary access and goes through the content resolver on every load,
+ * so the image is copied into files/photos when the property is saved, and the photo records the local file.
+ * Files are named after the SHA-256 of their content: an image reused across listings is stored once.
+ * <p>
+ * Files no longer referenced by any photo row, photos and thumbnails alike, are deleted by
+ * {@link #collectGarbage()} once they are older than a grace period, so an image copied for a
+ * property that is still being edited is never collected.
+ */
+public class PhotoStorage {
+
+    private static final String TAG = "PhotoStorage";
+
+    static final String DIRECTORY_NAME = "photos";
+
+    // Files younger than this may belong to a photo that is not saved yet
+    static final long GRACE_PERIOD_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static volatile PhotoStorage INSTANCE;
+
+    private final PropertyDao propertyDao;
+    private final ContentResolver contentResolver;
+    private final File photoDirectory;
+    private final File thumbnailDirectory;
+    private final long gracePeriodMs;
+    private final Executor executor;
+
+    /**
+     * Returns the singleton instance of PhotoStorage.
+     * Uses double-checked locking to ensure thread safety.
+     *
+     * @param application The application context used to open the database and the storage directories.
+     * @return The singleton instance of PhotoStorage.
+     */
+    public static PhotoStorage getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (PhotoStorage.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PhotoStorage(PropertyDatabase.getInstance(application).propertyDao(),
+                            application.getContentResolver(),
+                            new File(application.getFilesDir(), DIRECTORY_NAME),
+                            new File(application.getFilesDir(), ThumbnailPipeline.DIRECTORY_NAME),
+                            GRACE_PERIOD_MS,
+                            Executors.newSingleThreadExecutor());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Constructor with explicit dependencies.
+     *
+     * @param propertyDao        The DAO listing the files still referenced.
+     * @param contentResolver    The resolver opening the picked images.
+     * @param photoDirectory     The directory of the copied photos.
+     * @param thumbnailDirectory The directory of the thumbnails, also garbage-collected.
+     * @param gracePeriodMs      The minimum age of an unreferenced file before it is deleted.
+     * @param executor           The executor running the garbage collection.
+     */
+    @VisibleForTesting
+    PhotoStorage(PropertyDao propertyDao, ContentResolver contentResolver, File photoDirectory,
+                 File thumbnailDirectory, long gracePeriodMs, Executor executor) {
+        this.propertyDao = propertyDao;
+        this.contentResolver = contentResolver;
+        this.photoDirectory = photoDirectory;
+        this.thumbnailDirectory = thumbnailDirectory;
+        this.gracePeriodMs = gracePeriodMs;
+        this.executor = executor;
+    }
+
+    /**
+     * Copies the picked images of a photo list into app storage and points the photos to the copies.
+     * Only content URIs are copied; resources, local files and links are kept as they are.
+     * A photo whose image cannot be read keeps its URI. Must be called from a background thread.
+     *
+     * @param photos The photos about to be saved (may be null).
+     */
+    public void ingestAll(List<Photo> photos) {
+        if (photos == null) return;
+        for (Photo photo : photos) {
+            if (photo.uri == null || !ContentResolver.SCHEME_CONTENT.equals(Uri.parse(photo.uri).getScheme())) continue;
+            try {
+                photo.uri = ingest(photo.uri);
+                photo.listThumbnailUri = null; // Generated again for the local file
+                photo.detailThumbnailUri = null;
+            } catch (IOException | SecurityException e) {
+                Log.w(TAG, "Could not copy " + photo.uri, e);
+            }
+        }
+    }
+
+    /**
+     * Streams an image into app storage, hashing it on the way, and returns the URI of the stored file.
+     * If a file with the same content is already stored, the copy is dropped and that file is reused.
+     *
+     * @param uri The URI of the image to copy.
+     * @return The file URI of the stored image.
+     * @throws IOException If the image cannot be read or written.
+     */
+    String ingest(String uri) throws IOException {
+        if (!photoDirectory.isDirectory() && !photoDirectory.mkdirs()) {
+            throw new IOException("Could not create " + photoDirectory);
+        }
+        MessageDigest digest = ContentHash.sha256();
+        File temporary = File.createTempFile("ingest", ".tmp", photoDirectory);
+        try {
+            try (InputStream input = open(uri);
+                 ReadableByteChannel source = input instanceof FileInputStream
+                         ? ((FileInputStream) input).getChannel() // Most providers hand out a file descriptor
+                         : Channels.newChannel(input);
+                 FileOutputStream output = new FileOutputStream(temporary);
+                 FileChannel target = output.getChannel()) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    buffer.mark();
+                    digest.update(buffer);
+                    buffer.reset();
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                target.force(false); // On disk before the rename makes it visible
+            }
+
+            File stored = new File(photoDirectory, ContentHash.toHex(digest.digest()) + extension(uri));
+            if (stored.exists()) {
+                stored.setLastModified(System.currentTimeMillis()); // Restarts the grace period of a shared file
+            } else if (!temporary.renameTo(stored)) {
+                throw new IOException("Could not store " + stored);
+            }
+            return Uri.fromFile(stored).toString();
+        } finally {
+            temporary.delete(); // Left over only if the copy failed or duplicated a stored file
+        }
+    }
+
+    /**
+     * Deletes, in the background, the photos and thumbnails that no photo row references anymore,
+     * e.g. after photos were removed from a property or a property was deleted.
+     */
+    public void collectGarbage() {
+        executor.execute(() -> {
+            try {
+                Set<String> referenced = new HashSet<>(propertyDao.getReferencedPhotoUris());
+                long cutoff = System.currentTimeMillis() - gracePeriodMs;
+                int deleted = deleteOrphans(photoDirectory, referenced, cutoff)
+                        + deleteOrphans(thumbnailDirectory, referenced, cutoff);
+                if (deleted > 0) {
+                    Log.i(TAG, "Deleted " + deleted + " unreferenced photo files");
+                }
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Photo garbage collection failed", e);
+            }
+        });
+    }
+
+    /**
+     * Deletes the files of a directory that are not referenced and were last modified before the cutoff.
+     *
+     * @param directory  The directory to clean up.
+     * @param referenced The file URIs still referenced by photo rows.
+     * @param cutoff     The time before which an unreferenced file is deleted.
+     * @return The number of files deleted.
+     */
+    private static int deleteOrphans(File directory, Set<String> referenced, long cutoff) {
+        File[] files = directory.listFiles();
+        if (files == null) return 0;
+        int deleted = 0;
+        for (File file : files) {
+            if (file.lastModified() < cutoff && !referenced.contains(Uri.fromFile(file).toString()) && file.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Opens a picked image.
+     *
+     * @param uri The URI of the image.
+     * @return The stream of the image.
+     * @throws IOException If the image cannot be opened.
+     */
+    private InputStream open(String uri) throws IOException {
+        InputStream input = contentResolver.openInputStream(Uri.parse(uri));
+        if (input == null) {
+            throw new FileNotFoundException("Could not open " + uri);
+        }
+        return input;
+    }
+
+    /**
+     * Returns the file extension matching the MIME type of a picked image, e.g. ".jpg".
+     *
+     * @param uri The URI of the image.
+     * @return The extension with its dot, or an empty string if the type is unknown.
+     */
+    private String extension(String uri) {
+        String type = contentResolver.getType(Uri.parse(uri));
+        String extension = type != null ? MimeTypeMap.getSingleton().getExtensionFromMimeType(type) : null;
+        return extension != null ? "." + extension : "";
+    }
+}
\ No newline at end of file
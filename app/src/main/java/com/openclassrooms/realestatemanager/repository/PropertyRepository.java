@@ -1,31 +1,62 @@
 package com.openclassrooms.realestatemanager.repository;
 
 import android.app.Application;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.dao.PropertySearchQueryBuilder;
 import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
 import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertyLocation;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
 import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Repository class that manages access to property data.
  * This class provides methods to fetch, insert, update, and delete property records
- * in the Room database.
+ * in the Room database. The address of each written property is geocoded in the background,
+ * so the detail screen can show its map without looking the coordinates up.
  */
 public class PropertyRepository {
 
+    private static final String TAG = "PropertyRepository";
+
+    // Number of properties committed per transaction by bulk inserts
+    static final int BULK_CHUNK_SIZE = 500;
+
+    // Pages of 30 rows, at most 150 rows kept in memory whatever the size of the table
+    private static final PagingConfig PAGING_CONFIG = new PagingConfig(30, 15, false, 60, 150);
+
     // Data Access Object (DAO) for property-related database operations
     private final PropertyDao propertyDao;
 
-    // LiveData list of all properties to be observed by the UI
-    private final LiveData<List<Property>> allProperties;
+    // Repository geocoding the addresses of the written properties
+    private final MapRepository mapRepository;
+
+    // Job geocoding imported properties in the background
+    private final CoordinateBackfill coordinateBackfill;
+
+    // Job generating the thumbnails of the written photos in the background
+    private final ThumbnailPipeline thumbnailPipeline;
+
+    // App-private copies of the picked photos
+    private final PhotoStorage photoStorage;
 
     /**
      * Constructor that initializes the repository and database access.
@@ -35,22 +66,47 @@ public class PropertyRepository {
     public PropertyRepository(Application application) {
         PropertyDatabase database = PropertyDatabase.getInstance(application);
         propertyDao = database.propertyDao();
-        allProperties = propertyDao.getAllProperties();
+        mapRepository = MapRepository.getInstance(application);
+        coordinateBackfill = CoordinateBackfill.getInstance(application);
+        thumbnailPipeline = ThumbnailPipeline.getInstance(application);
+        photoStorage = PhotoStorage.getInstance(application);
     }
 
     /**
-     * Retrieves a LiveData list of all properties from the database.
-     * LiveData ensures that the UI is automatically updated when the data changes.
+     * Retrieves the list rows of all properties as a paged stream.
+     * Only the pages around the visible rows are read from the database, and only the displayed columns.
      *
-     * @return LiveData containing the list of properties.
+     * @return LiveData emitting a new PagingData whenever the property table changes.
      */
-    public LiveData<List<Property>> getAllProperties() {
-        return allProperties;
+    public LiveData<PagingData<PropertySummary>> getPagedProperties() {
+        return PagingLiveData.getLiveData(new Pager<>(PAGING_CONFIG, propertyDao::getPropertySummariesPaged));
+    }
+
+    /**
+     * Retrieves the ID and coordinates of every geocoded property, for the map screen.
+     *
+     * @return LiveData emitting the locations again whenever the property table changes.
+     */
+    public LiveData<List<PropertyLocation>> getPropertyLocations() {
+        return propertyDao.getPropertyLocations();
+    }
+
+    /**
+     * Searches for properties based on the given search criteria as a paged stream of list rows.
+     *
+     * @param criteria The search criteria containing filters such as price, surface, and location.
+     * @return LiveData emitting the matching property summaries page by page.
+     */
+    public LiveData<PagingData<PropertySummary>> searchPropertiesPaged(SearchCriteria criteria) {
+        SupportSQLiteQuery query = new PropertySearchQueryBuilder(criteria).buildSummary();
+        return PagingLiveData.getLiveData(new Pager<>(PAGING_CONFIG, () -> propertyDao.searchPropertySummariesPaged(query)));
     }
 
     /**
      * Inserts a property into the database asynchronously.
      * The operation is executed on a background thread to prevent UI blocking.
+     * Picked photos are first copied into app storage. Once inserted, the address is geocoded and
+     * the coordinates stored on the property, and the thumbnails of the new photos are generated.
      *
      * @param property The property object to insert.
      * @return LiveData<Boolean> indicating success (true) or failure (false).
@@ -59,8 +115,13 @@ public class PropertyRepository {
         MutableLiveData<Boolean> result = new MutableLiveData<>();
 
         PropertyDatabase.databaseWriteExecutor.execute(() -> {
-            long insertedId = propertyDao.insert(property);
+            photoStorage.ingestAll(property.photos);
+            long insertedId = propertyDao.insertWithDetails(property);
             result.postValue(insertedId != -1); // Checks if insertion was successful (id > 0)
+            if (insertedId != -1) {
+                geocode((int) insertedId, property.address);
+                thumbnailPipeline.start();
+            }
         });
 
         return result;
@@ -69,11 +130,72 @@ public class PropertyRepository {
     /**
      * Updates an existing property in the database asynchronously.
      * The operation is executed on a background thread.
+     * The stored coordinates are kept if the address is unchanged; otherwise they are cleared
+     * and the new address is geocoded. Photos added by the edit are copied into app storage and get
+     * their thumbnails, and the files of the removed photos are garbage-collected.
      *
      * @param property The property object to update.
      */
     public void update(Property property) {
-        PropertyDatabase.databaseWriteExecutor.execute(() -> propertyDao.update(property));
+        PropertyDatabase.databaseWriteExecutor.execute(() -> {
+            Property stored = propertyDao.findPropertyById(property.id);
+            if (stored != null && isSameLocation(stored.address, property.address)) {
+                property.latitude = stored.latitude;
+                property.longitude = stored.longitude;
+            } else {
+                property.latitude = null;
+                property.longitude = null;
+            }
+            photoStorage.ingestAll(property.photos);
+            propertyDao.updateWithDetails(property);
+            thumbnailPipeline.start();
+            photoStorage.collectGarbage();
+
+            if (property.latitude == null) {
+                geocode(property.id, property.address);
+            }
+        });
+    }
+
+    /**
+     * Geocodes the address of a property and stores the coordinates on its row.
+     * Failures are only logged: the property keeps null coordinates and the detail screen
+     * falls back to geocoding the address itself.
+     *
+     * @param propertyId The ID of the property.
+     * @param address    The address that was written.
+     */
+    private void geocode(int propertyId, Address address) {
+        String query = address != null ? address.toGeocodingQuery() : null;
+        if (query == null) return; // Incomplete address, nothing to geocode
+
+        mapRepository.fetchCoordinatesForAddress(query, new MapRepository.GeocodeCallback() {
+            @Override
+            public void onResult(NominatimResponse response) {
+                if (response != null) {
+                    propertyDao.updateCoordinates(propertyId, address.street, address.city, address.state,
+                            response.lat, response.lon);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                Log.w(TAG, "Could not geocode property " + propertyId, error);
+            }
+        });
+    }
+
+    /**
+     * Checks whether two addresses resolve to the same geocoding query.
+     *
+     * @param first  The first address, may be null.
+     * @param second The second address, may be null.
+     * @return True if both addresses produce the same query.
+     */
+    private static boolean isSameLocation(Address first, Address second) {
+        String firstQuery = first != null ? first.toGeocodingQuery() : null;
+        String secondQuery = second != null ? second.toGeocodingQuery() : null;
+        return Objects.equals(firstQuery, secondQuery);
     }
 
     /**
@@ -83,11 +205,38 @@ public class PropertyRepository {
      * @param properties List of property objects to insert.
      */
     public void insertMockData(List<Property> properties) {
+        bulkInsert(properties);
+    }
+
+    /**
+     * Inserts a large list of properties asynchronously, with their photos and points of interest.
+     * Properties are written in chunks of {@value #BULK_CHUNK_SIZE}, each chunk in its own transaction,
+     * so an import costs one commit per chunk instead of one per row and can report its progress.
+     * Once the insert is complete, the coordinate backfill geocodes the new properties in the background
+     * and the thumbnail pipeline generates the thumbnails of their photos.
+     *
+     * @param properties The properties to insert.
+     * @return LiveData emitting the progress after each committed chunk (intermediate values may be coalesced),
+     * the last value holding all the generated IDs.
+     */
+    public LiveData<BulkInsertProgress> bulkInsert(List<Property> properties) {
+        MutableLiveData<BulkInsertProgress> progress = new MutableLiveData<>();
+
         PropertyDatabase.databaseWriteExecutor.execute(() -> {
-            for (Property property : properties) {
-                propertyDao.insert(property);
+            List<Long> ids = new ArrayList<>(properties.size());
+            for (int start = 0; start < properties.size(); start += BULK_CHUNK_SIZE) {
+                int end = Math.min(start + BULK_CHUNK_SIZE, properties.size());
+                ids.addAll(propertyDao.insertAll(properties.subList(start, end)));
+                if (end < properties.size()) {
+                    progress.postValue(new BulkInsertProgress(end, properties.size(), Collections.emptyList()));
+                }
             }
+            progress.postValue(new BulkInsertProgress(properties.size(), properties.size(), ids));
+            coordinateBackfill.start();
+            thumbnailPipeline.start();
         });
+
+        return progress;
     }
 
     /**
@@ -98,37 +247,18 @@ public class PropertyRepository {
      * @return LiveData containing the requested property.
      */
     public LiveData<Property> getPropertyById(int propertyId) {
-        return propertyDao.getPropertyById(propertyId);
-    }
-
-    /**
-     * Searches for properties based on the given search criteria.
-     * Filtering for minimum number of photos is applied manually after retrieving data.
-     *
-     * @param criteria The search criteria containing filters such as price, surface, and location.
-     * @return LiveData containing the list of filtered properties.
-     */
-    public LiveData<List<Property>> searchProperties(SearchCriteria criteria) {
-        return Transformations.map(propertyDao.searchProperties(
-                criteria.minPrice, criteria.maxPrice, criteria.minSurface, criteria.maxSurface,
-                criteria.minRooms, criteria.location
-        ), properties -> {
-            // Manually filter properties based on the minimum number of photos required
-            List<Property> filteredProperties = new ArrayList<>();
-            for (Property property : properties) {
-                if (criteria.minPhotos == 0 || property.photos.size() >= criteria.minPhotos) {
-                    filteredProperties.add(property);
-                }
-            }
-            return filteredProperties;
-        });
+        return Transformations.map(propertyDao.getPropertyById(propertyId),
+                propertyWithDetails -> propertyWithDetails != null ? propertyWithDetails.toProperty() : null);
     }
 
     /**
-     * Deletes all properties from the database asynchronously.
+     * Deletes all properties from the database asynchronously, then the files of their photos.
      * This is useful for testing or resetting the database.
      */
     public void deleteAllProperties() {
-        PropertyDatabase.databaseWriteExecutor.execute(propertyDao::deleteAllProperties);
+        PropertyDatabase.databaseWriteExecutor.execute(() -> {
+            propertyDao.deleteAllProperties();
+            photoStorage.collectGarbage();
+        });
     }
 }
\ No newline at end of file
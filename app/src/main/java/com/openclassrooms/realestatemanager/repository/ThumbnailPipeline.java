@@ -0,0 +1,384 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import android.app.Application;
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolAdapter;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.resource.bitmap.DefaultImageHeaderParser;
+import com.bumptech.glide.load.resource.bitmap.TransformationUtils;
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.utils.BlurHash;
+import com.openclassrooms.realestatemanager.utils.ContentHash;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job generating downsampled copies of the property photos, so that list rows and the detail
+ * carousel never decode multi-megapixel camera images. Each source image gets two JPEG thumbnails whose
+ * short side matches the view they are shown in ({@value #LIST_SIZE_DP} dp for list rows,
+ * {@value #DETAIL_SIZE_DP} dp for the carousel), rotated upright from the EXIF orientation.
+ * The list thumbnail is then hashed into a BlurHash, which the adapters decode into a placeholder
+ * while the thumbnail itself loads.
+ * <p>
+ * Photos without thumbnails or BlurHash are walked by ascending ID in batches of {@value #BATCH_SIZE}, one image at a time
+ * so that a single full decode is in memory at once. Thumbnails are named after the source URI, so a photo
+ * re-inserted by an edit or reused by another property finds its files already on disk.
+ */
+public class ThumbnailPipeline {
+
+    private static final String TAG = "ThumbnailPipeline";
+
+    // Number of photos read per query
+    static final int BATCH_SIZE = 20;
+
+    // Short side of the thumbnails: the list row image and the carousel card
+    static final int LIST_SIZE_DP = 100;
+    static final int DETAIL_SIZE_DP = 160;
+
+    // Short side of the image the BlurHash is computed from; the hash only keeps the coarsest details
+    static final int BLUR_HASH_INPUT_PX = 32;
+
+    static final String DIRECTORY_NAME = "thumbnails";
+    private static final int JPEG_QUALITY = 85;
+
+    private static volatile ThumbnailPipeline INSTANCE;
+
+    private final PropertyDao propertyDao;
+    private final ContentResolver contentResolver;
+    private final File directory;
+    private final int listSizePx;
+    private final int detailSizePx;
+    private final Executor executor;
+
+    // Set while a pass is running, so that concurrent starts don't walk the table twice
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Set by every start, cleared when a pass begins: a start the running pass may have missed
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    /**
+     * Returns the singleton instance of the pipeline.
+     * Uses double-checked locking to ensure thread safety.
+     *
+     * @param application The application context used to open the database and read the images.
+     * @return The singleton instance of ThumbnailPipeline.
+     */
+    public static ThumbnailPipeline getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (ThumbnailPipeline.class) {
+                if (INSTANCE == null) {
+                    float density = application.getResources().getDisplayMetrics().density;
+                    INSTANCE = new ThumbnailPipeline(PropertyDatabase.getInstance(application).propertyDao(),
+                            application.getContentResolver(),
+                            new File(application.getFilesDir(), DIRECTORY_NAME),
+                            Math.round(LIST_SIZE_DP * density),
+                            Math.round(DETAIL_SIZE_DP * density),
+                            Executors.newSingleThreadExecutor());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Constructor with explicit dependencies.
+     *
+     * @param propertyDao     The DAO reading the photos and storing their thumbnails.
+     * @param contentResolver The resolver opening the source images.
+     * @param directory       The directory of the thumbnail files.
+     * @param listSizePx      The short side of the list thumbnails, in pixels.
+     * @param detailSizePx    The short side of the detail thumbnails, in pixels.
+     * @param executor        The executor running the passes.
+     */
+    @VisibleForTesting
+    ThumbnailPipeline(PropertyDao propertyDao, ContentResolver contentResolver, File directory,
+                      int listSizePx, int detailSizePx, Executor executor) {
+        this.propertyDao = propertyDao;
+        this.contentResolver = contentResolver;
+        this.directory = directory;
+        this.listSizePx = listSizePx;
+        this.detailSizePx = detailSizePx;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a pass over the photos without thumbnails or BlurHash.
+     * If a pass is already running, it usually reaches the newly inserted photos too, since they get
+     * higher IDs than the ones already walked; in case it had already read its last batch, another
+     * pass runs when it ends.
+     */
+    public void start() {
+        pending.set(true);
+        launchIfIdle();
+    }
+
+    /**
+     * Runs a pass on the executor, unless one is running.
+     */
+    private void launchIfIdle() {
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::processPendingPhotos);
+        }
+    }
+
+    /**
+     * Returns whether a pass is running.
+     *
+     * @return True until the last batch is processed.
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Generates and stores the thumbnails and BlurHash of every photo still without them.
+     * Photos whose thumbnails predate the BlurHash only get the hash, from their existing list thumbnail.
+     * A photo whose image cannot be read is skipped until the next pass.
+     */
+    private void processPendingPhotos() {
+        try {
+            pending.set(false); // This pass covers every start so far
+            long lastId = 0;
+            List<Photo> batch;
+            while (!(batch = propertyDao.getPhotosWithoutThumbnails(lastId, BATCH_SIZE)).isEmpty()) {
+                for (Photo photo : batch) {
+                    lastId = photo.id;
+                    if (photo.uri == null) continue;
+                    try {
+                        generate(photo.uri);
+                        propertyDao.saveThumbnails(photo.uri, Uri.fromFile(getListThumbnail(photo.uri)).toString(),
+                                Uri.fromFile(getDetailThumbnail(photo.uri)).toString(), computeBlurHash(photo.uri));
+                    } catch (IOException | RuntimeException e) {
+                        Log.w(TAG, "Could not generate the thumbnails of photo " + photo.id, e);
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            if (pending.get()) {
+                launchIfIdle(); // Started after the last batch was read
+            }
+        }
+    }
+
+    /**
+     * Writes the list and detail thumbnails of a source image, unless they are already on disk.
+     * The image is decoded once, at the smallest power-of-two subsampling that still covers the
+     * detail size, and the list thumbnail is scaled down from the detail one.
+     *
+     * @param uri The URI of the source image.
+     * @throws IOException If the image cannot be read or the thumbnails cannot be written.
+     */
+    void generate(String uri) throws IOException {
+        File listFile = getListThumbnail(uri);
+        File detailFile = getDetailThumbnail(uri);
+        if (listFile.exists() && detailFile.exists()) return;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        Bitmap decoded = decodeSampled(uri, detailSizePx);
+        Bitmap detail = scaleToShortSide(decoded, detailSizePx);
+        if (detail != decoded) decoded.recycle();
+        Bitmap upright = TransformationUtils.rotateImageExif(new BitmapPoolAdapter(), detail, readExifOrientation(uri));
+        if (upright != detail) detail.recycle();
+        Bitmap list = scaleToShortSide(upright, listSizePx);
+        try {
+            writeJpeg(upright, detailFile);
+            writeJpeg(list, listFile);
+        } finally {
+            if (list != upright) list.recycle();
+            upright.recycle();
+        }
+    }
+
+    /**
+     * Computes the BlurHash of a source image from its list thumbnail, subsampled to a few dozen pixels,
+     * so hashing adds next to nothing to the thumbnails. Must be called after {@link #generate}.
+     *
+     * @param uri The URI of the source image.
+     * @return The BlurHash of the image.
+     * @throws IOException If the list thumbnail cannot be read.
+     */
+    String computeBlurHash(String uri) throws IOException {
+        Bitmap bitmap = decodeSampled(getListThumbnail(uri).getPath(), BLUR_HASH_INPUT_PX);
+        try {
+            int width = bitmap.getWidth();
+            int height = bitmap.getHeight();
+            int[] pixels = new int[width * height];
+            bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+            return BlurHash.encode(pixels, width, height);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * Returns the list thumbnail file of a source image (it may not exist yet).
+     *
+     * @param uri The URI of the source image.
+     * @return The thumbnail file.
+     */
+    File getListThumbnail(String uri) {
+        return new File(directory, fileName(uri) + "_list.jpg");
+    }
+
+    /**
+     * Returns the detail thumbnail file of a source image (it may not exist yet).
+     *
+     * @param uri The URI of the source image.
+     * @return The thumbnail file.
+     */
+    File getDetailThumbnail(String uri) {
+        return new File(directory, fileName(uri) + "_detail.jpg");
+    }
+
+    /**
+     * Decodes an image subsampled by the largest power of two that keeps its short side at least minSidePx,
+     * which is what an image loader does when it fills a view from the full-resolution file.
+     *
+     * @param uri       The URI of the image.
+     * @param minSidePx The minimum short side of the decoded bitmap, in pixels.
+     * @return The decoded bitmap.
+     * @throws IOException If the image cannot be read or decoded.
+     */
+    Bitmap decodeSampled(String uri, int minSidePx) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream input = open(uri)) {
+            BitmapFactory.decodeStream(input, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + uri);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, minSidePx);
+        Bitmap bitmap;
+        try (InputStream input = open(uri)) {
+            bitmap = BitmapFactory.decodeStream(input, null, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("Could not decode " + uri);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Reads the EXIF orientation of an image with the header parser bundled with Glide.
+     *
+     * @param uri The URI of the image.
+     * @return The EXIF orientation, or ImageHeaderParser.UNKNOWN_ORIENTATION if there is none.
+     * @throws IOException If the image cannot be read.
+     */
+    private int readExifOrientation(String uri) throws IOException {
+        try (InputStream input = open(uri)) {
+            return new DefaultImageHeaderParser().getOrientation(input, new LruArrayPool());
+        }
+    }
+
+    /**
+     * Opens an image, reading files directly rather than through the content resolver.
+     *
+     * @param uri The URI of the image: a file path, or a file, content or android.resource URI.
+     * @return The stream of the image.
+     * @throws IOException If the image cannot be opened.
+     */
+    private InputStream open(String uri) throws IOException {
+        Uri parsed = Uri.parse(uri);
+        String scheme = parsed.getScheme();
+        if (scheme == null) {
+            return new FileInputStream(uri);
+        } else if (ContentResolver.SCHEME_FILE.equals(scheme)) {
+            return new FileInputStream(parsed.getPath());
+        }
+        InputStream input = contentResolver.openInputStream(parsed);
+        if (input == null) {
+            throw new FileNotFoundException("Could not open " + uri);
+        }
+        return input;
+    }
+
+    /**
+     * Returns the largest power of two by which an image can be subsampled while its short side stays
+     * at least minSidePx.
+     *
+     * @param width     The width of the image.
+     * @param height    The height of the image.
+     * @param minSidePx The minimum short side after subsampling.
+     * @return The inSampleSize to decode with.
+     */
+    static int sampleSize(int width, int height, int minSidePx) {
+        int shortSide = Math.min(width, height);
+        int sampleSize = 1;
+        while (shortSide / (sampleSize * 2) >= minSidePx) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Scales a bitmap down so that its short side is shortSidePx, keeping its aspect ratio.
+     *
+     * @param source      The bitmap to scale.
+     * @param shortSidePx The short side of the result.
+     * @return The scaled bitmap, or the source itself if it is already small enough.
+     */
+    private static Bitmap scaleToShortSide(Bitmap source, int shortSidePx) {
+        int shortSide = Math.min(source.getWidth(), source.getHeight());
+        if (shortSide <= shortSidePx) return source;
+        float scale = shortSidePx / (float) shortSide;
+        return Bitmap.createScaledBitmap(source, Math.max(1, Math.round(source.getWidth() * scale)),
+                Math.max(1, Math.round(source.getHeight() * scale)), true);
+    }
+
+    /**
+     * Compresses a bitmap to a JPEG file, through a temporary file so a killed process never leaves
+     * a truncated thumbnail behind.
+     *
+     * @param bitmap The bitmap to write.
+     * @param file   The destination file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeJpeg(Bitmap bitmap, File file) throws IOException {
+        File temporary = new File(file.getPath() + ".tmp");
+        try (OutputStream output = new FileOutputStream(temporary)) {
+            if (!bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, output)) {
+                throw new IOException("Could not compress " + file.getName());
+            }
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            throw new IOException("Could not write " + file);
+        }
+    }
+
+    /**
+     * Derives the base name of the thumbnails of a source image from its URI.
+     *
+     * @param uri The URI of the source image.
+     * @return The hexadecimal SHA-1 of the URI.
+     */
+    static String fileName(String uri) {
+        return ContentHash.sha1(uri);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.openclassrooms.realestatemanager.utils;
+
+/**
+ * Encoder and decoder of BlurHash placeholders. An image is reduced to a few cosine components
+ * (its average color and its coarsest gradients) packed into a short base 83 string, 28 characters
+ * with the default 4 x 3 components. Decoding that string gives a blurred preview of the image,
+ * cheap enough to compute on the main thread while the image itself loads.
+ * <p>
+ * Both directions are separable: the horizontal and vertical cosines are applied one after the other,
+ * from precomputed tables, and sRGB conversions go through lookup tables instead of pow().
+ * Pixels are ARGB integers, as returned by Bitmap.getPixels(); the alpha channel is ignored.
+ */
+public final class BlurHash {
+
+    // Number of horizontal and vertical components of the placeholders of the photos
+    public static final int COMPONENTS_X = 4;
+    public static final int COMPONENTS_Y = 3;
+
+    private static final String ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    private static final int LINEAR_TO_SRGB_STEPS = 4096; // Resolution of the reverse table, under one sRGB level
+
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+    private static final int[] LINEAR_TO_SRGB = new int[LINEAR_TO_SRGB_STEPS + 1];
+
+    static {
+        for (int value = 0; value < SRGB_TO_LINEAR.length; value++) {
+            double v = value / 255.0;
+            SRGB_TO_LINEAR[value] = (float) (v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4));
+        }
+        for (int step = 0; step <= LINEAR_TO_SRGB_STEPS; step++) {
+            double v = step / (double) LINEAR_TO_SRGB_STEPS;
+            double srgb = v <= 0.0031308 ? v * 12.92 : 1.055 * Math.pow(v, 1 / 2.4) - 0.055;
+            LINEAR_TO_SRGB[step] = (int) Math.round(srgb * 255);
+        }
+    }
+
+    private BlurHash() {
+    }
+
+    /**
+     * Encodes an image with {@link #COMPONENTS_X} x {@link #COMPONENTS_Y} components.
+     *
+     * @param pixels The ARGB pixels of the image, row by row.
+     * @param width  The width of the image.
+     * @param height The height of the image.
+     * @return The BlurHash of the image.
+     */
+    public static String encode(int[] pixels, int width, int height) {
+        return encode(pixels, width, height, COMPONENTS_X, COMPONENTS_Y);
+    }
+
+    /**
+     * Encodes an image into a BlurHash. The cost is proportional to the number of pixels times componentsX,
+     * so callers pass a small downsampled copy of the image: the hash only keeps its coarsest details anyway.
+     *
+     * @param pixels      The ARGB pixels of the image, row by row.
+     * @param width       The width of the image.
+     * @param height      The height of the image.
+     * @param componentsX The number of horizontal components, from 1 to 9.
+     * @param componentsY The number of vertical components, from 1 to 9.
+     * @return The BlurHash of the image.
+     * @throws IllegalArgumentException If the component counts or the dimensions are out of range.
+     */
+    public static String encode(int[] pixels, int width, int height, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("Component counts must be between 1 and 9: " + componentsX + "x" + componentsY);
+        }
+        if (width < 1 || height < 1 || pixels.length < width * height) {
+            throw new IllegalArgumentException("Invalid image of " + width + "x" + height + " for " + pixels.length + " pixels");
+        }
+        float[][] cosX = cosines(componentsX, width);
+        float[][] cosY = cosines(componentsY, height);
+
+        // Project every row on the horizontal cosines: rowSums[(i * height + y) * 3 + channel]
+        float[] rowSums = new float[componentsX * height * 3];
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = pixels[offset + x];
+                float r = SRGB_TO_LINEAR[(pixel >> 16) & 0xFF];
+                float g = SRGB_TO_LINEAR[(pixel >> 8) & 0xFF];
+                float b = SRGB_TO_LINEAR[pixel & 0xFF];
+                for (int i = 0; i < componentsX; i++) {
+                    float basis = cosX[i][x];
+                    int index = (i * height + y) * 3;
+                    rowSums[index] += basis * r;
+                    rowSums[index + 1] += basis * g;
+                    rowSums[index + 2] += basis * b;
+                }
+            }
+        }
+
+        // Then project the row sums on the vertical cosines: factors[(j * componentsX + i) * 3 + channel]
+        int components = componentsX * componentsY;
+        float[] factors = new float[components * 3];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                float r = 0, g = 0, b = 0;
+                for (int y = 0; y < height; y++) {
+                    float basis = cosY[j][y];
+                    int index = (i * height + y) * 3;
+                    r += basis * rowSums[index];
+                    g += basis * rowSums[index + 1];
+                    b += basis * rowSums[index + 2];
+                }
+                float scale = (i == 0 && j == 0 ? 1f : 2f) / (width * height);
+                int index = (j * componentsX + i) * 3;
+                factors[index] = r * scale;
+                factors[index + 1] = g * scale;
+                factors[index + 2] = b * scale;
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(4 + 2 * components);
+        appendBase83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+        float maximumValue = 1;
+        if (components > 1) {
+            float actualMaximum = 0;
+            for (int k = 3; k < factors.length; k++) {
+                actualMaximum = Math.max(actualMaximum, Math.abs(factors[k]));
+            }
+            int quantisedMaximum = Math.max(0, Math.min(82, (int) Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166f;
+            appendBase83(hash, quantisedMaximum, 1);
+        } else {
+            appendBase83(hash, 0, 1);
+        }
+        appendBase83(hash, (linearToSrgb(factors[0]) << 16) | (linearToSrgb(factors[1]) << 8) | linearToSrgb(factors[2]), 4);
+        for (int k = 1; k < components; k++) {
+            int index = k * 3;
+            appendBase83(hash, quantiseAc(factors[index], maximumValue) * 19 * 19
+                    + quantiseAc(factors[index + 1], maximumValue) * 19
+                    + quantiseAc(factors[index + 2], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Decodes a BlurHash into the pixels of a preview image.
+     *
+     * @param hash   The BlurHash.
+     * @param width  The width of the preview; a few dozen pixels is enough, the view scales it up smoothly.
+     * @param height The height of the preview.
+     * @param punch  The contrast of the preview: 1 as encoded, higher for more contrast.
+     * @return The opaque ARGB pixels of the preview, row by row.
+     * @throws IllegalArgumentException If the hash is not a valid BlurHash.
+     */
+    public static int[] decode(String hash, int width, int height, float punch) {
+        if (!isValid(hash)) {
+            throw new IllegalArgumentException("Invalid BlurHash: " + hash);
+        }
+        int sizeFlag = decodeBase83(hash, 0, 1);
+        int componentsX = sizeFlag % 9 + 1;
+        int componentsY = sizeFlag / 9 + 1;
+        float maximumValue = (decodeBase83(hash, 1, 2) + 1) / 166f * punch;
+
+        int components = componentsX * componentsY;
+        float[] colors = new float[components * 3];
+        int dc = decodeBase83(hash, 2, 6);
+        colors[0] = SRGB_TO_LINEAR[(dc >> 16) & 0xFF];
+        colors[1] = SRGB_TO_LINEAR[(dc >> 8) & 0xFF];
+        colors[2] = SRGB_TO_LINEAR[dc & 0xFF];
+        for (int k = 1; k < components; k++) {
+            int value = decodeBase83(hash, 4 + 2 * k, 6 + 2 * k);
+            colors[k * 3] = dequantiseAc(value / (19 * 19), maximumValue);
+            colors[k * 3 + 1] = dequantiseAc((value / 19) % 19, maximumValue);
+            colors[k * 3 + 2] = dequantiseAc(value % 19, maximumValue);
+        }
+
+        float[][] cosX = cosines(componentsX, width);
+        float[][] cosY = cosines(componentsY, height);
+        int[] pixels = new int[width * height];
+        float[] column = new float[componentsX * 3];
+        for (int y = 0; y < height; y++) {
+            // Apply the vertical cosines once per row, then only the horizontal ones per pixel
+            for (int i = 0; i < componentsX; i++) {
+                float r = 0, g = 0, b = 0;
+                for (int j = 0; j < componentsY; j++) {
+                    float basis = cosY[j][y];
+                    int index = (j * componentsX + i) * 3;
+                    r += basis * colors[index];
+                    g += basis * colors[index + 1];
+                    b += basis * colors[index + 2];
+                }
+                column[i * 3] = r;
+                column[i * 3 + 1] = g;
+                column[i * 3 + 2] = b;
+            }
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                float r = 0, g = 0, b = 0;
+                for (int i = 0; i < componentsX; i++) {
+                    float basis = cosX[i][x];
+                    r += basis * column[i * 3];
+                    g += basis * column[i * 3 + 1];
+                    b += basis * column[i * 3 + 2];
+                }
+                pixels[offset + x] = 0xFF000000 | (linearToSrgb(r) << 16) | (linearToSrgb(g) << 8) | linearToSrgb(b);
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Checks that a string is a well-formed BlurHash: base 83 characters, and a length matching
+     * the number of components announced by its first character.
+     *
+     * @param hash The string to check (may be null).
+     * @return True if the string can be decoded.
+     */
+    public static boolean isValid(String hash) {
+        if (hash == null || hash.length() < 6) return false;
+        for (int k = 0; k < hash.length(); k++) {
+            if (ALPHABET.indexOf(hash.charAt(k)) < 0) return false;
+        }
+        int sizeFlag = decodeBase83(hash, 0, 1);
+        if (sizeFlag >= 81) return false;
+        return hash.length() == 4 + 2 * (sizeFlag % 9 + 1) * (sizeFlag / 9 + 1);
+    }
+
+    /**
+     * Returns the cosine basis of each component along one axis: cos(pi * component * position / size).
+     */
+    private static float[][] cosines(int components, int size) {
+        float[][] table = new float[components][size];
+        for (int component = 0; component < components; component++) {
+            for (int position = 0; position < size; position++) {
+                table[component][position] = (float) Math.cos(Math.PI * component * position / size);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Quantises an AC component on 19 levels, with a square root curve keeping more precision near 0.
+     */
+    private static int quantiseAc(float value, float maximumValue) {
+        float normalized = value / maximumValue;
+        float curved = (float) Math.copySign(Math.sqrt(Math.abs(normalized)), normalized);
+        return Math.max(0, Math.min(18, (int) Math.floor(curved * 9 + 9.5)));
+    }
+
+    /**
+     * Reverses {@link #quantiseAc}.
+     */
+    private static float dequantiseAc(int quantised, float maximumValue) {
+        float normalized = (quantised - 9) / 9f;
+        return normalized * Math.abs(normalized) * maximumValue;
+    }
+
+    /**
+     * Converts a linear channel value to sRGB, clamped to 0-255.
+     */
+    private static int linearToSrgb(float value) {
+        if (!(value > 0)) return 0; // Also maps NaN to black
+        if (value >= 1) return 255;
+        return LINEAR_TO_SRGB[(int) (value * LINEAR_TO_SRGB_STEPS + 0.5f)];
+    }
+
+    /**
+     * Appends a value as a fixed number of base 83 digits.
+     */
+    private static void appendBase83(StringBuilder hash, int value, int length) {
+        int divisor = 1;
+        for (int k = 1; k < length; k++) {
+            divisor *= 83;
+        }
+        for (int k = 0; k < length; k++) {
+            hash.append(ALPHABET.charAt((value / divisor) % 83));
+            divisor /= 83;
+        }
+    }
+
+    /**
+     * Reads the base 83 digits of a hash between two indexes.
+     */
+    private static int decodeBase83(String hash, int start, int end) {
+        int value = 0;
+        for (int k = start; k < end; k++) {
+            value = value * 83 + ALPHABET.indexOf(hash.charAt(k));
+        }
+        return value;
+    }
+}
\ No newline at end of file
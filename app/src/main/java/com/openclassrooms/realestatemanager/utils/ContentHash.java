@@ -0,0 +1,60 @@
+package com.openclassrooms.realestatemanager.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashing helpers for the files stored by the application.
+ * Photos are stored under the SHA-256 of their content, streamed into a digest while they are copied,
+ * and thumbnails under the SHA-1 of the URI of their source image. Names are lowercase hexadecimal.
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /**
+     * Returns a new SHA-256 digest, to be fed with the content of a file as it is streamed.
+     *
+     * @return An empty SHA-256 digest.
+     */
+    public static MessageDigest sha256() {
+        return getDigest("SHA-256");
+    }
+
+    /**
+     * Computes the SHA-1 of a text, encoded in UTF-8.
+     *
+     * @param text The text to hash.
+     * @return The hexadecimal SHA-1 of the text.
+     */
+    public static String sha1(String text) {
+        return toHex(getDigest("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Formats bytes as lowercase hexadecimal, e.g. the result of a digest.
+     *
+     * @param bytes The bytes to format.
+     * @return Two hexadecimal digits per byte.
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Returns a digest of a standard algorithm.
+     */
+    private static MessageDigest getDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not available", e); // Guaranteed on every Android version
+        }
+    }
+}
\ No newline at end of file
@@ -12,7 +12,10 @@ import androidx.core.view.MenuProvider;
 
 import com.openclassrooms.realestatemanager.R;
 import com.openclassrooms.realestatemanager.di.AppInjector;
+import com.openclassrooms.realestatemanager.repository.CoordinateBackfill;
+import com.openclassrooms.realestatemanager.repository.PhotoStorage;
 import com.openclassrooms.realestatemanager.repository.PropertyRepository;
+import com.openclassrooms.realestatemanager.repository.ThumbnailPipeline;
 import com.openclassrooms.realestatemanager.utils.MockDataProvider;
 import com.openclassrooms.realestatemanager.view.fragment.AddPropertyFragment;
 import com.openclassrooms.realestatemanager.view.fragment.CurrencyConverterFragment;
@@ -54,6 +57,15 @@ public class MainActivity extends AppCompatActivity {
             sharedPreferences.edit().putBoolean("is_mock_data_inserted", true).apply();
         }
 
+        // Resume geocoding the properties still without coordinates (e.g. after the process was killed mid-import)
+        CoordinateBackfill.getInstance(getApplication()).start();
+
+        // Generate the thumbnails still missing (e.g. photos stored before thumbnails existed)
+        ThumbnailPipeline.getInstance(getApplication()).start();
+
+        // Delete the photo files left unreferenced (e.g. a property deleted by another app through the provider)
+        PhotoStorage.getInstance(getApplication()).collectGarbage();
+
         // Set up the menu for navigation actions
         setupMenu();
     }
@@ -0,0 +1,41 @@
+package com.openclassrooms.realestatemanager.view.adapter;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.res.ResourcesCompat;
+
+import com.openclassrooms.realestatemanager.R;
+import com.openclassrooms.realestatemanager.utils.BlurHash;
+
+/**
+ * Placeholders shown by the adapters while a photo loads, decoded from the BlurHash stored with it.
+ * The preview is only {@value #SIZE_PX} pixels square: decoding it takes a few tens of microseconds,
+ * so it is done synchronously on bind, and the ImageView scales it up with bitmap filtering.
+ */
+final class BlurHashPlaceholders {
+
+    // Side of the decoded preview; the views crop and scale it to their size
+    static final int SIZE_PX = 32;
+
+    private BlurHashPlaceholders() {
+    }
+
+    /**
+     * Returns the placeholder of a photo.
+     *
+     * @param resources The resources of the view showing the photo.
+     * @param blurHash  The BlurHash of the photo, or null if it isn't computed yet.
+     * @return The decoded preview, or the generic placeholder if there is no valid hash.
+     */
+    static Drawable create(Resources resources, @Nullable String blurHash) {
+        if (!BlurHash.isValid(blurHash)) {
+            return ResourcesCompat.getDrawable(resources, R.drawable.ic_placeholder, null);
+        }
+        int[] pixels = BlurHash.decode(blurHash, SIZE_PX, SIZE_PX, 1f);
+        return new BitmapDrawable(resources, Bitmap.createBitmap(pixels, SIZE_PX, SIZE_PX, Bitmap.Config.ARGB_8888));
+    }
+}
\ No newline at end of file
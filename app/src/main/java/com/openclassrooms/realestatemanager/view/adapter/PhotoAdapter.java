@@ -1,6 +1,8 @@
 package com.openclassrooms.realestatemanager.view.adapter;
 
+import android.content.res.Resources;
 import android.graphics.Color;
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,24 +12,54 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
 import com.openclassrooms.realestatemanager.R;
 import com.openclassrooms.realestatemanager.model.entity.Photo;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter class for displaying a list of photos in a RecyclerView.
+ * Lists are submitted with {@link #setPhotos} and diffed on a background thread, so editing or
+ * removing one photo only rebinds that item.
+ * Each photo is decoded at the size of its card: the list thumbnail shows first as a low-resolution
+ * placeholder, then the detail thumbnail (or the original until it is generated) replaces it.
+ * Until the list thumbnail is decoded, the card shows the preview decoded from the BlurHash of the photo.
  * Supports both view-only mode and editable mode where users can remove photos.
  */
-public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHolder> {
+public class PhotoAdapter extends ListAdapter<Photo, PhotoAdapter.PhotoViewHolder> {
 
-    private List<Photo> photos = new ArrayList<>();
-    private boolean isEditable; // Determines if the delete button is visible
-    private OnPhotoRemovedListener photoRemovedListener; // Listener to notify parent component
+    /**
+     * Compares photos by row ID, then by the displayed fields. The URI can't identify a photo: the same
+     * picture added twice is stored once and both photos share its URI. Photos being added have no row ID
+     * yet (0) and are compared by instance, which the screens keep from one submitted list to the next.
+     */
+    static final DiffUtil.ItemCallback<Photo> DIFF_CALLBACK = new DiffUtil.ItemCallback<Photo>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Photo oldItem, @NonNull Photo newItem) {
+            if (oldItem.id != 0 || newItem.id != 0) return oldItem.id == newItem.id;
+            return oldItem == newItem;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Photo oldItem, @NonNull Photo newItem) {
+            return Objects.equals(oldItem.description, newItem.description)
+                    && Objects.equals(oldItem.listThumbnailUri, newItem.listThumbnailUri)
+                    && Objects.equals(oldItem.detailThumbnailUri, newItem.detailThumbnailUri)
+                    && Objects.equals(oldItem.blurHash, newItem.blurHash);
+        }
+    };
+
+    private final boolean isEditable; // Determines if the delete button is visible
+    private final OnPhotoRemovedListener photoRemovedListener; // Listener to notify parent component
 
     /**
      * Constructor for PhotoAdapter.
@@ -36,6 +68,7 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
      * @param photoRemovedListener Listener to notify when a photo is removed.
      */
     public PhotoAdapter(boolean isEditable, OnPhotoRemovedListener photoRemovedListener) {
+        super(DIFF_CALLBACK);
         this.isEditable = isEditable;
         this.photoRemovedListener = photoRemovedListener;
     }
@@ -44,44 +77,67 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
     @Override
     public PhotoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_photo, parent, false);
-        return new PhotoViewHolder(view);
+        PhotoViewHolder holder = new PhotoViewHolder(view);
+
+        // Remove the photo bound at click time; positions shift as diffs are applied
+        holder.deleteButton.setOnClickListener(v -> removePhoto(holder.getBindingAdapterPosition()));
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
-        Photo photo = photos.get(position);
-
-        // Load image into ImageView using Glide
-        Glide.with(holder.itemView.getContext()).load(photo.uri).into(holder.photoImageView);
+        Photo photo = getItem(position);
+
+        // Load the photo at the size of its card, with the list thumbnail as a low-resolution placeholder
+        RequestManager glide = Glide.with(holder.itemView.getContext());
+        Resources resources = holder.itemView.getResources();
+        int width = resources.getDimensionPixelSize(R.dimen.photo_item_width);
+        int height = resources.getDimensionPixelSize(R.dimen.photo_item_height);
+        RequestBuilder<Drawable> request;
+        if (photo.detailThumbnailUri != null) {
+            request = glide.load(photo.detailThumbnailUri)
+                    .error(glide.load(photo.uri).override(width, height).centerCrop()); // Thumbnail file deleted
+        } else {
+            request = glide.load(photo.uri); // Downsampled by Glide until the thumbnail is generated
+        }
+        if (photo.listThumbnailUri != null) {
+            // Same size and transformation as the list rows, so a cover photo comes from the memory cache
+            int listSize = resources.getDimensionPixelSize(R.dimen.property_image_size);
+            request = request.thumbnail(glide.load(photo.listThumbnailUri).override(listSize).centerCrop());
+        }
+        request.override(width, height)
+                .centerCrop()
+                .placeholder(BlurHashPlaceholders.create(resources, photo.blurHash))
+                .into(holder.photoImageView);
 
         // Set photo description
         holder.photoDescription.setText(photo.description);
 
         // Show or hide delete button based on edit mode
-        if (isEditable) {
-            holder.deleteButton.setVisibility(View.VISIBLE);
-            holder.deleteButton.setOnClickListener(v -> updateList(position));
-        } else {
-            holder.deleteButton.setVisibility(View.GONE);
-        }
+        holder.deleteButton.setVisibility(isEditable ? View.VISIBLE : View.GONE);
     }
 
     /**
-     * Removes a photo from the list and updates the RecyclerView.
+     * Releases the bitmap of a photo scrolled out of the window of cached items,
+     * so only the visible and nearby photos stay decoded.
+     *
+     * @param holder The recycled view holder.
+     */
+    @Override
+    public void onViewRecycled(@NonNull PhotoViewHolder holder) {
+        Glide.with(holder.itemView.getContext()).clear(holder.photoImageView);
+    }
+
+    /**
+     * Removes a photo from the list and notifies the parent component.
      *
      * @param position The position of the photo to remove.
      */
-    private void updateList(int position) {
+    private void removePhoto(int position) {
+        List<Photo> photos = new ArrayList<>(getCurrentList());
         if (position >= 0 && position < photos.size()) {
             photos.remove(position);
-
-            // If the list becomes empty, refresh the entire RecyclerView
-            if (photos.isEmpty()) {
-                notifyDataSetChanged();
-            } else {
-                notifyItemRemoved(position);
-                notifyItemRangeChanged(position, photos.size()); // Update indices of remaining items
-            }
+            submitList(photos);
 
             // Notify parent component of the updated photo list
             if (photoRemovedListener != null) {
@@ -90,21 +146,14 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return photos.size();
-    }
-
     /**
-     * Updates the photo list and refreshes the RecyclerView if necessary.
+     * Updates the photo list; only the photos that changed are rebound.
+     * The list is copied, so callers may keep mutating their own list and submit it again.
      *
      * @param newPhotos The new list of photos.
      */
     public void setPhotos(List<Photo> newPhotos) {
-        if (!photos.equals(newPhotos)) { // Prevents unnecessary updates
-            photos = newPhotos;
-            notifyDataSetChanged(); // Force a full refresh
-        }
+        submitList(newPhotos != null ? new ArrayList<>(newPhotos) : new ArrayList<>()); // Photos may not be loaded yet
     }
 
     /**
@@ -118,9 +167,9 @@ public class PhotoAdapter extends RecyclerView.Adapter<PhotoAdapter.PhotoViewHol
      * ViewHolder class for managing the layout of a photo item.
      */
     static class PhotoViewHolder extends RecyclerView.ViewHolder {
-        private ImageView photoImageView;
-        private TextView photoDescription;
-        private ImageButton deleteButton;
+        private final ImageView photoImageView;
+        private final TextView photoDescription;
+        private final ImageButton deleteButton;
 
         public PhotoViewHolder(@NonNull View itemView) {
             super(itemView);
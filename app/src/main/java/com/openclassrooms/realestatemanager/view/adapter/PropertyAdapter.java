@@ -1,6 +1,7 @@
 package com.openclassrooms.realestatemanager.view.adapter;
 
 import android.graphics.Color;
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,24 +9,50 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
 import com.openclassrooms.realestatemanager.R;
-import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Adapter class for displaying a list of properties in a RecyclerView.
+ * Adapter class for displaying a paged list of property summaries in a RecyclerView.
+ * Pages are submitted with {@link #submitData} and diffed on a background thread by the
+ * underlying AsyncPagingDataDiffer, so only the rows that actually changed are rebound.
  * Supports item selection and interaction via an OnPropertyClickListener.
  */
-public class PropertyAdapter extends RecyclerView.Adapter<PropertyAdapter.PropertyViewHolder> {
+public class PropertyAdapter extends PagingDataAdapter<PropertySummary, PropertyAdapter.PropertyViewHolder> {
+
+    /**
+     * Compares rows by property ID, which is the stable identity of a row, then by the displayed fields.
+     * An update to one property therefore only rebinds that row, and an unchanged row keeps its
+     * view (and its loaded image) when a new page is submitted.
+     */
+    static final DiffUtil.ItemCallback<PropertySummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<PropertySummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull PropertySummary oldItem, @NonNull PropertySummary newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull PropertySummary oldItem, @NonNull PropertySummary newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
-    private List<Property> properties = new ArrayList<>(); // List of properties to display
     private final OnPropertyClickListener listener; // Click listener for property selection
-    private int selectedPosition = RecyclerView.NO_POSITION; // Tracks the currently selected position
+    private int selectedPropertyId = NO_SELECTION; // ID of the selected property, which survives page reloads
+
+    private static final int NO_SELECTION = -1;
 
     /**
      * Interface for handling property click events.
@@ -34,9 +61,9 @@ public class PropertyAdapter extends RecyclerView.Adapter<PropertyAdapter.Proper
         /**
          * Called when a property item is clicked.
          *
-         * @param property The clicked property.
+         * @param property The list row of the clicked property.
          */
-        void onPropertyClick(Property property);
+        void onPropertyClick(PropertySummary property);
     }
 
     /**
@@ -45,6 +72,7 @@ public class PropertyAdapter extends RecyclerView.Adapter<PropertyAdapter.Proper
      * @param listener Listener to handle property click events.
      */
     public PropertyAdapter(OnPropertyClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
     }
 
@@ -57,38 +85,93 @@ public class PropertyAdapter extends RecyclerView.Adapter<PropertyAdapter.Proper
 
     @Override
     public void onBindViewHolder(@NonNull PropertyViewHolder holder, int position) {
-        Property property = properties.get(position);
+        PropertySummary property = getItem(position);
+        if (property == null) return; // Page not loaded yet
 
         // Bind property data to the view
-        holder.bind(property, listener, position == selectedPosition);
+        holder.bind(property, listener, property.id == selectedPropertyId);
 
         // Handle click events for selecting properties
         holder.itemView.setOnClickListener(v -> {
-            int previousPosition = selectedPosition;
-            selectedPosition = holder.getBindingAdapterPosition();
+            int previousPosition = findPosition(selectedPropertyId);
+            selectedPropertyId = property.id;
 
-            // Update selection state in RecyclerView
-            notifyItemChanged(previousPosition);
-            notifyItemChanged(selectedPosition);
+            // Only rebind the rows whose selection state changed
+            if (previousPosition != RecyclerView.NO_POSITION) {
+                notifyItemChanged(previousPosition);
+            }
+            notifyItemChanged(holder.getBindingAdapterPosition());
 
             // Notify listener of the selection
             listener.onPropertyClick(property);
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return properties.size();
+    /**
+     * Returns the provider of the cover photos to preload ahead of the scroll.
+     * Only loaded rows are considered, so preloading never triggers a page load,
+     * and rows without a cover photo are skipped.
+     *
+     * @param glide The request manager of the screen showing the list.
+     * @return The preload model provider.
+     */
+    public ListPreloader.PreloadModelProvider<PropertySummary> createPreloadModelProvider(RequestManager glide) {
+        return new ListPreloader.PreloadModelProvider<PropertySummary>() {
+            @NonNull
+            @Override
+            public List<PropertySummary> getPreloadItems(int position) {
+                PropertySummary property = position < getItemCount() ? peek(position) : null;
+                if (property == null || property.coverPhotoUri == null) return Collections.emptyList();
+                return Collections.singletonList(property);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull PropertySummary property) {
+                return loadCover(glide, property);
+            }
+        };
     }
 
     /**
-     * Updates the property list and refreshes the RecyclerView.
+     * Builds the request of the cover photo of a row: its list thumbnail, or the full image until
+     * the thumbnail is generated. Binding and preloading share it, so a preloaded cover matches
+     * the memory cache key of the bound one (same model, same transformation, same size).
      *
-     * @param properties The new list of properties.
+     * @param glide    The request manager.
+     * @param property The list row.
+     * @return The request, or null if the property has no cover photo.
      */
-    public void setProperties(List<Property> properties) {
-        this.properties = properties;
-        notifyDataSetChanged();
+    @Nullable
+    static RequestBuilder<Drawable> loadCover(RequestManager glide, PropertySummary property) {
+        if (property.coverThumbnailUri != null) {
+            return glide.load(property.coverThumbnailUri)
+                    .centerCrop()
+                    .error(glide.load(property.coverPhotoUri)); // Thumbnail file deleted: fall back to the original
+        }
+        if (property.coverPhotoUri != null) {
+            return glide.load(property.coverPhotoUri).centerCrop();
+        }
+        return null;
+    }
+
+    /**
+     * Finds the position of a property among the loaded rows.
+     * Rows move when pages are reloaded, so the selection is kept by ID and located on demand.
+     *
+     * @param propertyId The ID of the property.
+     * @return The adapter position, or RecyclerView.NO_POSITION if the row is not loaded.
+     */
+    private int findPosition(int propertyId) {
+        if (propertyId == NO_SELECTION) return RecyclerView.NO_POSITION;
+        List<PropertySummary> loaded = snapshot();
+        for (int position = 0; position < loaded.size(); position++) {
+            PropertySummary item = loaded.get(position);
+            if (item != null && item.id == propertyId) {
+                return position;
+            }
+        }
+        return RecyclerView.NO_POSITION;
     }
 
     /**
@@ -113,21 +196,27 @@ public class PropertyAdapter extends RecyclerView.Adapter<PropertyAdapter.Proper
         /**
          * Binds property data to the view and handles UI updates.
          *
-         * @param property   The property to display.
+         * @param property   The list row of the property to display.
          * @param listener   Click listener for the property.
          * @param isSelected Whether the item is currently selected.
          */
-        public void bind(Property property, OnPropertyClickListener listener, boolean isSelected) {
+        public void bind(PropertySummary property, OnPropertyClickListener listener, boolean isSelected) {
             typeTextView.setText(property.type);
-            locationTextView.setText(property.address != null
-                    ? property.address.city + ", " + property.address.country
+            locationTextView.setText(property.city != null
+                    ? property.city + ", " + property.country
                     : "Location not available");
             priceTextView.setText("$" + property.price);
 
-            // Load property image if available, otherwise use placeholder
-            Glide.with(itemView.getContext())
-                    .load(property.photos != null && !property.photos.isEmpty() ? property.photos.get(0).uri : R.drawable.ic_placeholder)
-                    .into(propertyImageView);
+            // Load the list thumbnail of the cover photo, the full image until it is generated, or the placeholder;
+            // the BlurHash preview of the cover shows in the first frame, while the image loads
+            RequestManager glide = Glide.with(itemView.getContext());
+            RequestBuilder<Drawable> cover = loadCover(glide, property);
+            if (cover != null) {
+                cover.placeholder(BlurHashPlaceholders.create(itemView.getResources(), property.coverBlurHash))
+                        .into(propertyImageView);
+            } else {
+                glide.load(R.drawable.ic_placeholder).into(propertyImageView);
+            }
 
             // Update UI based on selection state
             itemView.setSelected(isSelected);
@@ -22,15 +22,18 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.openclassrooms.realestatemanager.R;
 import com.openclassrooms.realestatemanager.di.ViewModelFactory;
 import com.openclassrooms.realestatemanager.model.entity.Address;
 import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.repository.MapSnapshotRepository;
 import com.openclassrooms.realestatemanager.utils.Utils;
 import com.openclassrooms.realestatemanager.view.adapter.PhotoAdapter;
 import com.openclassrooms.realestatemanager.viewmodel.MapViewModel;
 import com.openclassrooms.realestatemanager.viewmodel.PropertyDetailViewModel;
 
+import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
 
@@ -39,7 +42,8 @@ import java.util.Locale;
  * This includes property description, images, location, and other relevant information.
  */
 public class PropertyDetailFragment extends Fragment {
-    private static final String ARG_PROPERTY = "property"; // Key for property argument
+    private static final String ARG_PROPERTY_ID = "property_id"; // Key for property ID argument
+    private static final int OFFSCREEN_PHOTOS = 2; // Photos kept decoded on each side of the carousel window
     private Property selectedProperty; // The selected property
 
     private PropertyDetailViewModel propertyDetailViewModel;
@@ -57,17 +61,21 @@ public class PropertyDetailFragment extends Fragment {
     private TextView soldDateTextView;
     private TextView agentTextView;
     private LinearLayout soldDateSection; // Section for displaying sold date
+    private MapSnapshotRepository mapSnapshotRepository; // Disk cache of the static map images
+    private String requestedSnapshotKey; // Key of the last snapshot requested, so older answers are ignored
+    private String geocodedLocation; // Address last sent to the geocoder, whose answer the MapViewModel holds
 
     /**
-     * Creates a new instance of PropertyDetailFragment with the provided property.
+     * Creates a new instance of PropertyDetailFragment for the provided property.
+     * Only the ID is passed; the full property is loaded from the database when the fragment opens.
      *
-     * @param property The property to display details for.
+     * @param propertyId The ID of the property to display details for.
      * @return A new instance of PropertyDetailFragment.
      */
-    public static PropertyDetailFragment newInstance(Property property) {
+    public static PropertyDetailFragment newInstance(int propertyId) {
         PropertyDetailFragment fragment = new PropertyDetailFragment();
         Bundle args = new Bundle();
-        args.putParcelable(ARG_PROPERTY, property);
+        args.putInt(ARG_PROPERTY_ID, propertyId);
         fragment.setArguments(args);
         return fragment;
     }
@@ -105,6 +113,12 @@ public class PropertyDetailFragment extends Fragment {
         PhotoAdapter photoAdapter = new PhotoAdapter(false, null); // Read-only mode, no deletion allowed
         photoRecyclerView.setAdapter(photoAdapter);
 
+        // Bound the decoded photos to the visible cards plus a few around them: cards beyond the
+        // view cache are recycled, and recycling releases their bitmap to Glide's pool
+        photoRecyclerView.setHasFixedSize(true);
+        photoRecyclerView.setItemViewCacheSize(2 * OFFSCREEN_PHOTOS);
+        photoRecyclerView.getRecycledViewPool().setMaxRecycledViews(0, OFFSCREEN_PHOTOS);
+
         // Initialize ViewModels using ViewModelFactory
         propertyDetailViewModel = new ViewModelProvider(
                 this,
@@ -116,10 +130,18 @@ public class PropertyDetailFragment extends Fragment {
                 ViewModelFactory.getInstance(requireActivity().getApplication())
         ).get(MapViewModel.class);
 
-        // Retrieve property data from arguments
-        if (getArguments() != null && getArguments().containsKey(ARG_PROPERTY)) {
-            selectedProperty = getArguments().getParcelable(ARG_PROPERTY);
-            propertyDetailViewModel.selectProperty(selectedProperty);
+        mapSnapshotRepository = MapSnapshotRepository.getInstance(requireContext());
+        requestedSnapshotKey = null; // The view is new, so nothing is displayed yet
+        observeGeocoding();
+
+        // The list only carries a summary; load the full property with its photos and points of interest
+        if (getArguments() != null && getArguments().containsKey(ARG_PROPERTY_ID)) {
+            int propertyId = getArguments().getInt(ARG_PROPERTY_ID);
+            propertyDetailViewModel.getPropertyById(propertyId).observe(getViewLifecycleOwner(), property -> {
+                if (property != null) {
+                    propertyDetailViewModel.selectProperty(property);
+                }
+            });
         }
 
         // Observe ViewModel data updates
@@ -138,7 +160,7 @@ public class PropertyDetailFragment extends Fragment {
                 photoAdapter.setPhotos(property.photos);
 
                 // Load static map image for the property location
-                loadStaticMap(property.address);
+                loadStaticMap(property);
 
                 // Display property status
                 propertyStatusTextView.setText(property.isSold ? "Sold" : "Available");
@@ -169,56 +191,38 @@ public class PropertyDetailFragment extends Fragment {
             }
         });
 
+        // Edits need no explicit reload: the live query above emits the updated property
         setupMenu(); // Set up the dynamic menu
 
-        // Listen for property updates after modifications
-        getParentFragmentManager().setFragmentResultListener("update_property_list", this, (requestKey, bundle) -> {
-            boolean updated = bundle.getBoolean("property_updated", false);
-            if (updated && selectedProperty != null) {
-                reloadPropertyDetails(selectedProperty.id);
-            }
-        });
-
         return view;
     }
 
     /**
-     * Reloads the details of a property by fetching the latest data from the ViewModel.
-     * This ensures that the displayed property information is up-to-date.
-     *
-     * @param propertyId The ID of the property to reload.
+     * Observes the answers of the geocoder, once per view. The property query re-emits on every write
+     * to its tables, so the observers must not be registered from {@link #loadStaticMap}.
      */
-    private void reloadPropertyDetails(int propertyId) {
-        propertyDetailViewModel.getPropertyById(propertyId).observe(getViewLifecycleOwner(), property -> {
-            if (property != null) {
-                populateFields(property);
+    private void observeGeocoding() {
+        // Observe LiveData for successful coordinate retrieval
+        mapViewModel.getMapDataLiveData().observe(getViewLifecycleOwner(), response -> {
+            if (selectedProperty != null && selectedProperty.latitude != null && selectedProperty.longitude != null) {
+                return; // The stored coordinates are displayed instead
+            }
+            if (response != null) {
+                Log.d("PropertyDetailFragment", "Coordinates found: lat=" + response.lat + ", lon=" + response.lon);
+                loadMapImage(response.lat, response.lon);
+            } else {
+                Log.e("PropertyDetailFragment", "No coordinates found for the address");
+                mapImageView.setImageResource(R.drawable.ic_error_map);
             }
         });
-    }
 
-    /**
-     * Populates the UI fields with the details of the selected property.
-     * This method updates text fields, images, and other UI elements to reflect the property data.
-     *
-     * @param property The property whose details will be displayed.
-     */
-    private void populateFields(Property property) {
-        selectedProperty = property;
-
-        descriptionTextView.setText(property.description);
-        surfaceTextView.setText(property.surface + " m²");
-        roomsTextView.setText(String.valueOf(property.numberOfRooms));
-        bathroomsTextView.setText(String.valueOf(property.numberOfBathrooms));
-        bedroomsTextView.setText(String.valueOf(property.numberOfBedrooms));
-        locationTextView.setText(formatPropertyLocation(property.address));
-
-        // Update photos in the RecyclerView
-        if (photoRecyclerView.getAdapter() instanceof PhotoAdapter) {
-            ((PhotoAdapter) photoRecyclerView.getAdapter()).setPhotos(property.photos);
-        }
-
-        // Reload the map with the property’s location
-        loadStaticMap(property.address);
+        // Observe LiveData for errors during geocoding requests
+        mapViewModel.getErrorLiveData().observe(getViewLifecycleOwner(), error -> {
+            if (error != null) {
+                Log.e("PropertyDetailFragment", "Error fetching coordinates: " + error);
+                Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     /**
@@ -278,65 +282,83 @@ public class PropertyDetailFragment extends Fragment {
     }
 
     /**
-     * Loads a static map image based on the property's address.
-     * Uses Yandex Static Maps API to display the location of the property.
+     * Loads a static map image of the property's location.
+     * Uses the coordinates stored on the property when it has been geocoded, so no lookup is needed;
+     * otherwise the address is geocoded through the MapViewModel first, which answers with the
+     * centroid of its zip code or city until the precise coordinates arrive. The address is only
+     * geocoded again when it changes, not on every emission of the property.
+     * Uses Yandex Static Maps API, through the snapshot cache, to display the location of the property.
      *
-     * @param address The address of the property.
+     * @param property The property to locate.
      */
-    private void loadStaticMap(Address address) {
-        // Check if address information is valid
-        if (address == null || address.street == null || address.city == null || address.state == null) {
-            Log.e("PropertyDetailFragment", "Address is null or incomplete");
-            mapImageView.setImageResource(R.drawable.ic_placeholder_map);
+    private void loadStaticMap(Property property) {
+        // Coordinates stored at write time: render the map directly
+        if (property.latitude != null && property.longitude != null) {
+            loadMapImage(property.latitude, property.longitude);
             return;
         }
 
-        // Check for internet connection before making API requests
-        if (!Utils.isInternetAvailable(requireContext())) {
-            Log.e("PropertyDetailFragment", "No internet connection");
-            mapImageView.setImageResource(R.drawable.ic_offline_map);
+        Address address = property.address;
+
+        // Check if address information is valid
+        if (address == null) {
+            Log.e("PropertyDetailFragment", "Address is null");
+            mapImageView.setImageResource(R.drawable.ic_placeholder_map);
             return;
         }
 
-        // Construct full address string for geocoding
-        String fullAddress = address.street + ", " + address.city + ", " + address.state;
-        Log.d("PropertyDetailFragment", "Fetching coordinates for address: " + fullAddress);
+        // Every field counts: without a street, the gazetteer still locates the zip code or city
+        String location = formatPropertyLocation(address);
+        if (location.equals(geocodedLocation)) return; // Same address: its answer is already observed
+        geocodedLocation = location;
 
-        // Request coordinates from ViewModel
-        mapViewModel.fetchCoordinates(fullAddress);
+        Log.d("PropertyDetailFragment", "Fetching coordinates for address: " + address.toGeocodingQuery());
 
-        // Observe LiveData for successful coordinate retrieval
-        mapViewModel.getMapDataLiveData().observe(getViewLifecycleOwner(), response -> {
-            if (response != null) {
-                double lat = response.lat;
-                double lon = response.lon;
-
-                Log.d("PropertyDetailFragment", "Coordinates found: lat=" + lat + ", lon=" + lon);
+        // Request coordinates from ViewModel; offline, the gazetteer still locates the zip code or city
+        mapViewModel.fetchCoordinates(address);
+    }
 
-                // Construct the Yandex Static Map URL with zoom level and red marker
-                String mapUrl = "https://static-maps.yandex.ru/1.x/?lang=en_US&ll="
-                        + lon + "," + lat
-                        + "&z=17&l=map&pt=" + lon + "," + lat + ",pm2rdm";
+    /**
+     * Loads the static map image centered on the given coordinates.
+     * The snapshot comes from the disk cache of MapSnapshotRepository when it was already displayed
+     * or prefetched by the list, which also makes it available offline.
+     *
+     * @param lat The latitude of the property.
+     * @param lon The longitude of the property.
+     */
+    private void loadMapImage(double lat, double lon) {
+        String key = MapSnapshotRepository.cacheKey(lat, lon, MapSnapshotRepository.DEFAULT_ZOOM);
+        if (key.equals(requestedSnapshotKey)) return; // Already displayed or on its way
+        requestedSnapshotKey = key;
 
-                Log.d("PropertyDetailFragment", "Generated map URL: " + mapUrl);
+        Log.d("PropertyDetailFragment", "Loading map snapshot: " + key);
+        mapImageView.setImageResource(R.drawable.ic_placeholder_map);
 
-                // Load map image using Glide with placeholders for loading and error handling
-                Glide.with(this)
-                        .load(mapUrl)
-                        .placeholder(R.drawable.ic_placeholder_map)
-                        .error(R.drawable.ic_error_map)
-                        .into(mapImageView);
-            } else {
-                Log.e("PropertyDetailFragment", "No coordinates found for the address");
-                mapImageView.setImageResource(R.drawable.ic_error_map);
+        mapSnapshotRepository.load(lat, lon, MapSnapshotRepository.DEFAULT_ZOOM, new MapSnapshotRepository.SnapshotCallback() {
+            @Override
+            public void onSnapshot(File file) {
+                mapImageView.post(() -> {
+                    if (!isAdded() || !key.equals(requestedSnapshotKey)) return; // Replaced by a newer request
+                    // Already on disk: keep it out of Glide's own disk cache
+                    Glide.with(PropertyDetailFragment.this)
+                            .load(file)
+                            .diskCacheStrategy(DiskCacheStrategy.NONE)
+                            .placeholder(R.drawable.ic_placeholder_map)
+                            .error(R.drawable.ic_error_map)
+                            .into(mapImageView);
+                });
             }
-        });
 
-        // Observe LiveData for errors during geocoding requests
-        mapViewModel.getErrorLiveData().observe(getViewLifecycleOwner(), error -> {
-            if (error != null) {
-                Log.e("PropertyDetailFragment", "Error fetching coordinates: " + error);
-                Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
+            @Override
+            public void onError(Throwable error) {
+                mapImageView.post(() -> {
+                    if (!isAdded() || !key.equals(requestedSnapshotKey)) return;
+                    Log.e("PropertyDetailFragment", "Error loading map snapshot: " + error.getMessage());
+                    requestedSnapshotKey = null; // Allow a retry
+                    mapImageView.setImageResource(Utils.isInternetAvailable(requireContext())
+                            ? R.drawable.ic_error_map
+                            : R.drawable.ic_offline_map);
+                });
             }
         });
     }
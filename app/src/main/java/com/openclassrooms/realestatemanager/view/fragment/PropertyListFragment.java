@@ -16,20 +16,32 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 import com.openclassrooms.realestatemanager.R;
 import com.openclassrooms.realestatemanager.di.ViewModelFactory;
-import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
+import com.openclassrooms.realestatemanager.repository.MapSnapshotRepository;
+import com.openclassrooms.realestatemanager.utils.Utils;
 import com.openclassrooms.realestatemanager.view.adapter.PropertyAdapter;
 import com.openclassrooms.realestatemanager.viewmodel.PropertyListViewModel;
 
+import kotlin.Unit;
+
 /**
  * Fragment responsible for displaying a list of properties.
  * Supports both tablet and phone layouts and provides search functionality.
  */
 public class PropertyListFragment extends Fragment {
+    // Number of rows ahead of the scroll whose cover photo is preloaded
+    private static final int MAX_PRELOAD_ROWS = 10;
+
     private PropertyListViewModel propertyListViewModel;
     private RecyclerView recyclerView;
     private PropertyAdapter adapter;
+    private MapSnapshotRepository mapSnapshotRepository;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -42,26 +54,48 @@ public class PropertyListFragment extends Fragment {
         // Initialize adapter with click listener
         adapter = new PropertyAdapter(property -> {
             if (isTablet()) {
-                showPropertyDetailInTablet(property);
+                showPropertyDetailInTablet(property.id);
             } else {
-                navigateToPropertyDetail(property);
+                navigateToPropertyDetail(property.id);
             }
         });
 
         recyclerView.setAdapter(adapter); // Attach adapter to RecyclerView
 
+        // Preload the cover photos of the next rows, in the scroll direction, at the exact size of the row image,
+        // so they come from the memory cache when bound; preloads behind the scroll are cancelled when it reverses
+        int coverSize = getResources().getDimensionPixelSize(R.dimen.property_image_size);
+        RequestManager glide = Glide.with(this);
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(
+                glide,
+                adapter.createPreloadModelProvider(glide),
+                new FixedPreloadSizeProvider<>(coverSize, coverSize),
+                MAX_PRELOAD_ROWS));
+
+        // Prefetch the map snapshots of the visible rows once pages load and whenever scrolling stops
+        mapSnapshotRepository = MapSnapshotRepository.getInstance(requireContext());
+        adapter.addOnPagesUpdatedListener(() -> {
+            recyclerView.post(this::prefetchVisibleMapSnapshots); // Rows are laid out on the next frame
+            return Unit.INSTANCE;
+        });
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    prefetchVisibleMapSnapshots();
+                }
+            }
+        });
+
         // Initialize ViewModel using ViewModelFactory
         propertyListViewModel = new ViewModelProvider(
                 this,
                 ViewModelFactory.getInstance(requireActivity().getApplication())
         ).get(PropertyListViewModel.class);
 
-        // Observe filtered property list from ViewModel
-        propertyListViewModel.getFilteredProperties().observe(getViewLifecycleOwner(), properties -> {
-            if (properties != null) {
-                adapter.setProperties(properties);
-            }
-        });
+        // Observe the paged property list from ViewModel
+        propertyListViewModel.getPagedProperties().observe(getViewLifecycleOwner(), pagingData ->
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
 
         // Listen for property updates after adding or modifying a property
         getParentFragmentManager().setFragmentResultListener("update_property_list", this, (requestKey, bundle) -> {
@@ -93,6 +127,9 @@ public class PropertyListFragment extends Fragment {
                 } else if (menuItem.getItemId() == R.id.action_reset_search) { // Reset search filters
                     propertyListViewModel.resetSearch();
                     return true;
+                } else if (menuItem.getItemId() == R.id.action_map) { // Show the properties on a map
+                    openPropertyMap();
+                    return true;
                 }
                 return false;
             }
@@ -110,15 +147,42 @@ public class PropertyListFragment extends Fragment {
         searchDialog.show(getParentFragmentManager(), "SearchDialog");
     }
 
+    /**
+     * Opens the map of the properties in place of the list.
+     */
+    private void openPropertyMap() {
+        getParentFragmentManager().beginTransaction()
+                .replace(R.id.fragment_container, new PropertyMapFragment())
+                .addToBackStack(null)
+                .commit();
+    }
+
+    /**
+     * Prefetches the map snapshots of the visible, geocoded rows, so the map shows up at once
+     * when one of them is opened. Snapshots already on disk are not downloaded again.
+     */
+    private void prefetchVisibleMapSnapshots() {
+        if (getContext() == null || !Utils.isInternetAvailable(requireContext())) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null) return;
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) return;
+
+        for (int position = first; position <= last; position++) {
+            PropertySummary property = adapter.peek(position); // Doesn't trigger a page load
+            if (property != null && property.latitude != null && property.longitude != null) {
+                mapSnapshotRepository.prefetch(property.latitude, property.longitude, MapSnapshotRepository.DEFAULT_ZOOM);
+            }
+        }
+    }
+
     /**
      * Refreshes the property list after an update.
+     * Room already invalidates the pages when the table changes; this reloads them explicitly.
      */
     private void refreshPropertyList() {
-        propertyListViewModel.getFilteredProperties().observe(getViewLifecycleOwner(), properties -> {
-            if (properties != null) {
-                adapter.setProperties(properties);
-            }
-        });
+        adapter.refresh();
     }
 
     /**
@@ -133,10 +197,10 @@ public class PropertyListFragment extends Fragment {
     /**
      * Opens the property detail view for phones.
      *
-     * @param property The selected property.
+     * @param propertyId The ID of the selected property.
      */
-    private void navigateToPropertyDetail(Property property) {
-        PropertyDetailFragment detailFragment = PropertyDetailFragment.newInstance(property);
+    private void navigateToPropertyDetail(int propertyId) {
+        PropertyDetailFragment detailFragment = PropertyDetailFragment.newInstance(propertyId);
         getParentFragmentManager().beginTransaction()
                 .replace(R.id.fragment_container, detailFragment) // Use fragment_container for phones
                 .addToBackStack(null)
@@ -146,10 +210,10 @@ public class PropertyListFragment extends Fragment {
     /**
      * Opens the property detail view for tablets.
      *
-     * @param property The selected property.
+     * @param propertyId The ID of the selected property.
      */
-    private void showPropertyDetailInTablet(Property property) {
-        PropertyDetailFragment detailFragment = PropertyDetailFragment.newInstance(property);
+    private void showPropertyDetailInTablet(int propertyId) {
+        PropertyDetailFragment detailFragment = PropertyDetailFragment.newInstance(propertyId);
         getParentFragmentManager().beginTransaction()
                 .replace(R.id.property_detail_container, detailFragment) // Use property_detail_container for tablets
                 .commit();
@@ -0,0 +1,275 @@
+package com.openclassrooms.realestatemanager.view.fragment;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.openclassrooms.realestatemanager.R;
+import com.openclassrooms.realestatemanager.di.ViewModelFactory;
+import com.openclassrooms.realestatemanager.model.geo.Cluster;
+import com.openclassrooms.realestatemanager.viewmodel.PropertyMapViewModel;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.events.DelayedMapListener;
+import org.osmdroid.events.MapListener;
+import org.osmdroid.events.ScrollEvent;
+import org.osmdroid.events.ZoomEvent;
+import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Marker;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fragment showing the geocoded properties on a map, grouped into clusters that depend on the zoom level.
+ * The clusters are computed off the main thread by PropertyMapViewModel; this fragment only reports
+ * the viewport once the map settles and draws the clusters it receives.
+ */
+public class PropertyMapFragment extends Fragment {
+    private static final String STATE_LATITUDE = "map_latitude";
+    private static final String STATE_LONGITUDE = "map_longitude";
+    private static final String STATE_ZOOM = "map_zoom";
+
+    // Manhattan, where the agency's properties are
+    private static final double DEFAULT_LATITUDE = 40.7831;
+    private static final double DEFAULT_LONGITUDE = -73.9712;
+    private static final double DEFAULT_ZOOM = 12;
+
+    private static final long VIEWPORT_DELAY_MS = 200; // Waits for the map to settle before reclustering
+    private static final long ZOOM_ANIMATION_MS = 400;
+    private static final int CLUSTER_ZOOM_STEP = 2; // Zoom levels gained when tapping a cluster
+    private static final int ICON_SIZE_DP = 36;
+
+    private PropertyMapViewModel propertyMapViewModel;
+    private MapView mapView;
+    private final List<Marker> markers = new ArrayList<>(); // Markers of the clusters on the map
+    private final Map<String, Drawable> icons = new HashMap<>(); // Cluster icons, by label
+
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        configureOsmdroid(requireContext());
+        View view = inflater.inflate(R.layout.fragment_property_map, container, false);
+
+        // Initialize the map
+        mapView = view.findViewById(R.id.map_view);
+        mapView.setTileSource(TileSourceFactory.MAPNIK);
+        mapView.setMultiTouchControls(true);
+        mapView.setMinZoomLevel(3.0);
+        double latitude = DEFAULT_LATITUDE;
+        double longitude = DEFAULT_LONGITUDE;
+        double zoom = DEFAULT_ZOOM;
+        if (savedInstanceState != null) {
+            latitude = savedInstanceState.getDouble(STATE_LATITUDE, DEFAULT_LATITUDE);
+            longitude = savedInstanceState.getDouble(STATE_LONGITUDE, DEFAULT_LONGITUDE);
+            zoom = savedInstanceState.getDouble(STATE_ZOOM, DEFAULT_ZOOM);
+        }
+        mapView.getController().setZoom(zoom);
+        mapView.getController().setCenter(new GeoPoint(latitude, longitude));
+
+        // Initialize ViewModel using ViewModelFactory
+        propertyMapViewModel = new ViewModelProvider(
+                this,
+                ViewModelFactory.getInstance(requireActivity().getApplication())
+        ).get(PropertyMapViewModel.class);
+
+        // Report the viewport once the map is laid out, then each time it settles after a pan or zoom
+        mapView.addOnFirstLayoutListener((v, left, top, right, bottom) -> updateViewport());
+        mapView.addMapListener(new DelayedMapListener(new MapListener() {
+            @Override
+            public boolean onScroll(ScrollEvent event) {
+                updateViewport();
+                return true;
+            }
+
+            @Override
+            public boolean onZoom(ZoomEvent event) {
+                updateViewport();
+                return true;
+            }
+        }, VIEWPORT_DELAY_MS));
+
+        // Observe the clusters of the current viewport
+        propertyMapViewModel.getClusters().observe(getViewLifecycleOwner(), this::showClusters);
+        return view;
+    }
+
+    /**
+     * Configures osmdroid to identify the app to the tile servers and to keep its tiles in the cache directory.
+     *
+     * @param context The context of the application.
+     */
+    private static void configureOsmdroid(Context context) {
+        Configuration configuration = Configuration.getInstance();
+        configuration.setUserAgentValue(context.getPackageName()); // Required by the OpenStreetMap tile policy
+        File basePath = new File(context.getCacheDir(), "osmdroid");
+        configuration.setOsmdroidBasePath(basePath);
+        configuration.setOsmdroidTileCache(new File(basePath, "tiles"));
+    }
+
+    /**
+     * Sends the visible area and zoom level of the map to the ViewModel.
+     */
+    private void updateViewport() {
+        if (mapView == null) return;
+        BoundingBox box = mapView.getBoundingBox();
+        propertyMapViewModel.setViewport(box.getLatSouth(), box.getLonWest(), box.getLatNorth(), box.getLonEast(),
+                mapView.getZoomLevelDouble());
+    }
+
+    /**
+     * Replaces the markers on the map with the given clusters.
+     *
+     * @param clusters The clusters of the current viewport.
+     */
+    private void showClusters(List<Cluster> clusters) {
+        mapView.getOverlays().removeAll(markers);
+        markers.clear();
+        for (Cluster cluster : clusters) {
+            Marker marker = new Marker(mapView);
+            marker.setPosition(new GeoPoint(cluster.latitude, cluster.longitude));
+            marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_CENTER);
+            marker.setIcon(getClusterIcon(cluster.count));
+            marker.setInfoWindow(null); // Taps open the property or zoom in instead
+            marker.setOnMarkerClickListener((clicked, map) -> {
+                onClusterClicked(cluster);
+                return true;
+            });
+            markers.add(marker);
+        }
+        mapView.getOverlays().addAll(markers);
+        mapView.invalidate();
+    }
+
+    /**
+     * Opens the property of a single-property cluster, or zooms in on a larger cluster to split it.
+     *
+     * @param cluster The tapped cluster.
+     */
+    private void onClusterClicked(Cluster cluster) {
+        if (cluster.isSingle()) {
+            if (isTablet()) {
+                showPropertyDetailInTablet(cluster.propertyId);
+            } else {
+                navigateToPropertyDetail(cluster.propertyId);
+            }
+        } else {
+            mapView.getController().animateTo(new GeoPoint(cluster.latitude, cluster.longitude),
+                    mapView.getZoomLevelDouble() + CLUSTER_ZOOM_STEP, ZOOM_ANIMATION_MS);
+        }
+    }
+
+    /**
+     * Returns the icon of a cluster: a disc showing the number of properties, cached by label.
+     *
+     * @param count The number of properties in the cluster.
+     * @return The icon.
+     */
+    private Drawable getClusterIcon(int count) {
+        String label = count > 999 ? "999+" : String.valueOf(count);
+        Drawable icon = icons.get(label);
+        if (icon != null) return icon;
+
+        float density = getResources().getDisplayMetrics().density;
+        int size = Math.round(ICON_SIZE_DP * density);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint circlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        circlePaint.setColor(ContextCompat.getColor(requireContext(), R.color.colorAccent));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, circlePaint);
+
+        Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(0xFFFFFFFF);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setFakeBoldText(true);
+        textPaint.setTextSize(size * (label.length() > 2 ? 0.3f : 0.4f));
+        float baseline = size / 2f - (textPaint.descent() + textPaint.ascent()) / 2;
+        canvas.drawText(label, size / 2f, baseline, textPaint);
+
+        icon = new BitmapDrawable(getResources(), bitmap);
+        icons.put(label, icon);
+        return icon;
+    }
+
+    /**
+     * Checks if the application is running on a tablet.
+     *
+     * @return True if running on a tablet, false otherwise.
+     */
+    private boolean isTablet() {
+        return getResources().getBoolean(R.bool.is_tablet); // Defined in res/values/bools.xml
+    }
+
+    /**
+     * Opens the property detail view for phones.
+     *
+     * @param propertyId The ID of the selected property.
+     */
+    private void navigateToPropertyDetail(int propertyId) {
+        PropertyDetailFragment detailFragment = PropertyDetailFragment.newInstance(propertyId);
+        getParentFragmentManager().beginTransaction()
+                .replace(R.id.fragment_container, detailFragment) // Use fragment_container for phones
+                .addToBackStack(null)
+                .commit();
+    }
+
+    /**
+     * Opens the property detail view for tablets.
+     *
+     * @param propertyId The ID of the selected property.
+     */
+    private void showPropertyDetailInTablet(int propertyId) {
+        PropertyDetailFragment detailFragment = PropertyDetailFragment.newInstance(propertyId);
+        getParentFragmentManager().beginTransaction()
+                .replace(R.id.property_detail_container, detailFragment) // Use property_detail_container for tablets
+                .commit();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        mapView.onResume(); // Resumes the tile downloads
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        mapView.onPause();
+    }
+
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (mapView != null) {
+            outState.putDouble(STATE_LATITUDE, mapView.getMapCenter().getLatitude());
+            outState.putDouble(STATE_LONGITUDE, mapView.getMapCenter().getLongitude());
+            outState.putDouble(STATE_ZOOM, mapView.getZoomLevelDouble());
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        mapView.onDetach(); // Releases the tile provider and the overlays
+        mapView = null;
+        markers.clear();
+    }
+}
\ No newline at end of file
@@ -16,15 +16,19 @@ import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
 
 import androidx.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Dialog fragment for performing an advanced property search.
- * Users can specify search criteria such as price, surface area, number of rooms, and location.
+ * Users can specify search criteria such as price, surface area, number of rooms, location,
+ * the types of points of interest that must be nearby, and free text searched in the listings.
  */
 public class SearchDialogFragment extends DialogFragment {
 
     private EditText minPriceEditText, maxPriceEditText, minSurfaceEditText, maxSurfaceEditText;
     private EditText minRoomsEditText, minPhotosEditText;
-    private EditText locationEditText;
+    private EditText locationEditText, pointsOfInterestEditText, keywordsEditText;
     private Button searchButton, cancelButton;
 
     private OnSearchListener searchListener;
@@ -59,6 +63,8 @@ public class SearchDialogFragment extends DialogFragment {
         minRoomsEditText = view.findViewById(R.id.edit_text_min_rooms);
         minPhotosEditText = view.findViewById(R.id.edit_text_min_photos);
         locationEditText = view.findViewById(R.id.edit_text_location);
+        pointsOfInterestEditText = view.findViewById(R.id.edit_text_points_of_interest);
+        keywordsEditText = view.findViewById(R.id.edit_text_keywords);
         searchButton = view.findViewById(R.id.button_search);
         cancelButton = view.findViewById(R.id.button_cancel);
 
@@ -73,6 +79,8 @@ public class SearchDialogFragment extends DialogFragment {
                     safeParseInt(minPhotosEditText.getText().toString()),
                     locationEditText.getText().toString().trim()
             );
+            criteria.pointOfInterestTypes = parseList(pointsOfInterestEditText.getText().toString());
+            criteria.keywords = keywordsEditText.getText().toString().trim();
 
             if (searchListener != null) {
                 searchListener.onSearch(criteria); // Pass search criteria to listener
@@ -103,6 +111,22 @@ public class SearchDialogFragment extends DialogFragment {
         }
     }
 
+    /**
+     * Splits a comma-separated input into a list of trimmed, non-empty values.
+     *
+     * @param text The input string to split.
+     * @return The list of values (empty if nothing was entered).
+     */
+    private List<String> parseList(String text) {
+        List<String> values = new ArrayList<>();
+        for (String value : text.split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
     /**
      * Safely parses a string into an integer to prevent conversion errors.
      *
@@ -4,17 +4,14 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.openclassrooms.realestatemanager.model.entity.Address;
 import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
 import com.openclassrooms.realestatemanager.repository.MapRepository;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 /**
  * ViewModel responsible for managing map-related operations.
  * This ViewModel interacts with the MapRepository to fetch geographical coordinates
- * (latitude and longitude) for a given address using the Nominatim API.
+ * (latitude and longitude) for a given address, from the geocoding cache or the Nominatim API.
  */
 public class MapViewModel extends ViewModel {
 
@@ -57,26 +54,52 @@ public class MapViewModel extends ViewModel {
     }
 
     /**
-     * Fetches geographical coordinates for a given address using the Nominatim API.
-     * The response is observed and stored in LiveData, which updates the UI automatically.
+     * Fetches geographical coordinates for a given address.
+     * The repository answers from its cache when it can and only calls the Nominatim API otherwise.
+     * The result is stored in LiveData, which updates the UI automatically.
      *
      * @param address The address to be geocoded.
      */
     public void fetchCoordinates(String address) {
-        repository.fetchCoordinatesForAddress(address).enqueue(new Callback<NominatimResponse[]>() {
+        repository.fetchCoordinatesForAddress(address, createCallback());
+    }
+
+    /**
+     * Fetches geographical coordinates for the address of a property.
+     * The centroid of its zip code or city is posted first when it is known offline,
+     * then replaced by the precise coordinates once they arrive.
+     *
+     * @param address The address to be geocoded.
+     */
+    public void fetchCoordinates(Address address) {
+        repository.fetchCoordinatesForAddress(address, createCallback());
+    }
+
+    /**
+     * Creates the callback posting the geocoding results to the LiveData.
+     *
+     * @return The callback.
+     */
+    private MapRepository.GeocodeCallback createCallback() {
+        return new MapRepository.GeocodeCallback() {
+            @Override
+            public void onApproximateResult(NominatimResponse response) {
+                mapDataLiveData.postValue(response); // Shown until the precise result arrives
+            }
+
             @Override
-            public void onResponse(Call<NominatimResponse[]> call, Response<NominatimResponse[]> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().length > 0) {
-                    mapDataLiveData.postValue(response.body()[0]); // Store the first result
+            public void onResult(NominatimResponse response) {
+                if (response != null) {
+                    mapDataLiveData.postValue(response); // Store the first result
                 } else {
                     errorLiveData.postValue("No data found for the given address");
                 }
             }
 
             @Override
-            public void onFailure(Call<NominatimResponse[]> call, Throwable t) {
-                errorLiveData.postValue("Error: " + t.getMessage());
+            public void onError(Throwable error) {
+                errorLiveData.postValue("Error: " + error.getMessage());
             }
-        });
+        };
     }
 }
\ No newline at end of file
@@ -4,77 +4,60 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
-import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
 import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
 import com.openclassrooms.realestatemanager.repository.PropertyRepository;
 
-import java.util.List;
-
 /**
  * ViewModel responsible for managing the list of properties.
- * It provides LiveData for all properties and filtered properties based on search criteria.
+ * It holds the search criteria set by the user and provides the matching properties
+ * as a paged stream of lightweight summaries for the list screen.
  */
 public class PropertyListViewModel extends ViewModel {
 
     // Repository handling property-related data operations
     private final PropertyRepository repository;
 
-    // LiveData containing the full list of properties
-    private final LiveData<List<Property>> allProperties;
-
     // MutableLiveData holding the search criteria set by the user
     private final MutableLiveData<SearchCriteria> searchCriteria = new MutableLiveData<>();
 
-    // LiveData containing the filtered list of properties based on the search criteria
-    private final LiveData<List<Property>> filteredProperties;
+    // Paged stream of the properties matching the search criteria, created on first use
+    private LiveData<PagingData<PropertySummary>> pagedProperties;
 
     /**
      * Constructor that initializes the ViewModel with a PropertyRepository instance.
-     * It observes search criteria and dynamically updates the filtered properties list.
      *
      * @param repository The repository handling property data operations.
      */
     public PropertyListViewModel(PropertyRepository repository) {
         this.repository = repository;
-        this.allProperties = repository.getAllProperties();
-
-        // Updates the filtered properties list whenever search criteria change
-        this.filteredProperties = Transformations.switchMap(searchCriteria, criteria -> {
-            if (criteria == null) {
-                return allProperties; // If no criteria, return all properties
-            } else {
-                return repository.searchProperties(criteria); // Return filtered properties
-            }
-        });
 
         // Initialize search criteria to null (no filter applied)
         searchCriteria.setValue(null);
     }
 
     /**
-     * Returns LiveData containing the full list of properties.
-     * UI components can observe this LiveData to receive automatic updates.
-     *
-     * @return LiveData containing all properties.
-     */
-    public LiveData<List<Property>> getAllProperties() {
-        return allProperties;
-    }
-
-    /**
-     * Returns LiveData containing the filtered list of properties based on search criteria.
-     * UI components can observe this LiveData for automatic updates.
+     * Returns the properties matching the current search criteria (or all of them) as a paged stream.
+     * The pages are cached in the ViewModel scope, so they survive configuration changes,
+     * and a new stream is started each time the criteria change.
      *
-     * @return LiveData containing the filtered properties.
+     * @return LiveData emitting the PagingData to submit to the list adapter.
      */
-    public LiveData<List<Property>> getFilteredProperties() {
-        return filteredProperties;
+    public LiveData<PagingData<PropertySummary>> getPagedProperties() {
+        if (pagedProperties == null) {
+            LiveData<PagingData<PropertySummary>> source = Transformations.switchMap(searchCriteria, criteria ->
+                    criteria == null ? repository.getPagedProperties() : repository.searchPropertiesPaged(criteria));
+            pagedProperties = PagingLiveData.cachedIn(source, ViewModelKt.getViewModelScope(this));
+        }
+        return pagedProperties;
     }
 
     /**
-     * Applies the given search criteria and updates the filtered properties list.
-     * This triggers an update in the observed LiveData.
+     * Applies the given search criteria, starting a new paged stream of the matching properties.
      *
      * @param criteria The search criteria to apply.
      */
@@ -83,7 +66,7 @@ public class PropertyListViewModel extends ViewModel {
     }
 
     /**
-     * Resets the search criteria, causing the filtered properties list to display all properties again.
+     * Resets the search criteria, causing the paged list to display all properties again.
      */
     public void resetSearch() {
         searchCriteria.setValue(null);
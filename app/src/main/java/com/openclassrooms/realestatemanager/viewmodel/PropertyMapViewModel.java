@@ -0,0 +1,117 @@
+package com.openclassrooms.realestatemanager.viewmodel;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.openclassrooms.realestatemanager.model.entity.PropertyLocation;
+import com.openclassrooms.realestatemanager.model.geo.Cluster;
+import com.openclassrooms.realestatemanager.model.geo.ClusterEngine;
+import com.openclassrooms.realestatemanager.repository.PropertyRepository;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ViewModel of the map screen, turning the property locations into the clusters of the visible viewport.
+ * Clustering runs on a background thread that owns the ClusterEngine: the locations are indexed at every
+ * zoom level when they change, and a viewport change only picks the clusters of one level.
+ */
+public class PropertyMapViewModel extends ViewModel {
+
+    // Single thread owning the engine, which is not thread-safe
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ClusterEngine engine = new ClusterEngine();
+
+    // Clusters of the current viewport, recomputed when the locations or the viewport change
+    private final MediatorLiveData<List<Cluster>> clusters = new MediatorLiveData<>();
+
+    // Latest viewport set by the map, read by the clustering thread
+    private volatile Viewport viewport;
+
+    // Whether the clusters of the latest viewport are already queued, so fast pans queue a single update
+    private final AtomicBoolean updateQueued = new AtomicBoolean();
+
+    private boolean indexed; // Only read and written on the clustering thread
+
+    /**
+     * Constructor that initializes the ViewModel with a PropertyRepository instance.
+     * The locations are indexed each time the property table changes, while the clusters are observed.
+     *
+     * @param repository The repository providing the property locations.
+     */
+    public PropertyMapViewModel(PropertyRepository repository) {
+        LiveData<List<PropertyLocation>> locations = repository.getPropertyLocations();
+        clusters.addSource(locations, list -> executor.execute(() -> {
+            engine.index(list);
+            indexed = true;
+            publishClusters();
+        }));
+    }
+
+    /**
+     * Returns the clusters to draw in the current viewport.
+     *
+     * @return LiveData holding the clusters.
+     */
+    public LiveData<List<Cluster>> getClusters() {
+        return clusters;
+    }
+
+    /**
+     * Sets the area shown by the map and queues the computation of its clusters.
+     *
+     * @param south The southern edge of the viewport.
+     * @param west  The western edge of the viewport.
+     * @param north The northern edge of the viewport.
+     * @param east  The eastern edge of the viewport.
+     * @param zoom  The zoom level of the map.
+     */
+    public void setViewport(double south, double west, double north, double east, double zoom) {
+        viewport = new Viewport(south, west, north, east, zoom);
+        if (updateQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                updateQueued.set(false);
+                publishClusters();
+            });
+        }
+    }
+
+    /**
+     * Computes the clusters of the latest viewport and posts them. Runs on the clustering thread.
+     */
+    private void publishClusters() {
+        Viewport current = viewport;
+        if (!indexed || current == null) return;
+        clusters.postValue(engine.getClusters(current.south, current.west, current.north, current.east, current.zoom));
+    }
+
+    /**
+     * Stops the clustering thread when the screen is closed.
+     */
+    @Override
+    protected void onCleared() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Area and zoom level shown by the map.
+     */
+    private static final class Viewport {
+        final double south;
+        final double west;
+        final double north;
+        final double east;
+        final double zoom;
+
+        Viewport(double south, double west, double north, double east, double zoom) {
+            this.south = south;
+            this.west = west;
+            this.north = north;
+            this.east = east;
+            this.zoom = zoom;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.openclassrooms.realestatemanager;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Utility class for the micro-benchmarks of the unit tests.
+ * Timings depend on the machine and on its load, so benchmarks are skipped by default and never
+ * assert on a measure: run them with {@code ./gradlew testDebugUnitTest -Pbenchmark} and read
+ * the report in the test output. Reports go through java.util.logging, android.util.Log being
+ * a stub off the device.
+ */
+public class BenchmarkTestUtil {
+
+    // System property set by Gradle when the build runs with -Pbenchmark
+    private static final String ENABLED_PROPERTY = "benchmark";
+
+    private static final Logger LOGGER = Logger.getLogger("Benchmark");
+
+    /**
+     * Tells whether the benchmarks were requested for this run.
+     *
+     * @return True when the build runs with -Pbenchmark.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Skips the calling test unless the benchmarks were requested for this run.
+     */
+    public static void assumeEnabled() {
+        assumeTrue("Benchmarks only run with -Pbenchmark", isEnabled());
+    }
+
+    /**
+     * Logs a line of a benchmark report, when the benchmarks were requested for this run.
+     *
+     * @param format The format of the line, as for String.format().
+     * @param args   The values of the line.
+     */
+    public static void report(String format, Object... args) {
+        if (isEnabled()) {
+            LOGGER.info(String.format(Locale.ROOT, format, args));
+        }
+    }
+}
\ No newline at end of file
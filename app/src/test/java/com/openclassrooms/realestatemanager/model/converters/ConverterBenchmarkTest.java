@@ -0,0 +1,188 @@
+package com.openclassrooms.realestatemanager.model.converters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.openclassrooms.realestatemanager.BenchmarkTestUtil;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.PointOfInterest;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JMH-style microbenchmark of the list converters, run as a plain JUnit test with -Pbenchmark.
+ * Each case is warmed up, then measured for a fixed time; the test reports the throughput (ops/s)
+ * and the bytes allocated per conversion for the previous implementation (a new Gson and a new
+ * TypeToken per call, reflective binding) and for the shared prebuilt adapters.
+ * The compatibility of the two JSON formats is checked on every run.
+ */
+public class ConverterBenchmarkTest {
+
+    private static final long WARMUP_NANOS = 200_000_000L;
+    private static final long MEASURE_NANOS = 500_000_000L;
+
+    private static final List<Photo> PHOTOS = createPhotos();
+    private static final List<PointOfInterest> POINTS_OF_INTEREST = createPointsOfInterest();
+    private static final String PHOTOS_JSON = PhotoConverter.fromPhotoList(PHOTOS);
+    private static final String POINTS_OF_INTEREST_JSON = PointOfInterestConverter.fromPoiList(POINTS_OF_INTEREST);
+
+    // Keeps the results reachable so the JIT cannot drop the conversions
+    private Object sink;
+
+    /**
+     * Checks that the prebuilt adapters read what the reflective Gson wrote, and the other way around.
+     */
+    @Test
+    public void sharedAdapters_areCompatibleWithLegacyJson() {
+        List<Photo> photos = PhotoConverter.toPhotoList(legacyFromPhotoList(PHOTOS));
+        List<PointOfInterest> pointsOfInterest = legacyToPoiList(PointOfInterestConverter.fromPoiList(POINTS_OF_INTEREST));
+
+        assertEquals(PHOTOS.size(), photos.size());
+        assertEquals(PHOTOS.get(3).uri, photos.get(3).uri);
+        assertEquals(PHOTOS.get(3).description, photos.get(3).description);
+        assertEquals(POINTS_OF_INTEREST.size(), pointsOfInterest.size());
+        assertEquals(POINTS_OF_INTEREST.get(2).name, pointsOfInterest.get(2).name);
+        assertEquals(POINTS_OF_INTEREST.get(2).type, pointsOfInterest.get(2).type);
+    }
+
+    /**
+     * Measures every conversion before and after, reports them and checks the shared
+     * adapters allocate less than the previous implementation. Throughputs are not asserted.
+     */
+    @Test
+    public void benchmark_legacyVersusSharedAdapters() {
+        BenchmarkTestUtil.assumeEnabled();
+        BenchmarkTestUtil.report("%-32s %14s %14s", "Benchmark", "ops/s", "bytes/op");
+
+        Result legacyPhotosRead = measure("photos read (legacy)", () -> legacyToPhotoList(PHOTOS_JSON));
+        Result sharedPhotosRead = measure("photos read (shared)", () -> PhotoConverter.toPhotoList(PHOTOS_JSON));
+        measure("photos write (legacy)", () -> legacyFromPhotoList(PHOTOS));
+        measure("photos write (shared)", () -> PhotoConverter.fromPhotoList(PHOTOS));
+        measure("poi read (legacy)", () -> legacyToPoiList(POINTS_OF_INTEREST_JSON));
+        measure("poi read (shared)", () -> PointOfInterestConverter.toPoiList(POINTS_OF_INTEREST_JSON));
+        measure("poi write (legacy)", () -> legacyFromPoiList(POINTS_OF_INTEREST));
+        measure("poi write (shared)", () -> PointOfInterestConverter.fromPoiList(POINTS_OF_INTEREST));
+
+        if (legacyPhotosRead.bytesPerOp >= 0) {
+            assertTrue(sharedPhotosRead.bytesPerOp < legacyPhotosRead.bytesPerOp);
+        }
+    }
+
+    /**
+     * Warms a conversion up, then runs it for a fixed time and reports its throughput and allocation.
+     *
+     * @param name      The name in the report.
+     * @param operation The conversion to measure.
+     * @return The measured throughput and allocation.
+     */
+    private Result measure(String name, Operation operation) {
+        run(operation, WARMUP_NANOS);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long operations = run(operation, MEASURE_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        Result result = new Result();
+        result.opsPerSecond = operations * 1_000_000_000.0 / elapsed;
+        result.bytesPerOp = allocatedBefore < 0 ? -1 : (allocatedAfter - allocatedBefore) / operations;
+        BenchmarkTestUtil.report("%-32s %14.0f %14d", name, result.opsPerSecond, result.bytesPerOp);
+        return result;
+    }
+
+    /**
+     * Runs a conversion in a loop for the given duration.
+     *
+     * @return The number of conversions run.
+     */
+    private long run(Operation operation, long durationNanos) {
+        long operations = 0;
+        long end = System.nanoTime() + durationNanos;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 100; i++) {
+                sink = operation.run();
+            }
+            operations += 100;
+        }
+        return operations;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    // Previous converter implementations, kept here as the baseline
+
+    private static String legacyFromPhotoList(List<Photo> photos) {
+        return new Gson().toJson(photos);
+    }
+
+    private static List<Photo> legacyToPhotoList(String data) {
+        Type listType = new TypeToken<List<Photo>>() {}.getType();
+        return new Gson().fromJson(data, listType);
+    }
+
+    private static String legacyFromPoiList(List<PointOfInterest> points) {
+        return new Gson().toJson(points);
+    }
+
+    private static List<PointOfInterest> legacyToPoiList(String data) {
+        Type listType = new TypeToken<List<PointOfInterest>>() {}.getType();
+        return new Gson().fromJson(data, listType);
+    }
+
+    /**
+     * Creates a typical gallery of eight photos.
+     */
+    private static List<Photo> createPhotos() {
+        List<Photo> photos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            photos.add(new Photo("android.resource://com.openclassrooms.realestatemanager/drawable/photo_" + i,
+                    "Room " + i));
+        }
+        return photos;
+    }
+
+    /**
+     * Creates a typical list of four points of interest.
+     */
+    private static List<PointOfInterest> createPointsOfInterest() {
+        List<PointOfInterest> pointsOfInterest = new ArrayList<>();
+        pointsOfInterest.add(new PointOfInterest("Central School", "School"));
+        pointsOfInterest.add(new PointOfInterest("City Park", "Park"));
+        pointsOfInterest.add(new PointOfInterest("General Hospital", "Hospital"));
+        pointsOfInterest.add(new PointOfInterest("Main Station", "Station"));
+        return pointsOfInterest;
+    }
+
+    /**
+     * A conversion under measurement.
+     */
+    private interface Operation {
+        Object run();
+    }
+
+    /**
+     * Throughput and allocation of a measured conversion.
+     */
+    private static class Result {
+        double opsPerSecond;
+        long bytesPerOp;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.openclassrooms.realestatemanager.model.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.openclassrooms.realestatemanager.BenchmarkTestUtil;
+import com.openclassrooms.realestatemanager.model.entity.PropertyLocation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for ClusterEngine, plus a benchmark clustering 100k properties, run with -Pbenchmark.
+ */
+public class ClusterEngineTest {
+
+    private static final int BENCHMARK_POINTS = 100_000;
+    private static final long BENCHMARK_BUDGET_MS = 50; // Reported next to the measure, not asserted
+
+    /**
+     * Tests that every property is in exactly one cluster at every zoom level, and that zooming out merges them.
+     */
+    @Test
+    public void index_keepsEveryPropertyAtEveryZoom() {
+        // GIVEN - 1,000 properties spread over New York
+        ClusterEngine engine = new ClusterEngine();
+        engine.index(randomLocations(1_000, new Random(42)));
+
+        // WHEN - Getting the clusters of the whole world at each zoom level
+        int previousClusters = Integer.MAX_VALUE;
+        for (int zoom = ClusterEngine.MAX_ZOOM; zoom >= ClusterEngine.MIN_ZOOM; zoom--) {
+            List<Cluster> clusters = engine.getClusters(-85, -180, 85, 180, zoom);
+
+            // THEN - The counts add up to the number of properties, and there are fewer clusters further out
+            int total = 0;
+            for (Cluster cluster : clusters) total += cluster.count;
+            assertEquals(1_000, total);
+            assertTrue(clusters.size() <= previousClusters);
+            previousClusters = clusters.size();
+        }
+        assertEquals(1, previousClusters); // The whole city is one cluster at zoom 0
+    }
+
+    /**
+     * Tests that a cluster sits at the centroid of its properties and that a lone property keeps its ID.
+     */
+    @Test
+    public void getClusters_returnsCentroidsAndSingleProperties() {
+        // GIVEN - Two neighbouring properties in Manhattan and one in Brooklyn
+        ClusterEngine engine = new ClusterEngine();
+        engine.index(Arrays.asList(
+                new PropertyLocation(1, 40.7480, -73.9860),
+                new PropertyLocation(2, 40.7490, -73.9850),
+                new PropertyLocation(3, 40.6782, -73.9442)));
+
+        // WHEN - Getting the clusters at a city-wide zoom level
+        List<Cluster> clusters = engine.getClusters(40.5, -74.3, 40.9, -73.7, 12);
+
+        // THEN - The Manhattan pair is merged at its centroid and the Brooklyn property stands alone
+        assertEquals(2, clusters.size());
+        Cluster pair = clusters.get(0).count == 2 ? clusters.get(0) : clusters.get(1);
+        Cluster single = pair == clusters.get(0) ? clusters.get(1) : clusters.get(0);
+        assertEquals(40.7485, pair.latitude, 1e-4);
+        assertEquals(-73.9855, pair.longitude, 1e-4);
+        assertEquals(Cluster.NO_PROPERTY, pair.propertyId);
+        assertTrue(single.isSingle());
+        assertEquals(3, single.propertyId);
+        assertEquals(40.6782, single.latitude, 1e-6);
+    }
+
+    /**
+     * Tests that only the clusters of the viewport, and of the cells around it, are returned.
+     */
+    @Test
+    public void getClusters_filtersByViewport() {
+        // GIVEN - A property in New York and one in Paris
+        ClusterEngine engine = new ClusterEngine();
+        engine.index(Arrays.asList(
+                new PropertyLocation(1, 40.7484, -73.9857),
+                new PropertyLocation(2, 48.8584, 2.2945)));
+
+        // WHEN - Looking at Manhattan
+        List<Cluster> clusters = engine.getClusters(40.70, -74.02, 40.80, -73.93, 14);
+
+        // THEN - Only the New York property is returned
+        assertEquals(1, clusters.size());
+        assertEquals(1, clusters.get(0).propertyId);
+    }
+
+    /**
+     * Tests that a viewport crossing the antimeridian returns the clusters on both sides.
+     */
+    @Test
+    public void getClusters_handlesViewportAcrossAntimeridian() {
+        // GIVEN - Properties in Fiji on each side of the antimeridian, and one in New York
+        ClusterEngine engine = new ClusterEngine();
+        engine.index(Arrays.asList(
+                new PropertyLocation(1, -17.0, 179.5),
+                new PropertyLocation(2, -17.0, -179.5),
+                new PropertyLocation(3, 40.7484, -73.9857)));
+
+        // WHEN - Looking at a viewport from 178 E to 178 W
+        List<Cluster> clusters = engine.getClusters(-20, 178, -14, -178, 7);
+
+        // THEN - Both Fiji properties are returned, and not New York
+        assertEquals(2, clusters.size());
+        for (Cluster cluster : clusters) {
+            assertTrue(cluster.propertyId == 1 || cluster.propertyId == 2);
+        }
+    }
+
+    /**
+     * Tests that nothing is returned before the first index.
+     */
+    @Test
+    public void getClusters_isEmptyBeforeIndexing() {
+        assertTrue(new ClusterEngine().getClusters(-85, -180, 85, 180, 10).isEmpty());
+    }
+
+    /**
+     * Benchmarks indexing 100k properties at every zoom level, then querying a viewport, and reports the time
+     * against a 50 ms budget. The best of several runs is kept, after a warm-up, so the JIT and GC don't skew
+     * the measure. Only the clusters are asserted.
+     */
+    @Test
+    public void benchmark_clusters100kPoints() {
+        BenchmarkTestUtil.assumeEnabled();
+
+        // GIVEN - 100k properties spread over New York
+        Random random = new Random(7);
+        int[] ids = new int[BENCHMARK_POINTS];
+        double[] latitudes = new double[BENCHMARK_POINTS];
+        double[] longitudes = new double[BENCHMARK_POINTS];
+        for (int i = 0; i < BENCHMARK_POINTS; i++) {
+            ids[i] = i + 1;
+            latitudes[i] = 40.49 + random.nextDouble() * 0.43;
+            longitudes[i] = -74.26 + random.nextDouble() * 0.56;
+        }
+        ClusterEngine engine = new ClusterEngine();
+
+        // WHEN - Indexing them and querying the city at a street-level zoom
+        long bestNanos = Long.MAX_VALUE;
+        List<Cluster> clusters = null;
+        for (int run = 0; run < 15; run++) { // The first runs warm up the JIT
+            long start = System.nanoTime();
+            engine.index(ids, latitudes, longitudes);
+            clusters = engine.getClusters(40.49, -74.26, 40.92, -73.70, 13);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        // THEN - Every property is in a cluster; the time is reported, not asserted
+        int total = 0;
+        for (Cluster cluster : clusters) total += cluster.count;
+        assertEquals(BENCHMARK_POINTS, total);
+        BenchmarkTestUtil.report("cluster: %d points into %d clusters in %.1f ms (budget %d ms)",
+                BENCHMARK_POINTS, clusters.size(), bestNanos / 1_000_000.0, BENCHMARK_BUDGET_MS);
+    }
+
+    /**
+     * Returns random property locations over New York.
+     */
+    private static List<PropertyLocation> randomLocations(int count, Random random) {
+        List<PropertyLocation> locations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            locations.add(new PropertyLocation(i + 1, 40.49 + random.nextDouble() * 0.43,
+                    -74.26 + random.nextDouble() * 0.56));
+        }
+        return locations;
+    }
+}
\ No newline at end of file
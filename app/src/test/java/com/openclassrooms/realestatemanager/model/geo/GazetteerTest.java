@@ -0,0 +1,113 @@
+package com.openclassrooms.realestatemanager.model.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for Gazetteer, on a small file written with the same layout as the build script,
+ * and on the file bundled in the assets.
+ */
+public class GazetteerTest {
+
+    private static final int KEY_LENGTH = 32;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that zip codes are found first, and city/state pairs when the zip code is unknown.
+     */
+    @Test
+    public void lookup_findsZipCodeThenCity() throws IOException {
+        // GIVEN - A gazetteer with one zip code and two cities, sorted by key
+        Gazetteer gazetteer = Gazetteer.open(writeGazetteer(
+                "10019", "40.7651", "-73.9858",
+                "manhattan|ny", "40.7831", "-73.9712",
+                "montauk|ny", "41.0359", "-71.9545"));
+
+        // WHEN - Looking addresses up by ZIP+4 code, by city only, and with an unknown city
+        NominatimResponse byZip = gazetteer.lookup(new Address("1 Street", "Elsewhere", "NY", "10019-1234", "USA"));
+        NominatimResponse byCity = gazetteer.lookup(new Address("1 Street", "  MONTAUK ", "ny", "99999", "USA"));
+        NominatimResponse unknown = gazetteer.lookup(new Address("1 Street", "Springfield", "IL", "62701", "USA"));
+
+        // THEN - The zip code wins, the city is normalized, and unknown places are not found
+        assertEquals(3, gazetteer.size());
+        assertEquals(40.7651, byZip.lat, 0.0001);
+        assertEquals(-71.9545, byCity.lon, 0.0001);
+        assertNull(unknown);
+    }
+
+    /**
+     * Tests that a truncated file is rejected when it is opened.
+     */
+    @Test
+    public void open_rejectsTruncatedFile() throws IOException {
+        // GIVEN - A header announcing more records than the file holds
+        File file = folder.newFile("truncated.bin");
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            output.writeBytes("GZT1");
+            output.writeInt(5);
+            output.writeInt(KEY_LENGTH);
+        }
+
+        // WHEN - Opening it
+        try {
+            Gazetteer.open(file);
+            fail("The file should have been rejected");
+        } catch (IOException e) {
+            // THEN - It is rejected instead of failing on a later lookup
+            assertEquals("Truncated gazetteer file", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that the bundled gazetteer locates the addresses of the mock data.
+     */
+    @Test
+    public void bundledGazetteer_locatesMockDataAddresses() throws IOException {
+        // GIVEN - The file shipped in the assets (tests run from the module directory)
+        Gazetteer gazetteer = Gazetteer.open(new File("src/main/assets/" + Gazetteer.ASSET_NAME));
+
+        // WHEN - Looking up an address of the mock data
+        NominatimResponse response = gazetteer.lookup(new Address("Main Street", "Manhattan", "NY", "10019", "USA"));
+
+        // THEN - Its zip code is found
+        assertNotNull(response);
+        assertEquals(40.7651, response.lat, 0.0001);
+    }
+
+    /**
+     * Writes a gazetteer file from key, latitude and longitude triplets already sorted by key.
+     */
+    private File writeGazetteer(String... entries) throws IOException {
+        File file = folder.newFile("gazetteer.bin");
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            output.writeBytes("GZT1");
+            output.writeInt(entries.length / 3);
+            output.writeInt(KEY_LENGTH);
+            for (int i = 0; i < entries.length; i += 3) {
+                byte[] key = entries[i].getBytes(StandardCharsets.US_ASCII);
+                output.write(key);
+                output.write(new byte[KEY_LENGTH - key.length]);
+                output.writeFloat(Float.parseFloat(entries[i + 1]));
+                output.writeFloat(Float.parseFloat(entries[i + 2]));
+            }
+        }
+        return file;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.openclassrooms.realestatemanager.model.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for GeoHash encoding and for the prefixes covering a bounding box.
+ */
+public class GeoHashTest {
+
+    /**
+     * Tests the encoding against reference geohashes.
+     */
+    @Test
+    public void encode_matchesReferenceGeohashes() {
+        assertEquals("ezs42", GeoHash.encode(42.605, -5.603, 5));
+        assertEquals("dr5ru", GeoHash.encode(40.7484, -73.9857, 5)); // Manhattan
+        assertEquals(GeoHash.STORED_PRECISION, GeoHash.encode(40.7484, -73.9857).length());
+        assertNull(GeoHash.encode(40.7484, null));
+    }
+
+    /**
+     * Tests that every point of a box has a geohash starting with one of the covering prefixes.
+     */
+    @Test
+    public void coveringPrefixes_coverEveryPointOfTheBox() {
+        // GIVEN - A box of about 4 km around midtown Manhattan
+        double minLat = 40.73, maxLat = 40.77, minLon = -74.01, maxLon = -73.96;
+
+        // WHEN - Computing the covering prefixes
+        List<String> prefixes = GeoHash.coveringPrefixes(minLat, minLon, maxLat, maxLon, 9);
+
+        // THEN - There are at most 9, fine enough to be selective, and they contain every point of the box
+        assertFalse(prefixes.isEmpty());
+        assertTrue(prefixes.size() <= 9);
+        assertTrue(prefixes.get(0).length() >= 4);
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            String hash = GeoHash.encode(minLat + random.nextDouble() * (maxLat - minLat),
+                    minLon + random.nextDouble() * (maxLon - minLon), GeoHash.STORED_PRECISION);
+            assertTrue(hash, startsWithAny(hash, prefixes));
+        }
+    }
+
+    /**
+     * Tests that a box too large for the cell budget is not narrowed down.
+     */
+    @Test
+    public void coveringPrefixes_returnsNothingForTheWholeWorld() {
+        assertTrue(GeoHash.coveringPrefixes(-90, -180, 90, 180, 9).isEmpty());
+    }
+
+    /**
+     * Checks whether a geohash starts with one of the prefixes.
+     */
+    private boolean startsWithAny(String hash, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (hash.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,329 @@
+package com.openclassrooms.realestatemanager.model.provider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.realestatemanager.BenchmarkTestUtil;
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowContentResolver;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Robolectric tests for PropertyContentProvider.
+ * Verifies that a batch is applied atomically, sends a single change notification and returns
+ * one result per row, that 10,000 rows are bulk inserted with a single notification (the throughput
+ * is reported with -Pbenchmark), that queries only return the requested columns and rows,
+ * and that updates only change the given columns.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PropertyContentProviderTest {
+
+    private static final int BULK_SIZE = 10_000;
+
+    // Room refuses to run queries on the main thread, so provider calls run on this thread
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor();
+
+    private ContentResolver resolver;
+    private ShadowContentResolver shadowResolver;
+
+    /**
+     * Registers the provider and starts from an empty database.
+     */
+    @Before
+    public void setUp() throws Exception {
+        Robolectric.setupContentProvider(PropertyContentProvider.class, PropertyContentProvider.AUTHORITY);
+        resolver = ApplicationProvider.getApplicationContext().getContentResolver();
+        shadowResolver = shadowOf(resolver);
+        onBackgroundThread(() -> {
+            PropertyDatabase.getInstance(ApplicationProvider.getApplicationContext()).propertyDao().deleteAllProperties();
+            return null;
+        });
+        shadowResolver.getNotifiedUris().clear();
+    }
+
+    /**
+     * Closes the database and drops the singleton, since every test gets a new application.
+     */
+    @After
+    public void tearDown() throws Exception {
+        backgroundExecutor.shutdown();
+        PropertyDatabase.getInstance(ApplicationProvider.getApplicationContext()).close();
+        Field instance = PropertyDatabase.class.getDeclaredField("INSTANCE");
+        instance.setAccessible(true);
+        instance.set(null, null);
+    }
+
+    /**
+     * Tests that bulkInsert stores every row and notifies observers once, and reports its throughput.
+     */
+    @Test
+    public void bulkInsert_tenThousandRows_notifiesOnce() throws Exception {
+        // GIVEN - 10,000 properties to load
+        ContentValues[] values = new ContentValues[BULK_SIZE];
+        for (int i = 0; i < BULK_SIZE; i++) {
+            values[i] = createValues("House", 100000 + i);
+        }
+
+        // WHEN - Loading them through the provider in one call
+        long start = System.nanoTime();
+        int inserted = onBackgroundThread(() -> resolver.bulkInsert(PropertyContentProvider.URI_PROPERTY, values));
+        long elapsed = System.nanoTime() - start;
+        BenchmarkTestUtil.report("bulkInsert: %d rows in %d ms (%.0f rows/s)",
+                inserted, elapsed / 1_000_000, inserted * 1_000_000_000.0 / elapsed);
+
+        // THEN - Every row is stored and a single notification is sent
+        assertEquals(BULK_SIZE, inserted);
+        assertEquals(BULK_SIZE, countProperties());
+        assertEquals(1, shadowResolver.getNotifiedUris().size());
+        assertEquals(PropertyContentProvider.URI_PROPERTY, shadowResolver.getNotifiedUris().get(0).uri);
+    }
+
+    /**
+     * Tests that applyBatch returns one result per operation and notifies observers once.
+     */
+    @Test
+    public void applyBatch_returnsPerRowResults_andNotifiesOnce() throws Exception {
+        // GIVEN - Two inserts followed by an update of the first inserted row
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        operations.add(ContentProviderOperation.newInsert(PropertyContentProvider.URI_PROPERTY)
+                .withValues(createValues("House", 450000)).build());
+        operations.add(ContentProviderOperation.newInsert(PropertyContentProvider.URI_PROPERTY)
+                .withValues(createValues("Loft", 320000)).build());
+
+        // WHEN - Applying the batch
+        ContentProviderResult[] results = onBackgroundThread(() -> resolver.applyBatch(PropertyContentProvider.AUTHORITY, operations));
+
+        // THEN - Each insert returns the URI of its row and observers are notified once
+        assertEquals(2, results.length);
+        assertNotNull(results[0].uri);
+        assertNotNull(results[1].uri);
+        assertEquals(2, countProperties());
+        assertEquals(1, shadowResolver.getNotifiedUris().size());
+
+        // WHEN - Updating the first row in a second batch
+        long firstId = ContentUris.parseId(results[0].uri);
+        ArrayList<ContentProviderOperation> updates = new ArrayList<>();
+        updates.add(ContentProviderOperation.newUpdate(ContentUris.withAppendedId(PropertyContentProvider.URI_PROPERTY, firstId))
+                .withValues(createValues("House", 475000)).withExpectedCount(1).build());
+        ContentProviderResult[] updateResults = onBackgroundThread(() -> resolver.applyBatch(PropertyContentProvider.AUTHORITY, updates));
+
+        // THEN - The result reports the affected row count
+        assertEquals(Integer.valueOf(1), updateResults[0].count);
+    }
+
+    /**
+     * Tests that a failing operation rolls back the whole batch.
+     */
+    @Test
+    public void applyBatch_failingOperation_rollsBackBatch() throws Exception {
+        // GIVEN - An insert followed by an update of a property that doesn't exist
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        operations.add(ContentProviderOperation.newInsert(PropertyContentProvider.URI_PROPERTY)
+                .withValues(createValues("House", 450000)).build());
+        operations.add(ContentProviderOperation.newUpdate(ContentUris.withAppendedId(PropertyContentProvider.URI_PROPERTY, 999_999))
+                .withValues(createValues("Loft", 320000)).withExpectedCount(1).build());
+
+        // WHEN - Applying the batch
+        try {
+            onBackgroundThread(() -> resolver.applyBatch(PropertyContentProvider.AUTHORITY, operations));
+            fail("The batch should have failed");
+        } catch (ExecutionException e) {
+            assertEquals(OperationApplicationException.class, e.getCause().getClass());
+        }
+
+        // THEN - The insert was rolled back and nobody was notified
+        assertEquals(0, countProperties());
+        assertEquals(0, shadowResolver.getNotifiedUris().size());
+    }
+
+    /**
+     * Tests that update only changes the given columns, keeping the address and the cover photo columns.
+     */
+    @Test
+    public void update_changesOnlyTheGivenColumns() throws Exception {
+        // GIVEN - A property with an address and a cover photo whose thumbnail and BlurHash are known
+        Photo cover = new Photo("content://photos/front.jpg", "Front");
+        cover.listThumbnailUri = "file:///thumbnails/front_list.jpg";
+        cover.blurHash = "LKO2?U%2Tw=w]~RBVZRi};RPxuwH";
+        Property property = new Property("House", 100000, 120, 5, 2, 3, "Listing house",
+                new Address("Main Street", "Manhattan", "NY", "10001", "USA"),
+                new ArrayList<>(Arrays.asList(cover)), new ArrayList<>(), false, new Date(), null, "Agent");
+        PropertyDao dao = PropertyDatabase.getInstance(ApplicationProvider.getApplicationContext()).propertyDao();
+        int id = onBackgroundThread(() -> (int) dao.insertWithDetails(property));
+
+        // WHEN - Updating its price through the provider
+        ContentValues values = new ContentValues();
+        values.put("price", 150000.0);
+        int count = onBackgroundThread(() -> resolver.update(
+                ContentUris.withAppendedId(PropertyContentProvider.URI_PROPERTY, id), values, null, null));
+
+        // THEN - The price changed, and the other columns kept their values
+        Property updated = onBackgroundThread(() -> dao.findPropertyById(id));
+        assertEquals(1, count);
+        assertEquals(150000, updated.price, 0);
+        assertEquals("House", updated.type);
+        assertEquals("Manhattan", updated.address.city);
+        assertEquals("content://photos/front.jpg", updated.coverPhotoUri);
+        assertEquals("file:///thumbnails/front_list.jpg", updated.coverThumbnailUri);
+        assertEquals("LKO2?U%2Tw=w]~RBVZRi};RPxuwH", updated.coverBlurHash);
+    }
+
+    /**
+     * Tests that query returns only the requested columns and rows, sorted and limited as asked.
+     */
+    @Test
+    public void query_honorsProjectionSelectionSortOrderAndLimit() throws Exception {
+        // GIVEN - Five houses and a loft
+        ContentValues[] values = new ContentValues[6];
+        for (int i = 0; i < 5; i++) {
+            values[i] = createValues("House", 100000 * (i + 1));
+        }
+        values[5] = createValues("Loft", 900000);
+        onBackgroundThread(() -> resolver.bulkInsert(PropertyContentProvider.URI_PROPERTY, values));
+
+        // WHEN - Querying the two most expensive houses with only their ID and price
+        Uri uri = PropertyContentProvider.URI_PROPERTY.buildUpon()
+                .appendQueryParameter(PropertyContentProvider.QUERY_PARAMETER_LIMIT, "2").build();
+        double[] prices = onBackgroundThread(() -> {
+            try (Cursor cursor = resolver.query(uri, new String[]{"id", "price"}, "type = ?",
+                    new String[]{"House"}, "price DESC")) {
+                // THEN - Only the two requested columns are returned
+                assertEquals(2, cursor.getColumnCount());
+                double[] result = new double[cursor.getCount()];
+                while (cursor.moveToNext()) {
+                    result[cursor.getPosition()] = cursor.getDouble(cursor.getColumnIndexOrThrow("price"));
+                }
+                return result;
+            }
+        });
+
+        // THEN - The two most expensive houses, in descending order
+        assertArrayEquals(new double[]{500000, 400000}, prices, 0);
+    }
+
+    /**
+     * Tests that columns and sort terms outside the allow-list are rejected.
+     */
+    @Test
+    public void query_rejectsUnknownColumnsAndSortOrders() throws Exception {
+        assertQueryRejected(new String[]{"id", "sqlite_version()"}, null, null, null);
+        assertQueryRejected(null, null, "price; DROP TABLE property", null);
+        assertQueryRejected(null, null, "price DESC", "0");
+    }
+
+    /**
+     * Tests that selections reaching beyond the property columns are rejected, and plain conditions accepted.
+     */
+    @Test
+    public void query_rejectsSelectionsOutsideTheAllowList() throws Exception {
+        // GIVEN - A house and a loft
+        ContentValues[] values = {createValues("House", 100000), createValues("Loft", 900000)};
+        onBackgroundThread(() -> resolver.bulkInsert(PropertyContentProvider.URI_PROPERTY, values));
+
+        // WHEN - Querying with subqueries, functions, comments, separators or unbalanced parentheses
+        // THEN - Each query is rejected before reaching the database
+        assertQueryRejected(null, "1 = 1) UNION SELECT address, lat, lon FROM geocode_cache --", null, null);
+        assertQueryRejected(null, "id IN (SELECT propertyId FROM photo)", null, null);
+        assertQueryRejected(null, "sqlite_version() = ?", null, null);
+        assertQueryRejected(null, "price > 0; DELETE FROM property", null, null);
+        assertQueryRejected(null, "type = 'Loft' /* comment */", null, null);
+        assertQueryRejected(null, "price > 0) OR (1 = 1", null, null);
+
+        // WHEN - Querying with a condition on columns, literals and placeholders
+        int count = onBackgroundThread(() -> {
+            try (Cursor cursor = resolver.query(PropertyContentProvider.URI_PROPERTY, null,
+                    "price BETWEEN ? AND ? AND (type = 'Loft' OR description LIKE ?) AND soldDate IS NULL",
+                    new String[]{"500000", "1000000", "%house%"}, null)) {
+                return cursor.getCount();
+            }
+        });
+
+        // THEN - It is accepted and matches the loft only
+        assertEquals(1, count);
+    }
+
+    /**
+     * Checks that a query with the given projection, selection, sort order and limit throws IllegalArgumentException.
+     */
+    private void assertQueryRejected(String[] projection, String selection, String sortOrder, String limit)
+            throws Exception {
+        Uri uri = limit == null ? PropertyContentProvider.URI_PROPERTY : PropertyContentProvider.URI_PROPERTY.buildUpon()
+                .appendQueryParameter(PropertyContentProvider.QUERY_PARAMETER_LIMIT, limit).build();
+        try {
+            onBackgroundThread(() -> resolver.query(uri, projection, selection, null, sortOrder));
+            fail("The query should have been rejected");
+        } catch (ExecutionException e) {
+            assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+        }
+    }
+
+    /**
+     * Counts the properties visible through the provider.
+     */
+    private int countProperties() throws Exception {
+        return onBackgroundThread(() -> {
+            try (Cursor cursor = resolver.query(PropertyContentProvider.URI_PROPERTY, null, null, null, null)) {
+                return cursor.getCount();
+            }
+        });
+    }
+
+    /**
+     * Runs a call on the background thread and waits for its result.
+     */
+    private <T> T onBackgroundThread(Callable<T> call) throws Exception {
+        return backgroundExecutor.submit(call).get();
+    }
+
+    /**
+     * Creates the ContentValues of a property with the given type and price.
+     */
+    private ContentValues createValues(String type, double price) {
+        ContentValues values = new ContentValues();
+        values.put("type", type);
+        values.put("price", price);
+        values.put("surface", 120.0);
+        values.put("numberOfRooms", 5);
+        values.put("description", "Listing " + type.toLowerCase(Locale.ROOT));
+        values.put("isSold", false);
+        values.put("marketDate", 1700000000000L);
+        values.put("agentName", "Agent " + (int) price % 10);
+        return values;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.realestatemanager.api.NominatimApi;
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Robolectric tests for CoordinateBackfill, on an in-memory database with a MockWebServer standing in for Nominatim.
+ * Every task runs on the calling thread, so a pass is complete when start() returns,
+ * unless a batch has to wait for its timeout.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class CoordinateBackfillTest {
+
+    private static final int PROPERTY_COUNT = 45; // Three batches, the last one partial
+
+    private PropertyDatabase database;
+    private MockWebServer server;
+    private SharedPreferences preferences;
+    private ScheduledExecutorService timer;
+    private MapRepository mapRepository;
+    private CoordinateBackfill backfill;
+    private final List<Integer> ids = new ArrayList<>();
+
+    /**
+     * Creates the database with properties in distinct cities and a server geocoding any address.
+     */
+    @Before
+    public void setUp() throws IOException {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PropertyDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        for (int i = 0; i < PROPERTY_COUNT; i++) {
+            Property property = new Property("House", 100000, 100, 4, 1, 2, "Description",
+                    new Address("Street", "City " + i, "NY", "00000", "USA"),
+                    new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Agent");
+            ids.add((int) database.propertyDao().insertWithDetails(property));
+        }
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("[{\"lat\":\"40.7\",\"lon\":\"-74.0\"}]");
+            }
+        });
+        server.start();
+
+        timer = Executors.newSingleThreadScheduledExecutor();
+        GeocodingScheduler scheduler = new GeocodingScheduler(new NominatimApi(server.url("/").toString()),
+                Runnable::run, timer, 1000, 0, 0);
+        mapRepository = new MapRepository(scheduler, database.geocodeCacheDao(), Runnable::run);
+        preferences = context.getSharedPreferences("app_prefs", Context.MODE_PRIVATE);
+        backfill = new CoordinateBackfill(database, mapRepository, preferences, Runnable::run, timer,
+                CoordinateBackfill.DEFAULT_BATCH_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Closes the database and stops the timer and the server.
+     */
+    @After
+    public void tearDown() throws IOException {
+        timer.shutdownNow();
+        database.close();
+        server.shutdown();
+    }
+
+    /**
+     * Tests that a pass geocodes every property without coordinates and clears its checkpoint.
+     */
+    @Test
+    public void start_geocodesEveryPropertyWithoutCoordinates() {
+        // WHEN - Running a pass
+        backfill.start();
+
+        // THEN - Every property has coordinates, each address was looked up once, and the pass is over
+        assertEquals(PROPERTY_COUNT, server.getRequestCount());
+        assertEquals(0, database.propertyDao().getPropertiesWithoutCoordinates(0, PROPERTY_COUNT).size());
+        assertEquals(40.7, database.propertyDao().findPropertyById(ids.get(0)).latitude, 0.0001);
+        assertFalse(preferences.contains(CoordinateBackfill.KEY_CHECKPOINT));
+        assertFalse(backfill.isRunning());
+    }
+
+    /**
+     * Tests that a pass interrupted after its first batch resumes from the checkpoint without redoing that batch.
+     */
+    @Test
+    public void start_resumesFromCheckpoint() {
+        // GIVEN - A process killed after writing the first batch: its checkpoint is saved,
+        // but its properties are still without coordinates here so that redone work would show
+        int lastWritten = ids.get(CoordinateBackfill.BATCH_SIZE - 1);
+        preferences.edit().putInt(CoordinateBackfill.KEY_CHECKPOINT, lastWritten).commit();
+
+        // WHEN - The job starts again
+        backfill.start();
+
+        // THEN - Only the properties after the checkpoint were geocoded
+        assertEquals(PROPERTY_COUNT - CoordinateBackfill.BATCH_SIZE, server.getRequestCount());
+        assertNull(database.propertyDao().findPropertyById(lastWritten).latitude);
+        assertNotNull(database.propertyDao().findPropertyById(ids.get(PROPERTY_COUNT - 1)).latitude);
+    }
+
+    /**
+     * Tests that a start arriving while the running pass reads its last, empty batch is not lost.
+     */
+    @Test
+    public void start_duringLastReadRunsAnotherPass() {
+        // GIVEN - A job whose DAO inserts a property and starts the job again on its first empty read
+        PropertyDao dao = spy(database.propertyDao());
+        PropertyDatabase racingDatabase = spy(database);
+        doReturn(dao).when(racingDatabase).propertyDao();
+        CoordinateBackfill racingBackfill = new CoordinateBackfill(racingDatabase, mapRepository, preferences,
+                Runnable::run, timer, CoordinateBackfill.DEFAULT_BATCH_TIMEOUT_MILLIS);
+        AtomicInteger lateProperty = new AtomicInteger();
+        doAnswer(invocation -> {
+            Object batch = invocation.callRealMethod();
+            if (((List<?>) batch).isEmpty() && lateProperty.get() == 0) {
+                Property property = new Property("House", 100000, 100, 4, 1, 2, "Description",
+                        new Address("Street", "Late City", "NY", "00000", "USA"),
+                        new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Agent");
+                lateProperty.set((int) database.propertyDao().insertWithDetails(property));
+                racingBackfill.start(); // The pass is still marked as running here
+            }
+            return batch;
+        }).when(dao).getPropertiesWithoutCoordinates(anyInt(), anyInt());
+
+        // WHEN - Running a pass
+        racingBackfill.start();
+
+        // THEN - The late property was geocoded by a second pass, and no pass is left running
+        assertNotNull(database.propertyDao().findPropertyById(lateProperty.get()).latitude);
+        assertFalse(racingBackfill.isRunning());
+    }
+
+    /**
+     * Tests that a lookup that never answers doesn't stall the job: its batch is written on timeout.
+     */
+    @Test
+    public void unansweredLookup_batchIsWrittenOnTimeout() throws InterruptedException {
+        // GIVEN - A repository that never answers the first lookup, and a short batch timeout
+        MapRepository silentRepository = mock(MapRepository.class);
+        AtomicInteger lookups = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (lookups.getAndIncrement() > 0) {
+                NominatimResponse response = new NominatimResponse();
+                response.lat = 40.7;
+                response.lon = -74.0;
+                invocation.<MapRepository.GeocodeCallback>getArgument(1).onResult(response);
+            }
+            return null;
+        }).when(silentRepository).fetchCoordinatesForAddress(anyString(), any(MapRepository.GeocodeCallback.class));
+        CoordinateBackfill timedBackfill = new CoordinateBackfill(database, silentRepository, preferences,
+                Runnable::run, timer, 100);
+
+        // WHEN - Running a pass and waiting for it to end
+        timedBackfill.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (timedBackfill.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // THEN - The pass ended, with every property geocoded but the unanswered one
+        assertFalse(timedBackfill.isRunning());
+        assertNull(database.propertyDao().findPropertyById(ids.get(0)).latitude);
+        assertNotNull(database.propertyDao().findPropertyById(ids.get(1)).latitude);
+        assertNotNull(database.propertyDao().findPropertyById(ids.get(PROPERTY_COUNT - 1)).latitude);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,296 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.Nullable;
+
+import com.openclassrooms.realestatemanager.api.NominatimApi;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Unit tests for GeocodingScheduler against a local MockWebServer.
+ * Verifies the merging of duplicate lookups, the rate limit, the retries and the metrics.
+ * Runs on Robolectric, which provides the Log used to report failing listeners.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class GeocodingSchedulerTest {
+
+    private static final String BODY = "[{\"lat\":\"37.422\",\"lon\":\"-122.084\"}]";
+
+    private MockWebServer server;
+    private NominatimApi api;
+    private ExecutorService worker;
+    private ScheduledExecutorService retryTimer;
+
+    /**
+     * Starts the stand-in server, and the worker and retry threads of the scheduler.
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        api = new NominatimApi(server.url("/").toString());
+        worker = Executors.newSingleThreadExecutor();
+        retryTimer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stops the threads of the scheduler and the stand-in server.
+     */
+    @After
+    public void tearDown() throws IOException {
+        retryTimer.shutdownNow();
+        worker.shutdownNow();
+        server.shutdown();
+    }
+
+    /**
+     * Tests that lookups of an address already in flight share its single request.
+     */
+    @Test
+    public void duplicateLookups_areMergedIntoOneRequest() throws InterruptedException {
+        // GIVEN - A slow server and a scheduler without rate limit
+        server.enqueue(new MockResponse().setBody(BODY).setBodyDelay(300, TimeUnit.MILLISECONDS));
+        GeocodingScheduler scheduler = new GeocodingScheduler(api, worker, retryTimer, 1000, 0, 0);
+
+        // WHEN - The same address is looked up five times while the first request is in flight
+        RecordingListener listener = new RecordingListener(5);
+        for (int i = 0; i < 5; i++) {
+            scheduler.submit("main street", "Main Street", listener);
+        }
+        assertEquals(1, scheduler.getMetrics().queueDepth);
+        assertTrue(listener.await());
+
+        // THEN - One request was sent and every lookup received its result
+        assertEquals(1, server.getRequestCount());
+        assertEquals(5, listener.results);
+        GeocodingMetrics metrics = scheduler.getMetrics();
+        assertEquals(0, metrics.queueDepth);
+        assertEquals(1, metrics.requests);
+        assertEquals(4, metrics.deduplicated);
+        assertEquals(1, metrics.completed);
+        assertTrue(metrics.maxLatencyMillis >= 300);
+    }
+
+    /**
+     * Tests that distinct lookups are spaced to respect the requests-per-second budget.
+     */
+    @Test
+    public void distinctLookups_respectTheRateLimit() throws InterruptedException {
+        // GIVEN - A budget of 10 requests per second
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(new MockResponse().setBody(BODY));
+        }
+        GeocodingScheduler scheduler = new GeocodingScheduler(api, worker, retryTimer, 10, 0, 0);
+
+        // WHEN - Five different addresses are looked up at once
+        RecordingListener listener = new RecordingListener(5);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            scheduler.submit("address " + i, "Address " + i, listener);
+        }
+        assertTrue(listener.await());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // THEN - The five requests took at least four intervals of 100 ms
+        assertEquals(5, server.getRequestCount());
+        assertTrue("Requests sent too fast: " + elapsedMillis + " ms", elapsedMillis >= 400);
+    }
+
+    /**
+     * Tests that throttled and failed requests are retried with backoff until they succeed.
+     */
+    @Test
+    public void throttledRequest_isRetriedWithBackoff() throws InterruptedException {
+        // GIVEN - A server throttling, then failing, then answering
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(BODY));
+        GeocodingScheduler scheduler = new GeocodingScheduler(api, worker, retryTimer, 1000, 3, 50);
+
+        // WHEN - Looking an address up
+        RecordingListener listener = new RecordingListener(1);
+        long start = System.nanoTime();
+        scheduler.submit("main street", "Main Street", listener);
+        assertTrue(listener.await());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // THEN - The third request succeeded after backoffs of 50 and 100 ms
+        assertEquals(3, server.getRequestCount());
+        assertNotNull(listener.response);
+        assertEquals(37.422, listener.response.lat, 0.0001);
+        assertEquals(2, scheduler.getMetrics().retries);
+        assertTrue(elapsedMillis >= 150);
+    }
+
+    /**
+     * Tests that a lookup fails once its retries are exhausted, and that client errors are not retried.
+     */
+    @Test
+    public void failingLookups_reportAnError() throws InterruptedException {
+        // GIVEN - A server failing three times, then rejecting the request
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(400));
+        GeocodingScheduler scheduler = new GeocodingScheduler(api, worker, retryTimer, 1000, 2, 10);
+
+        // WHEN - Looking two addresses up
+        RecordingListener failed = new RecordingListener(1);
+        scheduler.submit("first", "First", failed);
+        assertTrue(failed.await());
+        RecordingListener rejected = new RecordingListener(1);
+        scheduler.submit("second", "Second", rejected);
+        assertTrue(rejected.await());
+
+        // THEN - The first was sent three times, the second once, and both failed
+        assertEquals(4, server.getRequestCount());
+        assertNotNull(failed.error);
+        assertNotNull(rejected.error);
+        assertNull(rejected.response);
+        assertEquals(2, scheduler.getMetrics().failures);
+    }
+
+    /**
+     * Tests that a request waiting for its retry doesn't keep the worker from sending other lookups.
+     */
+    @Test
+    public void pendingRetry_doesNotBlockOtherLookups() throws InterruptedException {
+        // GIVEN - A server failing the first request, then answering, and a long backoff
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setBody(BODY));
+        GeocodingScheduler scheduler = new GeocodingScheduler(api, worker, retryTimer, 1000, 1, 500);
+
+        // WHEN - Looking up a first address, whose request fails, then a second one
+        RecordingListener retried = new RecordingListener(1);
+        scheduler.submit("first", "First", retried);
+        RecordingListener other = new RecordingListener(1);
+        scheduler.submit("second", "Second", other);
+
+        // THEN - The second lookup answered during the backoff of the first, which succeeded afterwards
+        assertTrue(other.await());
+        assertNull(retried.response);
+        assertTrue(retried.await());
+        assertNotNull(retried.response);
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, scheduler.getMetrics().retries);
+    }
+
+    /**
+     * Tests that a lookup submitted while the listeners of the same address run joins that lookup,
+     * since they may not have written the result to the cache yet.
+     */
+    @Test
+    public void lookupDuringNotification_joinsTheCompletingLookup() throws InterruptedException {
+        // GIVEN - A server answering two requests, and a scheduler without rate limit
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setBody(BODY));
+        GeocodingScheduler scheduler = new GeocodingScheduler(api, worker, retryTimer, 1000, 0, 0);
+
+        // WHEN - The listener of a lookup looks the same address up again before returning
+        RecordingListener late = new RecordingListener(1);
+        RecordingListener first = new RecordingListener(1) {
+            @Override
+            public synchronized void onResult(@Nullable NominatimResponse response) {
+                scheduler.submit("main street", "Main Street", late);
+                super.onResult(response);
+            }
+        };
+        scheduler.submit("main street", "Main Street", first);
+        assertTrue(first.await());
+        assertTrue(late.await());
+
+        // THEN - The late lookup got the result without a second request
+        assertEquals(1, server.getRequestCount());
+        assertNotNull(late.response);
+        assertEquals(1, scheduler.getMetrics().deduplicated);
+        assertEquals(0, scheduler.getMetrics().queueDepth);
+    }
+
+    /**
+     * Tests that a listener throwing while it handles the result neither keeps the other listeners
+     * from being notified nor leaves the address stuck in flight.
+     */
+    @Test
+    public void throwingListener_doesNotStrandTheAddress() throws InterruptedException {
+        // GIVEN - A slow server answering two requests, and a scheduler without rate limit
+        server.enqueue(new MockResponse().setBody(BODY).setBodyDelay(200, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody(BODY));
+        GeocodingScheduler scheduler = new GeocodingScheduler(api, worker, retryTimer, 1000, 0, 0);
+
+        // WHEN - The first listener of a lookup throws, as a failed database write would
+        RecordingListener throwing = new RecordingListener(1) {
+            @Override
+            public synchronized void onResult(@Nullable NominatimResponse response) {
+                super.onResult(response);
+                throw new IllegalStateException("Cannot write the result");
+            }
+        };
+        RecordingListener joined = new RecordingListener(1);
+        scheduler.submit("main street", "Main Street", throwing);
+        scheduler.submit("main street", "Main Street", joined);
+        assertTrue(throwing.await());
+
+        // THEN - The joined listener still got the result, and a later lookup of the address completes
+        assertTrue(joined.await());
+        assertNotNull(joined.response);
+        RecordingListener later = new RecordingListener(1);
+        scheduler.submit("main street", "Main Street", later);
+        assertTrue(later.await());
+        assertNotNull(later.response);
+        assertEquals(0, scheduler.getMetrics().queueDepth);
+    }
+
+    /**
+     * Listener recording the results and releasing a latch once the expected number arrived.
+     */
+    private static class RecordingListener implements GeocodingScheduler.Listener {
+        private final CountDownLatch latch;
+        volatile NominatimResponse response;
+        volatile Throwable error;
+        volatile int results;
+
+        RecordingListener(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public synchronized void onResult(@Nullable NominatimResponse response) {
+            this.response = response;
+            results++;
+            latch.countDown();
+        }
+
+        @Override
+        public synchronized void onError(Throwable error) {
+            this.error = error;
+            latch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
\ No newline at end of file
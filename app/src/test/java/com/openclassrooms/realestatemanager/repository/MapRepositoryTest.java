@@ -0,0 +1,256 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import androidx.annotation.Nullable;
+
+import com.openclassrooms.realestatemanager.api.NominatimApi;
+import com.openclassrooms.realestatemanager.model.dao.GeocodeCacheDao;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.GeocodeCacheEntry;
+import com.openclassrooms.realestatemanager.model.entity.NominatimResponse;
+import com.openclassrooms.realestatemanager.model.geo.Gazetteer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Unit tests for the geocoding cache and the offline fallback of MapRepository.
+ * A MockWebServer stands in for Nominatim, so the tests can count the requests that reach the network.
+ */
+public class MapRepositoryTest {
+
+    private static final String ADDRESS = "1600 Amphitheatre Parkway, Mountain View, CA";
+    private static final String BODY = "[{\"lat\":\"37.422\",\"lon\":\"-122.084\"}]";
+
+    private MockWebServer server;
+    private NominatimApi api;
+    private FakeGeocodeCacheDao cacheDao;
+    private ScheduledExecutorService retryTimer;
+
+    /**
+     * Starts the stand-in server and an empty persistent cache.
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        api = new NominatimApi(server.url("/").toString());
+        cacheDao = new FakeGeocodeCacheDao();
+        retryTimer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stops the retry timer and the stand-in server.
+     */
+    @After
+    public void tearDown() throws IOException {
+        retryTimer.shutdownNow();
+        server.shutdown();
+    }
+
+    /**
+     * Tests that repeated lookups of the same address, however it is typed, only reach the network once.
+     */
+    @Test
+    public void repeatedLookups_neverHitTheNetworkAgain() {
+        // GIVEN - A server answering one lookup
+        server.enqueue(new MockResponse().setBody(BODY));
+        MapRepository repository = createRepository();
+
+        // WHEN - Looking the address up several times, with different case and spacing
+        NominatimResponse first = lookup(repository, ADDRESS).response;
+        NominatimResponse second = lookup(repository, ADDRESS).response;
+        NominatimResponse third = lookup(repository, "  1600 amphitheatre parkway ,  Mountain View, CA ").response;
+
+        // THEN - Only the first lookup reached the server, and all of them return the coordinates
+        assertEquals(1, server.getRequestCount());
+        assertNotNull(first);
+        assertEquals(37.422, second.lat, 0.0001);
+        assertEquals(-122.084, third.lon, 0.0001);
+    }
+
+    /**
+     * Tests that the persistent cache answers after a restart, when the in-memory cache is empty.
+     */
+    @Test
+    public void lookupAfterRestart_isServedFromTheTable() {
+        // GIVEN - An address geocoded by a previous instance of the repository
+        server.enqueue(new MockResponse().setBody(BODY));
+        lookup(createRepository(), ADDRESS);
+
+        // WHEN - A new repository (empty memory cache) looks the address up
+        NominatimResponse response = lookup(createRepository(), ADDRESS).response;
+
+        // THEN - The coordinates come from the table, not from the network
+        assertEquals(1, server.getRequestCount());
+        assertEquals(37.422, response.lat, 0.0001);
+        assertEquals(1, cacheDao.reads);
+    }
+
+    /**
+     * Tests that an expired entry is fetched again, and reused if the network is unavailable.
+     */
+    @Test
+    public void expiredEntry_isRefreshed_orReusedOnFailure() {
+        // GIVEN - Coordinates cached longer ago than the time to live
+        String key = MapRepository.normalizeAddress(ADDRESS);
+        long expired = System.currentTimeMillis() - MapRepository.CACHE_TTL_MILLIS - 1;
+        cacheDao.insert(new GeocodeCacheEntry(key, 1.0, 2.0, expired, MapRepository.CACHE_TTL_MILLIS));
+
+        // WHEN - The server fails
+        server.enqueue(new MockResponse().setResponseCode(503));
+        NominatimResponse stale = lookup(createRepository(), ADDRESS).response;
+
+        // THEN - The expired coordinates are still returned
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1.0, stale.lat, 0.0001);
+
+        // WHEN - The server answers
+        server.enqueue(new MockResponse().setBody(BODY));
+        NominatimResponse fresh = lookup(createRepository(), ADDRESS).response;
+
+        // THEN - The entry is refreshed
+        assertEquals(2, server.getRequestCount());
+        assertEquals(37.422, fresh.lat, 0.0001);
+        assertEquals(37.422, cacheDao.entries.get(key).lat, 0.0001);
+    }
+
+    /**
+     * Tests that an unknown address is reported as not found, and a failure without cache as an error.
+     */
+    @Test
+    public void unknownAddressAndFailure_areReported() {
+        // GIVEN - A server returning no result, then failing
+        server.enqueue(new MockResponse().setBody("[]"));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        MapRepository repository = createRepository();
+
+        // WHEN - Looking up two addresses
+        RecordingCallback notFound = lookup(repository, "Nowhere");
+        RecordingCallback failed = lookup(repository, "Somewhere else");
+
+        // THEN - The first is not found and the second failed
+        assertNull(notFound.response);
+        assertNull(notFound.error);
+        assertNotNull(failed.error);
+    }
+
+    /**
+     * Tests that a property address gets the gazetteer centroid first, and keeps it when the network fails.
+     */
+    @Test
+    public void addressLookup_answersFromTheGazetteer_andFallsBackToItOffline() throws IOException {
+        // GIVEN - A repository with the bundled gazetteer and a server answering, then failing
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        Gazetteer gazetteer = Gazetteer.open(new File("src/main/assets/" + Gazetteer.ASSET_NAME));
+        MapRepository repository = new MapRepository(new GeocodingScheduler(api, Runnable::run, retryTimer, 1000, 0, 0),
+                cacheDao, Runnable::run, gazetteer);
+
+        // WHEN - Looking up an address in a known zip code while online
+        RecordingCallback online = new RecordingCallback();
+        repository.fetchCoordinatesForAddress(new Address("Main Street", "Manhattan", "NY", "10019", "USA"), online);
+
+        // THEN - The centroid of the zip code came first, then the precise coordinates
+        assertEquals(40.7651, online.approximate.lat, 0.0001);
+        assertEquals(37.422, online.response.lat, 0.0001);
+
+        // WHEN - Looking up another address of the same zip code while the server fails
+        RecordingCallback offline = new RecordingCallback();
+        repository.fetchCoordinatesForAddress(new Address("Broadway", "Manhattan", "NY", "10019", "USA"), offline);
+
+        // THEN - The centroid is the result, and it was not cached as precise coordinates
+        assertNull(offline.error);
+        assertEquals(40.7651, offline.response.lat, 0.0001);
+        assertNull(cacheDao.entries.get(MapRepository.normalizeAddress("Broadway, Manhattan, NY")));
+    }
+
+    /**
+     * Creates a repository running its lookups on the calling thread, without rate limit or retries.
+     */
+    private MapRepository createRepository() {
+        return new MapRepository(new GeocodingScheduler(api, Runnable::run, retryTimer, 1000, 0, 0),
+                cacheDao, Runnable::run);
+    }
+
+    /**
+     * Looks an address up and returns the recorded callback.
+     */
+    private RecordingCallback lookup(MapRepository repository, String address) {
+        RecordingCallback callback = new RecordingCallback();
+        repository.fetchCoordinatesForAddress(address, callback);
+        return callback;
+    }
+
+    /**
+     * Callback recording the result of a lookup.
+     */
+    private static class RecordingCallback implements MapRepository.GeocodeCallback {
+        NominatimResponse approximate;
+        NominatimResponse response;
+        Throwable error;
+
+        @Override
+        public void onApproximateResult(NominatimResponse response) {
+            this.approximate = response;
+        }
+
+        @Override
+        public void onResult(@Nullable NominatimResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * In-memory GeocodeCacheDao standing in for the Room table, counting the lookups it answers.
+     */
+    private static class FakeGeocodeCacheDao implements GeocodeCacheDao {
+        final Map<String, GeocodeCacheEntry> entries = new HashMap<>();
+        int reads;
+
+        @Override
+        public GeocodeCacheEntry get(String address) {
+            GeocodeCacheEntry entry = entries.get(address);
+            if (entry != null) reads++;
+            return entry;
+        }
+
+        @Override
+        public void insert(GeocodeCacheEntry entry) {
+            entries.put(entry.address, entry);
+        }
+
+        @Override
+        public int deleteExpired(long now) {
+            int count = 0;
+            Iterator<GeocodeCacheEntry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isExpired(now)) {
+                    iterator.remove();
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
\ No newline at end of file
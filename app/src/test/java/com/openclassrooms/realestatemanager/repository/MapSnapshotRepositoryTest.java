@@ -0,0 +1,200 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * Unit tests for MapSnapshotRepository against a local MockWebServer standing in for the static map service.
+ * Every task runs on the calling thread, so a snapshot is cached when load() or prefetch() returns.
+ */
+public class MapSnapshotRepositoryTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private File directory;
+
+    /**
+     * Starts the stand-in server and picks an empty cache directory.
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        directory = new File(folder.getRoot(), "map_snapshots");
+    }
+
+    /**
+     * Stops the stand-in server.
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Tests that coordinates within the rounding share a key, and that the zoom level is part of it.
+     */
+    @Test
+    public void cacheKey_roundsCoordinatesAndIncludesZoom() {
+        assertEquals("z17_407651_-739858", MapSnapshotRepository.cacheKey(40.76512, -73.98581, 17));
+        assertEquals(MapSnapshotRepository.cacheKey(40.76512, -73.98581, 17),
+                MapSnapshotRepository.cacheKey(40.76508, -73.98579, 17));
+        assertNotEquals(MapSnapshotRepository.cacheKey(40.76512, -73.98581, 17),
+                MapSnapshotRepository.cacheKey(40.76512, -73.98581, 15));
+    }
+
+    /**
+     * Tests that a prefetched snapshot is served from disk, and survives a restart while offline.
+     */
+    @Test
+    public void prefetchedSnapshot_isServedFromDisk() throws Exception {
+        // GIVEN - A server answering one snapshot
+        server.enqueue(pngResponse());
+        MapSnapshotRepository repository = createRepository();
+
+        // WHEN - The list prefetches a snapshot, then the detail loads nearly the same coordinates
+        repository.prefetch(40.76512, -73.98581, 17);
+        RecordingCallback callback = load(repository, 40.76508, -73.98579, 17);
+
+        // THEN - One request was sent, with the rounded coordinates, and the PNG is on disk
+        assertEquals(1, server.getRequestCount());
+        RecordedRequest request = server.takeRequest();
+        assertEquals("-73.9858,40.7651", request.getRequestUrl().queryParameter("ll"));
+        assertEquals("17", request.getRequestUrl().queryParameter("z"));
+        assertArrayEquals(PNG, Files.readAllBytes(callback.file.toPath()));
+
+        // WHEN - The app restarts without network
+        server.shutdown();
+        RecordingCallback offline = load(createRepository(), 40.76512, -73.98581, 17);
+
+        // THEN - The snapshot still comes from disk
+        assertNull(offline.error);
+        assertArrayEquals(PNG, Files.readAllBytes(offline.file.toPath()));
+    }
+
+    /**
+     * Tests that an error page is never cached, so the snapshot is requested again.
+     */
+    @Test
+    public void errorPage_isNotCached() {
+        // GIVEN - A server answering an HTML page, then the snapshot
+        server.enqueue(new MockResponse().setHeader("Content-Type", "text/html").setBody("<html>Quota</html>"));
+        server.enqueue(pngResponse());
+        MapSnapshotRepository repository = createRepository();
+
+        // WHEN - Loading the snapshot twice
+        RecordingCallback failed = load(repository, 40.7651, -73.9858, 17);
+        RecordingCallback retried = load(repository, 40.7651, -73.9858, 17);
+
+        // THEN - The first load failed and the second downloaded the image
+        assertNotNull(failed.error);
+        assertNull(failed.file);
+        assertEquals(2, server.getRequestCount());
+        assertTrue(retried.file.exists());
+    }
+
+    /**
+     * Tests that a runtime failure of the download is reported to the caller and doesn't leave the key in flight,
+     * so the next load of the same snapshot is downloaded instead of waiting forever.
+     */
+    @Test
+    public void runtimeFailure_isReportedAndReleasesTheKey() {
+        // GIVEN - A client whose first call fails with a runtime exception, and a server answering the snapshot
+        server.enqueue(pngResponse());
+        AtomicBoolean failed = new AtomicBoolean();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    if (failed.compareAndSet(false, true)) {
+                        throw new IllegalStateException("Interceptor failure");
+                    }
+                    return chain.proceed(chain.request());
+                })
+                .build();
+        MapSnapshotRepository repository = createRepository(client);
+
+        // WHEN - Loading the snapshot twice
+        RecordingCallback first = load(repository, 40.7651, -73.9858, 17);
+        RecordingCallback second = load(repository, 40.7651, -73.9858, 17);
+
+        // THEN - The first load got the error and the second downloaded the image
+        assertTrue(first.error instanceof IllegalStateException);
+        assertNull(first.file);
+        assertEquals(1, server.getRequestCount());
+        assertNull(second.error);
+        assertTrue(second.file.exists());
+    }
+
+    /**
+     * Creates a repository running its tasks on the calling thread.
+     */
+    private MapSnapshotRepository createRepository() {
+        return createRepository(new OkHttpClient());
+    }
+
+    /**
+     * Creates a repository running its tasks on the calling thread with the given HTTP client.
+     */
+    private MapSnapshotRepository createRepository(OkHttpClient client) {
+        return new MapSnapshotRepository(directory, MapSnapshotRepository.MAX_DISK_CACHE_BYTES,
+                client, server.url("/1.x/").toString(), Runnable::run);
+    }
+
+    /**
+     * Loads a snapshot and returns the recorded callback.
+     */
+    private RecordingCallback load(MapSnapshotRepository repository, double lat, double lon, int zoom) {
+        RecordingCallback callback = new RecordingCallback();
+        repository.load(lat, lon, zoom, callback);
+        return callback;
+    }
+
+    /**
+     * Returns a response holding a small PNG.
+     */
+    private MockResponse pngResponse() {
+        return new MockResponse().setHeader("Content-Type", "image/png").setBody(new Buffer().write(PNG));
+    }
+
+    /**
+     * Callback recording the result of a load.
+     */
+    private static class RecordingCallback implements MapSnapshotRepository.SnapshotCallback {
+        File file;
+        Throwable error;
+
+        @Override
+        public void onSnapshot(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+    }
+}
\ No newline at end of file
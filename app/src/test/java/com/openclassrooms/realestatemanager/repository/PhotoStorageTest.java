@@ -0,0 +1,194 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Robolectric tests for PhotoStorage, on an in-memory database with picked images served by the content resolver.
+ * Every task runs on the calling thread, so a garbage collection is complete when collectGarbage() returns.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PhotoStorageTest {
+
+    private static final byte[] IMAGE = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, 4};
+    private static final byte[] OTHER_IMAGE = {(byte) 0xFF, (byte) 0xD8, 5, 6, 7, 8};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PropertyDatabase database;
+    private ContentResolver contentResolver;
+    private File photoDirectory;
+    private File thumbnailDirectory;
+    private PhotoStorage storage;
+
+    /**
+     * Creates the database and a storage without grace period writing to a temporary folder.
+     */
+    @Before
+    public void setUp() throws IOException {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PropertyDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        contentResolver = context.getContentResolver();
+        photoDirectory = new File(folder.getRoot(), "photos");
+        thumbnailDirectory = folder.newFolder("thumbnails");
+        storage = new PhotoStorage(database.propertyDao(), contentResolver, photoDirectory, thumbnailDirectory,
+                0, Runnable::run);
+    }
+
+    /**
+     * Closes the database.
+     */
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Tests that the same image picked twice is stored once, and a different image separately.
+     */
+    @Test
+    public void ingest_sharesIdenticalImages() throws IOException {
+        // GIVEN - The same image behind two picker URIs, and another image
+        String first = pickedImage("content://media/external/images/1", IMAGE);
+        String second = pickedImage("content://media/external/images/2", IMAGE);
+        String other = pickedImage("content://media/external/images/3", OTHER_IMAGE);
+
+        // WHEN - Copying the three of them
+        String firstStored = storage.ingest(first);
+        String secondStored = storage.ingest(second);
+        String otherStored = storage.ingest(other);
+
+        // THEN - The identical images share one file holding their bytes, and no temporary file is left
+        assertEquals(firstStored, secondStored);
+        assertNotEquals(firstStored, otherStored);
+        assertArrayEquals(IMAGE, Files.readAllBytes(new File(Uri.parse(firstStored).getPath()).toPath()));
+        assertEquals(2, photoDirectory.listFiles().length);
+    }
+
+    /**
+     * Tests that only picked content URIs are replaced by local files.
+     */
+    @Test
+    public void ingestAll_copiesOnlyPickedImages() {
+        // GIVEN - A picked image and a bundled resource
+        String resource = "android.resource://com.openclassrooms.realestatemanager/drawable/home1_photo1";
+        List<Photo> photos = Arrays.asList(
+                new Photo(pickedImage("content://media/external/images/1", IMAGE), "Picked"),
+                new Photo(resource, "Bundled"));
+
+        // WHEN - Ingesting the photos before a save
+        storage.ingestAll(photos);
+
+        // THEN - The picked image now points to app storage and the resource is untouched
+        assertEquals(ContentResolver.SCHEME_FILE, Uri.parse(photos.get(0).uri).getScheme());
+        assertTrue(new File(Uri.parse(photos.get(0).uri).getPath()).exists());
+        assertEquals(resource, photos.get(1).uri);
+    }
+
+    /**
+     * Tests that unreferenced files are deleted, first after an edit, then with their property.
+     */
+    @Test
+    public void collectGarbage_deletesUnreferencedFiles() throws IOException {
+        // GIVEN - A property showing a stored image, an image removed by an edit and a stale thumbnail
+        String kept = storage.ingest(pickedImage("content://media/external/images/1", IMAGE));
+        String removed = storage.ingest(pickedImage("content://media/external/images/2", OTHER_IMAGE));
+        File staleThumbnail = new File(thumbnailDirectory, "stale_list.jpg");
+        assertTrue(staleThumbnail.createNewFile());
+        backdateFiles();
+        Property property = new Property("House", 100000, 100, 4, 1, 2, "Description",
+                new Address("Street", "City", "NY", "00000", "USA"),
+                new ArrayList<>(Arrays.asList(new Photo(kept, "Kept"))), new ArrayList<>(), false, new Date(), null, "Agent");
+        int propertyId = (int) database.propertyDao().insertWithDetails(property);
+
+        // WHEN - Collecting garbage
+        storage.collectGarbage();
+
+        // THEN - Only the referenced image is left
+        assertTrue(new File(Uri.parse(kept).getPath()).exists());
+        assertFalse(new File(Uri.parse(removed).getPath()).exists());
+        assertFalse(staleThumbnail.exists());
+
+        // WHEN - The property is deleted, then garbage is collected
+        database.propertyDao().deleteById(propertyId);
+        storage.collectGarbage();
+
+        // THEN - Its image is deleted too
+        assertFalse(new File(Uri.parse(kept).getPath()).exists());
+    }
+
+    /**
+     * Tests that a file younger than the grace period is kept, since its photo may not be saved yet.
+     */
+    @Test
+    public void collectGarbage_keepsRecentFiles() throws IOException {
+        // GIVEN - A storage with a grace period and an image just copied for an unsaved property
+        PhotoStorage graceful = new PhotoStorage(database.propertyDao(), contentResolver, photoDirectory,
+                thumbnailDirectory, PhotoStorage.GRACE_PERIOD_MS, Runnable::run);
+        String stored = graceful.ingest(pickedImage("content://media/external/images/1", IMAGE));
+
+        // WHEN - Collecting garbage
+        graceful.collectGarbage();
+
+        // THEN - The image is kept
+        assertTrue(new File(Uri.parse(stored).getPath()).exists());
+    }
+
+    /**
+     * Registers an image behind a content URI, as the gallery picker would return it.
+     */
+    private String pickedImage(String uri, byte[] content) {
+        shadowOf(contentResolver).registerInputStreamSupplier(Uri.parse(uri), () -> new ByteArrayInputStream(content));
+        return uri;
+    }
+
+    /**
+     * Makes every stored file older than now, so that a collection without grace period sees it as old.
+     */
+    private void backdateFiles() {
+        long past = System.currentTimeMillis() - 60_000;
+        for (File directory : new File[]{photoDirectory, thumbnailDirectory}) {
+            for (File file : directory.listFiles()) {
+                assertTrue(file.setLastModified(past));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,250 @@
+package com.openclassrooms.realestatemanager.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.net.Uri;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.utils.BlurHash;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Robolectric tests for ThumbnailPipeline, on an in-memory database with real image decoding.
+ * Every task runs on the calling thread, so a pass is complete when start() returns.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ThumbnailPipelineTest {
+
+    private static final int LIST_SIZE_PX = 100;
+    private static final int DETAIL_SIZE_PX = 160;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PropertyDatabase database;
+    private ThumbnailPipeline pipeline;
+
+    /**
+     * Creates the database and a pipeline writing its thumbnails to a temporary folder.
+     */
+    @Before
+    public void setUp() throws IOException {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, PropertyDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        pipeline = new ThumbnailPipeline(database.propertyDao(), context.getContentResolver(),
+                folder.newFolder("thumbnails"), LIST_SIZE_PX, DETAIL_SIZE_PX, Runnable::run);
+    }
+
+    /**
+     * Closes the database.
+     */
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Tests that both thumbnails are written at their size and recorded with the BlurHash on the photo
+     * and the property row.
+     */
+    @Test
+    public void start_generatesAndRecordsThumbnails() throws IOException {
+        // GIVEN - A property whose cover photo is a 1200 x 800 image
+        String uri = writeJpeg("cover.jpg", 1200, 800);
+        int propertyId = insertProperty(new Photo(uri, "Cover"));
+
+        // WHEN - Running a pass
+        pipeline.start();
+
+        // THEN - The photo and the list row point to thumbnails whose short side matches the views
+        Photo photo = readPhotos(propertyId).get(0);
+        assertNotNull(photo.listThumbnailUri);
+        assertNotNull(photo.detailThumbnailUri);
+        assertEquals(photo.listThumbnailUri, database.propertyDao().findPropertyById(propertyId).coverThumbnailUri);
+        assertSize(photo.listThumbnailUri, 150, LIST_SIZE_PX);
+        assertSize(photo.detailThumbnailUri, 240, DETAIL_SIZE_PX);
+        assertTrue(BlurHash.isValid(photo.blurHash));
+        assertEquals(photo.blurHash, database.propertyDao().findPropertyById(propertyId).coverBlurHash);
+        assertFalse(pipeline.isRunning());
+    }
+
+    /**
+     * Tests that photos whose thumbnails predate the BlurHash column get their hash on the next pass.
+     */
+    @Test
+    public void start_hashesPhotosWithExistingThumbnails() throws IOException {
+        // GIVEN - A photo with thumbnails but no BlurHash, as after the migration to version 10
+        String uri = writeJpeg("legacy.jpg", 800, 600);
+        int propertyId = insertProperty(new Photo(uri, "Legacy"));
+        pipeline.start();
+        database.getOpenHelper().getWritableDatabase().execSQL("UPDATE photo SET blurHash = NULL");
+        database.getOpenHelper().getWritableDatabase().execSQL("UPDATE property SET coverBlurHash = NULL");
+
+        // WHEN - Running another pass
+        pipeline.start();
+
+        // THEN - The photo and the list row got their hash back, with the thumbnails unchanged
+        Photo photo = readPhotos(propertyId).get(0);
+        assertTrue(BlurHash.isValid(photo.blurHash));
+        assertEquals(photo.blurHash, database.propertyDao().findPropertyById(propertyId).coverBlurHash);
+        assertSize(photo.listThumbnailUri, 133, LIST_SIZE_PX);
+    }
+
+    /**
+     * Tests that an unreadable photo is skipped without stopping the pass.
+     */
+    @Test
+    public void start_skipsUnreadablePhotos() throws IOException {
+        // GIVEN - A missing file followed by a readable image
+        String missing = Uri.fromFile(new File(folder.getRoot(), "missing.jpg")).toString();
+        String readable = writeJpeg("readable.jpg", 640, 480);
+        int propertyId = insertProperty(new Photo(missing, "Missing"), new Photo(readable, "Readable"));
+
+        // WHEN - Running a pass
+        pipeline.start();
+
+        // THEN - Only the readable photo got thumbnails, and the pass ended
+        List<Photo> photos = readPhotos(propertyId);
+        assertNull(photos.get(0).listThumbnailUri);
+        assertNull(database.propertyDao().findPropertyById(propertyId).coverThumbnailUri);
+        assertNotNull(photos.get(1).listThumbnailUri);
+        assertFalse(pipeline.isRunning());
+    }
+
+    /**
+     * Tests that a start arriving while the running pass reads its last, empty batch is not lost.
+     */
+    @Test
+    public void start_duringLastReadRunsAnotherPass() throws IOException {
+        // GIVEN - A pipeline whose DAO inserts a photo and starts the pipeline again on its first empty read
+        Context context = ApplicationProvider.getApplicationContext();
+        PropertyDao dao = spy(database.propertyDao());
+        ThumbnailPipeline racingPipeline = new ThumbnailPipeline(dao, context.getContentResolver(),
+                folder.newFolder("racing"), LIST_SIZE_PX, DETAIL_SIZE_PX, Runnable::run);
+        String uri = writeJpeg("late.jpg", 640, 480);
+        AtomicInteger lateProperty = new AtomicInteger();
+        doAnswer(invocation -> {
+            Object batch = invocation.callRealMethod();
+            if (((List<?>) batch).isEmpty() && lateProperty.get() == 0) {
+                lateProperty.set(insertProperty(new Photo(uri, "Late")));
+                racingPipeline.start(); // The pass is still marked as running here
+            }
+            return batch;
+        }).when(dao).getPhotosWithoutThumbnails(anyLong(), anyInt());
+
+        // WHEN - Running a pass over an empty table
+        racingPipeline.start();
+
+        // THEN - The late photo got its thumbnails from a second pass, and no pass is left running
+        Photo photo = readPhotos(lateProperty.get()).get(0);
+        assertNotNull(photo.listThumbnailUri);
+        assertTrue(BlurHash.isValid(photo.blurHash));
+        assertFalse(racingPipeline.isRunning());
+    }
+
+    /**
+     * Tests that the subsampling keeps the short side at least as large as the target.
+     */
+    @Test
+    public void sampleSize_keepsShortSideAboveTarget() {
+        assertEquals(1, ThumbnailPipeline.sampleSize(300, 200, 160));
+        assertEquals(8, ThumbnailPipeline.sampleSize(4032, 3024, 320));
+        assertEquals(16, ThumbnailPipeline.sampleSize(4032, 3024, 160));
+        assertTrue(3024 / ThumbnailPipeline.sampleSize(4032, 3024, 160) >= 160);
+    }
+
+    /**
+     * Inserts a property with the given photos and returns its ID.
+     */
+    private int insertProperty(Photo... photos) {
+        Property property = new Property("House", 100000, 100, 4, 1, 2, "Description",
+                new Address("Street", "City", "NY", "00000", "USA"),
+                new ArrayList<>(Arrays.asList(photos)), new ArrayList<>(), false, new Date(), null, "Agent");
+        return (int) database.propertyDao().insertWithDetails(property);
+    }
+
+    /**
+     * Reads the thumbnail and BlurHash columns of the photos of a property, in gallery order.
+     */
+    private List<Photo> readPhotos(int propertyId) {
+        List<Photo> photos = new ArrayList<>();
+        try (Cursor cursor = database.query("SELECT listThumbnailUri, detailThumbnailUri, blurHash FROM photo "
+                + "WHERE propertyId = ? ORDER BY position", new Object[]{propertyId})) {
+            while (cursor.moveToNext()) {
+                Photo photo = new Photo();
+                photo.listThumbnailUri = cursor.getString(0);
+                photo.detailThumbnailUri = cursor.getString(1);
+                photo.blurHash = cursor.getString(2);
+                photos.add(photo);
+            }
+        }
+        return photos;
+    }
+
+    /**
+     * Writes a plain JPEG of the given size and returns its file URI.
+     */
+    private String writeJpeg(String name, int width, int height) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.rgb(120, 160, 200));
+        File file = new File(folder.getRoot(), name);
+        try (OutputStream output = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, output);
+        }
+        return Uri.fromFile(file).toString();
+    }
+
+    /**
+     * Asserts the size of the image behind a file URI.
+     */
+    private static void assertSize(String uri, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(Uri.parse(uri).getPath(), options);
+        assertEquals(width, options.outWidth);
+        assertEquals(height, options.outHeight);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.openclassrooms.realestatemanager.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.openclassrooms.realestatemanager.BenchmarkTestUtil;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * JMH-style microbenchmark of the BlurHash placeholders, run as a plain JUnit test with -Pbenchmark.
+ * Encoding is measured on the image the thumbnail pipeline hashes (the list thumbnail subsampled
+ * to a few dozen pixels), decoding on the preview the adapters draw on bind. Each case is warmed up,
+ * then measured for a fixed time; the test reports the throughput, the time and the bytes allocated
+ * per operation.
+ */
+public class BlurHashBenchmarkTest {
+
+    private static final long WARMUP_NANOS = 200_000_000L;
+    private static final long MEASURE_NANOS = 500_000_000L;
+
+    // Subsampled list thumbnail hashed by the pipeline, and preview decoded on bind
+    private static final int ENCODE_WIDTH = 64;
+    private static final int ENCODE_HEIGHT = 48;
+    private static final int DECODE_SIZE = 32;
+
+    // A bind must leave most of the 16 ms frame to layout and drawing; reported next to the measure, not asserted
+    private static final double DECODE_BUDGET_MICROS = 1000;
+
+    private static final int[] PIXELS = createPhoto(ENCODE_WIDTH, ENCODE_HEIGHT);
+    private static final String HASH = BlurHash.encode(PIXELS, ENCODE_WIDTH, ENCODE_HEIGHT);
+
+    // Keeps the results reachable so the JIT cannot drop the work
+    private Object sink;
+
+    /**
+     * Measures encoding and decoding and reports them, with the decoding time against the budget of a bind.
+     * Only the decoded preview is asserted.
+     */
+    @Test
+    public void benchmark_encodeAndDecode() {
+        BenchmarkTestUtil.assumeEnabled();
+        BenchmarkTestUtil.report("%-32s %14s %10s %12s", "Benchmark", "ops/s", "us/op", "bytes/op");
+
+        measure("encode " + ENCODE_WIDTH + "x" + ENCODE_HEIGHT + " 4x3",
+                () -> BlurHash.encode(PIXELS, ENCODE_WIDTH, ENCODE_HEIGHT));
+        measure("encode " + ENCODE_WIDTH + "x" + ENCODE_HEIGHT + " 9x9",
+                () -> BlurHash.encode(PIXELS, ENCODE_WIDTH, ENCODE_HEIGHT, 9, 9));
+        Result decode = measure("decode " + DECODE_SIZE + "x" + DECODE_SIZE,
+                () -> BlurHash.decode(HASH, DECODE_SIZE, DECODE_SIZE, 1f));
+        measure("decode 140x160", () -> BlurHash.decode(HASH, 140, 160, 1f));
+        BenchmarkTestUtil.report("decode %dx%d: %.2f us (budget %.0f us)",
+                DECODE_SIZE, DECODE_SIZE, decode.microsPerOp, DECODE_BUDGET_MICROS);
+
+        assertTrue(BlurHash.isValid(HASH));
+        assertEquals(DECODE_SIZE * DECODE_SIZE, ((int[]) decode.lastOutput).length);
+    }
+
+    /**
+     * Warms an operation up, then runs it for a fixed time and reports its throughput and allocation.
+     *
+     * @param name      The name in the report.
+     * @param operation The operation to measure.
+     * @return The measured throughput and allocation.
+     */
+    private Result measure(String name, Operation operation) {
+        run(operation, WARMUP_NANOS);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long operations = run(operation, MEASURE_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        Result result = new Result();
+        result.opsPerSecond = operations * 1_000_000_000.0 / elapsed;
+        result.microsPerOp = elapsed / 1000.0 / operations;
+        result.bytesPerOp = allocatedBefore < 0 ? -1 : (allocatedAfter - allocatedBefore) / operations;
+        result.lastOutput = sink;
+        BenchmarkTestUtil.report("%-32s %14.0f %10.2f %12d",
+                name, result.opsPerSecond, result.microsPerOp, result.bytesPerOp);
+        return result;
+    }
+
+    /**
+     * Runs an operation in a loop for the given duration.
+     *
+     * @return The number of operations run.
+     */
+    private long run(Operation operation, long durationNanos) {
+        long operations = 0;
+        long end = System.nanoTime() + durationNanos;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 10; i++) {
+                sink = operation.run();
+            }
+            operations += 10;
+        }
+        return operations;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a photo-like image: a sky-to-ground gradient with noise.
+     */
+    private static int[] createPhoto(int width, int height) {
+        Random random = new Random(42);
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = Math.min(255, 90 + y * 2 + random.nextInt(40));
+                int g = Math.min(255, 140 + x + random.nextInt(40));
+                int b = Math.max(0, 230 - y * 3 + random.nextInt(20));
+                pixels[y * width + x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * An operation under measurement.
+     */
+    private interface Operation {
+        Object run();
+    }
+
+    /**
+     * Throughput, time and allocation of a measured operation, and its last output.
+     */
+    private static class Result {
+        double opsPerSecond;
+        double microsPerOp;
+        long bytesPerOp;
+        Object lastOutput;
+    }
+}
\ No newline at end of file
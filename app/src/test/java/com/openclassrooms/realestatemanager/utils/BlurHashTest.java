@@ -0,0 +1,110 @@
+package com.openclassrooms.realestatemanager.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for the BlurHash encoder and decoder.
+ */
+public class BlurHashTest {
+
+    /**
+     * Tests that a hash has the length given by its component counts and is accepted by the validator.
+     */
+    @Test
+    public void encode_hasLengthOfComponents() {
+        // GIVEN - A 32 x 24 gradient
+        int[] pixels = gradient(32, 24);
+
+        // WHEN - Encoding it with the default and with custom component counts
+        String defaultHash = BlurHash.encode(pixels, 32, 24);
+        String customHash = BlurHash.encode(pixels, 32, 24, 2, 5);
+
+        // THEN - 4 characters of header and DC, then 2 per AC component
+        assertEquals(4 + 2 * BlurHash.COMPONENTS_X * BlurHash.COMPONENTS_Y, defaultHash.length());
+        assertEquals(4 + 2 * 2 * 5, customHash.length());
+        assertTrue(BlurHash.isValid(defaultHash));
+        assertTrue(BlurHash.isValid(customHash));
+    }
+
+    /**
+     * Tests that the average color, the single component of a 1 x 1 hash, survives the round trip.
+     */
+    @Test
+    public void averageColor_survivesRoundTrip() {
+        // GIVEN - A plain teal image
+        int[] pixels = new int[16 * 16];
+        Arrays.fill(pixels, 0xFF0077B6);
+
+        // WHEN - Encoding only its average color and decoding it
+        String hash = BlurHash.encode(pixels, 16, 16, 1, 1);
+        int[] decoded = BlurHash.decode(hash, 8, 8, 1f);
+
+        // THEN - Every pixel is the original color, within one level per channel
+        assertEquals(6, hash.length());
+        for (int pixel : decoded) {
+            assertEquals(0xFF, pixel >>> 24);
+            assertEquals(0x00, (pixel >> 16) & 0xFF, 1);
+            assertEquals(0x77, (pixel >> 8) & 0xFF, 1);
+            assertEquals(0xB6, pixel & 0xFF, 1);
+        }
+    }
+
+    /**
+     * Tests that the decoded preview keeps the coarse layout of the image: dark on the left, light on the right.
+     */
+    @Test
+    public void gradient_keepsItsDirection() {
+        // GIVEN - A gradient from black on the left to white on the right
+        int[] pixels = gradient(32, 24);
+
+        // WHEN - Encoding it and decoding a small preview
+        int[] decoded = BlurHash.decode(BlurHash.encode(pixels, 32, 24), 10, 4, 1f);
+
+        // THEN - Each row gets lighter from left to right
+        for (int y = 0; y < 4; y++) {
+            int left = decoded[y * 10] & 0xFF;
+            int right = decoded[y * 10 + 9] & 0xFF;
+            assertTrue(left + " should be darker than " + right, left + 100 < right);
+        }
+    }
+
+    /**
+     * Tests that a reference hash from the BlurHash documentation is valid, and that malformed ones are rejected.
+     */
+    @Test
+    public void isValid_checksAlphabetAndLength() {
+        assertTrue(BlurHash.isValid("LEHV6nWB2yk8pyo0adR*.7kCMdnj"));
+        assertFalse(BlurHash.isValid("LEHV6nWB2yk8pyo0adR*.7kCMdn")); // Truncated
+        assertFalse(BlurHash.isValid("LEHV6nWB2yk8pyo0adR*.7kCMd\"j")); // Not base 83
+        assertFalse(BlurHash.isValid(""));
+        assertFalse(BlurHash.isValid(null));
+    }
+
+    /**
+     * Tests that decoding a malformed hash fails instead of drawing garbage.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_malformedHash_throws() {
+        BlurHash.decode("not a hash", 8, 8, 1f);
+    }
+
+    /**
+     * Creates a horizontal grayscale gradient from black to white.
+     */
+    static int[] gradient(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int level = x * 255 / (width - 1);
+                pixels[y * width + x] = 0xFF000000 | (level << 16) | (level << 8) | level;
+            }
+        }
+        return pixels;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.openclassrooms.realestatemanager.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Unit tests for the ContentHash class.
+ * Checks the hexadecimal names against the reference values of the algorithms.
+ */
+public class ContentHashTest {
+
+    /**
+     * Tests that a content streamed in chunks gives the reference SHA-256, as a stored photo is named.
+     */
+    @Test
+    public void sha256_streamedInChunks_matchesReference() {
+        // GIVEN - An empty digest
+        MessageDigest digest = ContentHash.sha256();
+
+        // WHEN - Feeding it "abc" in two chunks
+        digest.update("a".getBytes(StandardCharsets.UTF_8));
+        digest.update("bc".getBytes(StandardCharsets.UTF_8));
+
+        // THEN - The name is the reference SHA-256 of "abc"
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ContentHash.toHex(digest.digest()));
+    }
+
+    /**
+     * Tests that the SHA-1 of a text matches the reference, as thumbnails are named.
+     */
+    @Test
+    public void sha1_matchesReference() {
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", ContentHash.sha1("abc"));
+    }
+
+    /**
+     * Tests that every byte gives two lowercase digits, leading zeros included.
+     */
+    @Test
+    public void toHex_keepsLeadingZeros() {
+        assertEquals("000fa0ff", ContentHash.toHex(new byte[]{0x00, 0x0F, (byte) 0xA0, (byte) 0xFF}));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.openclassrooms.realestatemanager.view.adapter;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ListUpdateCallback recording the updates an adapter would receive between two lists:
+ * the rebound positions and the number of structural changes (insertions, removals and moves).
+ * Shared by the diffing tests of the adapters.
+ */
+class DiffRecorder implements ListUpdateCallback {
+
+    final List<Integer> changed = new ArrayList<>();
+    int structuralChanges;
+
+    /**
+     * Computes the diff between two lists with an adapter's item callback and records the updates.
+     *
+     * @param itemCallback The item callback of the adapter.
+     * @param before       The list displayed before.
+     * @param after        The list submitted after.
+     * @return The recorded updates.
+     */
+    static <T> DiffRecorder dispatchDiff(DiffUtil.ItemCallback<T> itemCallback, List<T> before, List<T> after) {
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return before.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return after.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return itemCallback.areItemsTheSame(before.get(oldItemPosition), after.get(newItemPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                return itemCallback.areContentsTheSame(before.get(oldItemPosition), after.get(newItemPosition));
+            }
+        });
+        DiffRecorder recorder = new DiffRecorder();
+        result.dispatchUpdatesTo(recorder);
+        return recorder;
+    }
+
+    /**
+     * Forgets the updates recorded so far, e.g. those of the first page of a paged list.
+     */
+    void clear() {
+        changed.clear();
+        structuralChanges = 0;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        structuralChanges += count;
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        structuralChanges += count;
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        structuralChanges++;
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+        for (int i = 0; i < count; i++) {
+            changed.add(position + i);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.openclassrooms.realestatemanager.view.adapter;
+
+import static org.junit.Assert.assertEquals;
+
+import android.os.Parcel;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.realestatemanager.LiveDataTestUtil;
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Photo;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Unit tests for the diffing of PhotoAdapter.
+ * Verifies that editing the photos of a property only rebinds the photos that changed, including
+ * after a round trip through the edit screen and the database. Runs on Robolectric for Room and Parcel.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PhotoAdapterDiffTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    /**
+     * Tests that editing the description of one photo only rebinds that photo.
+     */
+    @Test
+    public void editedDescription_onlyRebindsItsPhoto() {
+        // GIVEN - The photos displayed before the edit
+        List<Photo> before = createPhotos();
+
+        // WHEN - The description of the second photo is edited
+        List<Photo> after = createPhotos();
+        after.get(1).description = "Renovated kitchen";
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PhotoAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - Only the second photo is rebound; nothing is inserted, removed or moved
+        assertEquals(Arrays.asList(1), callback.changed);
+        assertEquals(0, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that a generated thumbnail rebinds its photo, so the carousel switches to it.
+     */
+    @Test
+    public void generatedThumbnail_onlyRebindsItsPhoto() {
+        // GIVEN - The photos displayed before their thumbnails exist
+        List<Photo> before = createPhotos();
+
+        // WHEN - The thumbnails of the third photo are generated
+        List<Photo> after = createPhotos();
+        after.get(2).listThumbnailUri = "file://thumbnails/3_list.jpg";
+        after.get(2).detailThumbnailUri = "file://thumbnails/3_detail.jpg";
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PhotoAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - Only the third photo is rebound
+        assertEquals(Arrays.asList(2), callback.changed);
+        assertEquals(0, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that removing a photo doesn't rebind the others.
+     */
+    @Test
+    public void removedPhoto_doesNotRebindOtherPhotos() {
+        // GIVEN - The photos displayed before a removal
+        List<Photo> before = createPhotos();
+
+        // WHEN - The first photo is removed
+        List<Photo> after = createPhotos();
+        after.remove(0);
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PhotoAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - One removal and no rebinding
+        assertEquals(0, callback.changed.size());
+        assertEquals(1, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that removing one of two saved photos of the same picture removes that photo,
+     * instead of rebinding the other one in its place.
+     */
+    @Test
+    public void removedDuplicatePicture_removesThatPhoto() {
+        // GIVEN - Two saved photos sharing the URI of the same picture
+        List<Photo> before = new ArrayList<>(Arrays.asList(
+                createPhoto(1, "file://photos/1.jpg", "Facade"),
+                createPhoto(2, "file://photos/1.jpg", "Facade at night")));
+
+        // WHEN - The first one is removed
+        List<Photo> after = new ArrayList<>(Arrays.asList(createPhoto(2, "file://photos/1.jpg", "Facade at night")));
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PhotoAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - One removal, and the remaining photo isn't rebound
+        assertEquals(0, callback.changed.size());
+        assertEquals(1, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that adding the same picture twice, before saving, inserts a second photo.
+     */
+    @Test
+    public void samePictureAddedTwice_isInsertedAsItsOwnPhoto() {
+        // GIVEN - A photo being added, not saved yet
+        Photo first = new Photo("file://photos/1.jpg", "Facade");
+        List<Photo> before = new ArrayList<>(Arrays.asList(first));
+
+        // WHEN - The same picture is added again
+        List<Photo> after = new ArrayList<>(Arrays.asList(first, new Photo("file://photos/1.jpg", "Facade")));
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PhotoAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - One insertion, and the first photo isn't rebound
+        assertEquals(0, callback.changed.size());
+        assertEquals(1, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that saving an edited property keeps the row IDs of its photos, so the carousel only rebinds
+     * the edited photo instead of reloading every image.
+     */
+    @Test
+    public void savedEdit_onlyRebindsTheEditedPhoto() throws InterruptedException {
+        PropertyDatabase database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(),
+                PropertyDatabase.class).allowMainThreadQueries().build();
+        try {
+            // GIVEN - A stored property with four photos, as displayed by the detail screen
+            PropertyDao dao = database.propertyDao();
+            Property property = new Property("House", 450000, 180, 5, 2, 3, "Description",
+                    new Address("10th Street", "Los Angeles", "CA", "90001", "USA"),
+                    new ArrayList<>(Arrays.asList(
+                            new Photo("file://photos/1.jpg", "Facade"),
+                            new Photo("file://photos/2.jpg", "Kitchen"),
+                            new Photo("file://photos/3.jpg", "Living room"),
+                            new Photo("file://photos/4.jpg", "Garden"))),
+                    new ArrayList<>(), false, new Date(), null, "Agent");
+            int id = (int) dao.insertWithDetails(property);
+            Property stored = LiveDataTestUtil.getValue(dao.getPropertyById(id)).toProperty();
+            List<Photo> before = stored.photos;
+
+            // WHEN - The edit screen receives the property in a Parcel, edits one description and saves it
+            Parcel parcel = Parcel.obtain();
+            stored.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            Property edited = Property.CREATOR.createFromParcel(parcel);
+            parcel.recycle();
+            edited.photos.get(1).description = "Renovated kitchen";
+            dao.updateWithDetails(edited);
+            List<Photo> after = LiveDataTestUtil.getValue(dao.getPropertyById(id)).toProperty().photos;
+            DiffRecorder callback = DiffRecorder.dispatchDiff(PhotoAdapter.DIFF_CALLBACK, before, after);
+
+            // THEN - Only the second photo is rebound; nothing is inserted, removed or moved
+            assertEquals(Arrays.asList(1), callback.changed);
+            assertEquals(0, callback.structuralChanges);
+        } finally {
+            database.close();
+        }
+    }
+
+    /**
+     * Creates four photos as freshly read from the database (new instances on each call).
+     */
+    private List<Photo> createPhotos() {
+        return new ArrayList<>(Arrays.asList(
+                createPhoto(1, "file://photos/1.jpg", "Facade"),
+                createPhoto(2, "file://photos/2.jpg", "Kitchen"),
+                createPhoto(3, "file://photos/3.jpg", "Living room"),
+                createPhoto(4, "file://photos/4.jpg", "Garden")));
+    }
+
+    /**
+     * Creates a saved photo, with its row ID.
+     */
+    private static Photo createPhoto(long id, String uri, String description) {
+        Photo photo = new Photo(uri, description);
+        photo.id = id;
+        return photo;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.openclassrooms.realestatemanager.view.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.paging.AsyncPagingDataDiffer;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.realestatemanager.LiveDataTestUtil;
+import com.openclassrooms.realestatemanager.model.dao.PropertyDao;
+import com.openclassrooms.realestatemanager.model.database.PropertyDatabase;
+import com.openclassrooms.realestatemanager.model.entity.Address;
+import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import kotlin.coroutines.CoroutineContext;
+import kotlinx.coroutines.Dispatchers;
+
+/**
+ * Unit tests for the diffing of PropertyAdapter.
+ * Verifies that a new page of rows only rebinds the rows whose displayed content changed.
+ * <p>
+ * Most tests run {@link PropertyAdapter#DIFF_CALLBACK} on rows built by hand. One saves an update
+ * through PropertyDao on an in-memory database and follows it through the Room paging source to an
+ * AsyncPagingDataDiffer, as the adapter receives it. Runs on Robolectric for Room and the main looper.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PropertyAdapterDiffTest implements LifecycleOwner {
+
+    // Same paging settings as PropertyRepository
+    private static final PagingConfig PAGING_CONFIG = new PagingConfig(30, 15, false, 60, 150);
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    // Lifecycle of the pages submitted to the differ, as the fragment's view lifecycle
+    private final LifecycleRegistry lifecycle = new LifecycleRegistry(this);
+
+    @NonNull
+    @Override
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     * Tests that a page re-read after one property was updated only rebinds its row.
+     */
+    @Test
+    public void updatedProperty_onlyRebindsItsRow() {
+        // GIVEN - The rows displayed before the update
+        List<PropertySummary> before = createRows();
+
+        // WHEN - The same rows are emitted again after the price of the third property was updated
+        List<PropertySummary> after = createRows();
+        after.get(2).price = 525000;
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PropertyAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - Only the third row is rebound; nothing is inserted, removed or moved
+        assertEquals(Arrays.asList(2), callback.changed);
+        assertEquals(0, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that emitting identical rows (e.g. after an update that doesn't touch the list columns)
+     * rebinds nothing, so images are not reloaded.
+     */
+    @Test
+    public void unchangedRows_rebindNothing() {
+        // GIVEN - The rows displayed before and after an unrelated update
+        List<PropertySummary> before = createRows();
+        List<PropertySummary> after = createRows();
+
+        // WHEN - Diffing the two emissions
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PropertyAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - No row is rebound
+        assertEquals(0, callback.changed.size());
+        assertEquals(0, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that a new property is inserted without rebinding the existing rows.
+     */
+    @Test
+    public void insertedProperty_doesNotRebindOtherRows() {
+        // GIVEN - The rows displayed before a property is added
+        List<PropertySummary> before = createRows();
+
+        // WHEN - A new property appears at the end of the list
+        List<PropertySummary> after = createRows();
+        after.add(new PropertySummary(6, "Loft", 320000, "Boston", "USA", null));
+        DiffRecorder callback = DiffRecorder.dispatchDiff(PropertyAdapter.DIFF_CALLBACK, before, after);
+
+        // THEN - One insertion and no rebinding of existing rows
+        assertEquals(0, callback.changed.size());
+        assertEquals(1, callback.structuralChanges);
+    }
+
+    /**
+     * Tests that saving an updated property through the DAO only rebinds its row in the paged list,
+     * once Room invalidates the paging source and the new page is diffed.
+     */
+    @Test
+    public void savedUpdate_onlyRebindsItsRowInThePagedList() throws InterruptedException {
+        PropertyDatabase database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(),
+                PropertyDatabase.class).allowMainThreadQueries().build();
+        lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+        DiffRecorder callback = new DiffRecorder();
+        CoroutineContext mainDispatcher = Dispatchers.getMain();
+        AsyncPagingDataDiffer<PropertySummary> differ = new AsyncPagingDataDiffer<>(
+                PropertyAdapter.DIFF_CALLBACK, callback, mainDispatcher, mainDispatcher);
+        LiveData<PagingData<PropertySummary>> pages = PagingLiveData.getLiveData(
+                new Pager<>(PAGING_CONFIG, database.propertyDao()::getPropertySummariesPaged));
+        Observer<PagingData<PropertySummary>> observer = pagingData -> differ.submitData(lifecycle, pagingData);
+        try {
+            // GIVEN - Five stored properties, displayed by the paged list
+            PropertyDao dao = database.propertyDao();
+            List<Integer> ids = new ArrayList<>();
+            for (PropertySummary row : createRows()) {
+                ids.add((int) dao.insertWithDetails(new Property(row.type, row.price, 100, 4, 1, 2, "Description",
+                        new Address("Street", row.city, "CA", "00000", row.country),
+                        new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Agent")));
+            }
+            pages.observeForever(observer);
+            shadowOf(Looper.getMainLooper()).idle();
+            assertEquals(5, differ.getItemCount());
+            callback.clear();
+
+            // WHEN - The price of the third property is updated and saved
+            Property property = LiveDataTestUtil.getValue(dao.getPropertyById(ids.get(2))).toProperty();
+            property.price = 525000;
+            dao.updateWithDetails(property);
+            shadowOf(Looper.getMainLooper()).idle();
+
+            // THEN - Only the third row is rebound; nothing is inserted, removed or moved
+            assertEquals(525000, differ.snapshot().getItems().get(2).price, 0);
+            assertEquals(Arrays.asList(2), callback.changed);
+            assertEquals(0, callback.structuralChanges);
+        } finally {
+            pages.removeObserver(observer);
+            lifecycle.setCurrentState(Lifecycle.State.DESTROYED);
+            database.close();
+        }
+    }
+
+    /**
+     * Creates five rows as freshly read from the database (new instances on each call).
+     */
+    private List<PropertySummary> createRows() {
+        return new ArrayList<>(Arrays.asList(
+                new PropertySummary(1, "House", 450000, "Los Angeles", "USA", "uri://1"),
+                new PropertySummary(2, "Apartment", 300000, "New York", "USA", "uri://2"),
+                new PropertySummary(3, "Penthouse", 500000, "San Francisco", "USA", "uri://3"),
+                new PropertySummary(4, "Studio", 150000, "Chicago", "USA", null),
+                new PropertySummary(5, "Villa", 800000, "Miami", "USA", "uri://5")));
+    }
+
+}
\ No newline at end of file
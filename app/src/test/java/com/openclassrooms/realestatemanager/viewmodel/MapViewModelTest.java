@@ -3,9 +3,9 @@ package com.openclassrooms.realestatemanager.viewmodel;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 
@@ -23,10 +23,6 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.IOException;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 /**
  * Unit tests for the MapViewModel class.
  * This class tests fetching coordinates based on an address using the MapRepository.
@@ -39,9 +35,6 @@ public class MapViewModelTest {
     @Mock
     private MapRepository mapRepository;
 
-    @Mock
-    private Call<NominatimResponse[]> mockCall;
-
     @Rule
     public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
 
@@ -69,17 +62,12 @@ public class MapViewModelTest {
         mockResponse.lat = 37.422;
         mockResponse.lon = -122.084;
 
-        NominatimResponse[] responseArray = new NominatimResponse[]{mockResponse};
-        Response<NominatimResponse[]> successResponse = Response.success(responseArray);
-
-        when(mapRepository.fetchCoordinatesForAddress(address)).thenReturn(mockCall);
-
-        // Simulate a successful API response
+        // Simulate a successful lookup
         doAnswer(invocation -> {
-            Callback<NominatimResponse[]> callback = invocation.getArgument(0);
-            callback.onResponse(mockCall, successResponse);
+            MapRepository.GeocodeCallback callback = invocation.getArgument(1);
+            callback.onResult(mockResponse);
             return null;
-        }).when(mockCall).enqueue(any());
+        }).when(mapRepository).fetchCoordinatesForAddress(eq(address), any());
 
         // WHEN - Calling fetchCoordinates()
         viewModel.fetchCoordinates(address);
@@ -89,7 +77,7 @@ public class MapViewModelTest {
         assertNotNull(result);
         assertEquals(37.422, result.lat, 0.0001);
         assertEquals(-122.084, result.lon, 0.0001);
-        verify(mapRepository).fetchCoordinatesForAddress(address);
+        verify(mapRepository).fetchCoordinatesForAddress(eq(address), any());
     }
 
     /**
@@ -100,16 +88,13 @@ public class MapViewModelTest {
     public void fetchCoordinates_noDataFound() throws InterruptedException {
         // GIVEN - A response with no data
         String address = "Invalid Address";
-        Response<NominatimResponse[]> emptyResponse = Response.success(new NominatimResponse[0]);
-
-        when(mapRepository.fetchCoordinatesForAddress(address)).thenReturn(mockCall);
 
-        // Simulate an API response returning no results
+        // Simulate a lookup returning no results
         doAnswer(invocation -> {
-            Callback<NominatimResponse[]> callback = invocation.getArgument(0);
-            callback.onResponse(mockCall, emptyResponse);
+            MapRepository.GeocodeCallback callback = invocation.getArgument(1);
+            callback.onResult(null);
             return null;
-        }).when(mockCall).enqueue(any());
+        }).when(mapRepository).fetchCoordinatesForAddress(eq(address), any());
 
         // WHEN - Calling fetchCoordinates()
         viewModel.fetchCoordinates(address);
@@ -118,7 +103,7 @@ public class MapViewModelTest {
         // THEN - Verify that the correct error message is set
         assertNotNull(errorMessage);
         assertEquals("No data found for the given address", errorMessage);
-        verify(mapRepository).fetchCoordinatesForAddress(address);
+        verify(mapRepository).fetchCoordinatesForAddress(eq(address), any());
     }
 
     /**
@@ -131,14 +116,12 @@ public class MapViewModelTest {
         String address = "Some Address";
         String errorMsg = "Network failure";
 
-        when(mapRepository.fetchCoordinatesForAddress(address)).thenReturn(mockCall);
-
-        // Simulate an API call failure due to network issues
+        // Simulate a lookup failure due to network issues
         doAnswer(invocation -> {
-            Callback<NominatimResponse[]> callback = invocation.getArgument(0);
-            callback.onFailure(mockCall, new IOException(errorMsg));
+            MapRepository.GeocodeCallback callback = invocation.getArgument(1);
+            callback.onError(new IOException(errorMsg));
             return null;
-        }).when(mockCall).enqueue(any());
+        }).when(mapRepository).fetchCoordinatesForAddress(eq(address), any());
 
         // WHEN - Calling fetchCoordinates()
         viewModel.fetchCoordinates(address);
@@ -147,6 +130,6 @@ public class MapViewModelTest {
         // THEN - Verify that the correct error message is set
         assertNotNull(errorMessage);
         assertEquals("Error: " + errorMsg, errorMessage);
-        verify(mapRepository).fetchCoordinatesForAddress(address);
+        verify(mapRepository).fetchCoordinatesForAddress(eq(address), any());
     }
 }
\ No newline at end of file
@@ -1,15 +1,22 @@
 package com.openclassrooms.realestatemanager.viewmodel;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
 
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.paging.PagingData;
 
-import com.openclassrooms.realestatemanager.LiveDataTestUtil;
-import com.openclassrooms.realestatemanager.model.entity.Address;
-import com.openclassrooms.realestatemanager.model.entity.Property;
+import com.openclassrooms.realestatemanager.model.entity.PropertySummary;
 import com.openclassrooms.realestatemanager.model.entity.SearchCriteria;
 import com.openclassrooms.realestatemanager.repository.PropertyRepository;
 
@@ -19,19 +26,21 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.mockito.junit.MockitoJUnitRunner;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 
 /**
  * Unit tests for the PropertyListViewModel class.
- * This class verifies the retrieval, filtering, and reset functionality for properties.
+ * This class verifies that the paged list follows the search criteria: all properties without criteria,
+ * the matching ones once a search is applied, and all of them again after a reset.
+ * Runs on Robolectric, whose main looper serves the coroutine scope caching the pages.
  */
-@RunWith(MockitoJUnitRunner.class)
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
 public class PropertyListViewModelTest {
 
     private PropertyListViewModel viewModel;
@@ -42,108 +51,101 @@ public class PropertyListViewModelTest {
     @Rule
     public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
 
-    private MutableLiveData<List<Property>> allPropertiesLiveData;
-    private MutableLiveData<List<Property>> filteredPropertiesLiveData;
+    // PagingData emitted by the paged list of the ViewModel
+    private final List<PagingData<PropertySummary>> emitted = new ArrayList<>();
 
     /**
      * Sets up the test environment before each test.
-     * Initializes the mocked PropertyRepository and ViewModel instance.
+     * The mocked repository returns a new single-page stream on each call, as the real Pager does.
      */
     @Before
     public void setUp() {
         MockitoAnnotations.openMocks(this);
 
-        // Simulate LiveData for all properties
-        allPropertiesLiveData = new MutableLiveData<>();
-        filteredPropertiesLiveData = new MutableLiveData<>();
-
-        when(propertyRepository.getAllProperties()).thenReturn(allPropertiesLiveData);
+        when(propertyRepository.getPagedProperties()).thenAnswer(invocation -> createPage(
+                new PropertySummary(1, "House", 450000, "Los Angeles", "USA", null),
+                new PropertySummary(2, "Apartment", 300000, "New York", "USA", null)));
+        when(propertyRepository.searchPropertiesPaged(any())).thenAnswer(invocation -> createPage(
+                new PropertySummary(3, "Penthouse", 900000, "San Francisco", "USA", null)));
 
         viewModel = new PropertyListViewModel(propertyRepository);
     }
 
     /**
-     * Tests `getAllProperties()` - Ensures that all properties are correctly retrieved.
+     * Tests `getPagedProperties()` - Ensures that all properties are paged when no search is applied.
      */
     @Test
-    public void getAllProperties_returnsAllProperties() throws InterruptedException {
-        // GIVEN - A simulated list of properties
-        List<Property> properties = Arrays.asList(
-                new Property("House", 450000, 180, 5, 2, 3,
-                        "Beautiful house with garden",
-                        new Address("10th Street", "Los Angeles", "CA", "90001", "USA"),
-                        new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Alice Smith"),
-                new Property("Apartment", 300000, 100, 4, 1, 2,
-                        "Nice apartment in downtown",
-                        new Address("5th Avenue", "New York", "NY", "10001", "USA"),
-                        new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "John Doe")
-        );
-
-        allPropertiesLiveData.setValue(properties);
-
-        // WHEN - Retrieving the list via ViewModel
-        List<Property> result = LiveDataTestUtil.getValue(viewModel.getAllProperties());
-
-        // THEN - Verify that the correct properties are returned
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("House", result.get(0).type);
-        assertEquals("Apartment", result.get(1).type);
+    public void getPagedProperties_withoutCriteria_pagesAllProperties() {
+        // WHEN - Observing the paged list
+        observePagedProperties();
+
+        // THEN - The unfiltered stream is paged
+        verify(propertyRepository).getPagedProperties();
+        verify(propertyRepository, never()).searchPropertiesPaged(any());
+        assertFalse(emitted.isEmpty());
     }
 
     /**
-     * Tests `searchProperties()` - Ensures that properties are correctly filtered based on search criteria.
+     * Tests `getPagedProperties()` - Ensures that the cached stream is shared, so it survives configuration changes.
      */
     @Test
-    public void searchProperties_appliesFilter() throws InterruptedException {
-        // GIVEN - A simulated filtered property list
-        List<Property> filteredProperties = Collections.singletonList(
-                new Property("Penthouse", 900000, 200, 6, 3, 4,
-                        "Luxury penthouse with skyline view",
-                        new Address("Main Street", "San Francisco", "CA", "94101", "USA"),
-                        new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Luxury Realty")
-        );
+    public void getPagedProperties_returnsTheSameStream() {
+        // WHEN - Getting the paged list twice, as a recreated fragment does
+        LiveData<PagingData<PropertySummary>> first = viewModel.getPagedProperties();
+        LiveData<PagingData<PropertySummary>> second = viewModel.getPagedProperties();
 
-        SearchCriteria criteria = new SearchCriteria(500000, 1000000, 150, 300, 3, 0, null);
+        // THEN - Both are the same cached stream
+        assertSame(first, second);
+    }
 
-        when(propertyRepository.searchProperties(criteria)).thenReturn(filteredPropertiesLiveData);
-        filteredPropertiesLiveData.setValue(filteredProperties);
+    /**
+     * Tests `searchProperties()` - Ensures that the matching properties are paged once criteria are applied.
+     */
+    @Test
+    public void searchProperties_pagesMatchingProperties() {
+        // GIVEN - The paged list is observed
+        observePagedProperties();
+        SearchCriteria criteria = new SearchCriteria(500000, 1000000, 150, 300, 3, 0, null);
 
         // WHEN - Applying search criteria
         viewModel.searchProperties(criteria);
-        List<Property> result = LiveDataTestUtil.getValue(viewModel.getFilteredProperties());
+        shadowOf(Looper.getMainLooper()).idle();
 
-        // THEN - Verify that only the filtered properties are returned
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Penthouse", result.get(0).type);
+        // THEN - A new stream is paged with the criteria
+        verify(propertyRepository).searchPropertiesPaged(criteria);
+        assertFalse(emitted.isEmpty());
     }
 
     /**
-     * Tests `resetSearch()` - Ensures that all properties are displayed again after resetting the search filter.
+     * Tests `resetSearch()` - Ensures that all properties are paged again after resetting the search filter.
      */
     @Test
-    public void resetSearch_displaysAllPropertiesAgain() throws InterruptedException {
-        // GIVEN - Two scenarios: filtered properties, then resetting
-        List<Property> properties = Arrays.asList(
-                new Property("House", 450000, 180, 5, 2, 3,
-                        "Beautiful house with garden",
-                        new Address("10th Street", "Los Angeles", "CA", "90001", "USA"),
-                        new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "Alice Smith"),
-                new Property("Apartment", 300000, 100, 4, 1, 2,
-                        "Nice apartment in downtown",
-                        new Address("5th Avenue", "New York", "NY", "10001", "USA"),
-                        new ArrayList<>(), new ArrayList<>(), false, new Date(), null, "John Doe")
-        );
-
-        allPropertiesLiveData.setValue(properties);
+    public void resetSearch_pagesAllPropertiesAgain() {
+        // GIVEN - A search applied to the observed paged list
+        observePagedProperties();
+        viewModel.searchProperties(new SearchCriteria(500000, 1000000, 150, 300, 3, 0, null));
+        shadowOf(Looper.getMainLooper()).idle();
 
         // WHEN - Resetting the search filter
         viewModel.resetSearch();
-        List<Property> result = LiveDataTestUtil.getValue(viewModel.getFilteredProperties());
+        shadowOf(Looper.getMainLooper()).idle();
 
-        // THEN - Verify that all properties are displayed again
-        assertNotNull(result);
-        assertEquals(2, result.size());
+        // THEN - The unfiltered stream is paged again
+        verify(propertyRepository, times(2)).getPagedProperties();
+    }
+
+    /**
+     * Observes the paged list of the ViewModel and runs the main looper until it emits.
+     */
+    private void observePagedProperties() {
+        viewModel.getPagedProperties().observeForever(emitted::add);
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * Creates a stream emitting a single page of property summaries.
+     */
+    private static LiveData<PagingData<PropertySummary>> createPage(PropertySummary... summaries) {
+        return new MutableLiveData<>(PagingData.from(Arrays.asList(summaries)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+#!/usr/bin/env python3
+"""Builds app/src/main/assets/gazetteer.bin from gazetteer.csv.
+
+File layout (big-endian), read by com.openclassrooms.realestatemanager.model.geo.Gazetteer:
+  header  : magic "GZT1", int32 record count, int32 key length
+  records : key (ASCII, zero-padded to the key length), float32 latitude, float32 longitude
+Records are sorted by key bytes so the app can binary-search the memory-mapped file.
+"""
+import os
+import re
+import struct
+
+KEY_LENGTH = 32
+HERE = os.path.dirname(os.path.abspath(__file__))
+OUTPUT = os.path.join(HERE, "..", "..", "app", "src", "main", "assets", "gazetteer.bin")
+
+
+def normalize(text):
+    """Same normalization as Gazetteer.normalize: lowercase letters, digits, single spaces and '|'."""
+    text = re.sub(r"[^a-z0-9| ]", " ", text.lower())
+    return "|".join(re.sub(r"\s+", " ", part).strip() for part in text.split("|"))
+
+
+def main():
+    records = {}
+    with open(os.path.join(HERE, "gazetteer.csv")) as source:
+        for line in source:
+            if not line.strip() or line.startswith("#"):
+                continue
+            key, lat, lon = line.strip().rsplit(",", 2)
+            key = normalize(key).encode("ascii")
+            if len(key) > KEY_LENGTH:
+                raise ValueError("Key too long: %s" % key)
+            records[key] = (float(lat), float(lon))
+
+    with open(OUTPUT, "wb") as out:
+        out.write(b"GZT1")
+        out.write(struct.pack(">ii", len(records), KEY_LENGTH))
+        for key in sorted(records):
+            out.write(key.ljust(KEY_LENGTH, b"\0"))
+            out.write(struct.pack(">ff", *records[key]))
+    print("%d records written to %s" % (len(records), os.path.normpath(OUTPUT)))
+
+
+if __name__ == "__main__":
+    main()